@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Сравнивает результаты JMH двух сборок и завершается с ошибкой, если какой-либо бенчмарк замедлился
+# больше допустимого порога. Требует jq.
+#
+# Использование:
+#   ./mvnw -P benchmarks test-compile exec:exec
+#   ./scripts/compare-benchmarks.sh baseline.json target/jmh-0.0.1-SNAPSHOT.json
+#
+# Параметры через переменные окружения:
+#   THRESHOLD - допустимое замедление в процентах (по умолчанию 10)
+set -euo pipefail
+
+if [ $# -ne 2 ]; then
+  echo "Использование: $0 <baseline.json> <current.json>" >&2
+  exit 2
+fi
+
+THRESHOLD=${THRESHOLD:-10}
+
+# Ключ результата: имя бенчмарка и значения @Param; все бенчмарки измеряют среднее время (меньше - лучше)
+scores() {
+  jq -r '.[] | [((.benchmark | sub("^ru\\.semavin\\.microservice\\.benchmarks\\."; "")) + ((.params // {}) | to_entries | map(":" + .key + "=" + .value) | join(""))),
+               .primaryMetric.score, .primaryMetric.scoreUnit] | @tsv' "$1" | sort
+}
+
+join -t $'\t' <(scores "$1") <(scores "$2") | awk -F '\t' -v threshold="$THRESHOLD" '
+  BEGIN { printf "%-70s %14s %14s %9s\n", "Бенчмарк", "Было", "Стало", "Δ, %" }
+  {
+    change = ($4 - $2) / $2 * 100
+    mark = change > threshold ? "  <-- регрессия" : ""
+    printf "%-70s %11.3f %-2s %11.3f %-2s %+8.1f%s\n", $1, $2, $3, $4, $5, change, mark
+    if (change > threshold) regressions++
+  }
+  END {
+    if (regressions > 0) {
+      printf "Замедлились больше чем на %s%%: %d\n", threshold, regressions
+      exit 1
+    }
+  }'
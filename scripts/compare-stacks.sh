@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Сравнивает масштабирование сервлетной (Tomcat + JPA) и реактивной (WebFlux + R2DBC) реализаций API подписок
+# на нескольких уровнях параллелизма. Требует запущенный PostgreSQL с пользователем ID 1
+# (например, docker-compose up db и POST /api/v1/users в сервлетном режиме).
+#
+# Параметры через переменные окружения:
+#   URL_PATH     - нагружаемый endpoint (по умолчанию /api/v1/users/1/subscriptions)
+#   LEVELS       - уровни параллелизма через пробел (по умолчанию "100 1000 5000 10000")
+#   DURATION     - длительность измерения на каждом уровне в секундах (по умолчанию 30)
+#   WARMUP       - длительность прогрева в секундах (по умолчанию 10)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+URL_PATH=${URL_PATH:-/api/v1/users/1/subscriptions}
+LEVELS=${LEVELS:-"100 1000 5000 10000"}
+DURATION=${DURATION:-30}
+WARMUP=${WARMUP:-10}
+PORT=${PORT:-8080}
+RESULTS=target/stack-comparison.csv
+
+./mvnw -q -DskipTests package test-compile
+JAR=$(ls target/microservice-*.jar | grep -v original | head -1)
+rm -f "$RESULTS"
+ulimit -n 65536 2> /dev/null || echo "Не удалось поднять лимит файловых дескрипторов, большие уровни могут упасть" >&2
+
+run_stack() {
+  local label=$1 profile=$2 log="target/app-$1.log"
+  java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profile" \
+      --spring.jpa.show-sql=false --server.tomcat.max-connections=20000 > "$log" 2>&1 &
+  local pid=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "Приложение ($label) не запустилось, см. $log" >&2
+      exit 1
+    fi
+    sleep 1
+  done
+
+  for level in $LEVELS; do
+    java -cp target/test-classes ru.semavin.microservice.load.HttpLoadGenerator \
+        --url="http://localhost:$PORT$URL_PATH" --concurrency="$level" \
+        --duration="$DURATION" --warmup="$WARMUP" --label="$label" --output="$RESULTS"
+  done
+  if [ -d "/proc/$pid/task" ]; then
+    echo "Потоков в JVM ($label) после нагрузки: $(ls "/proc/$pid/task" | wc -l)"
+  fi
+
+  kill "$pid"
+  wait "$pid" || true
+}
+
+run_stack servlet default
+run_stack reactive reactive
+
+echo
+column -t -s, "$RESULTS"
@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Сравнивает пропускную способность и p99 приложения в режиме платформенных и виртуальных потоков.
+# Требует JDK 21+ и запущенный PostgreSQL (например, docker-compose up db).
+#
+# Параметры через переменные окружения:
+#   URL_PATH     - нагружаемый endpoint (по умолчанию /api/v1/users/1/subscriptions)
+#   CONCURRENCY  - число одновременных соединений (по умолчанию 1000)
+#   DURATION     - длительность измерения в секундах (по умолчанию 60)
+#   WARMUP       - длительность прогрева в секундах (по умолчанию 10)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+URL_PATH=${URL_PATH:-/api/v1/users/1/subscriptions}
+CONCURRENCY=${CONCURRENCY:-1000}
+DURATION=${DURATION:-60}
+WARMUP=${WARMUP:-10}
+PORT=${PORT:-8080}
+RESULTS=target/threading-comparison.csv
+
+./mvnw -q -DskipTests package test-compile
+JAR=$(ls target/microservice-*.jar | grep -v original | head -1)
+rm -f "$RESULTS"
+
+run_mode() {
+  local label=$1 profile=$2 log="target/app-$1.log"
+  java -Djdk.tracePinnedThreads=short -jar "$JAR" --server.port="$PORT" \
+      --spring.profiles.active="$profile" --spring.jpa.show-sql=false > "$log" 2>&1 &
+  local pid=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "Приложение ($label) не запустилось, см. $log" >&2
+      exit 1
+    fi
+    sleep 1
+  done
+
+  java -cp target/test-classes ru.semavin.microservice.load.HttpLoadGenerator \
+      --url="http://localhost:$PORT$URL_PATH" --concurrency="$CONCURRENCY" \
+      --duration="$DURATION" --warmup="$WARMUP" --label="$label" --output="$RESULTS"
+
+  kill "$pid"
+  wait "$pid" || true
+  # jdk.tracePinnedThreads печатает стек для каждого закрепления виртуального потока на несущем
+  PINNED=$(grep -c 'reason:\|<== monitors' "$log" || true)
+  echo "Закреплений виртуальных потоков ($label): $PINNED"
+}
+
+run_mode platform default
+run_mode virtual virtual-threads
+VIRTUAL_PINNED=$PINNED
+
+echo
+column -t -s, "$RESULTS"
+
+if [ "$VIRTUAL_PINNED" -gt 0 ]; then
+  echo "Виртуальные потоки закреплялись на несущих $VIRTUAL_PINNED раз, стеки в target/app-virtual.log" >&2
+  exit 1
+fi
@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Поднимает две локальные потоковые реплики PostgreSQL для профиля replicas (порты 5433 и 5434).
+# Требует локальный основной сервер на 5432, разрешающий подключения replication (pg_hba.conf),
+# и утилиты PostgreSQL (pg_basebackup, pg_ctl) в PATH.
+#
+# Параметры через переменные окружения:
+#   PRIMARY_PORT  - порт основного сервера (по умолчанию 5432)
+#   PGUSER        - пользователь с правом REPLICATION (по умолчанию postgres)
+#   PGPASSWORD    - его пароль (по умолчанию 1234)
+#   REPLICAS_DIR  - каталог данных реплик (по умолчанию target/replicas)
+#
+# Остановка: scripts/start-replicas.sh stop
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PRIMARY_PORT=${PRIMARY_PORT:-5432}
+export PGUSER=${PGUSER:-postgres}
+export PGPASSWORD=${PGPASSWORD:-1234}
+REPLICAS_DIR=${REPLICAS_DIR:-target/replicas}
+PORTS=(5433 5434)
+
+if [[ "${1:-start}" == "stop" ]]; then
+  for port in "${PORTS[@]}"; do
+    pg_ctl -D "$REPLICAS_DIR/$port" stop -m fast || true
+  done
+  exit 0
+fi
+
+mkdir -p "$REPLICAS_DIR"
+for port in "${PORTS[@]}"; do
+  dir="$REPLICAS_DIR/$port"
+  if [[ ! -f "$dir/standby.signal" ]]; then
+    rm -rf "$dir"
+    # -R пишет standby.signal и primary_conninfo: реплика сама подключается к основному серверу
+    pg_basebackup -h localhost -p "$PRIMARY_PORT" -D "$dir" -R -X stream -c fast
+    chmod 700 "$dir"
+  fi
+  pg_ctl -D "$dir" -o "-p $port" -l "$REPLICAS_DIR/$port.log" -w start
+done
+
+echo "Реплики запущены на портах ${PORTS[*]}, отставание:"
+for port in "${PORTS[@]}"; do
+  psql -h localhost -p "$port" -d microservice_db -Atc \
+      "SELECT '$port: ' || COALESCE(now() - pg_last_xact_replay_timestamp(), interval '0')"
+done
@@ -0,0 +1,87 @@
+package ru.semavin.microservice.benchmarks;
+
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.UserDTO;
+import ru.semavin.microservice.models.ServiceCatalogEntry;
+import ru.semavin.microservice.models.Subscription;
+import ru.semavin.microservice.models.User;
+import ru.semavin.microservice.repositrories.ServiceCatalogRepository;
+import ru.semavin.microservice.services.ServiceNameDictionary;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Детерминированные тестовые данные для бенчмарков.
+ */
+final class BenchmarkData {
+    private static final String[] SERVICES = {"Netflix", "YouTube Premium", "Яндекс.Плюс", "Okko", "Кинопоиск", "VK Музыка"};
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private BenchmarkData() {}
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .name("Пользователь " + id)
+                .email("user" + id + "@example.com")
+                .createdAt(CREATED_AT)
+                .build();
+    }
+
+    static UserDTO userDTO(long id) {
+        return new UserDTO(id, "Пользователь " + id, "user" + id + "@example.com");
+    }
+
+    static Subscription subscription(long id, User user) {
+        return Subscription.builder()
+                .id(id)
+                .user(user)
+                .serviceId((int) (id % SERVICES.length) + 1)
+                .notificationEnabled(id % 2 == 0)
+                .createdAt(CREATED_AT)
+                .build();
+    }
+
+    /**
+     * Словарь, загруженный из справочника с сервисами {@code SERVICES} под ID с 1.
+     */
+    static ServiceNameDictionary serviceNameDictionary() {
+        List<ServiceCatalogEntry> entries = new ArrayList<>(SERVICES.length);
+        for (int i = 0; i < SERVICES.length; i++) {
+            entries.add(new ServiceCatalogEntry(i + 1, SERVICES[i]));
+        }
+        ServiceCatalogRepository repository = Mockito.mock(ServiceCatalogRepository.class);
+        Mockito.when(repository.findAll()).thenReturn(entries);
+        ServiceNameDictionary dictionary = new ServiceNameDictionary(repository,
+                Mockito.mock(PlatformTransactionManager.class));
+        dictionary.load();
+        return dictionary;
+    }
+
+    static SubscriptionDTO subscriptionDTO(long id, long userId) {
+        return new SubscriptionDTO(id, userId, SERVICES[(int) (id % SERVICES.length)], id % 2 == 0);
+    }
+
+    static List<UserDTO> userDTOs(int size) {
+        List<UserDTO> users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            users.add(userDTO(id));
+        }
+        return users;
+    }
+
+    static List<SubscriptionDTO> subscriptionDTOs(int size) {
+        List<SubscriptionDTO> subscriptions = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            subscriptions.add(subscriptionDTO(id, 1L + id / 10));
+        }
+        return subscriptions;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.semavin.microservice.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.semavin.microservice.util.ExceptionFactory;
+import ru.semavin.microservice.util.exceptions.InvalidRequestParameterException;
+import ru.semavin.microservice.util.exceptions.SubscriptionNotBelongToUserException;
+import ru.semavin.microservice.util.exceptions.SubscriptionNotFoundException;
+import ru.semavin.microservice.util.exceptions.UserNotFoundException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Создание исключений через {@link ExceptionFactory}: форматирование сообщения и заполнение стека.
+ * <p>
+ * Логирование в форках отключено ({@code logback-benchmarks.xml}), поэтому в результат не входит
+ * стоимость вывода предупреждений.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionFactoryBenchmark {
+    private long id = 42L;
+
+    @Benchmark
+    public UserNotFoundException userNotFound() {
+        return ExceptionFactory.userNotFound(id);
+    }
+
+    @Benchmark
+    public SubscriptionNotFoundException subscriptionNotFound() {
+        return ExceptionFactory.subscriptionNotFound(id);
+    }
+
+    @Benchmark
+    public SubscriptionNotBelongToUserException subscriptionNotBelongToUser() {
+        return ExceptionFactory.subscriptionNotBelongToUser(id, id + 1);
+    }
+
+    @Benchmark
+    public InvalidRequestParameterException invalidParameter() {
+        return ExceptionFactory.invalidParameter("limit", id);
+    }
+}
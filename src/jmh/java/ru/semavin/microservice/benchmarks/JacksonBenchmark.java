@@ -0,0 +1,61 @@
+package ru.semavin.microservice.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.UserDTO;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов со списками пользователей и подписок в JSON.
+ * <p>
+ * {@link ObjectMapper} собирается тем же {@link Jackson2ObjectMapperBuilder}, что и в приложении,
+ * без пользовательских модулей.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<UserDTO> users;
+    private List<SubscriptionDTO> subscriptions;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        users = BenchmarkData.userDTOs(size);
+        subscriptions = BenchmarkData.subscriptionDTOs(size);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serializeSubscriptions() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(subscriptions);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.semavin.microservice.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.UserDTO;
+import ru.semavin.microservice.mapper.SubscriptionMapper;
+import ru.semavin.microservice.mapper.SubscriptionMapperImpl;
+import ru.semavin.microservice.mapper.UserMapper;
+import ru.semavin.microservice.mapper.UserMapperImpl;
+import ru.semavin.microservice.models.Subscription;
+import ru.semavin.microservice.models.User;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразования сущностей и DTO сгенерированными MapStruct-мапперами.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private final SubscriptionMapper subscriptionMapper = new SubscriptionMapperImpl(BenchmarkData.serviceNameDictionary());
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private User user;
+    private UserDTO userDTO;
+    private UserDTO patch;
+    private Subscription subscription;
+    private SubscriptionDTO subscriptionDTO;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkData.user(1L);
+        userDTO = BenchmarkData.userDTO(1L);
+        patch = new UserDTO(null, "Новое имя", null);
+        subscription = BenchmarkData.subscription(10L, user);
+        subscriptionDTO = BenchmarkData.subscriptionDTO(10L, 1L);
+    }
+
+    @Benchmark
+    public SubscriptionDTO subscriptionToDTO() {
+        return subscriptionMapper.toSubscriptionDTO(subscription);
+    }
+
+    @Benchmark
+    public Subscription subscriptionFromDTO() {
+        return subscriptionMapper.toSubscription(subscriptionDTO);
+    }
+
+    @Benchmark
+    public UserDTO userToDTO() {
+        return userMapper.userToUserDTO(user);
+    }
+
+    @Benchmark
+    public User userFromDTO() {
+        return userMapper.userDTOToUser(userDTO);
+    }
+
+    /**
+     * Частичное обновление пользователя, как в {@code UserService.updateUser}.
+     */
+    @Benchmark
+    public User updateUserFromDTO() {
+        User target = BenchmarkData.user(1L);
+        userMapper.updateUserFromDto(patch, target);
+        return target;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.semavin.microservice.benchmarks;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.semavin.microservice.dtos.SubscriptionTopDTO;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.services.ServiceNameDictionary;
+import ru.semavin.microservice.services.SubscriptionCounterStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Агрегация ТОП-N в памяти, на которой основан {@code SubscriptionService.getTopSubscriptions}.
+ * <p>
+ * {@code cachedRanking} читает уже отсортированный снимок, {@code rankingAfterUpdate} измеряет
+ * пересборку снимка после изменения счётчика — худший случай для запроса ТОП-N.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopSubscriptionsBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int services;
+
+    @Param({"10"})
+    private int limit;
+
+    private SubscriptionCounterStore counterStore;
+    private String updatedService;
+
+    @Setup
+    public void setUp() {
+        List<SubscriptionTopDTO> counts = new ArrayList<>(services);
+        for (int i = 0; i < services; i++) {
+            counts.add(new SubscriptionTopDTO("service-" + i, 1L + (i * 7919L) % 100_000));
+        }
+        SubscriptionRepository repository = Mockito.mock(SubscriptionRepository.class);
+        Mockito.when(repository.countByServiceName()).thenReturn(counts);
+        counterStore = new SubscriptionCounterStore(repository, Mockito.mock(ServiceNameDictionary.class));
+        counterStore.rebuild();
+        updatedService = "service-" + services / 2;
+    }
+
+    @Benchmark
+    public List<SubscriptionTopDTO> cachedRanking() {
+        return counterStore.top(limit);
+    }
+
+    /**
+     * Вне транзакции счётчик изменяется сразу, поэтому каждый вызов пересобирает снимок.
+     */
+    @Benchmark
+    public List<SubscriptionTopDTO> rankingAfterUpdate() {
+        counterStore.increment(updatedService);
+        return counterStore.top(limit);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.semavin.microservice.benchmarks;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.semavin.microservice.dtos.UserDTO;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation для {@link UserDTO}, выполняемая при создании и обновлении пользователя.
+ * <p>
+ * Некорректный DTO нарушает все ограничения сразу и включает интерполяцию сообщений об ошибках.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidationBenchmark {
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private UserDTO validUser;
+    private UserDTO invalidUser;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validUser = BenchmarkData.userDTO(1L);
+        invalidUser = new UserDTO(null, " ", "not-an-email");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDTO>> validUser() {
+        return validator.validate(validUser);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDTO>> invalidUser() {
+        return validator.validate(invalidUser);
+    }
+}
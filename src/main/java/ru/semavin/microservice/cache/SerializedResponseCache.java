@@ -0,0 +1,297 @@
+package ru.semavin.microservice.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.semavin.microservice.datasource.ReplicaRoutingContext;
+import ru.semavin.microservice.util.TransactionCallbacks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш готовых HTTP-ответов горячих эндпоинтов.
+ *
+ * <p>Тело ответа хранится уже сериализованным в JSON, а если оно не меньше {@code responses.cache.gzip-min-size}
+ * байт — ещё и сжатым gzip, поэтому повторные запросы не вызывают ни Jackson, ни сжатие. Запись определяется
+ * эндпоинтом и аргументом запроса.</p>
+ *
+ * <p>Запись старше {@code responses.cache.refresh-after} или помеченная устаревшей через {@link #markStale(String)}
+ * отдаётся как есть, а новая загружается в фоне, не больше одной загрузки на ключ (stale-while-revalidate):
+ * медленная база не задерживает читателей. Синхронно загружаются только отсутствующие записи и записи старше
+ * {@code responses.cache.expire-after}. {@link #invalidate(String, Object)} удаляет запись, если устаревшие данные
+ * нельзя отдать даже один раз. Оба метода срабатывают после коммита текущей транзакции.</p>
+ *
+ * <p>Отсутствующая запись загружается потоком запроса вне блокировок кэша: в кэш сначала кладётся незавершённый
+ * {@link CompletableFuture}, остальные запросы того же ключа ждут его, не занимая монитор {@link ConcurrentHashMap}
+ * и не закрепляя виртуальный поток за платформенным.</p>
+ */
+@Slf4j
+@Component
+public class SerializedResponseCache {
+    /**
+     * Ответы {@code GET /api/v1/users/{id}}, аргумент — ID пользователя.
+     */
+    public static final String USER = "users.get";
+
+    /**
+     * Ответы {@code GET /api/v1/subscriptions/top}, аргумент — {@code limit}.
+     */
+    public static final String SUBSCRIPTIONS_TOP = "subscriptions.top";
+
+    private static final String GZIP = "gzip";
+
+    /**
+     * Значение тега {@code cache.manager} метрик кэша: у метрик кэшей Spring Boot тот же набор тегов,
+     * иначе Prometheus отклоняет метрики с одинаковым именем и разными тегами.
+     */
+    static final String CACHE_MANAGER = "serializedResponseCache";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long refreshAfterNanos;
+    private final int gzipMinSize;
+    private final AsyncCache<Key, Entry> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refreshExecutor;
+
+    public SerializedResponseCache(ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${responses.cache.enabled:true}") boolean enabled,
+                                   @Value("${responses.cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${responses.cache.refresh-after:1s}") Duration refreshAfter,
+                                   @Value("${responses.cache.expire-after:5m}") Duration expireAfter,
+                                   @Value("${responses.cache.gzip-min-size:1024}") int gzipMinSize,
+                                   @Value("${responses.cache.refresh-threads:2}") int refreshThreads) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.gzipMinSize = gzipMinSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfter)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "responses", Tags.of("cache.manager", CACHE_MANAGER));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "response-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Возвращает ответ из кэша, при отсутствии — загружает, сериализует и сохраняет его.
+     *
+     * @param endpoint       эндпоинт ({@link #USER}, {@link #SUBSCRIPTIONS_TOP})
+     * @param argument       аргумент запроса, определяющий ответ
+     * @param acceptEncoding значение заголовка {@code Accept-Encoding} или {@code null}
+     * @param loader         загрузка данных ответа; исключение передаётся вызывающему и не кэшируется
+     * @param eTag           ETag для загруженных данных или {@code null}, если ответ без ETag
+     * @param <T>            тип данных ответа
+     * @return ответ 200 с JSON-телом, при поддержке клиентом — сжатым gzip
+     */
+    public <T> ResponseEntity<byte[]> get(String endpoint, Object argument, String acceptEncoding,
+                                          Supplier<T> loader, Function<? super T, String> eTag) {
+        Key key = new Key(endpoint, argument);
+        if (!enabled) {
+            return load(key, loader, eTag).toResponse(acceptsGzip(acceptEncoding));
+        }
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(load(key, loader, eTag));
+            } catch (RuntimeException e) {
+                // Завершённый с ошибкой future кэш удаляет сам
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        Entry entry = await(future);
+        if (isStale(key, entry)) {
+            refreshAsync(key, future, entry, loader, eTag);
+        }
+        return entry.toResponse(acceptsGzip(acceptEncoding));
+    }
+
+    /**
+     * Возвращает ответ без ETag, см. {@link #get(String, Object, String, Supplier, Function)}.
+     */
+    public <T> ResponseEntity<byte[]> get(String endpoint, Object argument, String acceptEncoding, Supplier<T> loader) {
+        return get(endpoint, argument, acceptEncoding, loader, data -> null);
+    }
+
+    /**
+     * Удаляет ответ после коммита текущей транзакции; следующий запрос загрузит его синхронно.
+     *
+     * @param endpoint эндпоинт
+     * @param argument аргумент запроса
+     */
+    public void invalidate(String endpoint, Object argument) {
+        Key key = new Key(endpoint, argument);
+        TransactionCallbacks.afterCommit(() -> cache.synchronous().invalidate(key));
+    }
+
+    /**
+     * Помечает все ответы эндпоинта устаревшими после коммита текущей транзакции: они продолжают отдаваться,
+     * пока в фоне не загружены новые.
+     *
+     * @param endpoint эндпоинт
+     */
+    public void markStale(String endpoint) {
+        TransactionCallbacks.afterCommit(() -> generation(endpoint).incrementAndGet());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private <T> Entry load(Key key, Supplier<T> loader, Function<? super T, String> eTag) {
+        // Поколение читается до загрузки: изменения во время загрузки оставят запись устаревшей
+        long generation = generation(key.endpoint()).get();
+        T data = loader.get();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ " + key, e);
+        }
+        byte[] gzipBody = body.length >= gzipMinSize ? gzip(body) : null;
+        return new Entry(body, gzipBody, eTag.apply(data), generation, System.nanoTime());
+    }
+
+    private boolean isStale(Key key, Entry entry) {
+        return entry.generation != generation(key.endpoint()).get()
+                || System.nanoTime() - entry.loadedAtNanos > refreshAfterNanos;
+    }
+
+    private <T> void refreshAsync(Key key, CompletableFuture<Entry> current, Entry stale,
+                                  Supplier<T> loader, Function<? super T, String> eTag) {
+        if (!stale.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Фоновая загрузка читает с того же сервера, что и запрос, например с основного сразу после записи
+            refreshExecutor.execute(ReplicaRoutingContext.propagate(() -> {
+                try {
+                    // Если запись удалена или заменена, пока шла загрузка, результат не сохраняется
+                    cache.asMap().replace(key, current, CompletableFuture.completedFuture(load(key, loader, eTag)));
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось обновить ответ {}: {}", key, e.getMessage());
+                    stale.refreshing.set(false);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            stale.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Ждёт загрузку, начатую другим запросом; её исключение пробрасывается как есть.
+     */
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private AtomicLong generation(String endpoint) {
+        return generations.computeIfAbsent(endpoint, name -> new AtomicLong());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private record Key(String endpoint, Object argument) {
+    }
+
+    /**
+     * Сериализованный ответ.
+     */
+    private static final class Entry {
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String eTag;
+        private final long generation;
+        private final long loadedAtNanos;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(byte[] body, byte[] gzipBody, String eTag, long generation, long loadedAtNanos) {
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.eTag = eTag;
+            this.generation = generation;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+
+        ResponseEntity<byte[]> toResponse(boolean gzipAccepted) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (eTag != null) {
+                response.eTag(eTag);
+            }
+            if (gzipAccepted && gzipBody != null) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(gzipBody);
+            }
+            return response.body(body);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.semavin.microservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Настройка кэширования.
+ *
+ * <p>Кэши и их политика (размер, TTL, сбор статистики) задаются свойствами {@code spring.cache.*},
+ * отключить кэширование можно через {@code spring.cache.type=none}. Кэширующий перехватчик
+ * выполняется снаружи транзакционного, поэтому записи вытесняются уже после коммита
+ * и параллельный запрос не может вернуть в кэш устаревшие данные.</p>
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    /**
+     * Кэш {@link ru.semavin.microservice.dtos.UserDTO} по ID пользователя.
+     */
+    public static final String USERS_CACHE = "users";
+
+    /**
+     * Кэш подтверждённого существования пользователя по ID.
+     */
+    public static final String USER_EXISTS_CACHE = "userExists";
+}
@@ -0,0 +1,39 @@
+package ru.semavin.microservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.semavin.microservice.datasource.DatabaseBulkheadInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Ограничение запросов к базе в режиме виртуальных потоков.
+ *
+ * <p>Число одновременно обрабатываемых запросов к базе по умолчанию равно размеру пула соединений
+ * {@code spring.datasource.hikari.maximum-pool-size}, см. {@link DatabaseBulkheadInterceptor}.
+ * Параметры задаются свойствами {@code datasource.bulkhead.*}.</p>
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DatabaseBulkheadConfig implements WebMvcConfigurer {
+    private final DatabaseBulkheadInterceptor interceptor;
+
+    public DatabaseBulkheadConfig(
+            MeterRegistry meterRegistry,
+            @Value("${datasource.bulkhead.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${datasource.bulkhead.max-waiting:1000}") int maxWaiting,
+            @Value("${datasource.bulkhead.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.interceptor = new DatabaseBulkheadInterceptor(maxConcurrent, maxWaiting, acquireTimeout, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor);
+    }
+}
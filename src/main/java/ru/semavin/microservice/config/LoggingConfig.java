@@ -0,0 +1,28 @@
+package ru.semavin.microservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.semavin.microservice.logging.RequestLogSamplingInterceptor;
+
+/**
+ * Выборочное логирование запросов.
+ *
+ * <p>Доля запросов, рутинные события которых пишутся в лог, задаётся свойством
+ * {@code logging.sampling.rate}. Отбрасывание событий включается в {@code logback-spring.xml}
+ * профилем {@code prod-logging}.</p>
+ */
+@Configuration
+@Profile("!reactive")
+public class LoggingConfig implements WebMvcConfigurer {
+
+    @Value("${logging.sampling.rate:1}")
+    private int samplingRate;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestLogSamplingInterceptor(samplingRate));
+    }
+}
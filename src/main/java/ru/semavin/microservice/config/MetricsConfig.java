@@ -0,0 +1,19 @@
+package ru.semavin.microservice.config;
+
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройка метрик.
+ *
+ * <p>Метрики отдаются в формате Prometheus на {@code /actuator/prometheus}. Гистограммы, перцентили
+ * и SLO-границы задаются свойствами {@code management.metrics.distribution.*}. Таймеры {@code @Timed}
+ * на сервисах включаются свойством {@code management.observations.annotations.enabled}.</p>
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Таймер методов сервисного слоя; метод и класс передаются тегами {@code method} и {@code class}.
+     */
+    public static final String SERVICE_TIMER = "app.service";
+}
@@ -0,0 +1,29 @@
+package ru.semavin.microservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * JDBC-пул в профиле {@code reactive}.
+ *
+ * <p>Автоконфигурация {@code DataSource} отключается, когда в контексте есть R2DBC {@code ConnectionFactory}.
+ * Справочник сервисов, счётчики и миграции Flyway работают через JPA/JDBC и в реактивном профиле, поэтому пул
+ * {@code spring.datasource.*} создаётся явно. Запросы API подписок идут через R2DBC, JDBC-пул нужен только
+ * для старта и редких обращений на {@code boundedElastic}.</p>
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
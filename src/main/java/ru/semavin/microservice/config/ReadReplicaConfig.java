@@ -0,0 +1,74 @@
+package ru.semavin.microservice.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.semavin.microservice.datasource.ReplicaRoutingDataSource;
+import ru.semavin.microservice.datasource.ReplicaRoutingDataSourcePostProcessor;
+import ru.semavin.microservice.datasource.ReplicaRoutingInterceptor;
+import ru.semavin.microservice.datasource.ReplicaTarget;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик.
+ *
+ * <p>Включается свойством {@code datasource.replicas.enabled=true} (профиль {@code replicas}).
+ * Read-only транзакции направляются на реплики из {@code datasource.replicas.urls}, остальные — на основной
+ * сервер {@code spring.datasource.*}, см. {@link ReplicaRoutingDataSource}. Пул каждой реплики публикует
+ * метрики {@code hikaricp.*} с тегом {@code pool=replica-N}.</p>
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    @Bean
+    static ReplicaRoutingDataSourcePostProcessor replicaRoutingDataSourcePostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${datasource.replicas.urls}") List<String> urls,
+            @Value("${datasource.replicas.username:${spring.datasource.username}}") String username,
+            @Value("${datasource.replicas.password:${spring.datasource.password}}") String password,
+            @Value("${datasource.replicas.pool-size:20}") int poolSize,
+            @Value("${datasource.replicas.connection-timeout:1s}") Duration connectionTimeout,
+            @Value("${datasource.replicas.max-lag:5s}") Duration maxLag,
+            @Value("${datasource.replicas.health-check-interval:2s}") Duration healthCheckInterval,
+            @Value("${datasource.replicas.sticky-window:5s}") Duration stickyWindow) {
+        return new ReplicaRoutingDataSourcePostProcessor(primary -> {
+            MeterRegistry registry = meterRegistry.getObject();
+            List<ReplicaTarget> replicas = new ArrayList<>(urls.size());
+            for (int i = 0; i < urls.size(); i++) {
+                HikariConfig config = new HikariConfig();
+                config.setPoolName("replica-" + (i + 1));
+                config.setJdbcUrl(urls.get(i).trim());
+                config.setUsername(username);
+                config.setPassword(password);
+                config.setDriverClassName(primary.getDriverClassName());
+                config.setMaximumPoolSize(poolSize);
+                config.setConnectionTimeout(connectionTimeout.toMillis());
+                config.setReadOnly(true);
+                // Недоступная при старте реплика не мешает запуску: её исключит проверка состояния
+                config.setInitializationFailTimeout(-1);
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                replicas.add(new ReplicaTarget(config.getPoolName(), new HikariDataSource(config)));
+            }
+            return new ReplicaRoutingDataSource(primary, replicas, maxLag, healthCheckInterval, stickyWindow, registry);
+        });
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReplicaRoutingInterceptor());
+    }
+}
@@ -0,0 +1,29 @@
+package ru.semavin.microservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.semavin.microservice.schema.SchemaIndexVerifier;
+
+/**
+ * Миграции схемы.
+ *
+ * <p>Схему создают и изменяют миграции Flyway из {@code db/migration}, Hibernate её только проверяет
+ * ({@code ddl-auto=validate}). Сразу после миграций, до запуска JPA, {@link SchemaIndexVerifier} проверяет
+ * индексы горячих запросов; отключается свойством {@code schema.verify-indexes=false}.</p>
+ */
+@Configuration
+public class SchemaConfig {
+
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${schema.verify-indexes:true}") boolean verifyIndexes) {
+        return flyway -> {
+            flyway.migrate();
+            if (verifyIndexes) {
+                new SchemaIndexVerifier(new JdbcTemplate(flyway.getConfiguration().getDataSource())).verify();
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package ru.semavin.microservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import ru.semavin.microservice.sql.SqlStatementCountingFilter;
+import ru.semavin.microservice.sql.SqlStatementListener;
+
+import javax.sql.DataSource;
+
+/**
+ * Подсчёт SQL-запросов на HTTP-запрос.
+ *
+ * <p>{@link DataSource} оборачивается в datasource-proxy, а {@link SqlStatementCountingFilter}
+ * открывает область подсчёта на каждый запрос. Параметры задаются свойствами {@code sql.statements.*}.</p>
+ */
+@Configuration
+@Profile("!reactive")
+public class SqlStatementConfig {
+
+    @Bean
+    static BeanPostProcessor sqlStatementCountingDataSourcePostProcessor(
+            @Value("${sql.statements.capture-call-sites:true}") boolean captureCallSites) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SqlStatementListener(captureCallSites))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatementCountingFilter sqlStatementCountingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${sql.statements.default-budget:10}") int defaultBudget,
+            @Value("${sql.statements.repeat-threshold:5}") long repeatThreshold,
+            @Value("${sql.statements.header-enabled:true}") boolean headerEnabled) {
+        return new SqlStatementCountingFilter(meterRegistry, defaultBudget, repeatThreshold, headerEnabled);
+    }
+}
@@ -0,0 +1,29 @@
+package ru.semavin.microservice.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Проверка режима виртуальных потоков.
+ *
+ * <p>Spring Boot молча игнорирует {@code spring.threads.virtual.enabled=true} на JDK ниже 21,
+ * поэтому при включённом режиме в лог явно пишется, применился ли он.</p>
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @PostConstruct
+    void reportThreadingMode() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("Режим виртуальных потоков включён, но Java {} их не поддерживает: " +
+                    "запросы обрабатываются платформенными потоками", javaVersion);
+            return;
+        }
+        log.info("Запросы обрабатываются виртуальными потоками (Java {})", javaVersion);
+    }
+}
@@ -4,13 +4,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import ru.semavin.microservice.dtos.ErrorResponseDTO;
+import ru.semavin.microservice.util.exceptions.CampaignNotFoundException;
+import ru.semavin.microservice.util.exceptions.DatabaseBusyException;
+import ru.semavin.microservice.util.exceptions.InvalidRequestParameterException;
+import ru.semavin.microservice.util.exceptions.JobQueueFullException;
+import ru.semavin.microservice.util.exceptions.NotificationDispatchNotFoundException;
+import ru.semavin.microservice.util.exceptions.PreconditionFailedException;
+import ru.semavin.microservice.util.exceptions.SubscriptionAlreadyExistsException;
 import ru.semavin.microservice.util.exceptions.SubscriptionNotBelongToUserException;
 import ru.semavin.microservice.util.exceptions.SubscriptionNotFoundException;
+import ru.semavin.microservice.util.exceptions.UserAlreadyExistsException;
 import ru.semavin.microservice.util.exceptions.UserNotFoundException;
 
 import java.util.List;
@@ -85,6 +95,187 @@ public class GlobalAdviceController {
                         .build()
         );
     }
+    /**
+     * Обрабатывает исключение {@link CampaignNotFoundException}.
+     * <p>
+     * Возвращает HTTP статус 404 (Not Found), если кампания массовой подписки не найдена.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link CampaignNotFoundException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(CampaignNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleCampaignNotFoundException(CampaignNotFoundException ex) {
+        log.error("Ошибка: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.NOT_FOUND.value())
+                        .message(ex.getMessage())
+                        .build()
+        );
+    }
+
+    /**
+     * Обрабатывает исключение {@link NotificationDispatchNotFoundException}.
+     * <p>
+     * Возвращает HTTP статус 404 (Not Found), если рассылка уведомлений не найдена.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link NotificationDispatchNotFoundException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(NotificationDispatchNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleNotificationDispatchNotFoundException(NotificationDispatchNotFoundException ex) {
+        log.error("Ошибка: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.NOT_FOUND.value())
+                        .message(ex.getMessage())
+                        .build()
+        );
+    }
+
+    /**
+     * Обрабатывает исключение {@link InvalidRequestParameterException}.
+     * <p>
+     * Возвращает HTTP статус 400 (Bad Request), если параметр запроса имеет недопустимое значение.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link InvalidRequestParameterException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidRequestParameterException(InvalidRequestParameterException ex) {
+        log.error("Ошибка: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.BAD_REQUEST.value())
+                        .message(ex.getMessage())
+                        .build()
+        );
+    }
+
+    /**
+     * Обрабатывает исключение {@link UserAlreadyExistsException}.
+     * <p>
+     * Возвращает HTTP статус 409 (Conflict), если email уже занят другим пользователем.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link UserAlreadyExistsException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(UserAlreadyExistsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
+        log.warn("Ошибка: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.CONFLICT.value())
+                        .message(ex.getMessage())
+                        .build()
+        );
+    }
+
+    /**
+     * Обрабатывает исключение {@link SubscriptionAlreadyExistsException}.
+     * <p>
+     * Возвращает HTTP статус 409 (Conflict), если пользователь уже подписан на сервис.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link SubscriptionAlreadyExistsException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(SubscriptionAlreadyExistsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleSubscriptionAlreadyExistsException(SubscriptionAlreadyExistsException ex) {
+        log.warn("Ошибка: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.CONFLICT.value())
+                        .message(ex.getMessage())
+                        .build()
+        );
+    }
+
+    /**
+     * Обрабатывает исключение {@link PreconditionFailedException}.
+     * <p>
+     * Возвращает HTTP статус 412 (Precondition Failed), если ресурс изменён и его ETag не совпадает с {@code If-Match}.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link PreconditionFailedException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponseDTO> handlePreconditionFailedException(PreconditionFailedException ex) {
+        log.warn("Ошибка: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.PRECONDITION_FAILED.value())
+                        .message(ex.getMessage())
+                        .build()
+        );
+    }
+
+    /**
+     * Обрабатывает исключение {@link JobQueueFullException}.
+     * <p>
+     * Возвращает HTTP статус 503 (Service Unavailable), если очередь фоновых задач заполнена и задача не принята.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link JobQueueFullException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(JobQueueFullException.class)
+    public ResponseEntity<ErrorResponseDTO> handleJobQueueFullException(JobQueueFullException ex) {
+        log.warn("Ошибка: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .message(ex.getMessage())
+                        .build()
+        );
+    }
+
+    /**
+     * Обрабатывает исключение {@link DatabaseBusyException}.
+     * <p>
+     * Возвращает HTTP статус 503 (Service Unavailable), если запрос не дождался свободного соединения с базой.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link DatabaseBusyException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<ErrorResponseDTO> handleDatabaseBusyException(DatabaseBusyException ex) {
+        log.warn("Ошибка: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .message(ex.getMessage())
+                        .build()
+        );
+    }
+
+    /**
+     * Обрабатывает конфликт оптимистической блокировки.
+     * <p>
+     * Возвращает HTTP статус 409 (Conflict), если запись изменена параллельным запросом
+     * между её чтением и сохранением.
+     * </p>
+     *
+     * @param ex выброшенное исключение {@link ObjectOptimisticLockingFailureException}.
+     * @return JSON-ответ {@link ErrorResponseDTO} с описанием ошибки.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDTO> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+        log.warn("Конфликт параллельного изменения: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ErrorResponseDTO.builder()
+                        .status(HttpStatus.CONFLICT.value())
+                        .message("Данные изменены параллельным запросом, повторите запрос")
+                        .build()
+        );
+    }
+
     /**
      * Обрабатывает ошибки валидации (`@Valid`).
      *
@@ -105,26 +296,44 @@ public class GlobalAdviceController {
                 .message(errors.toString())
                 .build());
     }
+    /**
+     * Обрабатывает ошибки валидации (`@Valid`) в неблокирующих контроллерах профиля {@code reactive}.
+     *
+     * @param ex исключение, содержащее информацию о полях с ошибками.
+     * @return JSON-ответ с деталями ошибки.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponseDTO> handleWebExchangeBindException(WebExchangeBindException ex) {
+        log.error("Ошибка валидации: {}", ex.getMessage());
+
+        List<String> errors = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> String.format("Поле '%s': %s", error.getField(), error.getDefaultMessage()))
+                .toList();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponseDTO.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message(errors.toString())
+                .build());
+    }
+
     /**
      * Обрабатывает ошибки нарушения целостности данных в базе
      *
      * <p>Этот обработчик вызывается, когда в базе данных возникает ошибка типа
-     * {@link org.springframework.dao.DataIntegrityViolationException}, например,
-     * при попытке создать дублирующуюся запись подписки (нарушение ограничения `UNIQUE`).</p>
-     *
-     * <p>Если пользователь уже подписан на сервис, метод возвращает HTTP статус {@code 409 Conflict}.</p>
-     *
+     * {@link org.springframework.dao.DataIntegrityViolationException}, которую не перевёл в предметное
+     * исключение сервисный слой: нарушение {@code UNIQUE}, {@code NOT NULL}, длины или внешнего ключа.
+     * Подробности ограничения пишутся в лог, клиенту возвращается общее сообщение.</p>
      *
      * @param ex выброшенное исключение {@link org.springframework.dao.DataIntegrityViolationException}.
      * @return JSON-ответ {@link ErrorResponseDTO} с HTTP статусом {@code 409 Conflict} и сообщением об ошибке.
      */
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ErrorResponseDTO> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
-        log.error("Ошибка уникальности данных: {}", ex.getMessage());
+        log.error("Нарушение целостности данных: {}", ex.getMostSpecificCause().getMessage());
 
         ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
                 .status(HttpStatus.CONFLICT.value())
-                .message("Пользователь уже подписан на этот сервис")
+                .message("Данные нарушают ограничения целостности")
                 .build();
 
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
@@ -1,16 +1,31 @@
 package ru.semavin.microservice.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.semavin.microservice.dtos.SubscriptionDTO;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.semavin.microservice.cache.SerializedResponseCache;
 import ru.semavin.microservice.dtos.SubscriptionTopDTO;
+import ru.semavin.microservice.services.ExportService;
 import ru.semavin.microservice.services.SubscriptionService;
+import ru.semavin.microservice.sql.SqlStatementBudget;
+import ru.semavin.microservice.util.AsyncTimeouts;
 
 import java.util.List;
 
@@ -20,24 +35,82 @@ import java.util.List;
  */
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/subscriptions")
 @Tag(name = "Global Subscription API", description = "Глобальные операции с подписками")
 public class GlobalSubscriptionController {
 
     private final SubscriptionService subscriptionService;
+    private final ExportService exportService;
+    private final SerializedResponseCache serializedResponseCache;
 
     /**
-     * Получает топ-3 самых популярных подписок.
+     * Получает топ-N самых популярных подписок.
      *
-     * @return Список из трех самых популярных подписок.
+     * <p>Ответ отдаётся уже сериализованным из {@link SerializedResponseCache}: после изменения подписок
+     * читатели получают прежний список, пока новый формируется в фоне. {@code limit} проверяется и ограничивается
+     * до обращения к кэшу, чтобы запросы с разными {@code limit} больше максимума делили одну запись.</p>
+     *
+     * @param limit          Количество подписок в ответе (по умолчанию 3).
+     * @param acceptEncoding Поддерживаемые клиентом кодировки тела.
+     * @return Список самых популярных подписок в формате JSON.
      */
-    @Operation(summary = "Получить топ-3 популярных подписок",
+    @Operation(summary = "Получить топ-N популярных подписок",
             description = "Возвращает список самых популярных подписок в системе.")
+    @ApiResponse(responseCode = "200", description = "Список популярных подписок", content = @Content(
+            mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = SubscriptionTopDTO.class))))
+    @SqlStatementBudget(0)
     @GetMapping("/top")
-    public ResponseEntity<List<SubscriptionTopDTO>> getTopSubscriptions() {
-        log.info("Endpoint - 'GET /subscriptions/top': Получение ТОП-3 популярных подписок");
-        List<SubscriptionTopDTO> topSubscriptions = subscriptionService.getTopSubscriptions();
-        return ResponseEntity.ok(topSubscriptions);
+    public ResponseEntity<byte[]> getTopSubscriptions(
+            @Parameter(description = "Количество подписок в ответе", example = "3")
+            @RequestParam(name = "limit", defaultValue = "3") int limit,
+            @Parameter(hidden = true)
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.info("Endpoint - 'GET /subscriptions/top': Получение ТОП-{} популярных подписок", limit);
+        int topLimit = subscriptionService.resolveTopLimit(limit);
+        return serializedResponseCache.get(SerializedResponseCache.SUBSCRIPTIONS_TOP, topLimit, acceptEncoding,
+                () -> subscriptionService.getTopSubscriptions(topLimit));
+    }
+
+    /**
+     * Получает сервисы с наибольшим количеством новых подписок за скользящее окно.
+     *
+     * @param window Окно: {@code 1h}, {@code 24h} или {@code 7d} (по умолчанию {@code 24h}).
+     * @param limit  Количество подписок в ответе (по умолчанию 10).
+     * @return Список трендовых подписок с оценкой количества новых подписок.
+     */
+    @Operation(summary = "Получить трендовые подписки",
+            description = "Возвращает сервисы с наибольшим количеством новых подписок за окно 1h, 24h или 7d.")
+    @SqlStatementBudget(0)
+    @GetMapping("/trending")
+    public ResponseEntity<List<SubscriptionTopDTO>> getTrendingSubscriptions(
+            @Parameter(description = "Окно: 1h, 24h или 7d", example = "24h")
+            @RequestParam(name = "window", defaultValue = "24h") String window,
+            @Parameter(description = "Количество подписок в ответе", example = "10")
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        log.info("Endpoint - 'GET /subscriptions/trending': Получение трендовых подписок за окно {}", window);
+        return ResponseEntity.ok(subscriptionService.getTrendingSubscriptions(window, limit));
+    }
+
+    /**
+     * Потоковая выгрузка всех подписок в формате NDJSON.
+     *
+     * <p>Тайм-аут асинхронной обработки продлевается до {@code export.request-timeout} только для этого запроса.</p>
+     *
+     * @param request Текущий запрос.
+     * @return Поток строк, каждая из которых — JSON-объект подписки.
+     */
+    @Operation(summary = "Выгрузить все подписки",
+            description = "Отдаёт все подписки в формате NDJSON, читая их из базы потоково.")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSubscriptions(HttpServletRequest request) {
+        log.info("Endpoint - 'GET /subscriptions/export': Выгрузка всех подписок");
+        AsyncTimeouts.set(request, exportService.getRequestTimeout());
+        StreamingResponseBody body = exportService::exportSubscriptions;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
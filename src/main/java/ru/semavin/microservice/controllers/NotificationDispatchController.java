@@ -0,0 +1,72 @@
+package ru.semavin.microservice.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.semavin.microservice.dtos.NotificationDispatchDTO;
+import ru.semavin.microservice.dtos.NotificationRequestDTO;
+import ru.semavin.microservice.services.NotificationDispatchService;
+
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Контроллер рассылки уведомлений подписчикам сервиса.
+ */
+@Slf4j
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/subscriptions/notifications")
+@Tag(name = "Notification API", description = "Рассылка уведомлений подписчикам сервиса")
+public class NotificationDispatchController {
+
+    private final NotificationDispatchService notificationDispatchService;
+
+    /**
+     * Запускает рассылку уведомления.
+     *
+     * @param request Сервис и содержимое уведомления.
+     * @return Начальное состояние рассылки и ссылка на её статус в заголовке {@code Location}.
+     */
+    @Operation(summary = "Разослать уведомление подписчикам сервиса",
+            description = "Ставит рассылку в очередь и сразу возвращает её идентификатор. Уведомление получат " +
+                    "подписки с включёнными уведомлениями. Прогресс доступен по ссылке из заголовка Location.")
+    @PostMapping
+    public ResponseEntity<NotificationDispatchDTO> startDispatch(@Valid @RequestBody NotificationRequestDTO request) {
+        log.info("Endpoint - 'POST /subscriptions/notifications': Рассылка подписчикам сервиса '{}'",
+                request.getServiceName());
+        NotificationDispatchDTO dispatch = notificationDispatchService.start(request);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/v1/subscriptions/notifications/" + dispatch.getId()))
+                .body(dispatch);
+    }
+
+    /**
+     * Получает состояние рассылки.
+     *
+     * @param dispatchId Идентификатор рассылки.
+     * @return Прогресс рассылки.
+     */
+    @Operation(summary = "Получить состояние рассылки",
+            description = "Возвращает прогресс, повторы, скорость доставки и итог рассылки уведомлений.")
+    @GetMapping("/{dispatchId}")
+    public ResponseEntity<NotificationDispatchDTO> getDispatch(
+            @Parameter(description = "Идентификатор рассылки")
+            @PathVariable UUID dispatchId) {
+        log.info("Endpoint - 'GET /subscriptions/notifications/{}': Получение состояния рассылки", dispatchId);
+        return ResponseEntity.ok(notificationDispatchService.getStatus(dispatchId));
+    }
+}
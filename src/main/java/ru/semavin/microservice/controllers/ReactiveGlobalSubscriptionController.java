@@ -0,0 +1,81 @@
+package ru.semavin.microservice.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.SubscriptionTopDTO;
+import ru.semavin.microservice.services.ReactiveSubscriptionService;
+import ru.semavin.microservice.services.SubscriptionService;
+
+import java.util.List;
+
+/**
+ * Неблокирующий глобальный контроллер подписок (профиль {@code reactive}).
+ *
+ * <p>ТОП-N и трендовые подписки формируются из счётчиков в памяти и не обращаются к базе,
+ * выгрузка читает подписки курсором R2DBC с учётом обратного давления.</p>
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/subscriptions")
+@Tag(name = "Global Subscription API", description = "Глобальные операции с подписками")
+public class ReactiveGlobalSubscriptionController {
+
+    private final SubscriptionService subscriptionService;
+    private final ReactiveSubscriptionService reactiveSubscriptionService;
+
+    /**
+     * Получает топ-N самых популярных подписок.
+     *
+     * @param limit Количество подписок в ответе (по умолчанию 3).
+     * @return Список самых популярных подписок.
+     */
+    @Operation(summary = "Получить топ-N популярных подписок")
+    @GetMapping("/top")
+    public Mono<List<SubscriptionTopDTO>> getTopSubscriptions(
+            @Parameter(description = "Количество подписок в ответе", example = "3")
+            @RequestParam(name = "limit", defaultValue = "3") int limit) {
+        return Mono.fromSupplier(() -> subscriptionService.getTopSubscriptions(limit));
+    }
+
+    /**
+     * Получает сервисы с наибольшим количеством новых подписок за скользящее окно.
+     *
+     * @param window Окно: {@code 1h}, {@code 24h} или {@code 7d}.
+     * @param limit  Количество подписок в ответе (по умолчанию 10).
+     * @return Список трендовых подписок.
+     */
+    @Operation(summary = "Получить трендовые подписки")
+    @GetMapping("/trending")
+    public Mono<List<SubscriptionTopDTO>> getTrendingSubscriptions(
+            @Parameter(description = "Окно: 1h, 24h или 7d", example = "24h")
+            @RequestParam(name = "window", defaultValue = "24h") String window,
+            @Parameter(description = "Количество подписок в ответе", example = "10")
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return Mono.fromSupplier(() -> subscriptionService.getTrendingSubscriptions(window, limit));
+    }
+
+    /**
+     * Потоковая выгрузка всех подписок в формате NDJSON.
+     *
+     * @return Поток подписок.
+     */
+    @Operation(summary = "Выгрузить все подписки")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SubscriptionDTO> exportSubscriptions() {
+        return reactiveSubscriptionService.streamAll();
+    }
+}
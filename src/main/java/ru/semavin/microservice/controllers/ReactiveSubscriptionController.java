@@ -0,0 +1,177 @@
+package ru.semavin.microservice.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.semavin.microservice.dtos.SubscriptionBatchRequestDTO;
+import ru.semavin.microservice.dtos.SubscriptionBatchResultDTO;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.SubscriptionDeleteResultDTO;
+import ru.semavin.microservice.services.ReactiveSubscriptionService;
+import ru.semavin.microservice.util.CursorCodec;
+import ru.semavin.microservice.util.EntityTags;
+
+import java.util.List;
+
+/**
+ * Неблокирующий контроллер подписок пользователей (профиль {@code reactive}).
+ *
+ * <p>Обслуживает те же URL и DTO, что и {@link SubscriptionController}. Дополнительно список подписок
+ * можно получить потоком NDJSON ({@code Accept: application/x-ndjson}) с учётом обратного давления.</p>
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/users/{userId}/subscriptions")
+@Tag(name = "Subscription API", description = "API для подписок")
+public class ReactiveSubscriptionController {
+
+    private final ReactiveSubscriptionService subscriptionService;
+
+    /**
+     * Оформляет подписку для пользователя.
+     *
+     * @param userId          ID пользователя.
+     * @param subscriptionDTO DTO с данными подписки.
+     * @return DTO созданной подписки.
+     */
+    @Operation(summary = "Оформить подписку пользователю")
+    @PostMapping
+    public Mono<SubscriptionDTO> subscribe(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @RequestBody @Valid SubscriptionDTO subscriptionDTO) {
+        return subscriptionService.subscribe(userId, subscriptionDTO);
+    }
+
+    /**
+     * Оформляет пользователю несколько подписок одним запросом.
+     *
+     * @param userId  ID пользователя.
+     * @param request DTO с набором подписок.
+     * @return Созданные и ранее оформленные подписки.
+     */
+    @Operation(summary = "Оформить несколько подписок пользователю")
+    @PostMapping("/batch")
+    public Mono<SubscriptionBatchResultDTO> subscribeAll(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @RequestBody @Valid SubscriptionBatchRequestDTO request) {
+        return subscriptionService.subscribeAll(userId, request.getSubscriptions());
+    }
+
+    /**
+     * Получает страницу подписок пользователя.
+     *
+     * <p>Как и {@link SubscriptionController#getSubscriptions}, ответ содержит ETag версии пользователя,
+     * а при совпадении {@code If-None-Match} с текущей версией возвращается 304 без чтения подписок.</p>
+     *
+     * @param userId      ID пользователя.
+     * @param cursor      Курсор следующей страницы.
+     * @param service     Название сервиса для фильтрации.
+     * @param limit       Размер страницы.
+     * @param ifNoneMatch ETag из предыдущего ответа.
+     * @return Страница подписок; курсор следующей страницы — в заголовке {@code X-Next-Cursor}.
+     */
+    @Operation(summary = "Получить список подписок пользователя")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<SubscriptionDTO>>> getSubscriptions(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Курсор следующей страницы из заголовка X-Next-Cursor")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Название сервиса", example = "Яндекс.Плюс")
+            @RequestParam(name = "service", required = false) String service,
+            @Parameter(description = "Размер страницы", example = "50")
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @Parameter(description = "ETag из предыдущего ответа")
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Mono<ResponseEntity<List<SubscriptionDTO>>> page = Mono.defer(() -> subscriptionService
+                .getSubscriptions(userId, cursor, service, limit)
+                .map(result -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .eTag(EntityTags.of(userId, result.getVersion()).formattedTag());
+                    if (result.getNextCursor() != null) {
+                        response.header(CursorCodec.NEXT_CURSOR_HEADER, result.getNextCursor());
+                    }
+                    return response.body(result.getItems());
+                }));
+        if (ifNoneMatch == null) {
+            return page;
+        }
+        return subscriptionService.getSubscriptionsVersion(userId).flatMap(version -> {
+            ETag current = EntityTags.of(userId, version);
+            return EntityTags.matches(ifNoneMatch, current, false)
+                    ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.formattedTag()).build())
+                    : page;
+        });
+    }
+
+    /**
+     * Потоково отдаёт все подписки пользователя в формате NDJSON.
+     *
+     * @param userId  ID пользователя.
+     * @param service Название сервиса для фильтрации.
+     * @return Поток подписок пользователя.
+     */
+    @Operation(summary = "Получить все подписки пользователя потоком NDJSON")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SubscriptionDTO> streamSubscriptions(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Название сервиса", example = "Яндекс.Плюс")
+            @RequestParam(name = "service", required = false) String service) {
+        return subscriptionService.streamSubscriptions(userId, service);
+    }
+
+    /**
+     * Отменяет подписку пользователя.
+     *
+     * @param userId ID пользователя.
+     * @param subId  ID подписки.
+     * @return HTTP 204 (No Content), если подписка успешно удалена.
+     */
+    @Operation(summary = "Отменить подписку пользователя")
+    @DeleteMapping("/{sub_id}")
+    public Mono<ResponseEntity<Void>> unsubscribe(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "ID подписки", required = true, example = "10")
+            @PathVariable("sub_id") Long subId) {
+        return subscriptionService.unsubscribe(userId, subId)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    /**
+     * Отменяет несколько подписок пользователя по названиям сервисов или по ID подписок.
+     *
+     * @param userId   ID пользователя.
+     * @param services Названия сервисов.
+     * @param ids      ID подписок.
+     * @return Количество удалённых подписок.
+     */
+    @Operation(summary = "Отменить несколько подписок пользователя")
+    @DeleteMapping
+    public Mono<SubscriptionDeleteResultDTO> unsubscribeAll(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Названия сервисов", example = "Яндекс.Плюс")
+            @RequestParam(name = "service", required = false) List<String> services,
+            @Parameter(description = "ID подписок", example = "10,11")
+            @RequestParam(name = "ids", required = false) List<Long> ids) {
+        return subscriptionService.unsubscribeAll(userId, services, ids);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.semavin.microservice.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.semavin.microservice.dtos.CampaignRequestDTO;
+import ru.semavin.microservice.dtos.CampaignStatusDTO;
+import ru.semavin.microservice.services.SubscriptionCampaignService;
+
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Контроллер кампаний массовой подписки пользователей на сервис.
+ */
+@Slf4j
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/subscriptions/campaigns")
+@Tag(name = "Subscription Campaign API", description = "Массовая подписка пользователей на сервис")
+public class SubscriptionCampaignController {
+
+    private final SubscriptionCampaignService subscriptionCampaignService;
+
+    /**
+     * Запускает кампанию массовой подписки.
+     *
+     * @param request Параметры кампании: сервис и список или диапазон ID пользователей.
+     * @return Начальное состояние кампании и ссылка на её статус в заголовке {@code Location}.
+     */
+    @Operation(summary = "Запустить кампанию массовой подписки",
+            description = "Ставит кампанию в очередь и сразу возвращает её идентификатор. " +
+                    "Прогресс доступен по ссылке из заголовка Location.")
+    @PostMapping
+    public ResponseEntity<CampaignStatusDTO> startCampaign(@Valid @RequestBody CampaignRequestDTO request) {
+        log.info("Endpoint - 'POST /subscriptions/campaigns': Кампания подписки на сервис '{}'",
+                request.getServiceName());
+        CampaignStatusDTO campaign = subscriptionCampaignService.start(request);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/v1/subscriptions/campaigns/" + campaign.getId()))
+                .body(campaign);
+    }
+
+    /**
+     * Получает состояние кампании.
+     *
+     * @param campaignId Идентификатор кампании.
+     * @return Прогресс кампании.
+     */
+    @Operation(summary = "Получить состояние кампании",
+            description = "Возвращает прогресс, скорость обработки и итог кампании массовой подписки.")
+    @GetMapping("/{campaignId}")
+    public ResponseEntity<CampaignStatusDTO> getCampaign(
+            @Parameter(description = "Идентификатор кампании")
+            @PathVariable UUID campaignId) {
+        log.info("Endpoint - 'GET /subscriptions/campaigns/{}': Получение состояния кампании", campaignId);
+        return ResponseEntity.ok(subscriptionCampaignService.getStatus(campaignId));
+    }
+}
@@ -8,10 +8,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.semavin.microservice.dtos.CursorPageDTO;
+import ru.semavin.microservice.dtos.SubscriptionBatchRequestDTO;
+import ru.semavin.microservice.dtos.SubscriptionBatchResultDTO;
 import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.SubscriptionDeleteResultDTO;
 import ru.semavin.microservice.services.SubscriptionService;
+import ru.semavin.microservice.sql.SqlStatementBudget;
+import ru.semavin.microservice.util.CursorCodec;
+import ru.semavin.microservice.util.EntityTags;
 
 import java.util.List;
 
@@ -21,6 +32,7 @@ import java.util.List;
  * <p>Обеспечивает API для подписки, получения списка подписок и отписки от сервисов.</p>
  */
 @RestController
+@Profile("!reactive")
 @Slf4j
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/users/{userId}/subscriptions")
@@ -43,6 +55,7 @@ public class SubscriptionController {
             @ApiResponse(responseCode = "404", description = "Пользователь не найден"),
             @ApiResponse(responseCode = "400", description = "Некорректные данные запроса")
     })
+    @SqlStatementBudget(2)
     @PostMapping
     public ResponseEntity<SubscriptionDTO> subscribe(
             @Parameter(description = "ID пользователя", required = true, example = "1")
@@ -52,22 +65,78 @@ public class SubscriptionController {
     }
 
     /**
-     * Получает список подписок пользователя.
+     * Оформляет пользователю несколько подписок одним запросом.
      *
-     * @param userId ID пользователя.
-     * @return Список подписок пользователя.
+     * @param userId  ID пользователя, который оформляет подписки.
+     * @param request DTO с набором подписок.
+     * @return Созданные и ранее оформленные подписки.
+     */
+    @Operation(summary = "Оформить несколько подписок пользователю",
+            description = "Создаёт недостающие подписки из набора в одной транзакции и возвращает созданные и уже существующие.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Подписки успешно оформлены"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные запроса")
+    })
+    // Проверка пользователя — только при холодном кэше userExists, nextval — раз на allocationSize подписок
+    @SqlStatementBudget(5)
+    @PostMapping("/batch")
+    public ResponseEntity<SubscriptionBatchResultDTO> subscribeAll(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @RequestBody @Valid SubscriptionBatchRequestDTO request) {
+        return ResponseEntity.ok(subscriptionService.subscribeAll(userId, request.getSubscriptions()));
+    }
+
+    /**
+     * Получает страницу подписок пользователя.
+     *
+     * <p>Ответ содержит ETag версии пользователя, которая меняется при любом изменении его подписок.
+     * Если {@code If-None-Match} совпадает с текущей версией, возвращается 304 без чтения подписок.</p>
+     *
+     * @param userId      ID пользователя.
+     * @param cursor      Курсор следующей страницы из заголовка {@code X-Next-Cursor} предыдущего ответа.
+     * @param service     Название сервиса для фильтрации.
+     * @param limit       Размер страницы.
+     * @param ifNoneMatch ETag из предыдущего ответа.
+     * @return Страница подписок пользователя; курсор следующей страницы — в заголовке {@code X-Next-Cursor}.
      */
     @Operation(summary = "Получить список подписок пользователя",
-            description = "Возвращает список подписок, оформленных пользователем.")
+            description = "Возвращает страницу подписок пользователя, упорядоченных по ID. " +
+                    "Если есть следующая страница, её курсор передаётся в заголовке X-Next-Cursor. " +
+                    "Поддерживает условный запрос по ETag (If-None-Match).")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Список подписок пользователя"),
+            @ApiResponse(responseCode = "304", description = "Подписки пользователя не изменились"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
+    @SqlStatementBudget(2)
     @GetMapping
     public ResponseEntity<List<SubscriptionDTO>> getSubscriptions(
             @Parameter(description = "ID пользователя", required = true, example = "1")
-            @PathVariable("userId") Long userId) {
-        return ResponseEntity.ok(subscriptionService.getSubscriptions(userId));
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Курсор следующей страницы из заголовка X-Next-Cursor")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Название сервиса", example = "Яндекс.Плюс")
+            @RequestParam(name = "service", required = false) String service,
+            @Parameter(description = "Размер страницы", example = "50")
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @Parameter(description = "ETag из предыдущего ответа")
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            ETag current = EntityTags.of(userId, subscriptionService.getSubscriptionsVersion(userId));
+            if (EntityTags.matches(ifNoneMatch, current, false)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.formattedTag()).build();
+            }
+        }
+        CursorPageDTO<SubscriptionDTO> page = subscriptionService.getSubscriptions(userId, cursor, service, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(EntityTags.of(userId, page.getVersion()).formattedTag());
+        if (page.getNextCursor() != null) {
+            response.header(CursorCodec.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     /**
@@ -84,6 +153,7 @@ public class SubscriptionController {
             @ApiResponse(responseCode = "404", description = "Подписка или пользователь не найдены"),
             @ApiResponse(responseCode = "403", description = "Подписка не принадлежит пользователю")
     })
+    @SqlStatementBudget(2)
     @DeleteMapping("/{sub_id}")
     public ResponseEntity<Void> unsubscribe(
             @Parameter(description = "ID пользователя", required = true, example = "1")
@@ -93,4 +163,32 @@ public class SubscriptionController {
         subscriptionService.unsubscribe(userId, subId);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Отменяет несколько подписок пользователя по названиям сервисов или по ID подписок.
+     *
+     * @param userId   ID пользователя.
+     * @param services Названия сервисов.
+     * @param ids      ID подписок.
+     * @return Количество удалённых подписок.
+     */
+    @Operation(summary = "Отменить несколько подписок пользователя",
+            description = "Удаляет подписки пользователя по набору названий сервисов (service) " +
+                    "или по набору ID подписок (ids) одним запросом к базе.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Подписки удалены"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден"),
+            @ApiResponse(responseCode = "400", description = "Не задан ровно один из параметров service и ids")
+    })
+    @SqlStatementBudget(2)
+    @DeleteMapping
+    public ResponseEntity<SubscriptionDeleteResultDTO> unsubscribeAll(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Названия сервисов", example = "Яндекс.Плюс")
+            @RequestParam(name = "service", required = false) List<String> services,
+            @Parameter(description = "ID подписок", example = "10,11")
+            @RequestParam(name = "ids", required = false) List<Long> ids) {
+        return ResponseEntity.ok(subscriptionService.unsubscribeAll(userId, services, ids));
+    }
 }
@@ -1,8 +1,10 @@
 package ru.semavin.microservice.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,12 +12,29 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.semavin.microservice.cache.SerializedResponseCache;
+import ru.semavin.microservice.dtos.BulkImportResultDTO;
+import ru.semavin.microservice.dtos.CursorPageDTO;
 import ru.semavin.microservice.dtos.UserDTO;
+import ru.semavin.microservice.services.ExportService;
+import ru.semavin.microservice.services.UserBulkImportService;
 import ru.semavin.microservice.services.UserService;
+import ru.semavin.microservice.sql.SqlStatementBudget;
+import ru.semavin.microservice.util.AsyncTimeouts;
+import ru.semavin.microservice.util.CursorCodec;
+import ru.semavin.microservice.util.EntityTags;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 
@@ -25,12 +44,16 @@ import java.util.List;
  */
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/users")
 @RequiredArgsConstructor
 @Tag(name = "User API", description = "Операции для управления пользователями")
 public class UserController {
 
     private final UserService userService;
+    private final ExportService exportService;
+    private final UserBulkImportService userBulkImportService;
+    private final SerializedResponseCache serializedResponseCache;
 
     /**
      * Создание нового пользователя.
@@ -42,64 +65,156 @@ public class UserController {
             description = "Создаёт нового пользователя в системе.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Пользователь успешно создан"),
-            @ApiResponse(responseCode = "400", description = "Некорректные данные")
+            @ApiResponse(responseCode = "400", description = "Некорректные данные"),
+            @ApiResponse(responseCode = "409", description = "Пользователь с таким email уже существует")
     })
+    // Занятость email проверяется отдельным запросом, только если он может быть в фильтре
+    @SqlStatementBudget(3)
     @PostMapping
     public ResponseEntity<UserDTO> createUser(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Данные пользователя")
             @RequestBody @Valid UserDTO userDTO) {
-        log.info("Endpoint -'POST /users': Создание пользователя: {}", userDTO);
+        log.info("Endpoint -'POST /users': Создание пользователя");
         UserDTO created = userService.createUser(userDTO);
         return ResponseEntity
                 .created(URI.create("/users/" + created.getId()))
                 .body(created);
     }
 
+    /**
+     * Массовый импорт пользователей.
+     *
+     * <p>Тело запроса читается потоково: JSON-массив пользователей ({@code application/json})
+     * или по одному пользователю на строку ({@code application/x-ndjson}).
+     * Некорректные строки пропускаются и перечисляются в ответе.</p>
+     *
+     * @param body Поток тела запроса.
+     * @return Итог импорта с ошибками по строкам.
+     */
+    @Operation(summary = "Массово импортировать пользователей",
+            description = "Создаёт пользователей из JSON-массива или NDJSON, сохраняя их пачками.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Импорт выполнен, итог в теле ответа")
+    })
+    // Число запросов растёт с объёмом импорта: по пакету на batch-size строк
+    @SqlStatementBudget(Integer.MAX_VALUE)
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResultDTO> importUsers(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Пользователи для импорта")
+            InputStream body) {
+        log.info("Endpoint -'POST /users/bulk': Массовый импорт пользователей");
+        return ResponseEntity.ok(userBulkImportService.importUsers(body));
+    }
+
     /**
      * Получение информации о пользователе по его ID.
      *
-     * @param id Идентификатор пользователя.
-     * @return DTO пользователя, если найден.
+     * <p>Ответ содержит ETag версии пользователя. Если {@code If-None-Match} совпадает с текущей версией,
+     * возвращается 304 после чтения одной версии, без загрузки и сериализации пользователя.
+     * Тело ответа отдаётся уже сериализованным из {@link SerializedResponseCache}.</p>
+     *
+     * @param id             Идентификатор пользователя.
+     * @param ifNoneMatch    ETag из предыдущего ответа.
+     * @param acceptEncoding Поддерживаемые клиентом кодировки тела.
+     * @return Пользователь в формате JSON, если найден, или 304, если он не изменился.
      */
     @Operation(summary = "Получить пользователя по ID",
-            description = "Возвращает данные пользователя по указанному идентификатору.")
+            description = "Возвращает данные пользователя по указанному идентификатору. " +
+                    "Поддерживает условный запрос по ETag (If-None-Match).")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Пользователь найден"),
+            @ApiResponse(responseCode = "200", description = "Пользователь найден", content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = UserDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Пользователь не изменился"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
+    // Версия проверяется отдельным запросом, только если передан If-None-Match
+    @SqlStatementBudget(2)
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> getUser(
+    public ResponseEntity<byte[]> getUser(
             @Parameter(description = "ID пользователя", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "ETag из предыдущего ответа")
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(hidden = true)
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("Endpoint -'GET /users/{id}': Получение пользователя с id: {}", id);
-        UserDTO userDto = userService.findUserDTOById(id);
-        return ResponseEntity.ok(userDto);
+        if (ifNoneMatch != null) {
+            ETag current = EntityTags.of(id, userService.getUserVersion(id));
+            if (EntityTags.matches(ifNoneMatch, current, false)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.formattedTag()).build();
+            }
+        }
+        return serializedResponseCache.get(SerializedResponseCache.USER, id, acceptEncoding,
+                () -> userService.findUserDTOById(id),
+                userDto -> EntityTags.of(id, userDto.getVersion()).formattedTag());
+    }
+
+    /**
+     * Получение пользователя по email.
+     *
+     * <p>Email сравнивается без учёта регистра. Если email нет в фильтре зарегистрированных адресов,
+     * 404 возвращается без запроса к базе.</p>
+     *
+     * @param email Email пользователя.
+     * @return Пользователь в формате JSON с ETag текущей версии.
+     */
+    @Operation(summary = "Получить пользователя по email",
+            description = "Возвращает данные пользователя по email без учёта регистра.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Пользователь найден"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    @SqlStatementBudget(1)
+    @GetMapping("/by-email")
+    public ResponseEntity<UserDTO> getUserByEmail(
+            @Parameter(description = "Email пользователя", required = true, example = "ivan@example.com")
+            @RequestParam String email) {
+        log.info("Endpoint -'GET /users/by-email': Получение пользователя по email");
+        UserDTO user = userService.findUserDTOByEmail(email);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(user.getId(), user.getVersion()).formattedTag())
+                .body(user);
     }
 
     /**
      * Обновление данных пользователя.
      *
+     * <p>С заголовком {@code If-Match} обновление выполняется, только если пользователь не изменился
+     * с момента получения ETag; иначе возвращается 412.</p>
+     *
      * @param id      Идентификатор пользователя.
+     * @param ifMatch ETag версии, на основе которой сделаны изменения.
      * @param userDto Новые данные пользователя.
-     * @return Обновлённый пользователь.
+     * @return Обновлённый пользователь с ETag новой версии.
      */
     @Operation(summary = "Обновить пользователя по ID",
-            description = "Обновляет данные пользователя по его ID.")
+            description = "Обновляет данные пользователя по его ID. " +
+                    "С заголовком If-Match обновляет, только если ETag совпадает с текущей версией.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Пользователь успешно обновлён"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден"),
-            @ApiResponse(responseCode = "400", description = "Некорректные данные")
+            @ApiResponse(responseCode = "400", description = "Некорректные данные"),
+            @ApiResponse(responseCode = "409",
+                    description = "Пользователь изменён параллельным запросом или новый email уже занят"),
+            @ApiResponse(responseCode = "412", description = "ETag не совпадает с текущей версией")
     })
+    // Новый email проверяется отдельным запросом, только если он может быть в фильтре
+    @SqlStatementBudget(3)
     @PutMapping("/{id}")
     public ResponseEntity<UserDTO> updateUser(
             @Parameter(description = "ID пользователя", required = true, example = "1")
             @PathVariable Long id,
 
+            @Parameter(description = "ETag версии, которую изменяет клиент")
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Новые данные пользователя")
             @RequestBody @Valid UserDTO userDto) {
-        log.info("Endpoint -'PUT /users/{id}': Обновление пользователя с id: {}. Новые данные: {}", id, userDto);
-        UserDTO updated = userService.updateUser(id, userDto);
-        return ResponseEntity.ok(updated);
+        log.info("Endpoint -'PUT /users/{id}': Обновление пользователя с id: {}", id);
+        UserDTO updated = userService.updateUser(id, userDto, ifMatch);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(id, updated.getVersion()).formattedTag())
+                .body(updated);
     }
 
     /**
@@ -114,6 +229,7 @@ public class UserController {
             @ApiResponse(responseCode = "204", description = "Пользователь успешно удалён"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
+    @SqlStatementBudget(6)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(
             @Parameter(description = "ID пользователя", required = true, example = "1")
@@ -124,19 +240,58 @@ public class UserController {
     }
 
     /**
-     * Получение списка всех пользователей.
+     * Получение списка пользователей постранично.
+     *
+     * <p>Курсор следующей страницы возвращается в заголовке {@code X-Next-Cursor};
+     * если заголовка нет, страница последняя.</p>
      *
-     * @return Список всех пользователей.
+     * @param cursor Курсор из предыдущего ответа (для первой страницы не передаётся).
+     * @param limit  Размер страницы.
+     * @return Страница пользователей.
      */
-    @Operation(summary = "Получить список всех пользователей",
-            description = "Возвращает список всех зарегистрированных пользователей.")
+    @Operation(summary = "Получить список пользователей",
+            description = "Возвращает страницу пользователей, упорядоченных по ID. " +
+                    "Курсор следующей страницы передаётся в заголовке X-Next-Cursor.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Список пользователей успешно получен")
+            @ApiResponse(responseCode = "200", description = "Страница пользователей успешно получена"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы")
     })
+    @SqlStatementBudget(1)
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        log.info("Endpoint -'GET /users': Получение списка всех пользователей");
-        List<UserDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserDTO>> getAllUsers(
+            @Parameter(description = "Курсор следующей страницы из заголовка X-Next-Cursor")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Размер страницы", example = "50")
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        log.info("Endpoint -'GET /users': Получение страницы пользователей");
+        CursorPageDTO<UserDTO> page = userService.getUsersPage(cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorCodec.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Потоковая выгрузка всех пользователей в формате NDJSON.
+     *
+     * <p>Тайм-аут асинхронной обработки продлевается до {@code export.request-timeout} только для этого запроса.</p>
+     *
+     * @param request Текущий запрос.
+     * @return Поток строк, каждая из которых — JSON-объект пользователя.
+     */
+    @Operation(summary = "Выгрузить всех пользователей",
+            description = "Отдаёт всех пользователей в формате NDJSON, читая их из базы потоково.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Выгрузка пользователей")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletRequest request) {
+        log.info("Endpoint -'GET /users/export': Выгрузка всех пользователей");
+        AsyncTimeouts.set(request, exportService.getRequestTimeout());
+        StreamingResponseBody body = exportService::exportUsers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
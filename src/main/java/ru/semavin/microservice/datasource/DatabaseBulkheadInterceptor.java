@@ -0,0 +1,103 @@
+package ru.semavin.microservice.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import ru.semavin.microservice.sql.SqlStatementBudget;
+import ru.semavin.microservice.util.ExceptionFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает число одновременно обрабатываемых запросов, обращающихся к базе.
+ *
+ * <p>На виртуальных потоках число запросов не ограничено пулом потоков Tomcat, и без ограничения тысячи
+ * запросов ждали бы соединение в пуле Hikari до его тайм-аута. Интерцептор пропускает к обработчику не больше
+ * {@code maxConcurrent} запросов, а остальные ждут разрешения не дольше {@code acquireTimeout}; если ожидающих
+ * больше {@code maxWaiting} или время вышло, запрос сразу отклоняется с {@code 503}. Обработчики
+ * с {@link SqlStatementBudget} 0 базу не используют и не ограничиваются.</p>
+ *
+ * <p>Ожидание на {@link Semaphore} не закрепляет виртуальный поток за платформенным.</p>
+ */
+@Slf4j
+public class DatabaseBulkheadInterceptor implements AsyncHandlerInterceptor {
+    private static final String PERMIT_ATTRIBUTE = DatabaseBulkheadInterceptor.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    public DatabaseBulkheadInterceptor(int maxConcurrent, int maxWaiting, Duration acquireTimeout,
+                                       MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.rejected = Counter.builder("datasource.bulkhead.rejected")
+                .description("Запросы к базе, отклонённые из-за переполнения очереди или тайм-аута ожидания")
+                .register(meterRegistry);
+        Gauge.builder("datasource.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .description("Запросы к базе, ожидающие разрешения")
+                .register(meterRegistry);
+        Gauge.builder("datasource.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Свободные разрешения на обращение к базе")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (!usesDatabase(handler)) {
+            return true;
+        }
+        if (!permits.tryAcquire()) {
+            if (permits.getQueueLength() >= maxWaiting
+                    || !permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                log.warn("Запрос {} {} отклонён: все соединения с базой заняты", request.getMethod(),
+                        request.getRequestURI());
+                throw ExceptionFactory.databaseBusy();
+            }
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+
+    private static boolean usesDatabase(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return false;
+        }
+        SqlStatementBudget budget = handlerMethod.getMethodAnnotation(SqlStatementBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), SqlStatementBudget.class);
+        }
+        return budget == null || budget.value() > 0;
+    }
+}
@@ -0,0 +1,124 @@
+package ru.semavin.microservice.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Пользователь, к данным которого обращается текущий HTTP-запрос.
+ *
+ * <p>По нему {@link ReplicaRoutingDataSource} запоминает записи пользователя и направляет чтение его данных
+ * на основной сервер, пока реплики могут отставать. Область открывает {@link ReplicaRoutingInterceptor}
+ * на время запроса; вне запроса пользователь не определён. Фоновые задачи, изменяющие данные многих
+ * пользователей, отмечают их в транзакции через {@link #markWritten(Collection)}.</p>
+ */
+public final class ReplicaRoutingContext {
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+    private static final Object WRITTEN_USERS = new Object();
+
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private ReplicaRoutingContext() {}
+
+    /**
+     * @return ID пользователя текущего запроса или {@code null}, если запрос не относится к пользователю
+     */
+    public static Long currentUserId() {
+        Scope scope = SCOPE.get();
+        return scope != null ? scope.userId : null;
+    }
+
+    /**
+     * Привязывает текущий запрос к пользователю, ID которого стал известен только при обработке,
+     * например к только что созданному. Вне запроса ничего не делает.
+     *
+     * @param userId ID пользователя
+     */
+    public static void bindUser(Long userId) {
+        Scope scope = SCOPE.get();
+        if (scope != null) {
+            scope.userId = userId;
+        }
+    }
+
+    /**
+     * Переносит пользователя текущего запроса в задачу, выполняемую в другом потоке.
+     *
+     * @param task задача
+     * @return задача, выполняющаяся с пользователем текущего запроса
+     */
+    public static Runnable propagate(Runnable task) {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return task;
+        }
+        return () -> {
+            Scope previous = SCOPE.get();
+            SCOPE.set(new Scope(userId));
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    SCOPE.remove();
+                } else {
+                    SCOPE.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Отмечает пользователей, данные которых изменяет текущая транзакция, в том числе вне HTTP-запроса.
+     * После коммита их данные, как и данные пользователя запроса, читаются с основного сервера.
+     * Вне транзакции ничего не делает.
+     *
+     * @param userIds ID пользователей
+     */
+    public static void markWritten(Collection<Long> userIds) {
+        if (userIds.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> written = (Set<Long>) TransactionSynchronizationManager.getResource(WRITTEN_USERS);
+        if (written == null) {
+            written = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(WRITTEN_USERS, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WRITTEN_USERS);
+                }
+            });
+        }
+        written.addAll(userIds);
+    }
+
+    /**
+     * @return пользователи, отмеченные в текущей транзакции через {@link #markWritten(Collection)}
+     */
+    @SuppressWarnings("unchecked")
+    static Collection<Long> writtenUsers() {
+        Set<Long> written = (Set<Long>) TransactionSynchronizationManager.getResource(WRITTEN_USERS);
+        return written != null ? written : Set.of();
+    }
+
+    static void open(Long userId) {
+        SCOPE.set(new Scope(userId));
+    }
+
+    static void close() {
+        SCOPE.remove();
+    }
+
+    private static final class Scope {
+        private Long userId;
+
+        Scope(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package ru.semavin.microservice.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.semavin.microservice.util.TransactionCallbacks;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник данных, направляющий read-only транзакции на реплики.
+ *
+ * <p>Соединение для транзакции {@code @Transactional(readOnly = true)} выдаётся доступной репликой
+ * по кругу, любое другое — основным сервером. Решение принимается при получении соединения, поэтому
+ * источник оборачивается в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * тогда соединение запрашивается при первом SQL-запросе, когда признак read-only транзакции уже выставлен.</p>
+ *
+ * <p>Реплики проверяются в фоне каждые {@code healthCheckInterval}: недоступные и отстающие больше
+ * {@code maxLag} исключаются, а если доступных не осталось, чтение идёт на основной сервер.
+ * После коммита записи данные пользователя текущего запроса ({@link ReplicaRoutingContext}) и пользователей,
+ * отмеченных через {@link ReplicaRoutingContext#markWritten(java.util.Collection)}, в течение
+ * {@code stickyWindow} читаются с основного сервера, чтобы пользователь видел свои изменения, а кэши
+ * не заполнялись данными отстающей реплики.</p>
+ *
+ * <p>Решения считаются метрикой {@code datasource.routing} с тегами {@code target} и {@code reason};
+ * состояние реплик — метриками {@code datasource.replica.lag} и {@code datasource.replica.available}.</p>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends DelegatingDataSource implements AutoCloseable {
+    /**
+     * Имя основного сервера в метриках.
+     */
+    public static final String PRIMARY = "primary";
+
+    private final List<ReplicaTarget> replicas;
+    private final double maxLagSeconds;
+    private final Cache<Long, Boolean> recentWrites;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * @param primary             основной сервер
+     * @param replicas            реплики для чтения
+     * @param maxLag              допустимое отставание реплики
+     * @param healthCheckInterval интервал проверки реплик
+     * @param stickyWindow        сколько после записи пользователя его данные читаются с основного сервера
+     * @param meterRegistry       реестр метрик
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaTarget> replicas, Duration maxLag,
+                                    Duration healthCheckInterval, Duration stickyWindow, MeterRegistry meterRegistry) {
+        super(primary);
+        this.replicas = List.copyOf(replicas);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(stickyWindow)
+                .build();
+        this.meterRegistry = meterRegistry;
+        for (ReplicaTarget replica : this.replicas) {
+            Gauge.builder("datasource.replica.lag", replica, ReplicaTarget::getLagSeconds)
+                    .description("Отставание реплики от основного сервера по последней проверке")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, target -> target.isAvailable() ? 1 : 0)
+                    .description("1, если реплика принимает чтение")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+        int timeoutSeconds = (int) Math.max(1, healthCheckInterval.toSeconds());
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Первая проверка синхронная, чтобы реплики принимали чтение сразу после запуска
+        checkReplicas(timeoutSeconds);
+        this.healthChecker.scheduleWithFixedDelay(() -> checkReplicas(timeoutSeconds),
+                healthCheckInterval.toMillis(), healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWrite();
+            return primaryConnection("read-write");
+        }
+        Long userId = ReplicaRoutingContext.currentUserId();
+        if (userId != null && recentWrites.getIfPresent(userId) != null) {
+            return primaryConnection("sticky");
+        }
+        int size = replicas.size();
+        int start = size > 0 ? Math.floorMod(next.getAndIncrement(), size) : 0;
+        for (int i = 0; i < size; i++) {
+            ReplicaTarget replica = replicas.get((start + i) % size);
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                Connection connection = replica.getConnection();
+                count(replica.getName(), "replica");
+                return connection;
+            } catch (SQLException e) {
+                replica.markUnavailable("нет соединения: " + e.getMessage());
+            }
+        }
+        return primaryConnection("fallback");
+    }
+
+    /**
+     * Проверяет все реплики; вызывается по расписанию.
+     */
+    void checkReplicas(int timeoutSeconds) {
+        for (ReplicaTarget replica : replicas) {
+            try {
+                replica.check(maxLagSeconds, timeoutSeconds);
+            } catch (RuntimeException e) {
+                log.warn("Ошибка проверки реплики {}: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Останавливает проверку реплик и закрывает пулы соединений, включая пул основного сервера.
+     */
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (ReplicaTarget replica : replicas) {
+            closeQuietly(replica.getDataSource());
+        }
+        closeQuietly(obtainTargetDataSource());
+    }
+
+    /**
+     * Запоминает пользователя текущего запроса и отмеченных в транзакции пользователей после коммита
+     * транзакции записи. Пользователи читаются при коммите, поэтому учитываются и привязанные во время
+     * транзакции через {@link ReplicaRoutingContext#bindUser(Long)} и
+     * {@link ReplicaRoutingContext#markWritten(java.util.Collection)}.
+     */
+    private void rememberWrite() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionCallbacks.afterCommit(() -> {
+                Long userId = ReplicaRoutingContext.currentUserId();
+                if (userId != null) {
+                    recentWrites.put(userId, Boolean.TRUE);
+                }
+                ReplicaRoutingContext.writtenUsers().forEach(written -> recentWrites.put(written, Boolean.TRUE));
+            });
+        }
+    }
+
+    private Connection primaryConnection(String reason) throws SQLException {
+        Connection connection = obtainTargetDataSource().getConnection();
+        count(PRIMARY, reason);
+        return connection;
+    }
+
+    private void count(String target, String reason) {
+        counters.computeIfAbsent(target + '/' + reason, key -> Counter.builder("datasource.routing")
+                .description("Выданные соединения по серверу и причине выбора")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry)).increment();
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Не удалось закрыть пул соединений: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.semavin.microservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Заменяет пул основного сервера, созданный Spring Boot, на {@link ReplicaRoutingDataSource}.
+ *
+ * <p>Выполняется раньше остальных обработчиков источников данных, поэтому подсчёт SQL-запросов
+ * оборачивает уже маршрутизирующий источник и учитывает запросы к репликам. Настройки основного пула
+ * ({@code spring.datasource.*}) и его метрики Spring Boot сохраняются: источник разворачивается до него.
+ * При остановке приложения закрываются пулы реплик и основного сервера.</p>
+ */
+public class ReplicaRoutingDataSourcePostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+    private final Function<HikariDataSource, ReplicaRoutingDataSource> routingFactory;
+    private final Map<String, ReplicaRoutingDataSource> routingDataSources = new ConcurrentHashMap<>();
+
+    /**
+     * @param routingFactory создаёт маршрутизирующий источник поверх пула основного сервера
+     */
+    public ReplicaRoutingDataSourcePostProcessor(Function<HikariDataSource, ReplicaRoutingDataSource> routingFactory) {
+        this.routingFactory = routingFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource primary) {
+            ReplicaRoutingDataSource routing = routingFactory.apply(primary);
+            routingDataSources.put(beanName, routing);
+            return new LazyConnectionDataSourceProxy(routing);
+        }
+        return bean;
+    }
+
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) {
+        ReplicaRoutingDataSource routing = routingDataSources.remove(beanName);
+        if (routing != null) {
+            routing.close();
+        }
+    }
+
+    @Override
+    public boolean requiresDestruction(Object bean) {
+        return bean instanceof DataSource && !routingDataSources.isEmpty();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
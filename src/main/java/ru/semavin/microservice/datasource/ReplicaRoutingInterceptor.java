@@ -0,0 +1,48 @@
+package ru.semavin.microservice.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Определяет пользователя, к данным которого обращается запрос, и кладёт его в {@link ReplicaRoutingContext}.
+ *
+ * <p>Пользователь берётся из переменной пути {@code userId} или {@code id} эндпоинтов
+ * {@code /api/v1/users/{id}}.</p>
+ */
+public class ReplicaRoutingInterceptor implements HandlerInterceptor {
+    private static final String USERS_PATH = "/api/v1/users/{id}";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReplicaRoutingContext.open(resolveUserId(request));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingContext.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Long resolveUserId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(variables instanceof Map<?, ?>)) {
+            return null;
+        }
+        Map<String, String> pathVariables = (Map<String, String>) variables;
+        String userId = pathVariables.get("userId");
+        if (userId == null) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            userId = pattern != null && pattern.toString().startsWith(USERS_PATH) ? pathVariables.get("id") : null;
+        }
+        try {
+            return userId != null ? Long.valueOf(userId) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.semavin.microservice.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Реплика для чтения и её последнее известное состояние.
+ *
+ * <p>Доступность обновляется проверкой {@link #check(double, int)}: реплика должна отвечать на запрос
+ * и отставать от основного сервера не больше допустимого. Ошибка соединения при выдаче исключает реплику
+ * до следующей успешной проверки.</p>
+ */
+@Slf4j
+public class ReplicaTarget {
+    /**
+     * Отставание воспроизведения WAL в секундах. Если всё полученное уже воспроизведено, отставания нет,
+     * даже когда основной сервер давно не выполнял запись; сервер не в режиме восстановления отставания
+     * не имеет.
+     */
+    static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean available;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaTarget(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * @return отставание по последней проверке в секундах или {@code NaN}, если оно неизвестно
+     */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Проверяет реплику и обновляет её доступность.
+     *
+     * @param maxLagSeconds  допустимое отставание в секундах
+     * @param timeoutSeconds таймаут запроса отставания
+     */
+    void check(double maxLagSeconds, int timeoutSeconds) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(timeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                double lag = resultSet.getDouble(1);
+                lagSeconds = resultSet.wasNull() ? Double.NaN : Math.max(lag, 0);
+            }
+        } catch (SQLException e) {
+            lagSeconds = Double.NaN;
+            markUnavailable("проверка не прошла: " + e.getMessage());
+            return;
+        }
+        if (Double.isNaN(lagSeconds)) {
+            markUnavailable("отставание неизвестно");
+            return;
+        }
+        if (lagSeconds > maxLagSeconds) {
+            markUnavailable(String.format("отставание %.1f с больше допустимого %.1f с", lagSeconds, maxLagSeconds));
+            return;
+        }
+        if (!available) {
+            log.info("Реплика {} доступна для чтения, отставание {} с", name, lagSeconds);
+            available = true;
+        }
+    }
+
+    void markUnavailable(String reason) {
+        if (available) {
+            log.warn("Реплика {} исключена из чтения: {}", name, reason);
+            available = false;
+        }
+    }
+}
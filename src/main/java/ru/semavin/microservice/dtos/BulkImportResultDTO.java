@@ -0,0 +1,58 @@
+package ru.semavin.microservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог массового импорта пользователей.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "BulkImportResultDTO", description = "Итог массового импорта пользователей")
+public class BulkImportResultDTO {
+
+    /**
+     * Количество прочитанных строк.
+     */
+    @Schema(description = "Количество прочитанных строк", example = "10000")
+    private long total;
+
+    /**
+     * Количество созданных пользователей.
+     */
+    @Schema(description = "Количество созданных пользователей", example = "9998")
+    private long created;
+
+    /**
+     * Количество строк с ошибками.
+     */
+    @Schema(description = "Количество строк с ошибками", example = "2")
+    private long failed;
+
+    /**
+     * Признак того, что импорт прерван из-за нечитаемых входных данных.
+     */
+    @Schema(description = "Импорт прерван из-за нечитаемых входных данных", example = "false")
+    private boolean aborted;
+
+    /**
+     * Длительность импорта в миллисекундах.
+     */
+    @Schema(description = "Длительность импорта, мс", example = "180")
+    private long elapsedMillis;
+
+    /**
+     * Ошибки по строкам (не больше {@code users.bulk.max-reported-errors}).
+     */
+    @Builder.Default
+    @Schema(description = "Ошибки по строкам")
+    private List<BulkImportRowErrorDTO> errors = new ArrayList<>();
+}
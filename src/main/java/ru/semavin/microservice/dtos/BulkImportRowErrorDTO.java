@@ -0,0 +1,38 @@
+package ru.semavin.microservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ошибка импорта одной строки.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "BulkImportRowErrorDTO", description = "Ошибка импорта строки")
+public class BulkImportRowErrorDTO {
+
+    /**
+     * Номер строки во входных данных, начиная с 1.
+     */
+    @Schema(description = "Номер строки во входных данных, начиная с 1", example = "42")
+    private long row;
+
+    /**
+     * Email из строки, если его удалось прочитать.
+     */
+    @Schema(description = "Email из строки", example = "ivan@example.com")
+    private String email;
+
+    /**
+     * Причины, по которым строка не была импортирована.
+     */
+    @Schema(description = "Причины ошибки")
+    private List<String> errors;
+}
@@ -0,0 +1,57 @@
+package ru.semavin.microservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO запроса на кампанию массовой подписки пользователей на сервис.
+ * <p>Пользователи задаются либо списком {@code userIds}, либо диапазоном ID
+ * {@code fromUserId}..{@code toUserId} (границы включительно, любая может быть опущена).</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "CampaignRequestDTO", description = "Кампания массовой подписки пользователей на сервис")
+public class CampaignRequestDTO {
+
+    /**
+     * Название сервиса, на который подписываются пользователи.
+     */
+    @Schema(description = "Название сервиса", example = "Яндекс.Плюс")
+    @NotBlank(message = "Название сервиса не может быть пустым")
+    @Size(max = 100, message = "Название сервиса должно содержать не более 100 символов")
+    private String serviceName;
+
+    /**
+     * Включены ли уведомления для создаваемых подписок.
+     */
+    @Schema(description = "Включены ли уведомления", example = "false")
+    private boolean notificationEnabled;
+
+    /**
+     * Явный список ID пользователей. Если задан, диапазон не используется.
+     */
+    @Schema(description = "Список ID пользователей", example = "[1, 2, 3]")
+    @Size(max = 1_000_000, message = "Список пользователей должен содержать не более 1000000 ID")
+    private List<Long> userIds;
+
+    /**
+     * Нижняя граница диапазона ID пользователей (включительно).
+     */
+    @Schema(description = "Нижняя граница диапазона ID (включительно)", example = "1")
+    private Long fromUserId;
+
+    /**
+     * Верхняя граница диапазона ID пользователей (включительно).
+     */
+    @Schema(description = "Верхняя граница диапазона ID (включительно)", example = "500000")
+    private Long toUserId;
+}
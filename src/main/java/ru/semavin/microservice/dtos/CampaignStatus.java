@@ -0,0 +1,23 @@
+package ru.semavin.microservice.dtos;
+
+/**
+ * Состояние фоновой задачи: кампании массовой подписки или рассылки уведомлений.
+ */
+public enum CampaignStatus {
+    /**
+     * Задача поставлена в очередь.
+     */
+    PENDING,
+    /**
+     * Задача выполняется.
+     */
+    RUNNING,
+    /**
+     * Задача успешно завершена.
+     */
+    COMPLETED,
+    /**
+     * Задача завершилась с ошибкой.
+     */
+    FAILED
+}
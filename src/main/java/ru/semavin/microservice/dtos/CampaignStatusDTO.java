@@ -0,0 +1,57 @@
+package ru.semavin.microservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO состояния кампании массовой подписки.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "CampaignStatusDTO", description = "Состояние кампании массовой подписки")
+public class CampaignStatusDTO {
+
+    @Schema(description = "Идентификатор кампании")
+    private UUID id;
+
+    @Schema(description = "Название сервиса", example = "Яндекс.Плюс")
+    private String serviceName;
+
+    @Schema(description = "Состояние кампании", example = "RUNNING")
+    private CampaignStatus status;
+
+    @Schema(description = "Количество пользователей в кампании, если известно заранее", example = "500000")
+    private Long totalUsers;
+
+    @Schema(description = "Количество обработанных пользователей", example = "120000")
+    private long processedUsers;
+
+    @Schema(description = "Количество созданных подписок", example = "119870")
+    private long createdSubscriptions;
+
+    @Schema(description = "Количество обработанных пачек", example = "24")
+    private long processedChunks;
+
+    @Schema(description = "Скорость обработки, пользователей в секунду", example = "41000")
+    private long usersPerSecond;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @Schema(description = "Время начала выполнения")
+    private LocalDateTime startedAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @Schema(description = "Время завершения")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Текст ошибки, если кампания завершилась неудачно")
+    private String error;
+}
@@ -0,0 +1,39 @@
+package ru.semavin.microservice.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница результатов с курсорной (keyset) пагинацией.
+ *
+ * @param <T> тип элементов страницы
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+
+    /**
+     * Элементы текущей страницы.
+     */
+    private List<T> items;
+
+    /**
+     * Непрозрачный курсор следующей страницы или {@code null}, если страница последняя.
+     */
+    private String nextCursor;
+
+    /**
+     * Версия данных, из которых построена страница (для ETag), или {@code null}, если она не отслеживается.
+     */
+    private Long version;
+
+    public CursorPageDTO(List<T> items, String nextCursor) {
+        this(items, nextCursor, null);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.semavin.microservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO состояния рассылки уведомлений.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "NotificationDispatchDTO", description = "Состояние рассылки уведомлений")
+public class NotificationDispatchDTO {
+
+    @Schema(description = "Идентификатор рассылки")
+    private UUID id;
+
+    @Schema(description = "Название сервиса", example = "Яндекс.Плюс")
+    private String serviceName;
+
+    @Schema(description = "Состояние рассылки", example = "RUNNING")
+    private CampaignStatus status;
+
+    @Schema(description = "Количество прочитанных получателей", example = "1200000")
+    private long scannedRecipients;
+
+    @Schema(description = "Количество получателей, которым уведомление доставлено", example = "1190000")
+    private long deliveredRecipients;
+
+    @Schema(description = "Количество получателей, которым уведомление не доставлено после всех попыток", example = "0")
+    private long failedRecipients;
+
+    @Schema(description = "Количество доставленных пачек", example = "1190")
+    private long deliveredBatches;
+
+    @Schema(description = "Количество пачек, не доставленных после всех попыток", example = "0")
+    private long failedBatches;
+
+    @Schema(description = "Количество повторных попыток доставки пачек", example = "3")
+    private long retries;
+
+    @Schema(description = "Пачки, ожидающие доставки или доставляемые сейчас", example = "12")
+    private int pendingBatches;
+
+    @Schema(description = "Скорость доставки, получателей в секунду", example = "250000")
+    private long recipientsPerSecond;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @Schema(description = "Время начала выполнения")
+    private LocalDateTime startedAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @Schema(description = "Время завершения")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Текст ошибки, если рассылка завершилась неудачно")
+    private String error;
+}
@@ -0,0 +1,37 @@
+package ru.semavin.microservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO запроса на рассылку уведомления подписчикам сервиса.
+ * <p>Уведомление получают только подписки с {@code notificationEnabled = true}.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "NotificationRequestDTO", description = "Рассылка уведомления подписчикам сервиса")
+public class NotificationRequestDTO {
+
+    /**
+     * Название сервиса, подписчикам которого отправляется уведомление.
+     */
+    @Schema(description = "Название сервиса", example = "Яндекс.Плюс")
+    @NotBlank(message = "Название сервиса не может быть пустым")
+    @Size(max = 100, message = "Название сервиса должно содержать не более 100 символов")
+    private String serviceName;
+
+    /**
+     * Содержимое уведомления.
+     */
+    @Schema(description = "Содержимое уведомления", example = "Новый сезон уже доступен")
+    @NotBlank(message = "Содержимое уведомления не может быть пустым")
+    @Size(max = 4000, message = "Содержимое уведомления должно содержать не более 4000 символов")
+    private String payload;
+}
@@ -0,0 +1,31 @@
+package ru.semavin.microservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO запроса на оформление нескольких подписок одним запросом.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "SubscriptionBatchRequestDTO", description = "Набор подписок для оформления одним запросом")
+public class SubscriptionBatchRequestDTO {
+
+    /**
+     * Подписки, которые нужно оформить.
+     */
+    @Schema(description = "Подписки, которые нужно оформить")
+    @NotEmpty(message = "Список подписок не может быть пустым")
+    @Size(max = 100, message = "За один запрос можно оформить не более 100 подписок")
+    private List<@Valid SubscriptionDTO> subscriptions;
+}
@@ -0,0 +1,32 @@
+package ru.semavin.microservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO результата оформления нескольких подписок.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "SubscriptionBatchResultDTO", description = "Результат оформления нескольких подписок")
+public class SubscriptionBatchResultDTO {
+
+    /**
+     * Подписки, созданные этим запросом.
+     */
+    @Schema(description = "Созданные подписки")
+    private List<SubscriptionDTO> created;
+
+    /**
+     * Подписки, которые уже были оформлены ранее.
+     */
+    @Schema(description = "Ранее оформленные подписки")
+    private List<SubscriptionDTO> existing;
+}
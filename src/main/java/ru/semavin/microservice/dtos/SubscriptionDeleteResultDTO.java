@@ -0,0 +1,24 @@
+package ru.semavin.microservice.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO результата массовой отмены подписок.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(name = "SubscriptionDeleteResultDTO", description = "Результат массовой отмены подписок")
+public class SubscriptionDeleteResultDTO {
+
+    /**
+     * Количество удалённых подписок.
+     */
+    @Schema(description = "Количество удалённых подписок", example = "2")
+    private long deleted;
+}
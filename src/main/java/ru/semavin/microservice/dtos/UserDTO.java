@@ -1,5 +1,6 @@
 package ru.semavin.microservice.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -41,4 +42,14 @@ public class UserDTO {
     @NotNull(message = "Email не может быть пустым")
     @Email(message = "Некорректный формат email")
     private String email;
+
+    /**
+     * Версия пользователя, из которой строится ETag ответа. В тело запросов и ответов не входит.
+     */
+    @JsonIgnore
+    private Long version;
+
+    public UserDTO(Long id, String name, String email) {
+        this(id, name, email, null);
+    }
 }
@@ -0,0 +1,46 @@
+package ru.semavin.microservice.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускает не больше {@code maxPerSecond} событий в секунду, остальные отбрасывает.
+ * <p>
+ * Используется для канала SQL-логов: при всплеске нагрузки он не должен вытеснять
+ * из очереди остальные события и нагружать вывод.
+ * </p>
+ */
+public class RateLimitingFilter extends Filter<ILoggingEvent> {
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private int maxPerSecond = 20;
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * @return число отброшенных событий с момента запуска
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            passed.set(0);
+        }
+        if (passed.incrementAndGet() > maxPerSecond) {
+            dropped.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.semavin.microservice.logging;
+
+/**
+ * Ключи MDC для выборочного логирования запросов.
+ */
+public final class RequestLogSampling {
+    /**
+     * Эндпоинт текущего запроса: метод и шаблон пути, например {@code GET /api/v1/users/{id}}.
+     */
+    public static final String ENDPOINT_KEY = "endpoint";
+
+    /**
+     * {@code "false"}, если рутинные события текущего запроса не попали в выборку.
+     */
+    public static final String SAMPLED_KEY = "sampled";
+
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private RequestLogSampling() {}
+}
@@ -0,0 +1,48 @@
+package ru.semavin.microservice.logging;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отбирает запросы, рутинные события которых попадут в лог.
+ *
+ * <p>Для каждого эндпоинта отдельно в выборку попадает каждый {@code rate}-й запрос, поэтому
+ * редкие эндпоинты не теряются на фоне частых. Решение принимается на весь запрос и кладётся в MDC,
+ * а {@link SampledRequestTurboFilter} отбрасывает события ниже WARN из запросов вне выборки
+ * ещё до форматирования сообщения.</p>
+ */
+public class RequestLogSamplingInterceptor implements HandlerInterceptor {
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final int rate;
+
+    /**
+     * @param rate в выборку попадает один запрос из {@code rate}; 1 — логировать все запросы
+     */
+    public RequestLogSamplingInterceptor(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        boolean sampled = rate <= 1
+                || counters.computeIfAbsent(endpoint, key -> new AtomicLong()).getAndIncrement() % rate == 0;
+        MDC.put(RequestLogSampling.ENDPOINT_KEY, endpoint);
+        MDC.put(RequestLogSampling.SAMPLED_KEY, Boolean.toString(sampled));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MDC.remove(RequestLogSampling.ENDPOINT_KEY);
+        MDC.remove(RequestLogSampling.SAMPLED_KEY);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.semavin.microservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Отбрасывает события ниже WARN из запросов, не попавших в выборку {@link RequestLogSamplingInterceptor}.
+ * <p>
+ * Turbo-фильтр вызывается до создания события, поэтому отброшенное сообщение не форматируется
+ * и не попадает в очередь асинхронного аппендера. Предупреждения и ошибки пишутся всегда.
+ * </p>
+ */
+public class SampledRequestTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level.toInt() < Level.WARN_INT && "false".equals(MDC.get(RequestLogSampling.SAMPLED_KEY))) {
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
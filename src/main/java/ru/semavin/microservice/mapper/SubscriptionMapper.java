@@ -1,13 +1,18 @@
 package ru.semavin.microservice.mapper;
 
+import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.semavin.microservice.dtos.SubscriptionDTO;
 import ru.semavin.microservice.models.Subscription;
+import ru.semavin.microservice.services.ServiceNameDictionary;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = ServiceNameDictionary.class, injectionStrategy = InjectionStrategy.CONSTRUCTOR)
 public interface SubscriptionMapper {
+    // ID сервиса может потребовать добавления в справочник, его задаёт сервисный слой
+    @Mapping(target = "serviceId", ignore = true)
     Subscription toSubscription(SubscriptionDTO dto);
     @Mapping(source = "user.id", target = "userId")
+    @Mapping(source = "serviceId", target = "serviceName", qualifiedByName = "serviceName")
     SubscriptionDTO toSubscriptionDTO(Subscription subscription);
 }
@@ -2,6 +2,7 @@ package ru.semavin.microservice.mapper;
 
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import ru.semavin.microservice.dtos.UserDTO;
@@ -10,7 +11,9 @@ import ru.semavin.microservice.models.User;
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     UserDTO userToUserDTO(User user);
+    @Mapping(target = "version", ignore = true)
     User userDTOToUser(UserDTO userDTO);
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
     void updateUserFromDto(UserDTO source, @MappingTarget User target);
 }
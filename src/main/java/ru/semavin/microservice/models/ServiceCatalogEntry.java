@@ -0,0 +1,26 @@
+package ru.semavin.microservice.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Запись справочника сервисов: подписки хранят компактный {@code id} вместо названия.
+ */
+@Entity
+@Table(name = "services",
+        uniqueConstraints = @UniqueConstraint(name = "uk_services_name", columnNames = "name"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceCatalogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+}
@@ -6,7 +6,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "subscriptions")
+@Table(name = "subscriptions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_subscriptions_user_service", columnNames = {"user_id", "service_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,15 +15,20 @@ import java.time.LocalDateTime;
 public class Subscription {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscriptions_seq")
+    @SequenceGenerator(name = "subscriptions_seq", sequenceName = "subscriptions_seq", allocationSize = 50)
     private Long id;
 
+    // Ленивая связь: toString/equals не должны её инициализировать
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(name = "service_name", nullable = false, length = 100)
-    private String serviceName;
+    // ID из справочника services, название — через ServiceNameDictionary
+    @Column(name = "service_id", nullable = false)
+    private Integer serviceId;
 
     @Column(name = "notification_enabled", nullable = false)
     private boolean notificationEnabled;
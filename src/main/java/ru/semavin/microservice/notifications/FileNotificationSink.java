@@ -0,0 +1,97 @@
+package ru.semavin.microservice.notifications;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Канал доставки, дописывающий уведомления в файл NDJSON: одна строка
+ * {@code {"dispatchId":…,"serviceName":…,"payload":…,"userId":…}} на получателя.
+ *
+ * <p>Используется по умолчанию ({@code notifications.sink.type=file}) для локального запуска и нагрузочных
+ * проверок рассылки. Файл {@code notifications.sink.path} открывается при первой доставке, пачки пишутся
+ * целиком под блокировкой и сбрасываются на диск после каждой пачки.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notifications.sink.type", havingValue = "file", matchIfMissing = true)
+public class FileNotificationSink implements NotificationSink {
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final ReentrantLock lock = new ReentrantLock();
+    private BufferedWriter writer;
+
+    public FileNotificationSink(ObjectMapper objectMapper,
+                                @Value("${notifications.sink.path:notifications.ndjson}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public void deliver(NotificationBatch batch) {
+        String prefix;
+        try {
+            // Общая для всех получателей часть строки сериализуется один раз на пачку
+            prefix = "{\"dispatchId\":\"" + batch.dispatchId()
+                    + "\",\"serviceName\":" + objectMapper.writeValueAsString(batch.serviceName())
+                    + ",\"payload\":" + objectMapper.writeValueAsString(batch.payload())
+                    + ",\"userId\":";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать уведомление", e);
+        }
+        lock.lock();
+        try {
+            BufferedWriter out = writer();
+            for (long userId : batch.userIds()) {
+                out.write(prefix);
+                out.write(Long.toString(userId));
+                out.write("}\n");
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        lock.lock();
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть файл уведомлений {}: {}", path, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BufferedWriter writer() throws IOException {
+        if (writer == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info("Уведомления пишутся в файл {}", path.toAbsolutePath());
+        }
+        return writer;
+    }
+}
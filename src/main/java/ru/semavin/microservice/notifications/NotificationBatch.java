@@ -0,0 +1,14 @@
+package ru.semavin.microservice.notifications;
+
+import java.util.UUID;
+
+/**
+ * Пачка получателей одного уведомления.
+ *
+ * @param dispatchId  идентификатор рассылки
+ * @param serviceName сервис, подписчикам которого отправляется уведомление
+ * @param payload     содержимое уведомления
+ * @param userIds     ID получателей по возрастанию
+ */
+public record NotificationBatch(UUID dispatchId, String serviceName, String payload, long[] userIds) {
+}
@@ -0,0 +1,20 @@
+package ru.semavin.microservice.notifications;
+
+/**
+ * Канал доставки уведомлений.
+ *
+ * <p>Получает пачки по {@code notifications.batch-size} получателей из нескольких потоков одновременно.
+ * Исключение означает, что пачка не доставлена целиком: она будет отправлена повторно, поэтому доставка
+ * должна быть идемпотентной по паре {@code (dispatchId, userId)}. Реализация выбирается свойством
+ * {@code notifications.sink.type}.</p>
+ */
+public interface NotificationSink {
+
+    /**
+     * Доставляет уведомление всем получателям пачки.
+     *
+     * @param batch пачка получателей
+     * @throws RuntimeException если пачку нужно отправить повторно
+     */
+    void deliver(NotificationBatch batch);
+}
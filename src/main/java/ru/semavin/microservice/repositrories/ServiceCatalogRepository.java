@@ -0,0 +1,25 @@
+package ru.semavin.microservice.repositrories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.semavin.microservice.models.ServiceCatalogEntry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ServiceCatalogRepository extends JpaRepository<ServiceCatalogEntry, Integer> {
+    @Query("SELECT s FROM ServiceCatalogEntry s WHERE s.name IN :names")
+    List<ServiceCatalogEntry> findByNameIn(@Param("names") Collection<String> names);
+
+    /**
+     * Добавляет сервис, если его ещё нет. Если сервис добавлен параллельной транзакцией, запрос ждёт её
+     * завершения и ничего не возвращает — ID читается следующим запросом через {@link #findByNameIn(Collection)}.
+     */
+    @Query(value = "INSERT INTO services (name) VALUES (:name) ON CONFLICT (name) DO NOTHING RETURNING id",
+            nativeQuery = true)
+    Optional<Integer> insertIfAbsent(@Param("name") String name);
+}
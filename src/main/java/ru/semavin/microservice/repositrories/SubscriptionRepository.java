@@ -1,26 +1,137 @@
 package ru.semavin.microservice.repositrories;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.semavin.microservice.dtos.SubscriptionTopDTO;
 import ru.semavin.microservice.models.Subscription;
-import ru.semavin.microservice.models.User;
+import ru.semavin.microservice.repositrories.projections.SubscriptionEventView;
+import ru.semavin.microservice.repositrories.projections.SubscriptionRowView;
+import ru.semavin.microservice.repositrories.projections.UserSubscriptionView;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
-    Optional<Subscription> findByUser(User user);
+    /**
+     * Часть запроса, увеличивающая версию пользователя {@code :userId}, если CTE {@code changed} вернул строки.
+     * Так список подписок получает новый ETag тем же запросом, которым он изменён.
+     */
+    String TOUCH_USER = "touched AS (UPDATE users SET version = version + 1 " +
+            "WHERE id = :userId AND EXISTS (SELECT 1 FROM changed))";
+
+    /**
+     * Увеличивает версию пользователей, получивших подписку в CTE {@code changed}, и возвращает их ID.
+     */
+    String TOUCH_CHANGED_USERS = "UPDATE users SET version = version + 1 " +
+            "WHERE id IN (SELECT user_id FROM changed) RETURNING id";
+
+    @Query("SELECT s.id AS id, s.serviceId AS serviceId, s.notificationEnabled AS notificationEnabled, " +
+            "u.version AS userVersion " +
+            "FROM User u LEFT JOIN Subscription s ON s.user.id = u.id AND s.id > :afterId " +
+            "AND (:serviceId IS NULL OR s.serviceId = :serviceId) " +
+            "WHERE u.id = :userId ORDER BY s.id")
+    List<UserSubscriptionView> findPageByUserId(@Param("userId") Long userId,
+                                                @Param("afterId") long afterId,
+                                                @Param("serviceId") Integer serviceId,
+                                                Limit limit);
+
+    @Query(value = "WITH changed AS (" +
+            "INSERT INTO subscriptions (id, user_id, service_id, notification_enabled, created_at) " +
+            "VALUES (nextval('subscriptions_seq'), :userId, :serviceId, :notificationEnabled, :createdAt) " +
+            "ON CONFLICT (user_id, service_id) DO NOTHING RETURNING id), " +
+            TOUCH_USER + " SELECT id FROM changed",
+            nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("userId") Long userId,
+                                  @Param("serviceId") int serviceId,
+                                  @Param("notificationEnabled") boolean notificationEnabled,
+                                  @Param("createdAt") LocalDateTime createdAt);
+
+    @Query(value = "WITH changed AS (" +
+            "DELETE FROM subscriptions WHERE id = :id AND user_id = :userId RETURNING service_id), " +
+            TOUCH_USER + " SELECT service_id FROM changed",
+            nativeQuery = true)
+    Optional<Integer> deleteByIdAndUserIdReturningServiceId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query(value = "WITH changed AS (" +
+            "DELETE FROM subscriptions WHERE user_id = :userId AND service_id IN (:serviceIds) " +
+            "RETURNING service_id), " +
+            TOUCH_USER + " SELECT service_id FROM changed",
+            nativeQuery = true)
+    List<Integer> deleteByUserIdAndServiceIdIn(@Param("userId") Long userId,
+                                               @Param("serviceIds") Collection<Integer> serviceIds);
+
+    @Query(value = "WITH changed AS (" +
+            "DELETE FROM subscriptions WHERE user_id = :userId AND id IN (:ids) RETURNING service_id), " +
+            TOUCH_USER + " SELECT service_id FROM changed",
+            nativeQuery = true)
+    List<Integer> deleteByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new ru.semavin.microservice.dtos.SubscriptionTopDTO(c.name, COUNT(s)) " +
+            "FROM Subscription s JOIN ServiceCatalogEntry c ON c.id = s.serviceId GROUP BY c.id, c.name")
+    List<SubscriptionTopDTO> countByServiceName();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.serviceId AS serviceId, s.createdAt AS createdAt FROM Subscription s " +
+            "WHERE s.createdAt >= :since")
+    Stream<SubscriptionEventView> streamEventsCreatedAfter(@Param("since") LocalDateTime since);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id AS id, s.user.id AS userId, s.serviceId AS serviceId, " +
+            "s.notificationEnabled AS notificationEnabled FROM Subscription s ORDER BY s.id")
+    Stream<SubscriptionRowView> streamAllRows();
+
+    @Query("SELECT s.id AS id, s.user.id AS userId, s.serviceId AS serviceId, " +
+            "s.notificationEnabled AS notificationEnabled " +
+            "FROM Subscription s WHERE s.user.id = :userId AND s.serviceId IN :serviceIds")
+    List<SubscriptionRowView> findRowsByUserIdAndServiceIdIn(@Param("userId") Long userId,
+                                                             @Param("serviceIds") Collection<Integer> serviceIds);
 
-    boolean existsByUserAndServiceName(User user, String serviceName);
+    @Query("SELECT s.serviceId FROM Subscription s WHERE s.user.id = :userId")
+    List<Integer> findServiceIdsByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT s.serviceName FROM Subscription s GROUP BY s.serviceName ORDER BY COUNT(s.serviceName) DESC")
-    List<String> findAllTop();
+    /**
+     * Следующая страница получателей уведомлений сервиса по возрастанию ID пользователя (keyset по индексу
+     * {@code idx_subscriptions_service_user_covering}).
+     */
+    @Query("SELECT s.user.id FROM Subscription s WHERE s.serviceId = :serviceId " +
+            "AND s.notificationEnabled = true AND s.user.id > :afterUserId ORDER BY s.user.id")
+    List<Long> findNotificationRecipients(@Param("serviceId") int serviceId,
+                                          @Param("afterUserId") long afterUserId,
+                                          Limit limit);
 
-    List<Subscription> findByServiceNameIn(List<String> serviceNames);
+    @Query(value = "WITH changed AS (" +
+            "INSERT INTO subscriptions (id, user_id, service_id, notification_enabled, created_at) " +
+            "SELECT nextval('subscriptions_seq'), u.id, :serviceId, :notificationEnabled, :createdAt " +
+            "FROM users u WHERE u.id IN (:userIds) " +
+            "ON CONFLICT (user_id, service_id) DO NOTHING RETURNING user_id) " +
+            TOUCH_CHANGED_USERS,
+            nativeQuery = true)
+    List<Long> subscribeUsers(@Param("userIds") Collection<Long> userIds,
+                       @Param("serviceId") int serviceId,
+                       @Param("notificationEnabled") boolean notificationEnabled,
+                       @Param("createdAt") LocalDateTime createdAt);
 
-    @Query("SELECT COUNT(s) > 0 FROM Subscription s WHERE s.id = :subId AND s.user.id = :userId")
-    boolean existsByIdAndUserId(@Param("subId") Long subId, @Param("userId") Long userId);
+    @Query(value = "WITH changed AS (" +
+            "INSERT INTO subscriptions (id, user_id, service_id, notification_enabled, created_at) " +
+            "SELECT nextval('subscriptions_seq'), u.id, :serviceId, :notificationEnabled, :createdAt " +
+            "FROM users u WHERE u.id > :afterId AND u.id <= :upToId " +
+            "ON CONFLICT (user_id, service_id) DO NOTHING RETURNING user_id) " +
+            TOUCH_CHANGED_USERS,
+            nativeQuery = true)
+    List<Long> subscribeUserRange(@Param("afterId") long afterId,
+                           @Param("upToId") long upToId,
+                           @Param("serviceId") int serviceId,
+                           @Param("notificationEnabled") boolean notificationEnabled,
+                           @Param("createdAt") LocalDateTime createdAt);
 }
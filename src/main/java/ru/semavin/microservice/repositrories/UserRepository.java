@@ -1,11 +1,65 @@
 package ru.semavin.microservice.repositrories;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.semavin.microservice.models.User;
+import ru.semavin.microservice.repositrories.projections.UserIdChunkView;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository  extends JpaRepository<User, Long> {
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.version = u.version + 1 WHERE u.id = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
+
+    /**
+     * ID пользователя по email без учёта регистра (индекс {@code lower(email)}).
+     *
+     * @param email email в нижнем регистре, см. {@link ru.semavin.microservice.services.UserEmailRegistry#normalize(String)}
+     */
+    @Query("SELECT u.id FROM User u WHERE lower(u.email) = :email")
+    Optional<Long> findIdByNormalizedEmail(@Param("email") String email);
+
+    /**
+     * Пользователь по email без учёта регистра (индекс {@code lower(email)}).
+     *
+     * @param email email в нижнем регистре, см. {@link ru.semavin.microservice.services.UserEmailRegistry#normalize(String)}
+     */
+    @Query("SELECT u FROM User u WHERE lower(u.email) = :email")
+    Optional<User> findByNormalizedEmail(@Param("email") String email);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+
+    @Query(value = "SELECT COUNT(*) AS users, MAX(chunk.id) AS upperId FROM " +
+            "(SELECT id FROM users WHERE id > :afterId AND id <= :maxId ORDER BY id LIMIT :limit) chunk",
+            nativeQuery = true)
+    UserIdChunkView findNextIdChunk(@Param("afterId") long afterId,
+                                    @Param("maxId") long maxId,
+                                    @Param("limit") int limit);
 }
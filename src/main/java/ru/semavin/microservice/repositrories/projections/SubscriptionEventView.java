@@ -0,0 +1,12 @@
+package ru.semavin.microservice.repositrories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция события оформления подписки: ID сервиса и время создания.
+ */
+public interface SubscriptionEventView {
+    Integer getServiceId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,14 @@
+package ru.semavin.microservice.repositrories.projections;
+
+/**
+ * Проекция подписки без загрузки сущности: сервис задан ID из справочника {@code services}.
+ */
+public interface SubscriptionRowView {
+    Long getId();
+
+    Long getUserId();
+
+    Integer getServiceId();
+
+    Boolean getNotificationEnabled();
+}
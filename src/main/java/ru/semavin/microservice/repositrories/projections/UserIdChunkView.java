@@ -0,0 +1,10 @@
+package ru.semavin.microservice.repositrories.projections;
+
+/**
+ * Проекция очередного диапазона ID пользователей: количество пользователей и наибольший ID в нём.
+ */
+public interface UserIdChunkView {
+    long getUsers();
+
+    Long getUpperId();
+}
@@ -0,0 +1,16 @@
+package ru.semavin.microservice.repositrories.projections;
+
+/**
+ * Проекция строки выборки подписок пользователя.
+ * <p>Для существующего пользователя без подходящих подписок выборка содержит одну строку,
+ * в которой все поля подписки равны {@code null}. Версия пользователя есть в каждой строке.</p>
+ */
+public interface UserSubscriptionView {
+    Long getId();
+
+    Integer getServiceId();
+
+    Boolean getNotificationEnabled();
+
+    Long getUserVersion();
+}
@@ -0,0 +1,17 @@
+package ru.semavin.microservice.schema;
+
+import java.util.List;
+
+/**
+ * Индекс в схеме базы.
+ *
+ * @param table   таблица
+ * @param name    имя индекса
+ * @param columns столбцы или выражения ключа без {@code INCLUDE}-столбцов
+ * @param unique  уникальный индекс
+ * @param valid   индекс построен; прерванный {@code CREATE INDEX CONCURRENTLY} оставляет невалидный индекс
+ * @param partial частичный индекс ({@code WHERE ...})
+ */
+public record IndexDefinition(String table, String name, List<String> columns,
+                              boolean unique, boolean valid, boolean partial) {
+}
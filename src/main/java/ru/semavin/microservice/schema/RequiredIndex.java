@@ -0,0 +1,37 @@
+package ru.semavin.microservice.schema;
+
+import java.util.List;
+
+/**
+ * Индекс, без которого запрос приложения читает таблицу целиком.
+ *
+ * <p>Требование выполняет любой валидный полный (без {@code WHERE}) индекс таблицы, ключ которого начинается
+ * с {@code columns}; уникальный — только уникальный индекс ровно по {@code columns}. Имя индекса не важно:
+ * база, созданная {@code ddl-auto}, и база, созданная миграциями, называют ограничения по-разному.</p>
+ *
+ * @param table   таблица
+ * @param columns столбцы ключа индекса в порядке индекса
+ * @param unique  требуется уникальный индекс
+ * @param usedBy  запросы, которым нужен индекс (для сообщения об ошибке)
+ */
+public record RequiredIndex(String table, List<String> columns, boolean unique, String usedBy) {
+
+    /**
+     * @return {@code true}, если индекс выполняет требование
+     */
+    boolean isSatisfiedBy(IndexDefinition index) {
+        if (!index.valid() || index.partial() || !index.table().equals(table)) {
+            return false;
+        }
+        if (unique) {
+            return index.unique() && index.columns().equals(columns);
+        }
+        return index.columns().size() >= columns.size()
+                && index.columns().subList(0, columns.size()).equals(columns);
+    }
+
+    @Override
+    public String toString() {
+        return table + " (" + String.join(", ", columns) + ")" + (unique ? " UNIQUE" : "") + " — " + usedBy;
+    }
+}
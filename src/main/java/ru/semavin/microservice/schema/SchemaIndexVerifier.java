@@ -0,0 +1,102 @@
+package ru.semavin.microservice.schema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Проверяет, что в схеме есть индексы, на которые рассчитаны запросы репозиториев.
+ *
+ * <p>Выполняется при запуске после миграций: база, где индекс не создан или его построение прервано,
+ * останавливает запуск, а не деградирует до чтения таблиц целиком под нагрузкой.</p>
+ */
+@Slf4j
+public class SchemaIndexVerifier {
+    /**
+     * Индексы горячих запросов {@link ru.semavin.microservice.repositrories.UserRepository},
+     * {@link ru.semavin.microservice.repositrories.SubscriptionRepository} и
+     * {@link ru.semavin.microservice.repositrories.ServiceCatalogRepository}.
+     */
+    public static final List<RequiredIndex> REQUIRED_INDEXES = List.of(
+            new RequiredIndex("users", List.of("id"), true, "поиск и страницы пользователей"),
+            new RequiredIndex("users", List.of("email"), true, "уникальность email"),
+            new RequiredIndex("users", List.of("lower(email::text)"), true,
+                    "проверка занятости и поиск email без учёта регистра"),
+            new RequiredIndex("services", List.of("id"), true, "название сервиса по ID"),
+            new RequiredIndex("services", List.of("name"), true, "ID сервиса по названию, ON CONFLICT при добавлении"),
+            new RequiredIndex("subscriptions", List.of("id"), true, "удаление и выгрузка подписок"),
+            new RequiredIndex("subscriptions", List.of("user_id", "service_id"), true,
+                    "ON CONFLICT при оформлении подписки, подписки пользователя по сервисам"),
+            new RequiredIndex("subscriptions", List.of("user_id", "id"), false,
+                    "страница подписок пользователя, удаление пользователя"),
+            new RequiredIndex("subscriptions", List.of("service_id", "user_id"), false,
+                    "ТОП подписок, получатели уведомлений"),
+            new RequiredIndex("subscriptions", List.of("created_at"), false, "окно трендовых подписок"));
+
+    private static final String INDEXES_QUERY = """
+            SELECT t.relname AS table_name,
+                   i.relname AS index_name,
+                   ARRAY(SELECT pg_get_indexdef(ix.indexrelid, k, true)
+                         FROM generate_series(1, ix.indnkeyatts) AS k
+                         ORDER BY k) AS columns,
+                   ix.indisunique AS is_unique,
+                   ix.indisvalid AS is_valid,
+                   ix.indpred IS NOT NULL AS is_partial
+            FROM pg_index ix
+                     JOIN pg_class i ON i.oid = ix.indexrelid
+                     JOIN pg_class t ON t.oid = ix.indrelid
+            WHERE t.relnamespace = current_schema()::regnamespace
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<RequiredIndex> requiredIndexes;
+
+    public SchemaIndexVerifier(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, REQUIRED_INDEXES);
+    }
+
+    SchemaIndexVerifier(JdbcTemplate jdbcTemplate, List<RequiredIndex> requiredIndexes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiredIndexes = requiredIndexes;
+    }
+
+    /**
+     * @throws IllegalStateException если какого-то индекса нет или он невалиден
+     */
+    public void verify() {
+        List<IndexDefinition> indexes = jdbcTemplate.query(INDEXES_QUERY, (rs, rowNum) -> new IndexDefinition(
+                rs.getString("table_name"),
+                rs.getString("index_name"),
+                toList(rs.getArray("columns")),
+                rs.getBoolean("is_unique"),
+                rs.getBoolean("is_valid"),
+                rs.getBoolean("is_partial")));
+        List<RequiredIndex> missing = missing(indexes);
+        if (!missing.isEmpty()) {
+            List<String> invalid = indexes.stream()
+                    .filter(index -> !index.valid())
+                    .map(index -> index.table() + "." + index.name())
+                    .toList();
+            throw new IllegalStateException("В схеме нет индексов: " + missing
+                    + (invalid.isEmpty() ? "" : "; невалидные индексы (удалите и перезапустите миграции): " + invalid));
+        }
+        log.info("Индексы схемы проверены: все {} требуемых на месте", requiredIndexes.size());
+    }
+
+    /**
+     * @return требования, которые не выполняет ни один индекс
+     */
+    List<RequiredIndex> missing(List<IndexDefinition> indexes) {
+        return requiredIndexes.stream()
+                .filter(required -> indexes.stream().noneMatch(required::isSatisfiedBy))
+                .toList();
+    }
+
+    private static List<String> toList(Array array) throws SQLException {
+        return Arrays.asList((String[]) array.getArray());
+    }
+}
@@ -0,0 +1,87 @@
+package ru.semavin.microservice.services;
+
+import ru.semavin.microservice.dtos.CampaignStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Жизненный цикл фоновой задачи: очередь, выполнение, завершение или ошибка.
+ *
+ * <p>Скорость обработки считается по интервалу от запуска до завершения, поэтому после завершения
+ * она не меняется.</p>
+ */
+abstract class BackgroundJob {
+    private final UUID id;
+    private volatile CampaignStatus status = CampaignStatus.PENDING;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    BackgroundJob(UUID id) {
+        this.id = id;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    CampaignStatus getStatus() {
+        return status;
+    }
+
+    LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    String getError() {
+        return error;
+    }
+
+    void start() {
+        startedNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        status = CampaignStatus.RUNNING;
+    }
+
+    void complete() {
+        finish(CampaignStatus.COMPLETED);
+    }
+
+    void fail(String message) {
+        error = message;
+        finish(CampaignStatus.FAILED);
+    }
+
+    boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    /**
+     * Возвращает скорость обработки: {@code count} в секунду от запуска до завершения или до текущего момента.
+     *
+     * @param count количество обработанных элементов
+     * @return элементов в секунду или 0, если задача не запускалась
+     */
+    long perSecond(long count) {
+        if (startedAt == null) {
+            return 0;
+        }
+        long endNanos = isFinished() ? finishedNanos : System.nanoTime();
+        long elapsedMillis = Math.max(1, (endNanos - startedNanos) / 1_000_000);
+        return count * 1000 / elapsedMillis;
+    }
+
+    private void finish(CampaignStatus finalStatus) {
+        // finishedNanos записывается до finishedAt: по finishedAt читатели определяют завершение
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.semavin.microservice.services;
+
+import ru.semavin.microservice.util.ExceptionFactory;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Фоновые задачи одного вида: постановка в ограниченную очередь и состояние по идентификатору.
+ *
+ * <p>Хранятся не больше {@code retainedJobs} задач: при превышении удаляются самые давно завершённые.
+ * Задача, которую пул отклонил, не сохраняется — клиент получает ошибку и повторяет запрос.</p>
+ *
+ * @param <J> тип задачи
+ */
+final class BackgroundJobs<J extends BackgroundJob> {
+    private final String queueName;
+    private final Map<UUID, J> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * @param queueName название очереди для сообщения о переполнении, например «кампаний»
+     */
+    BackgroundJobs(String queueName) {
+        this.queueName = queueName;
+    }
+
+    /**
+     * Ставит задачу в очередь пула.
+     *
+     * @param job          задача
+     * @param executor     пул с ограниченной очередью
+     * @param task         выполнение задачи
+     * @param retainedJobs сколько задач хранить
+     * @throws ru.semavin.microservice.util.exceptions.JobQueueFullException если очередь пула заполнена
+     */
+    void submit(J job, Executor executor, Runnable task, int retainedJobs) {
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw ExceptionFactory.jobQueueFull(queueName);
+        }
+        evictFinished(retainedJobs);
+    }
+
+    /**
+     * @param id идентификатор задачи
+     * @return задача или {@code null}, если её нет или она уже удалена
+     */
+    J get(UUID id) {
+        return jobs.get(id);
+    }
+
+    private void evictFinished(int retainedJobs) {
+        int excess = jobs.size() - retainedJobs;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(BackgroundJob::isFinished)
+                .sorted(Comparator.comparing(BackgroundJob::getFinishedAt))
+                .limit(excess)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+}
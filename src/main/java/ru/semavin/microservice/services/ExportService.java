@@ -0,0 +1,120 @@
+package ru.semavin.microservice.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.mapper.UserMapper;
+import ru.semavin.microservice.models.User;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.repositrories.UserRepository;
+import ru.semavin.microservice.repositrories.projections.SubscriptionRowView;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выгрузки данных в формате NDJSON (один JSON-объект на строку).
+ *
+ * <p>Строки читаются из базы однонаправленным курсором с ограниченным fetch size и сразу
+ * пишутся в выходной поток, поэтому выгрузка занимает постоянный объём памяти при любом
+ * размере таблицы. Для сущностей контекст персистентности периодически очищается.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+    private static final int PROGRESS_LOG_EVERY = 100_000;
+
+    private final UserRepository userRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final ServiceNameDictionary serviceNameDictionary;
+    private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${export.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Тайм-аут асинхронной обработки запроса выгрузки: выгрузка большой таблицы идёт дольше обычного ответа.
+     */
+    @Getter
+    @Value("${export.request-timeout:30m}")
+    private Duration requestTimeout;
+
+    /**
+     * Выгружает всех пользователей в NDJSON, упорядоченных по ID.
+     *
+     * @param out выходной поток ответа
+     * @return количество выгруженных строк
+     * @throws IOException при ошибке записи в поток
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out) throws IOException {
+        try (Stream<User> users = userRepository.streamAll()) {
+            return write("пользователей", out, users.map(userMapper::userToUserDTO).iterator());
+        }
+    }
+
+    /**
+     * Выгружает все подписки в NDJSON, упорядоченные по ID.
+     * <p>Подписки читаются в проекцию без создания сущностей, названия сервисов берутся из
+     * {@link ServiceNameDictionary}.</p>
+     *
+     * @param out выходной поток ответа
+     * @return количество выгруженных строк
+     * @throws IOException при ошибке записи в поток
+     */
+    @Transactional(readOnly = true)
+    public long exportSubscriptions(OutputStream out) throws IOException {
+        try (Stream<SubscriptionRowView> subscriptions = subscriptionRepository.streamAllRows()) {
+            return write("подписок", out, subscriptions
+                    .map(row -> new SubscriptionDTO(row.getId(), row.getUserId(),
+                            serviceNameDictionary.name(row.getServiceId()), row.getNotificationEnabled()))
+                    .iterator());
+        }
+    }
+
+    private long write(String entityName, OutputStream out, Iterator<?> rows) throws IOException {
+        log.info("Начало выгрузки {} в NDJSON", entityName);
+        long started = System.nanoTime();
+        long count = 0;
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+                count++;
+                if (count % batchSize == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+                if (count % PROGRESS_LOG_EVERY == 0) {
+                    log.info("Выгружено {} {}", count, entityName);
+                }
+            }
+        }
+        if (count > 0) {
+            out.write(LINE_SEPARATOR);
+        }
+        out.flush();
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Выгрузка {} завершена: {} строк за {} мс ({} строк/с)",
+                entityName, count, elapsedMillis, count * 1000 / elapsedMillis);
+        return count;
+    }
+}
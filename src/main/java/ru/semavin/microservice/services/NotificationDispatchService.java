@@ -0,0 +1,306 @@
+package ru.semavin.microservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import ru.semavin.microservice.dtos.NotificationDispatchDTO;
+import ru.semavin.microservice.dtos.NotificationRequestDTO;
+import ru.semavin.microservice.notifications.NotificationBatch;
+import ru.semavin.microservice.notifications.NotificationSink;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.util.ExceptionFactory;
+import ru.semavin.microservice.util.exceptions.JobQueueFullException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сервис рассылки уведомлений подписчикам сервиса.
+ *
+ * <p>Рассылки выполняются по очереди в отдельном потоке. Получатели — подписки сервиса с
+ * {@code notificationEnabled = true} — читаются страницами по {@code notifications.batch-size} keyset-запросом
+ * по индексу {@code (service_id, user_id)}, каждая страница становится пачкой для {@link NotificationSink},
+ * и в памяти никогда не бывает больше {@code notifications.workers + notifications.queue-capacity} пачек:
+ * когда обработчики не успевают, чтение из базы ждёт (обратное давление).</p>
+ *
+ * <p>Пачка, доставка которой завершилась исключением, повторяется до {@code notifications.max-attempts} раз
+ * с экспоненциальной задержкой от {@code notifications.retry-backoff}, затем её получатели считаются
+ * недоставленными. Прогресс и повторы доступны через {@link #getStatus(UUID)}, пропускная способность и
+ * задержки — в метриках {@code notifications.*}.</p>
+ */
+@Slf4j
+@Service
+public class NotificationDispatchService {
+    private final SubscriptionRepository subscriptionRepository;
+    private final ServiceNameDictionary serviceNameDictionary;
+    private final NotificationSink notificationSink;
+    private final ThreadPoolExecutor dispatcher;
+    private final ThreadPoolExecutor workers;
+    private final int maxPendingBatches;
+    private final Semaphore pendingBatches;
+    private final BackgroundJobs<Dispatch> dispatches = new BackgroundJobs<>("рассылок");
+    private final Counter deliveredRecipients;
+    private final Counter failedRecipients;
+    private final Counter retries;
+    private final Timer deliveryTimer;
+    private final Timer lagTimer;
+
+    @Value("${notifications.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notifications.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${notifications.retry-backoff:200ms}")
+    private Duration retryBackoff;
+
+    @Value("${notifications.retained-jobs:100}")
+    private int retainedJobs;
+
+    public NotificationDispatchService(SubscriptionRepository subscriptionRepository,
+                                       ServiceNameDictionary serviceNameDictionary,
+                                       NotificationSink notificationSink,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${notifications.workers:4}") int workerCount,
+                                       @Value("${notifications.queue-capacity:16}") int queueCapacity,
+                                       @Value("${notifications.queued-dispatches:100}") int queuedDispatches) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.serviceNameDictionary = serviceNameDictionary;
+        this.notificationSink = notificationSink;
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queuedDispatches),
+                runnable -> new Thread(runnable, "notification-dispatch"));
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Очередь пула ограничивает семафор: разрешение возвращается до того, как поток освобождается,
+        // поэтому очередь фиксированного размера отклоняла бы пачки в этот момент
+        this.maxPendingBatches = workerCount + queueCapacity;
+        this.pendingBatches = new Semaphore(maxPendingBatches);
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "notification-worker-" + threadNumber.incrementAndGet()));
+
+        this.deliveredRecipients = Counter.builder("notifications.recipients")
+                .description("Получатели уведомлений по результату доставки")
+                .tag("result", "delivered")
+                .register(meterRegistry);
+        this.failedRecipients = Counter.builder("notifications.recipients")
+                .description("Получатели уведомлений по результату доставки")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.retries = Counter.builder("notifications.retries")
+                .description("Повторные попытки доставки пачек")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("notifications.batch.delivery")
+                .description("Время доставки пачки каналом")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("notifications.batch.lag")
+                .description("Время ожидания пачки в очереди до начала доставки")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("notifications.batches.pending", pendingBatches, permits -> maxPendingBatches - permits.availablePermits())
+                .description("Пачки, ожидающие доставки или доставляемые сейчас")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ставит рассылку в очередь на выполнение.
+     *
+     * @param request сервис и содержимое уведомления
+     * @return начальное состояние рассылки
+     * @throws ru.semavin.microservice.util.exceptions.JobQueueFullException если очередь рассылок заполнена
+     */
+    public NotificationDispatchDTO start(NotificationRequestDTO request) {
+        Dispatch dispatch = new Dispatch(UUID.randomUUID(), request);
+        try {
+            dispatches.submit(dispatch, dispatcher, () -> run(dispatch), retainedJobs);
+        } catch (JobQueueFullException e) {
+            log.warn("Рассылка подписчикам сервиса '{}' отклонена: очередь рассылок переполнена", request.getServiceName());
+            throw e;
+        }
+        log.info("Рассылка {} подписчикам сервиса '{}' поставлена в очередь", dispatch.getId(), request.getServiceName());
+        return dispatch.toDTO();
+    }
+
+    /**
+     * Возвращает текущее состояние рассылки.
+     *
+     * @param dispatchId идентификатор рассылки
+     * @return состояние рассылки
+     * @throws ru.semavin.microservice.util.exceptions.NotificationDispatchNotFoundException если рассылка не найдена
+     */
+    public NotificationDispatchDTO getStatus(UUID dispatchId) {
+        Dispatch dispatch = dispatches.get(dispatchId);
+        if (dispatch == null) {
+            throw ExceptionFactory.notificationDispatchNotFound(dispatchId);
+        }
+        return dispatch.toDTO();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void run(Dispatch dispatch) {
+        dispatch.start();
+        String serviceName = dispatch.request.getServiceName();
+        log.info("Рассылка {} запущена", dispatch.getId());
+        try {
+            // У сервиса, которого нет в справочнике, нет и подписчиков
+            int serviceId = serviceNameDictionary.findOrAbsent(serviceName);
+            long afterUserId = 0;
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                List<Long> page = subscriptionRepository.findNotificationRecipients(
+                        serviceId, afterUserId, Limit.of(batchSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                long[] userIds = page.stream().mapToLong(Long::longValue).toArray();
+                afterUserId = userIds[userIds.length - 1];
+                dispatch.scannedRecipients.addAndGet(userIds.length);
+                submit(dispatch, new NotificationBatch(dispatch.getId(), serviceName, dispatch.request.getPayload(), userIds));
+                if (userIds.length < batchSize) {
+                    break;
+                }
+            }
+            // Рассылки выполняются по одной, поэтому все разрешения свободны, когда доставлены все её пачки
+            pendingBatches.acquire(maxPendingBatches);
+            pendingBatches.release(maxPendingBatches);
+            dispatch.complete();
+            log.info("Рассылка {} завершена: доставлено {} получателям, не доставлено {}, повторов {} ({} получ./с)",
+                    dispatch.getId(), dispatch.deliveredRecipients, dispatch.failedRecipients, dispatch.retries,
+                    dispatch.recipientsPerSecond());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dispatch.fail("Рассылка прервана остановкой приложения");
+        } catch (RuntimeException e) {
+            log.error("Рассылка {} завершилась с ошибкой после {} получателей: {}",
+                    dispatch.getId(), dispatch.scannedRecipients, e.getMessage());
+            dispatch.fail(e.getMessage());
+        }
+    }
+
+    private void submit(Dispatch dispatch, NotificationBatch batch) throws InterruptedException {
+        pendingBatches.acquire();
+        dispatch.pendingBatches.incrementAndGet();
+        long enqueuedNanos = System.nanoTime();
+        try {
+            workers.execute(() -> {
+                try {
+                    deliver(dispatch, batch, enqueuedNanos);
+                } finally {
+                    dispatch.pendingBatches.decrementAndGet();
+                    pendingBatches.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dispatch.pendingBatches.decrementAndGet();
+            pendingBatches.release();
+            throw e;
+        }
+    }
+
+    private void deliver(Dispatch dispatch, NotificationBatch batch, long enqueuedNanos) {
+        lagTimer.record(System.nanoTime() - enqueuedNanos, TimeUnit.NANOSECONDS);
+        int recipients = batch.userIds().length;
+        for (int attempt = 1; ; attempt++) {
+            long startedNanos = System.nanoTime();
+            try {
+                notificationSink.deliver(batch);
+                deliveryTimer.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+                dispatch.deliveredRecipients.addAndGet(recipients);
+                dispatch.deliveredBatches.incrementAndGet();
+                deliveredRecipients.increment(recipients);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !backOff(attempt)) {
+                    log.warn("Рассылка {}: пачка из {} получателей с ID {} не доставлена за {} попыток: {}",
+                            dispatch.getId(), recipients, batch.userIds()[0], attempt, e.getMessage());
+                    dispatch.failedRecipients.addAndGet(recipients);
+                    dispatch.failedBatches.incrementAndGet();
+                    failedRecipients.increment(recipients);
+                    return;
+                }
+                dispatch.retries.incrementAndGet();
+                retries.increment();
+            }
+        }
+    }
+
+    /**
+     * Ждёт перед повторной попыткой: {@code retry-backoff}, затем вдвое дольше с каждой попыткой.
+     *
+     * @return {@code false}, если ожидание прервано и повторять не нужно
+     */
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(retryBackoff.toMillis() << Math.min(attempt - 1, 10));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Изменяемое состояние выполняющейся рассылки. Счётчики доставки обновляются из нескольких обработчиков.
+     */
+    private static final class Dispatch extends BackgroundJob {
+        private final NotificationRequestDTO request;
+        private final AtomicLong scannedRecipients = new AtomicLong();
+        private final AtomicLong deliveredRecipients = new AtomicLong();
+        private final AtomicLong failedRecipients = new AtomicLong();
+        private final AtomicLong deliveredBatches = new AtomicLong();
+        private final AtomicLong failedBatches = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicInteger pendingBatches = new AtomicInteger();
+
+        Dispatch(UUID id, NotificationRequestDTO request) {
+            super(id);
+            this.request = request;
+        }
+
+        long recipientsPerSecond() {
+            return perSecond(deliveredRecipients.get());
+        }
+
+        NotificationDispatchDTO toDTO() {
+            return NotificationDispatchDTO.builder()
+                    .id(getId())
+                    .serviceName(request.getServiceName())
+                    .status(getStatus())
+                    .scannedRecipients(scannedRecipients.get())
+                    .deliveredRecipients(deliveredRecipients.get())
+                    .failedRecipients(failedRecipients.get())
+                    .deliveredBatches(deliveredBatches.get())
+                    .failedBatches(failedBatches.get())
+                    .retries(retries.get())
+                    .pendingBatches(pendingBatches.get())
+                    .recipientsPerSecond(recipientsPerSecond())
+                    .startedAt(getStartedAt())
+                    .finishedAt(getFinishedAt())
+                    .error(getError())
+                    .build();
+        }
+    }
+}
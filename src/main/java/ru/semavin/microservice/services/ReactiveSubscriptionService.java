@@ -0,0 +1,469 @@
+package ru.semavin.microservice.services;
+
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.semavin.microservice.dtos.CursorPageDTO;
+import ru.semavin.microservice.dtos.SubscriptionBatchResultDTO;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.SubscriptionDeleteResultDTO;
+import ru.semavin.microservice.mapper.SubscriptionMapper;
+import ru.semavin.microservice.models.Subscription;
+import ru.semavin.microservice.models.User;
+import ru.semavin.microservice.util.CursorCodec;
+import ru.semavin.microservice.util.ExceptionFactory;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static ru.semavin.microservice.repositrories.SubscriptionRepository.TOUCH_USER;
+
+/**
+ * Неблокирующий сервисный слой подписок для профиля {@code reactive}.
+ *
+ * <p>Повторяет поведение {@link SubscriptionService} на R2DBC: каждая операция — один SQL-запрос через
+ * {@link DatabaseClient}, а дополнительный запрос выполняется только для диагностики ошибки
+ * (404 или 403/409). Строки читаются в {@link Subscription} и преобразуются общим {@link SubscriptionMapper}.
+ * Счётчики популярности и трендов обновляются после успешного выполнения запроса. Изменяющие запросы
+ * увеличивают версию пользователя так же, как в сервлетной реализации, поэтому ETag списка подписок
+ * остаётся корректным при работе обоих профилей с одной базой.</p>
+ *
+ * <p>Подписки хранят ID сервиса, названия берутся из {@link ServiceNameDictionary}. ID по названию для
+ * сервиса, которого словарь ещё не знает, ищется через JPA на {@link Schedulers#boundedElastic()}, а не в
+ * потоке event loop. В потоке event loop названия по ID берутся только из словаря
+ * ({@link ServiceNameDictionary#cachedName(int)}); ID, добавленный другим экземпляром приложения, словарь
+ * дочитывает блокирующим запросом там же, на {@link Schedulers#boundedElastic()}.</p>
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveSubscriptionService {
+    private static final String SUBSCRIPTION_COLUMNS = "s.id, s.user_id, s.service_id, s.notification_enabled";
+
+    private final DatabaseClient databaseClient;
+    private final SubscriptionMapper subscriptionMapper;
+    private final SubscriptionCounterStore subscriptionCounterStore;
+    private final SubscriptionTrendingTracker subscriptionTrendingTracker;
+    private final ServiceNameDictionary serviceNameDictionary;
+
+    @Value("${subscriptions.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${subscriptions.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${subscriptions.bulk-delete.max-size:1000}")
+    private int bulkDeleteMaxSize;
+
+    @Value("${subscriptions.stream.fetch-size:500}")
+    private int streamFetchSize;
+
+    public ReactiveSubscriptionService(DatabaseClient databaseClient,
+                                       SubscriptionMapper subscriptionMapper,
+                                       SubscriptionCounterStore subscriptionCounterStore,
+                                       SubscriptionTrendingTracker subscriptionTrendingTracker,
+                                       ServiceNameDictionary serviceNameDictionary) {
+        this.databaseClient = databaseClient;
+        this.subscriptionMapper = subscriptionMapper;
+        this.subscriptionCounterStore = subscriptionCounterStore;
+        this.subscriptionTrendingTracker = subscriptionTrendingTracker;
+        this.serviceNameDictionary = serviceNameDictionary;
+    }
+
+    /**
+     * Добавляет подписку пользователю одним {@code INSERT ... ON CONFLICT DO NOTHING RETURNING id}.
+     *
+     * @param userId          ID пользователя
+     * @param subscriptionDTO данные подписки
+     * @return DTO созданной подписки; ошибка {@link ru.semavin.microservice.util.exceptions.UserNotFoundException},
+     * если пользователь не найден, или {@link ru.semavin.microservice.util.exceptions.SubscriptionAlreadyExistsException},
+     * если подписка уже оформлена
+     */
+    public Mono<SubscriptionDTO> subscribe(Long userId, SubscriptionDTO subscriptionDTO) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return serviceIds(List.of(subscriptionDTO.getServiceName()), true).flatMap(serviceIds -> {
+            int serviceId = serviceIds.get(subscriptionDTO.getServiceName());
+            // serviceIds() уже записал сервис в словарь: название берётся без обращения к базе
+            String serviceName = serviceNameDictionary.cachedName(serviceId).orElse(subscriptionDTO.getServiceName());
+            return databaseClient.sql("WITH changed AS (" +
+                        "INSERT INTO subscriptions (id, user_id, service_id, notification_enabled, created_at) " +
+                        "SELECT nextval('subscriptions_seq'), u.id, :serviceId, :notificationEnabled, :createdAt " +
+                        "FROM users u WHERE u.id = :userId " +
+                        "ON CONFLICT (user_id, service_id) DO NOTHING RETURNING id), " +
+                        TOUCH_USER + " SELECT id FROM changed")
+                .bind("userId", userId)
+                .bind("serviceId", serviceId)
+                .bind("notificationEnabled", subscriptionDTO.isNotificationEnabled())
+                .bind("createdAt", createdAt)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .switchIfEmpty(Mono.defer(() -> userExists(userId).flatMap(exists -> Mono.error(exists
+                        ? ExceptionFactory.subscriptionAlreadyExists(userId, serviceName)
+                        : ExceptionFactory.userNotFound(userId)))))
+                .map(subscriptionId -> {
+                    subscriptionCounterStore.increment(serviceName);
+                    subscriptionTrendingTracker.record(serviceName, createdAt);
+                    log.info("Подписка ID {} успешно создана для пользователя ID {}", subscriptionId, userId);
+                    return new SubscriptionDTO(subscriptionId, userId, serviceName, subscriptionDTO.isNotificationEnabled());
+                });
+        });
+    }
+
+    /**
+     * Оформляет пользователю несколько подписок одним {@code INSERT ... SELECT FROM unnest(...)}.
+     * <p>Ранее оформленные подписки читаются отдельным запросом, только если созданы не все.</p>
+     *
+     * @param userId           ID пользователя
+     * @param subscriptionDTOs данные подписок
+     * @return созданные и ранее оформленные подписки
+     */
+    public Mono<SubscriptionBatchResultDTO> subscribeAll(Long userId, List<SubscriptionDTO> subscriptionDTOs) {
+        Map<String, SubscriptionDTO> requested = new LinkedHashMap<>();
+        subscriptionDTOs.forEach(dto -> requested.putIfAbsent(dto.getServiceName(), dto));
+        Boolean[] notifications = requested.values().stream()
+                .map(SubscriptionDTO::isNotificationEnabled)
+                .toArray(Boolean[]::new);
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        return serviceIds(requested.keySet(), true).flatMap(serviceIds -> databaseClient.sql("WITH changed AS (" +
+                        "INSERT INTO subscriptions (id, user_id, service_id, notification_enabled, created_at) " +
+                                "SELECT nextval('subscriptions_seq'), u.id, t.service_id, t.notification_enabled, :createdAt " +
+                                "FROM users u CROSS JOIN unnest(:serviceIds, :notifications) AS t(service_id, notification_enabled) " +
+                                "WHERE u.id = :userId " +
+                                "ON CONFLICT (user_id, service_id) DO NOTHING " +
+                                "RETURNING id, user_id, service_id, notification_enabled), " +
+                                TOUCH_USER + " SELECT id, user_id, service_id, notification_enabled FROM changed")
+                .bind("userId", userId)
+                .bind("serviceIds", requested.keySet().stream().map(serviceIds::get).toArray(Integer[]::new))
+                .bind("notifications", notifications)
+                .bind("createdAt", createdAt)
+                .map(this::toSubscription)
+                .all()
+                .concatMap(this::toSubscriptionDTO)
+                .collectList()
+                .flatMap(newSubscriptions -> existingSubscriptions(userId, requested, serviceIds, newSubscriptions, createdAt)));
+    }
+
+    private Mono<SubscriptionBatchResultDTO> existingSubscriptions(Long userId,
+                                                                   Map<String, SubscriptionDTO> requested,
+                                                                   Map<String, Integer> serviceIds,
+                                                                   List<SubscriptionDTO> newSubscriptions,
+                                                                   LocalDateTime createdAt) {
+        newSubscriptions.forEach(subscription -> {
+            subscriptionCounterStore.increment(subscription.getServiceName());
+            subscriptionTrendingTracker.record(subscription.getServiceName(), createdAt);
+        });
+        if (newSubscriptions.size() == requested.size()) {
+            return Mono.just(new SubscriptionBatchResultDTO(newSubscriptions, List.of()));
+        }
+        Set<String> createdNames = newSubscriptions.stream()
+                .map(SubscriptionDTO::getServiceName)
+                .collect(Collectors.toSet());
+        List<Integer> existingIds = requested.keySet().stream()
+                .filter(name -> !createdNames.contains(name))
+                .map(serviceIds::get)
+                .toList();
+        return databaseClient.sql("SELECT " + SUBSCRIPTION_COLUMNS + " FROM subscriptions s " +
+                        "WHERE s.user_id = :userId AND s.service_id IN (:serviceIds)")
+                .bind("userId", userId)
+                .bind("serviceIds", existingIds)
+                .map(this::toSubscription)
+                .all()
+                .concatMap(this::toSubscriptionDTO)
+                .collectList()
+                .flatMap(existing -> newSubscriptions.isEmpty() && existing.isEmpty()
+                        ? Mono.error(ExceptionFactory.userNotFound(userId))
+                        : Mono.just(new SubscriptionBatchResultDTO(newSubscriptions, existing)));
+    }
+
+    /**
+     * Получает страницу подписок пользователя одним запросом с {@code LEFT JOIN} от пользователя.
+     *
+     * @param userId      ID пользователя
+     * @param cursor      курсор из предыдущего ответа или {@code null}
+     * @param serviceName название сервиса для фильтрации или {@code null}
+     * @param limit       размер страницы или {@code null}
+     * @return страница подписок, курсор следующей страницы и версия пользователя
+     */
+    public Mono<CursorPageDTO<SubscriptionDTO>> getSubscriptions(Long userId, String cursor, String serviceName, Integer limit) {
+        long afterId;
+        int pageSize;
+        try {
+            afterId = CursorCodec.decode(cursor);
+            pageSize = resolvePageSize(limit);
+        } catch (RuntimeException e) {
+            return Mono.error(e);
+        }
+
+        return serviceFilter(serviceName)
+                .flatMapMany(serviceId -> selectUserSubscriptions(userId, afterId, serviceId.orElse(null), pageSize + 1))
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.isEmpty()) {
+                        return Mono.error(ExceptionFactory.userNotFound(userId));
+                    }
+                    boolean hasNext = rows.size() > pageSize;
+                    List<Subscription> page = rows.stream()
+                            .map(UserSubscriptionRow::subscription)
+                            .filter(Objects::nonNull)
+                            .limit(pageSize)
+                            .toList();
+                    String nextCursor = hasNext ? CursorCodec.encode(page.get(page.size() - 1).getId()) : null;
+                    return Flux.fromIterable(page)
+                            .concatMap(this::toSubscriptionDTO)
+                            .collectList()
+                            .map(items -> new CursorPageDTO<>(items, nextCursor, rows.get(0).userVersion()));
+                });
+    }
+
+    /**
+     * Получает версию списка подписок пользователя без чтения самих подписок.
+     * <p>Совпадает с версией пользователя: она увеличивается при каждом изменении его подписок.</p>
+     *
+     * @param userId ID пользователя
+     * @return версия списка подписок; ошибка {@link ru.semavin.microservice.util.exceptions.UserNotFoundException},
+     * если пользователь не найден
+     */
+    public Mono<Long> getSubscriptionsVersion(Long userId) {
+        return databaseClient.sql("SELECT version FROM users WHERE id = :userId")
+                .bind("userId", userId)
+                .map(row -> row.get("version", Long.class))
+                .one()
+                .switchIfEmpty(Mono.error(() -> ExceptionFactory.userNotFound(userId)));
+    }
+
+    /**
+     * Потоково отдаёт все подписки пользователя, упорядоченные по ID.
+     * <p>Строки читаются курсором порциями по {@code subscriptions.stream.fetch-size} по мере запроса
+     * подписчиком, поэтому медленный клиент не приводит к накоплению результата в памяти.</p>
+     *
+     * @param userId      ID пользователя
+     * @param serviceName название сервиса для фильтрации или {@code null}
+     * @return поток подписок; ошибка {@link ru.semavin.microservice.util.exceptions.UserNotFoundException},
+     * если пользователь не найден
+     */
+    public Flux<SubscriptionDTO> streamSubscriptions(Long userId, String serviceName) {
+        return serviceFilter(serviceName)
+                .flatMapMany(serviceId -> selectUserSubscriptions(userId, 0L, serviceId.orElse(null), null))
+                .switchIfEmpty(Mono.error(() -> ExceptionFactory.userNotFound(userId)))
+                .mapNotNull(UserSubscriptionRow::subscription)
+                .concatMap(this::toSubscriptionDTO);
+    }
+
+    /**
+     * Потоково отдаёт все подписки, упорядоченные по ID.
+     *
+     * @return поток подписок
+     */
+    public Flux<SubscriptionDTO> streamAll() {
+        return databaseClient.sql("SELECT " + SUBSCRIPTION_COLUMNS + " FROM subscriptions s ORDER BY s.id")
+                .filter(statement -> statement.fetchSize(streamFetchSize))
+                .map(this::toSubscription)
+                .all()
+                .concatMap(this::toSubscriptionDTO);
+    }
+
+    /**
+     * Удаляет подписку пользователя одним {@code DELETE ... RETURNING}.
+     *
+     * @param userId ID пользователя
+     * @param subId  ID подписки
+     * @return пустой результат; ошибка 404, если подписки нет, или 403, если она принадлежит другому пользователю
+     */
+    public Mono<Void> unsubscribe(Long userId, Long subId) {
+        return databaseClient.sql("WITH changed AS (" +
+                        "DELETE FROM subscriptions WHERE id = :id AND user_id = :userId RETURNING service_id), " +
+                        TOUCH_USER + " SELECT service_id FROM changed")
+                .bind("id", subId)
+                .bind("userId", userId)
+                .map(row -> row.get("service_id", Integer.class))
+                .one()
+                .flatMap(this::serviceName)
+                .doOnNext(subscriptionCounterStore::decrement)
+                .switchIfEmpty(Mono.defer(() -> databaseClient.sql("SELECT 1 FROM subscriptions WHERE id = :id")
+                        .bind("id", subId)
+                        .map(row -> true)
+                        .one()
+                        .defaultIfEmpty(false)
+                        .flatMap(exists -> Mono.error(exists
+                                ? ExceptionFactory.subscriptionNotBelongToUser(userId, subId)
+                                : ExceptionFactory.subscriptionNotFound(subId)))))
+                .then();
+    }
+
+    /**
+     * Удаляет подписки пользователя по названиям сервисов или по ID подписок одним set-based запросом.
+     *
+     * @param userId       ID пользователя
+     * @param serviceNames названия сервисов или {@code null}
+     * @param ids          ID подписок или {@code null}
+     * @return количество удалённых подписок
+     */
+    public Mono<SubscriptionDeleteResultDTO> unsubscribeAll(Long userId, List<String> serviceNames, List<Long> ids) {
+        boolean byService = serviceNames != null && !serviceNames.isEmpty();
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byService == byIds) {
+            return Mono.error(ExceptionFactory.invalidParameter(byService ? "ids" : "service", byService ? ids : serviceNames));
+        }
+        if ((byService ? serviceNames.size() : ids.size()) > bulkDeleteMaxSize) {
+            return Mono.error(ExceptionFactory.invalidParameter(byService ? "service" : "ids",
+                    (byService ? serviceNames.size() : ids.size()) + " значений"));
+        }
+
+        Mono<List<Integer>> deletedServiceIds = byService
+                ? serviceIds(Set.copyOf(serviceNames), false).flatMap(serviceIds -> serviceIds.isEmpty()
+                        // ни один сервис не существует: удалять нечего, а пустой IN () недопустим
+                        ? Mono.just(List.<Integer>of())
+                        : deleteReturningServiceIds(databaseClient.sql("WITH changed AS (" +
+                                "DELETE FROM subscriptions WHERE user_id = :userId AND service_id IN (:values) " +
+                                "RETURNING service_id), " + TOUCH_USER + " SELECT service_id FROM changed")
+                                .bind("values", Set.copyOf(serviceIds.values())), userId))
+                : deleteReturningServiceIds(databaseClient.sql("WITH changed AS (" +
+                        "DELETE FROM subscriptions WHERE user_id = :userId AND id IN (:values) " +
+                        "RETURNING service_id), " + TOUCH_USER + " SELECT service_id FROM changed")
+                        .bind("values", Set.copyOf(ids)), userId);
+        return deletedServiceIds
+                .flatMap(deleted -> {
+                    if (!deleted.isEmpty()) {
+                        return Flux.fromIterable(deleted.stream()
+                                        .collect(Collectors.groupingBy(serviceId -> serviceId, Collectors.counting()))
+                                        .entrySet())
+                                .concatMap(deletedCount -> serviceName(deletedCount.getKey())
+                                        .doOnNext(name -> subscriptionCounterStore.add(name, -deletedCount.getValue())))
+                                .then(Mono.just(new SubscriptionDeleteResultDTO(deleted.size())));
+                    }
+                    return userExists(userId).flatMap(exists -> exists
+                            ? Mono.just(new SubscriptionDeleteResultDTO(0))
+                            : Mono.error(ExceptionFactory.userNotFound(userId)));
+                });
+    }
+
+    private Mono<List<Integer>> deleteReturningServiceIds(DatabaseClient.GenericExecuteSpec delete, Long userId) {
+        return delete.bind("userId", userId)
+                .map(row -> row.get("service_id", Integer.class))
+                .all()
+                .collectList();
+    }
+
+    /**
+     * Возвращает ID сервисов по названиям. Известные словарю сервисы не требуют запросов, остальные
+     * ищутся (и при {@code create} добавляются) через JPA на {@link Schedulers#boundedElastic()}.
+     *
+     * @param names  названия сервисов
+     * @param create добавлять ли отсутствующие сервисы в справочник
+     * @return ID по названию; без {@code create} — только для существующих сервисов
+     */
+    private Mono<Map<String, Integer>> serviceIds(Collection<String> names, boolean create) {
+        Map<String, Integer> cached = new HashMap<>();
+        for (String name : names) {
+            Optional<Integer> id = serviceNameDictionary.cachedId(name);
+            if (id.isEmpty()) {
+                return Mono.fromCallable(() -> create
+                                ? serviceNameDictionary.resolveAll(names)
+                                : serviceNameDictionary.findAll(names))
+                        .subscribeOn(Schedulers.boundedElastic());
+            }
+            cached.put(name, id.get());
+        }
+        return Mono.just(cached);
+    }
+
+    private Mono<Optional<Integer>> serviceFilter(String serviceName) {
+        if (serviceName == null) {
+            return Mono.just(Optional.empty());
+        }
+        return serviceIds(List.of(serviceName), false)
+                .map(ids -> Optional.of(ids.getOrDefault(serviceName, ServiceNameDictionary.ABSENT_ID)));
+    }
+
+    private Flux<UserSubscriptionRow> selectUserSubscriptions(Long userId, long afterId, Integer serviceId, Integer limit) {
+        String sql = "SELECT " + SUBSCRIPTION_COLUMNS + ", u.version AS user_version FROM users u " +
+                "LEFT JOIN subscriptions s ON s.user_id = u.id AND s.id > :afterId" +
+                (serviceId == null ? "" : " AND s.service_id = :serviceId") +
+                " WHERE u.id = :userId ORDER BY s.id" +
+                (limit == null ? "" : " LIMIT :limit");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("userId", userId)
+                .bind("afterId", afterId);
+        if (serviceId != null) {
+            spec = spec.bind("serviceId", serviceId);
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec.filter(statement -> statement.fetchSize(streamFetchSize))
+                .map(row -> new UserSubscriptionRow(row.get("id") == null ? null : toSubscription(row),
+                        row.get("user_version", Long.class)))
+                .all();
+    }
+
+    private Mono<Boolean> userExists(Long userId) {
+        return databaseClient.sql("SELECT 1 FROM users WHERE id = :userId")
+                .bind("userId", userId)
+                .map(row -> true)
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    private Subscription toSubscription(Readable row) {
+        return Subscription.builder()
+                .id(row.get("id", Long.class))
+                .user(User.builder().id(row.get("user_id", Long.class)).build())
+                .serviceId(row.get("service_id", Integer.class))
+                .notificationEnabled(Boolean.TRUE.equals(row.get("notification_enabled", Boolean.class)))
+                .build();
+    }
+
+    /**
+     * Преобразует подписку в DTO. Если словарь не знает сервис, преобразование (и перечитывание
+     * справочника) выполняется на {@link Schedulers#boundedElastic()}, а не в потоке event loop.
+     */
+    private Mono<SubscriptionDTO> toSubscriptionDTO(Subscription subscription) {
+        if (serviceNameDictionary.cachedName(subscription.getServiceId()).isPresent()) {
+            return Mono.just(subscriptionMapper.toSubscriptionDTO(subscription));
+        }
+        return Mono.fromCallable(() -> subscriptionMapper.toSubscriptionDTO(subscription))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Возвращает название сервиса по ID: из словаря или, если словарь его не знает,
+     * перечитав справочник на {@link Schedulers#boundedElastic()}.
+     */
+    private Mono<String> serviceName(int serviceId) {
+        return serviceNameDictionary.cachedName(serviceId)
+                .map(Mono::just)
+                .orElseGet(() -> Mono.fromCallable(() -> serviceNameDictionary.name(serviceId))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw ExceptionFactory.invalidParameter("limit", limit);
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    /**
+     * Строка страницы подписок: подписка ({@code null}, если подписок нет) и версия пользователя.
+     */
+    private record UserSubscriptionRow(Subscription subscription, Long userVersion) {
+    }
+}
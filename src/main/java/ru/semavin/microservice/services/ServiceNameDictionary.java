@@ -0,0 +1,243 @@
+package ru.semavin.microservice.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.microservice.models.ServiceCatalogEntry;
+import ru.semavin.microservice.repositrories.ServiceCatalogRepository;
+import ru.semavin.microservice.util.TransactionCallbacks;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Словарь названий сервисов: ID из справочника {@code services} ↔ название.
+ *
+ * <p>Подписки хранят только ID сервиса, а названия в ответах берутся из словаря. Каждое название хранится
+ * в одном экземпляре, поэтому DTO и счётчики разных подписок одного сервиса ссылаются на одну строку.
+ * Сервисов немного, словарь целиком загружается при старте. Если в словаре нет запрошенного ID (сервис
+ * добавлен другим экземпляром приложения), справочник перечитывается целиком одним запросом: страница
+ * или выгрузка с несколькими новыми сервисами обходится одним обращением к базе, а не запросом на каждый ID.</p>
+ *
+ * <ul>
+ *     <li>название по ID — индекс в массиве, запросов к базе нет;</li>
+ *     <li>ID по названию для чтения ({@link #find(String)}) не создаёт сервис: неизвестный сервис ничего не находит;</li>
+ *     <li>ID по названию для записи ({@link #resolve(String)}) добавляет новый сервис в текущей транзакции.
+ *     Название связывается с ID только после коммита: иначе после отката словарь ссылался бы на
+ *     несуществующую строку справочника.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ServiceNameDictionary {
+    /**
+     * ID, которого нет в справочнике (ID выдаются с 1): условие по нему не выбирает ни одной подписки.
+     */
+    public static final int ABSENT_ID = 0;
+
+    private final ServiceCatalogRepository serviceCatalogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final ReentrantLock namesLock = new ReentrantLock();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile String[] namesById = new String[0];
+
+    public ServiceNameDictionary(ServiceCatalogRepository serviceCatalogRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.serviceCatalogRepository = serviceCatalogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Загружает весь справочник сервисов.
+     */
+    @PostConstruct
+    public void load() {
+        List<ServiceCatalogEntry> entries = serviceCatalogRepository.findAll();
+        entries.forEach(entry -> {
+            String name = putName(entry.getId(), entry.getName());
+            idsByName.put(name, entry.getId());
+        });
+        log.info("Справочник сервисов загружен: {} сервисов", entries.size());
+    }
+
+    /**
+     * Возвращает название сервиса по ID.
+     *
+     * @param id ID сервиса
+     * @return название или {@code null}, если {@code id} равен {@code null}
+     * @throws IllegalStateException если сервиса нет в справочнике
+     */
+    @Named("serviceName")
+    public String name(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        Optional<String> cached = cachedName(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String name = reloadFor(id);
+        if (name == null) {
+            throw new IllegalStateException("Сервиса с ID " + id + " нет в справочнике");
+        }
+        return name;
+    }
+
+    /**
+     * Возвращает название сервиса, если оно уже есть в словаре, не обращаясь к базе.
+     *
+     * @param id ID сервиса
+     * @return название или пустой результат, если словарь его не знает
+     */
+    public Optional<String> cachedName(int id) {
+        String[] names = namesById;
+        return id < names.length ? Optional.ofNullable(names[id]) : Optional.empty();
+    }
+
+    /**
+     * Возвращает ID существующего сервиса, не создавая новый.
+     *
+     * @param name название сервиса
+     * @return ID или пустой результат, если сервиса нет
+     */
+    public Optional<Integer> find(String name) {
+        Integer id = idsByName.get(name);
+        return id != null ? Optional.of(id) : Optional.ofNullable(findAll(List.of(name)).get(name));
+    }
+
+    /**
+     * Возвращает ID сервиса, если он уже есть в словаре, не обращаясь к базе.
+     *
+     * @param name название сервиса
+     * @return ID или пустой результат, если словарь его не знает
+     */
+    public Optional<Integer> cachedId(String name) {
+        return Optional.ofNullable(idsByName.get(name));
+    }
+
+    /**
+     * Возвращает ID сервиса для условия запроса: для неизвестного сервиса — {@link #ABSENT_ID}.
+     *
+     * @param name название сервиса или {@code null}
+     * @return ID, {@link #ABSENT_ID} или {@code null}, если {@code name} равен {@code null}
+     */
+    public Integer findOrAbsent(String name) {
+        return name == null ? null : find(name).orElse(ABSENT_ID);
+    }
+
+    /**
+     * Возвращает ID существующих сервисов; отсутствующие в словаре ищутся одним запросом.
+     *
+     * @param names названия сервисов
+     * @return ID найденных сервисов по названию
+     */
+    public Map<String, Integer> findAll(Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> missing = names.stream()
+                .filter(name -> {
+                    Integer id = idsByName.get(name);
+                    if (id != null) {
+                        ids.put(name, id);
+                    }
+                    return id == null;
+                })
+                .toList();
+        if (!missing.isEmpty()) {
+            serviceCatalogRepository.findByNameIn(missing).forEach(entry -> {
+                ids.put(entry.getName(), entry.getId());
+                register(entry.getId(), entry.getName());
+            });
+        }
+        return ids;
+    }
+
+    /**
+     * Возвращает ID сервиса, добавляя его в справочник в текущей транзакции, если его нет.
+     *
+     * @param name название сервиса
+     * @return ID сервиса
+     */
+    public int resolve(String name) {
+        return resolveAll(List.of(name)).get(name);
+    }
+
+    /**
+     * Возвращает ID сервисов, добавляя отсутствующие в справочник в текущей транзакции.
+     * <p>Известные словарю сервисы не требуют запросов, остальные ищутся одним запросом, а не найденные
+     * добавляются по одному.</p>
+     *
+     * @param names названия сервисов
+     * @return ID по названию для каждого из {@code names}
+     */
+    public Map<String, Integer> resolveAll(Collection<String> names) {
+        Map<String, Integer> ids = findAll(names);
+        names.stream()
+                .filter(name -> !ids.containsKey(name))
+                .distinct()
+                .forEach(name -> {
+                    int id = transactionTemplate.execute(status -> serviceCatalogRepository.insertIfAbsent(name)
+                            .orElseGet(() -> serviceCatalogRepository.findByNameIn(List.of(name)).get(0).getId()));
+                    log.info("Сервис '{}' добавлен в справочник с ID {}", name, id);
+                    ids.put(name, id);
+                    register(id, name);
+                });
+        return ids;
+    }
+
+    /**
+     * Перечитывает справочник, если {@code id} всё ещё неизвестен: параллельные промахи ждут одного запроса.
+     *
+     * @return название или {@code null}, если сервиса нет и в базе
+     */
+    private String reloadFor(int id) {
+        reloadLock.lock();
+        try {
+            String[] names = namesById;
+            if (id >= names.length || names[id] == null) {
+                log.info("Сервиса с ID {} нет в словаре, справочник перечитывается", id);
+                // Только название по ID: ID не переиспользуются, а строка, добавленная текущей
+                // транзакцией, ещё может откатиться
+                serviceCatalogRepository.findAll().forEach(entry -> putName(entry.getId(), entry.getName()));
+                names = namesById;
+            }
+            return id < names.length ? names[id] : null;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Запоминает сервис: название по ID сразу, ID по названию — после коммита текущей транзакции.
+     */
+    private void register(int id, String name) {
+        String canonical = putName(id, name);
+        TransactionCallbacks.afterCommit(() -> idsByName.putIfAbsent(canonical, id));
+    }
+
+    private String putName(int id, String name) {
+        namesLock.lock();
+        try {
+            String[] names = namesById;
+            if (id < names.length && names[id] != null) {
+                return names[id];
+            }
+            String[] grown = id < names.length ? names.clone() : Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+            grown[id] = name;
+            namesById = grown;
+            return name;
+        } finally {
+            namesLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package ru.semavin.microservice.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.microservice.cache.SerializedResponseCache;
+import ru.semavin.microservice.config.CacheConfig;
+import ru.semavin.microservice.datasource.ReplicaRoutingContext;
+import ru.semavin.microservice.dtos.CampaignRequestDTO;
+import ru.semavin.microservice.dtos.CampaignStatusDTO;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.repositrories.UserRepository;
+import ru.semavin.microservice.repositrories.projections.UserIdChunkView;
+import ru.semavin.microservice.util.ExceptionFactory;
+import ru.semavin.microservice.util.exceptions.JobQueueFullException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+/**
+ * Сервис кампаний массовой подписки пользователей на сервис.
+ *
+ * <p>Кампания выполняется асинхронно в отдельном ограниченном пуле потоков. Пользователи
+ * обрабатываются пачками по {@code campaigns.chunk-size}: каждая пачка — один set-based
+ * {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING} в отдельной короткой транзакции,
+ * уже подписанные пользователи пропускаются по ограничению уникальности. Тот же запрос увеличивает
+ * версию получивших подписку пользователей, после коммита они вытесняются из {@link CacheConfig#USERS_CACHE}
+ * и {@link SerializedResponseCache}.
+ * Сущности {@code User} не загружаются, а прогресс и скорость доступны через {@link #getStatus(UUID)}.</p>
+ */
+@Slf4j
+@Service
+public class SubscriptionCampaignService {
+    private final SubscriptionRepository subscriptionRepository;
+    private final UserRepository userRepository;
+    private final SubscriptionCounterStore subscriptionCounterStore;
+    private final SubscriptionTrendingTracker subscriptionTrendingTracker;
+    private final ServiceNameDictionary serviceNameDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache usersCache;
+    private final SerializedResponseCache serializedResponseCache;
+    private final ThreadPoolExecutor executor;
+    private final BackgroundJobs<Campaign> campaigns = new BackgroundJobs<>("кампаний");
+
+    @Value("${campaigns.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${campaigns.retained-jobs:100}")
+    private int retainedJobs;
+
+    public SubscriptionCampaignService(SubscriptionRepository subscriptionRepository,
+                                       UserRepository userRepository,
+                                       SubscriptionCounterStore subscriptionCounterStore,
+                                       SubscriptionTrendingTracker subscriptionTrendingTracker,
+                                       ServiceNameDictionary serviceNameDictionary,
+                                       PlatformTransactionManager transactionManager,
+                                       CacheManager cacheManager,
+                                       SerializedResponseCache serializedResponseCache,
+                                       @Value("${campaigns.workers:2}") int workers,
+                                       @Value("${campaigns.queue-capacity:100}") int queueCapacity) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.userRepository = userRepository;
+        this.subscriptionCounterStore = subscriptionCounterStore;
+        this.subscriptionTrendingTracker = subscriptionTrendingTracker;
+        this.serviceNameDictionary = serviceNameDictionary;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.usersCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        this.serializedResponseCache = serializedResponseCache;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "campaign-" + threadNumber.incrementAndGet()));
+    }
+
+    /**
+     * Ставит кампанию в очередь на выполнение.
+     *
+     * @param request параметры кампании
+     * @return начальное состояние кампании
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если диапазон ID некорректен
+     * @throws ru.semavin.microservice.util.exceptions.JobQueueFullException если очередь кампаний заполнена
+     */
+    public CampaignStatusDTO start(CampaignRequestDTO request) {
+        if (request.getFromUserId() != null && request.getToUserId() != null
+                && request.getFromUserId() > request.getToUserId()) {
+            throw ExceptionFactory.invalidParameter("fromUserId", request.getFromUserId());
+        }
+        Campaign campaign = new Campaign(UUID.randomUUID(), request);
+        try {
+            campaigns.submit(campaign, executor, () -> run(campaign), retainedJobs);
+        } catch (JobQueueFullException e) {
+            log.warn("Кампания подписки на сервис '{}' отклонена: очередь кампаний переполнена", request.getServiceName());
+            throw e;
+        }
+        log.info("Кампания {} подписки на сервис '{}' поставлена в очередь", campaign.getId(), request.getServiceName());
+        return campaign.toDTO();
+    }
+
+    /**
+     * Возвращает текущее состояние кампании.
+     *
+     * @param campaignId идентификатор кампании
+     * @return состояние кампании
+     * @throws ru.semavin.microservice.util.exceptions.CampaignNotFoundException если кампания не найдена
+     */
+    public CampaignStatusDTO getStatus(UUID campaignId) {
+        Campaign campaign = campaigns.get(campaignId);
+        if (campaign == null) {
+            throw ExceptionFactory.campaignNotFound(campaignId);
+        }
+        return campaign.toDTO();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Campaign campaign) {
+        campaign.start();
+        log.info("Кампания {} запущена", campaign.getId());
+        try {
+            // Сервис добавляется в справочник один раз, до пачек: каждая пачка использует его ID
+            int serviceId = transactionTemplate.execute(status ->
+                    serviceNameDictionary.resolve(campaign.request.getServiceName()));
+            if (campaign.userIds != null) {
+                runForList(campaign, serviceId);
+            } else {
+                runForRange(campaign, serviceId);
+            }
+            campaign.complete();
+            log.info("Кампания {} завершена: обработано {} пользователей, создано {} подписок ({} польз./с)",
+                    campaign.getId(), campaign.processedUsers, campaign.createdSubscriptions, campaign.usersPerSecond());
+        } catch (RuntimeException e) {
+            log.error("Кампания {} завершилась с ошибкой после {} пользователей: {}",
+                    campaign.getId(), campaign.processedUsers, e.getMessage());
+            campaign.fail(e.getMessage());
+        }
+    }
+
+    private void runForList(Campaign campaign, int serviceId) {
+        long[] userIds = campaign.userIds;
+        for (int from = 0; from < userIds.length && !Thread.currentThread().isInterrupted(); from += chunkSize) {
+            long[] chunk = Arrays.copyOfRange(userIds, from, Math.min(from + chunkSize, userIds.length));
+            List<Long> ids = LongStream.of(chunk).boxed().toList();
+            int created = insertChunk(campaign, createdAt -> subscriptionRepository.subscribeUsers(
+                    ids, serviceId, campaign.request.isNotificationEnabled(), createdAt));
+            campaign.progress(chunk.length, created);
+        }
+    }
+
+    private void runForRange(Campaign campaign, int serviceId) {
+        long afterId = campaign.request.getFromUserId() == null ? 0L : campaign.request.getFromUserId() - 1;
+        long maxId = campaign.request.getToUserId() == null ? Long.MAX_VALUE : campaign.request.getToUserId();
+        while (!Thread.currentThread().isInterrupted()) {
+            UserIdChunkView chunk = userRepository.findNextIdChunk(afterId, maxId, chunkSize);
+            if (chunk.getUsers() == 0 || chunk.getUpperId() == null) {
+                return;
+            }
+            long from = afterId;
+            long upTo = chunk.getUpperId();
+            int created = insertChunk(campaign, createdAt -> subscriptionRepository.subscribeUserRange(
+                    from, upTo, serviceId, campaign.request.isNotificationEnabled(), createdAt));
+            campaign.progress(chunk.getUsers(), created);
+            afterId = upTo;
+        }
+    }
+
+    private int insertChunk(Campaign campaign, ChunkInsert insert) {
+        String serviceName = campaign.request.getServiceName();
+        List<Long> subscribedUserIds = transactionTemplate.execute(status -> {
+            LocalDateTime createdAt = LocalDateTime.now();
+            List<Long> userIds = insert.apply(createdAt);
+            // Чанк выполняется вне запроса: без отметки следующее чтение пользователя с отстающей реплики
+            // вернуло бы в кэш users старую версию
+            ReplicaRoutingContext.markWritten(userIds);
+            subscriptionCounterStore.add(serviceName, userIds.size());
+            subscriptionTrendingTracker.record(serviceName, createdAt, userIds.size());
+            return userIds;
+        });
+        if (subscribedUserIds == null) {
+            return 0;
+        }
+        if (usersCache != null) {
+            subscribedUserIds.forEach(usersCache::evict);
+        }
+        subscribedUserIds.forEach(userId -> serializedResponseCache.invalidate(SerializedResponseCache.USER, userId));
+        if (!subscribedUserIds.isEmpty()) {
+            serializedResponseCache.markStale(SerializedResponseCache.SUBSCRIPTIONS_TOP);
+        }
+        return subscribedUserIds.size();
+    }
+
+    @FunctionalInterface
+    private interface ChunkInsert {
+        List<Long> apply(LocalDateTime createdAt);
+    }
+
+    /**
+     * Изменяемое состояние выполняющейся кампании.
+     */
+    private static final class Campaign extends BackgroundJob {
+        private final CampaignRequestDTO request;
+        /**
+         * Различные ID из списка по возрастанию или {@code null} для кампании по диапазону.
+         */
+        private final long[] userIds;
+        private volatile long processedUsers;
+        private volatile long createdSubscriptions;
+        private volatile long processedChunks;
+
+        Campaign(UUID id, CampaignRequestDTO request) {
+            super(id);
+            this.request = request;
+            this.userIds = request.getUserIds() == null ? null : request.getUserIds().stream()
+                    .filter(Objects::nonNull)
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .distinct()
+                    .toArray();
+        }
+
+        void progress(long users, long created) {
+            processedUsers += users;
+            createdSubscriptions += created;
+            processedChunks++;
+        }
+
+        long usersPerSecond() {
+            return perSecond(processedUsers);
+        }
+
+        CampaignStatusDTO toDTO() {
+            return CampaignStatusDTO.builder()
+                    .id(getId())
+                    .serviceName(request.getServiceName())
+                    .status(getStatus())
+                    .totalUsers(userIds == null ? null : (long) userIds.length)
+                    .processedUsers(processedUsers)
+                    .createdSubscriptions(createdSubscriptions)
+                    .processedChunks(processedChunks)
+                    .usersPerSecond(usersPerSecond())
+                    .startedAt(getStartedAt())
+                    .finishedAt(getFinishedAt())
+                    .error(getError())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.semavin.microservice.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.semavin.microservice.dtos.SubscriptionTopDTO;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.util.TransactionCallbacks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Хранилище счётчиков популярности сервисов подписок.
+ *
+ * <p>Держит в памяти количество подписчиков для каждого сервиса, чтобы запрос ТОП-N
+ * не выполнял агрегацию по всей таблице {@code subscriptions}. Счётчики:</p>
+ * <ul>
+ *     <li>заполняются из базы при старте приложения;</li>
+ *     <li>изменяются только после успешного коммита транзакции, в которой создана или удалена подписка;</li>
+ *     <li>хранятся вместе с рейтингом, упорядоченным по убыванию количества: изменение счётчика переставляет
+ *     один элемент рейтинга за O(log n), а ТОП-N читает первые N элементов без сортировки.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SubscriptionCounterStore {
+    private final SubscriptionRepository subscriptionRepository;
+    private final ServiceNameDictionary serviceNameDictionary;
+
+    private static final Comparator<Ranked> RANKING_ORDER = Comparator.comparingLong(Ranked::count).reversed()
+            .thenComparing(Ranked::serviceName);
+
+    private final Map<String, Long> counters = new HashMap<>();
+    private final NavigableSet<Ranked> ranking = new TreeSet<>(RANKING_ORDER);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Заполняет счётчики агрегатом из таблицы подписок.
+     */
+    @PostConstruct
+    public void rebuild() {
+        List<SubscriptionTopDTO> counts = subscriptionRepository.countByServiceName();
+        lock.lock();
+        try {
+            counters.clear();
+            ranking.clear();
+            counts.forEach(entry -> put(entry.getServiceName(), entry.getCount()));
+        } finally {
+            lock.unlock();
+        }
+        log.info("Счётчики подписок восстановлены из базы: {} сервисов", counts.size());
+    }
+
+    /**
+     * Увеличивает счётчик сервиса после коммита текущей транзакции.
+     *
+     * @param serviceName название сервиса
+     */
+    public void increment(String serviceName) {
+        add(serviceName, 1);
+    }
+
+    /**
+     * Уменьшает счётчик сервиса после коммита текущей транзакции.
+     *
+     * @param serviceName название сервиса
+     */
+    public void decrement(String serviceName) {
+        add(serviceName, -1);
+    }
+
+    /**
+     * Изменяет счётчик сервиса на {@code delta} после коммита текущей транзакции.
+     *
+     * @param serviceName название сервиса
+     * @param delta       величина изменения
+     */
+    public void add(String serviceName, long delta) {
+        if (delta != 0) {
+            TransactionCallbacks.afterCommit(() -> apply(serviceName, delta));
+        }
+    }
+
+    /**
+     * Уменьшает счётчики всех сервисов, на которые подписан удаляемый пользователь.
+     * <p>Должен вызываться до удаления пользователя, в той же транзакции.</p>
+     *
+     * @param userId ID удаляемого пользователя
+     */
+    public void onUserDeleted(Long userId) {
+        Collection<String> serviceNames = subscriptionRepository.findServiceIdsByUserId(userId).stream()
+                .map(serviceNameDictionary::name)
+                .toList();
+        if (!serviceNames.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> serviceNames.forEach(name -> apply(name, -1)));
+        }
+    }
+
+    /**
+     * Возвращает ТОП-N сервисов по количеству подписчиков.
+     *
+     * @param limit количество записей
+     * @return список {@link SubscriptionTopDTO}, отсортированный по убыванию популярности
+     */
+    public List<SubscriptionTopDTO> top(int limit) {
+        lock.lock();
+        try {
+            List<SubscriptionTopDTO> result = new ArrayList<>(Math.min(limit, ranking.size()));
+            Iterator<Ranked> iterator = ranking.iterator();
+            while (result.size() < limit && iterator.hasNext()) {
+                Ranked entry = iterator.next();
+                result.add(new SubscriptionTopDTO(entry.serviceName(), entry.count()));
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(String serviceName, long delta) {
+        lock.lock();
+        try {
+            Long current = counters.remove(serviceName);
+            if (current != null) {
+                ranking.remove(new Ranked(serviceName, current));
+            }
+            put(serviceName, (current == null ? 0 : current) + delta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает счётчик и его место в рейтинге; сервисы без подписчиков не хранятся. Вызывается под {@link #lock}.
+     */
+    private void put(String serviceName, long count) {
+        if (count > 0) {
+            counters.put(serviceName, count);
+            ranking.add(new Ranked(serviceName, count));
+        }
+    }
+
+    private record Ranked(String serviceName, long count) {
+    }
+}
@@ -1,19 +1,34 @@
 package ru.semavin.microservice.services;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.microservice.cache.SerializedResponseCache;
+import ru.semavin.microservice.config.CacheConfig;
+import ru.semavin.microservice.config.MetricsConfig;
+import ru.semavin.microservice.dtos.CursorPageDTO;
+import ru.semavin.microservice.dtos.SubscriptionBatchResultDTO;
 import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.SubscriptionDeleteResultDTO;
 import ru.semavin.microservice.dtos.SubscriptionTopDTO;
 import ru.semavin.microservice.mapper.SubscriptionMapper;
 import ru.semavin.microservice.models.Subscription;
 import ru.semavin.microservice.models.User;
 import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.repositrories.UserRepository;
+import ru.semavin.microservice.repositrories.projections.SubscriptionRowView;
+import ru.semavin.microservice.repositrories.projections.UserSubscriptionView;
+import ru.semavin.microservice.util.CursorCodec;
 import ru.semavin.microservice.util.ExceptionFactory;
 
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -22,65 +37,205 @@ import java.util.stream.Collectors;
 /**
  * Сервисный слой для управления подписками
  * Отвечает за создание, получение списка подписок, отмену подписки у пользователя.
+ *
+ * <p>Подписки хранят ID сервиса из справочника {@code services}; названия в ответах берёт
+ * {@link ServiceNameDictionary}.</p>
+ *
+ * <p>Любое изменение подписок увеличивает версию пользователя, по которой строится ETag списка подписок,
+ * и вытесняет пользователя из {@link CacheConfig#USERS_CACHE} и {@link SerializedResponseCache}, чтобы
+ * кэшированная версия не устарела. Готовый ответ ТОП-подписок при этом помечается устаревшим.</p>
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
-
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class SubscriptionService {
     private final SubscriptionRepository subscriptionRepository;
     private final SubscriptionMapper subscriptionMapper;
     private final UserService userService;
+    private final UserRepository userRepository;
+    private final SubscriptionCounterStore subscriptionCounterStore;
+    private final SubscriptionTrendingTracker subscriptionTrendingTracker;
+    private final SerializedResponseCache serializedResponseCache;
+    private final ServiceNameDictionary serviceNameDictionary;
+
+    @Value("${subscriptions.top.max-limit:100}")
+    private int topMaxLimit;
+
+    @Value("${subscriptions.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${subscriptions.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${subscriptions.bulk-delete.max-size:1000}")
+    private int bulkDeleteMaxSize;
 
     /**
      * Добавляет подписку пользователю.
      *
+     * <p>Подписка создаётся одним {@code INSERT ... ON CONFLICT DO NOTHING RETURNING id}: уникальность пары
+     * пользователь–сервис обеспечивает ограничение {@code uk_subscriptions_user_service}, поэтому
+     * параллельные запросы не создают дубликатов, а сущность пользователя не загружается.
+     * Версия пользователя увеличивается тем же запросом, если подписка создана. Сервис, которого нет
+     * в справочнике, добавляется в той же транзакции.</p>
+     *
      * @param userId          ID пользователя
      * @param subscriptionDTO Данные подписки
      * @return DTO созданной подписки
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден
+     * @throws ru.semavin.microservice.util.exceptions.SubscriptionAlreadyExistsException если пользователь уже подписан на сервис
      */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
     public SubscriptionDTO subscribe(Long userId, SubscriptionDTO subscriptionDTO) {
         log.info("Добавление подписки пользователю с ID: {}", userId);
 
-        User user = userService.findUserById(userId);
-
-        if (subscriptionRepository.existsByUserAndServiceName(user, subscriptionDTO.getServiceName())) {
-            throw new DataIntegrityViolationException("Пользователь уже подписан на этот сервис");
+        if (!userService.userExists(userId)) {
+            throw ExceptionFactory.userNotFound(userId);
         }
 
-        Subscription subscription = subscriptionMapper.toSubscription(subscriptionDTO);
+        int serviceId = serviceNameDictionary.resolve(subscriptionDTO.getServiceName());
+        String serviceName = serviceNameDictionary.name(serviceId);
+        LocalDateTime createdAt = LocalDateTime.now();
+        Long subscriptionId = subscriptionRepository
+                .insertIfAbsent(userId, serviceId, subscriptionDTO.isNotificationEnabled(), createdAt)
+                .orElseThrow(() -> {
+                    log.warn("Пользователь ID {} уже подписан на сервис '{}'", userId, serviceName);
+                    return ExceptionFactory.subscriptionAlreadyExists(userId, serviceName);
+                });
+        subscriptionCounterStore.increment(serviceName);
+        subscriptionTrendingTracker.record(serviceName, createdAt);
+        onSubscriptionsChanged(userId);
+
+        log.info("Подписка ID {} успешно создана для пользователя ID {}", subscriptionId, userId);
+        return new SubscriptionDTO(subscriptionId, userId, serviceName, subscriptionDTO.isNotificationEnabled());
+    }
+
+    /**
+     * Оформляет пользователю несколько подписок в одной транзакции.
+     *
+     * <p>Пользователь загружается один раз, уже оформленные подписки определяются одним запросом
+     * по набору ID сервисов, а новые подписки сохраняются одним JDBC batch. Сервисы, которых нет
+     * в справочнике, добавляются в той же транзакции. Повторяющиеся названия
+     * в запросе учитываются один раз (используются данные первого вхождения).
+     * Версия пользователя увеличивается, только если создана хотя бы одна подписка.</p>
+     *
+     * @param userId           ID пользователя
+     * @param subscriptionDTOs данные подписок
+     * @return созданные и ранее оформленные подписки
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
+    public SubscriptionBatchResultDTO subscribeAll(Long userId, List<SubscriptionDTO> subscriptionDTOs) {
+        log.info("Оформление {} подписок пользователю с ID: {}", subscriptionDTOs.size(), userId);
+
+        User user = getUserReference(userId);
+
+        Map<String, SubscriptionDTO> requested = new LinkedHashMap<>();
+        subscriptionDTOs.forEach(dto -> requested.putIfAbsent(dto.getServiceName(), dto));
+
+        Map<String, Integer> serviceIds = serviceNameDictionary.resolveAll(requested.keySet());
+        List<SubscriptionDTO> existing = subscriptionRepository
+                .findRowsByUserIdAndServiceIdIn(userId, serviceIds.values()).stream()
+                .map(this::toSubscriptionDTO)
+                .toList();
+        Set<String> existingNames = existing.stream()
+                .map(SubscriptionDTO::getServiceName)
+                .collect(Collectors.toSet());
 
-        subscription.setUser(user);
+        List<Subscription> newSubscriptions = requested.values().stream()
+                .filter(dto -> !existingNames.contains(dto.getServiceName()))
+                .map(dto -> {
+                    Subscription subscription = subscriptionMapper.toSubscription(dto);
+                    subscription.setId(null);
+                    subscription.setUser(user);
+                    subscription.setServiceId(serviceIds.get(dto.getServiceName()));
+                    return subscription;
+                })
+                .toList();
 
-        Subscription savedSubscription = subscriptionRepository.save(subscription);
+        List<Subscription> saved = subscriptionRepository.saveAll(newSubscriptions);
+        if (!saved.isEmpty()) {
+            userRepository.incrementVersion(userId);
+            onSubscriptionsChanged(userId);
+        }
+        saved.forEach(subscription -> {
+            String serviceName = serviceNameDictionary.name(subscription.getServiceId());
+            subscriptionCounterStore.increment(serviceName);
+            subscriptionTrendingTracker.record(serviceName, subscription.getCreatedAt());
+        });
 
-        log.info("Подписка ID {} успешно создана для пользователя ID {}", savedSubscription.getId(), userId);
-        return subscriptionMapper.toSubscriptionDTO(savedSubscription);
+        log.info("Пользователю ID {} создано {} подписок, уже было оформлено {}", userId, saved.size(), existing.size());
+        return SubscriptionBatchResultDTO.builder()
+                .created(saved.stream().map(subscriptionMapper::toSubscriptionDTO).toList())
+                .existing(existing)
+                .build();
     }
 
     /**
-     * Получает список подписок пользователя.
+     * Получает страницу подписок пользователя, упорядоченных по ID.
      *
-     * @param userId ID пользователя
-     * @return список подписок в формате DTO
+     * <p>Подписки читаются одним запросом по {@code user_id} сразу в проекцию, без загрузки сущностей.
+     * Запрос выполняет {@code LEFT JOIN} от пользователя, поэтому пустой результат означает, что
+     * пользователя нет, а одна строка без подписки — что у пользователя нет подходящих подписок.
+     * Используется keyset-пагинация, размер страницы ограничивается {@code subscriptions.page.max-size}.
+     * Каждая строка содержит версию пользователя, она возвращается в странице для ETag.
+     * Фильтр по сервису, которого нет в справочнике, не выбирает ни одной подписки.</p>
+     *
+     * @param userId      ID пользователя
+     * @param cursor      курсор из предыдущего ответа или {@code null} для первой страницы
+     * @param serviceName название сервиса для фильтрации или {@code null}
+     * @param limit       размер страницы или {@code null} для размера по умолчанию
+     * @return страница подписок в формате DTO, курсор следующей страницы и версия пользователя
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException            если пользователь не найден
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если курсор некорректен или {@code limit} меньше 1
      */
     @Transactional(readOnly = true)
-    public List<SubscriptionDTO> getSubscriptions(Long userId) {
-        log.info("Получение подписок для пользователя ID: {}", userId);
+    public CursorPageDTO<SubscriptionDTO> getSubscriptions(Long userId, String cursor, String serviceName, Integer limit) {
+        long afterId = CursorCodec.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+        log.info("Получение подписок для пользователя ID: {} после ID {}, сервис {}, размер {}",
+                userId, afterId, serviceName, pageSize);
 
-        User user = userService.findUserById(userId);
-        return subscriptionRepository.findByUser(user).stream()
-                .map(subscriptionMapper::toSubscriptionDTO)
+        List<UserSubscriptionView> rows = subscriptionRepository.findPageByUserId(
+                userId, afterId, serviceNameDictionary.findOrAbsent(serviceName), Limit.of(pageSize + 1));
+        if (rows.isEmpty()) {
+            throw ExceptionFactory.userNotFound(userId);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<SubscriptionDTO> items = rows.stream()
+                .filter(row -> row.getId() != null)
+                .limit(pageSize)
+                .map(row -> new SubscriptionDTO(row.getId(), userId, serviceNameDictionary.name(row.getServiceId()),
+                        row.getNotificationEnabled()))
                 .toList();
+        String nextCursor = hasNext ? CursorCodec.encode(items.get(items.size() - 1).getId()) : null;
+        return new CursorPageDTO<>(items, nextCursor, rows.get(0).getUserVersion());
+    }
+
+    /**
+     * Получает версию списка подписок пользователя без чтения самих подписок.
+     * <p>Совпадает с версией пользователя: она увеличивается при каждом изменении его подписок.</p>
+     *
+     * @param userId ID пользователя
+     * @return версия списка подписок
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден
+     */
+    @Transactional(readOnly = true)
+    public long getSubscriptionsVersion(Long userId) {
+        return userService.getUserVersion(userId);
     }
 
     /**
      * Удаляет подписку пользователя.
      *
-     * <p>Метод проверяет существование подписки, а затем удостоверяется, что она принадлежит пользователю.
-     * Если подписка не найдена, выбрасывается исключение {@link ru.semavin.microservice.util.exceptions.SubscriptionNotFoundException}.
-     * Если подписка найдена, но принадлежит другому пользователю, выбрасывается исключение
+     * <p>Подписка удаляется одним {@code DELETE ... WHERE id = ? AND user_id = ?}, который при успехе
+     * увеличивает и версию пользователя. Причина неудачи
+     * определяется дополнительным запросом только если ни одна строка не удалена:
+     * если подписки нет, выбрасывается {@link ru.semavin.microservice.util.exceptions.SubscriptionNotFoundException},
+     * если она принадлежит другому пользователю —
      * {@link ru.semavin.microservice.util.exceptions.SubscriptionNotBelongToUserException}.</p>
      *
      * @param userId ID пользователя, который хочет удалить подписку.
@@ -88,60 +243,171 @@ public class SubscriptionService {
      * @throws ru.semavin.microservice.util.exceptions.SubscriptionNotFoundException        если подписка не найдена в системе.
      * @throws ru.semavin.microservice.util.exceptions.SubscriptionNotBelongToUserException если подписка существует, но принадлежит другому пользователю.
      */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
     public void unsubscribe(Long userId, Long subId) {
         log.info("Попытка удаления подписки ID {} у пользователя ID {}", subId, userId);
 
-        if (!subscriptionRepository.existsById(subId)) {
-            log.warn("Подписки ID {} не существует", subId);
-            throw ExceptionFactory.subscriptionNotFound(subId);
+        Integer serviceId = subscriptionRepository.deleteByIdAndUserIdReturningServiceId(subId, userId)
+                .orElseThrow(() -> {
+                    if (!subscriptionRepository.existsById(subId)) {
+                        log.warn("Подписки ID {} не существует", subId);
+                        return ExceptionFactory.subscriptionNotFound(subId);
+                    }
+                    log.warn("Подписка ID {} не принадлежит пользователю ID {}", subId, userId);
+                    return ExceptionFactory.subscriptionNotBelongToUser(userId, subId);
+                });
+
+        subscriptionCounterStore.decrement(serviceNameDictionary.name(serviceId));
+        onSubscriptionsChanged(userId);
+        log.info("Подписка ID {} успешно удалена у пользователя ID {}", subId, userId);
+    }
+
+    /**
+     * Удаляет подписки пользователя по названиям сервисов или по ID подписок.
+     *
+     * <p>Должен быть задан ровно один из наборов. Удаление выполняется одним set-based
+     * {@code DELETE ... RETURNING}; подписки других пользователей и несуществующие ID игнорируются.
+     * Существование пользователя проверяется, только если ничего не удалено; иначе тем же запросом
+     * увеличивается его версия.</p>
+     *
+     * @param userId       ID пользователя
+     * @param serviceNames названия сервисов или {@code null}
+     * @param ids          ID подписок или {@code null}
+     * @return количество удалённых подписок
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если не задан ни один набор,
+     *                                                                                  заданы оба или набор слишком большой
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException            если пользователь не найден
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
+    public SubscriptionDeleteResultDTO unsubscribeAll(Long userId, List<String> serviceNames, List<Long> ids) {
+        boolean byService = serviceNames != null && !serviceNames.isEmpty();
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byService == byIds) {
+            throw ExceptionFactory.invalidParameter(byService ? "ids" : "service", byService ? ids : serviceNames);
+        }
+        if (byService && serviceNames.size() > bulkDeleteMaxSize) {
+            throw ExceptionFactory.invalidParameter("service", serviceNames.size() + " значений");
+        }
+        if (byIds && ids.size() > bulkDeleteMaxSize) {
+            throw ExceptionFactory.invalidParameter("ids", ids.size() + " значений");
         }
+        log.info("Массовая отмена подписок пользователя ID {}: {} значений {}", userId,
+                byService ? serviceNames.size() : ids.size(), byService ? "service" : "ids");
 
-        if (!subscriptionRepository.existsByIdAndUserId(subId, userId)) {
-            log.warn("Подписка ID {} не принадлежит пользователю ID {}", subId, userId);
-            throw ExceptionFactory.subscriptionNotBelongToUser(userId, subId);
+        List<Integer> deleted;
+        if (byService) {
+            Set<Integer> serviceIds = Set.copyOf(serviceNameDictionary.findAll(serviceNames).values());
+            // Неизвестные сервисы удалять нечего, но пустой IN () недопустим
+            deleted = serviceIds.isEmpty() ? List.of() : subscriptionRepository.deleteByUserIdAndServiceIdIn(userId, serviceIds);
+        } else {
+            deleted = subscriptionRepository.deleteByUserIdAndIdIn(userId, Set.copyOf(ids));
+        }
+        if (deleted.isEmpty() && !userService.userExists(userId)) {
+            throw ExceptionFactory.userNotFound(userId);
+        }
+        deleted.stream()
+                .collect(Collectors.groupingBy(id -> id, Collectors.counting()))
+                .forEach((id, count) -> subscriptionCounterStore.add(serviceNameDictionary.name(id), -count));
+        if (!deleted.isEmpty()) {
+            onSubscriptionsChanged(userId);
         }
 
-        subscriptionRepository.deleteById(subId);
-        log.info("Подписка ID {} успешно удалена у пользователя ID {}", subId, userId);
+        log.info("У пользователя ID {} удалено {} подписок", userId, deleted.size());
+        return new SubscriptionDeleteResultDTO(deleted.size());
     }
 
     /**
-     * Получает ТОП-3 самых популярных подписок по количеству пользователей.
+     * Получает ТОП-N самых популярных подписок по количеству пользователей.
+     *
+     * <p>Ответ формируется из счётчиков {@link SubscriptionCounterStore}, которые поддерживаются
+     * в памяти при оформлении и отмене подписок, поэтому запрос не обращается к базе данных.
+     * Значение {@code limit} больше {@code subscriptions.top.max-limit} ограничивается сверху.</p>
      *
-     * <p>Метод выполняет следующие шаги:</p>
-     * <ol>
-     *     <li>Запрашивает названия ТОП-3 подписок с наибольшим количеством пользователей.</li>
-     *     <li>Загружает все подписки, относящиеся к этим названиям.</li>
-     *     <li>Группирует подписки по названию сервиса и считает количество подписчиков.</li>
-     *     <li>Преобразует данные в DTO и сортирует по убыванию популярности.</li>
-     * </ol>
+     * @param limit количество подписок в ответе, не меньше 1.
+     * @return Список {@link SubscriptionTopDTO}, отсортированный по убыванию популярности.
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если {@code limit} меньше 1.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SubscriptionTopDTO> getTopSubscriptions(int limit) {
+        log.info("Запрос на получение ТОП-{} популярных подписок", limit);
+        List<SubscriptionTopDTO> result = subscriptionCounterStore.top(resolveTopLimit(limit));
+        log.info("Сформирован список топ подписок: {} записей", result.size());
+        return result;
+    }
+
+    /**
+     * Проверяет размер ТОП-N и ограничивает его сверху значением {@code subscriptions.top.max-limit}.
+     * <p>Ответы с разными {@code limit} больше максимума совпадают, поэтому кэшируются по результату метода.</p>
      *
-     * @return Список {@link SubscriptionTopDTO}, содержащий ТОП-3 подписок.
+     * @param limit запрошенное количество подписок.
+     * @return количество подписок, которое будет в ответе.
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если {@code limit} меньше 1.
      */
-    public List<SubscriptionTopDTO> getTopSubscriptions() {
-        log.info("Запрос на получение ТОП-3 популярных подписок");
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int resolveTopLimit(int limit) {
+        if (limit < 1) {
+            throw ExceptionFactory.invalidParameter("limit", limit);
+        }
+        return Math.min(limit, topMaxLimit);
+    }
 
-        List<String> subscriptionsNames = subscriptionRepository.findAllTop().stream()
-                .limit(3)
-                .toList();
+    /**
+     * Получает сервисы с наибольшим количеством новых подписок за скользящее окно.
+     *
+     * <p>Количество оценивается по потоковым скетчам {@link SubscriptionTrendingTracker} и может
+     * незначительно превышать реальное. База данных при этом не используется.</p>
+     *
+     * @param window окно: {@code 1h}, {@code 24h} или {@code 7d}.
+     * @param limit  количество подписок в ответе, не меньше 1.
+     * @return Список {@link SubscriptionTopDTO} с количеством новых подписок за окно, по убыванию.
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если окно неизвестно или {@code limit} меньше 1.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SubscriptionTopDTO> getTrendingSubscriptions(String window, int limit) {
+        log.info("Запрос трендовых подписок за окно {}, limit {}", window, limit);
+        TrendingWindow trendingWindow = TrendingWindow.fromValue(window);
+        if (limit < 1) {
+            throw ExceptionFactory.invalidParameter("limit", limit);
+        }
 
-        log.info("Найдены названия подписок для топа: {}", subscriptionsNames);
+        List<SubscriptionTopDTO> result = subscriptionTrendingTracker.top(trendingWindow, Math.min(limit, topMaxLimit));
+        log.info("Сформирован список трендовых подписок: {} записей", result.size());
+        return result;
+    }
 
-        List<Subscription> subscriptionList = subscriptionRepository.findByServiceNameIn(subscriptionsNames);
-        log.info("Найдено {} подписок по этим названиям", subscriptionList.size());
+    private SubscriptionDTO toSubscriptionDTO(SubscriptionRowView row) {
+        return new SubscriptionDTO(row.getId(), row.getUserId(), serviceNameDictionary.name(row.getServiceId()),
+                row.getNotificationEnabled());
+    }
 
-        Map<String, Long> subscriptionCountMap = subscriptionList.stream()
-                .collect(Collectors.groupingBy(Subscription::getServiceName, Collectors.counting()));
+    private void onSubscriptionsChanged(Long userId) {
+        serializedResponseCache.invalidate(SerializedResponseCache.USER, userId);
+        serializedResponseCache.markStale(SerializedResponseCache.SUBSCRIPTIONS_TOP);
+    }
 
-        List<SubscriptionTopDTO> result = subscriptionCountMap.entrySet().stream()
-                .map(entry -> SubscriptionTopDTO.builder()
-                        .serviceName(entry.getKey())
-                        .count(entry.getValue())
-                        .build()
-                ).sorted(Comparator.comparingLong(SubscriptionTopDTO::getCount).reversed())
-                .toList();
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw ExceptionFactory.invalidParameter("limit", limit);
+        }
+        return Math.min(limit, maxPageSize);
+    }
 
-        log.info("Сформирован список топ подписок: {}", result);
-        return result;
+    /**
+     * Возвращает ссылку на существующего пользователя без загрузки его строки.
+     * <p>Существование проверяется через кэшируемый {@link UserService#userExists(Long)},
+     * поэтому повторные обращения одного пользователя не выполняют запросов к таблице {@code users}.</p>
+     *
+     * @param userId ID пользователя
+     * @return ссылка на пользователя для связи с подписками
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден
+     */
+    private User getUserReference(Long userId) {
+        if (!userService.userExists(userId)) {
+            throw ExceptionFactory.userNotFound(userId);
+        }
+        return userRepository.getReferenceById(userId);
     }
 }
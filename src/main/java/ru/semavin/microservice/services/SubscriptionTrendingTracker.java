@@ -0,0 +1,234 @@
+package ru.semavin.microservice.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.microservice.dtos.SubscriptionTopDTO;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.repositrories.projections.SubscriptionEventView;
+import ru.semavin.microservice.util.TransactionCallbacks;
+import ru.semavin.microservice.util.sketch.CountMinSketch;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Потоковый трекер трендовых подписок.
+ *
+ * <p>Новые подписки раскладываются по временным корзинам двух колец: поминутного (последний час)
+ * и почасового (последние 7 дней). В каждой корзине хранится {@link CountMinSketch} и ограниченный
+ * набор из {@code top-k} самых частых сервисов этой корзины. Запрос за окно объединяет кандидатов
+ * из попавших в окно корзин и оценивает их суммарную частоту по скетчам, поэтому стоимость запроса
+ * и объём памяти не зависят ни от размера таблицы, ни от количества различных сервисов.</p>
+ *
+ * <p>При старте кольца заполняются подписками за последние 7 дней по колонке {@code created_at}.</p>
+ */
+@Slf4j
+@Component
+public class SubscriptionTrendingTracker {
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final ServiceNameDictionary serviceNameDictionary;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Ring minuteRing;
+    private final Ring hourRing;
+
+    public SubscriptionTrendingTracker(SubscriptionRepository subscriptionRepository,
+                                       ServiceNameDictionary serviceNameDictionary,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${subscriptions.trending.sketch-depth:4}") int depth,
+                                       @Value("${subscriptions.trending.sketch-width:1024}") int width,
+                                       @Value("${subscriptions.trending.top-k:32}") int topK) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.serviceNameDictionary = serviceNameDictionary;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.minuteRing = new Ring(MINUTE, TrendingWindow.ONE_HOUR.getDuration(), depth, width, topK);
+        this.hourRing = new Ring(HOUR, TrendingWindow.SEVEN_DAYS.getDuration(), depth, width, topK);
+    }
+
+    /**
+     * Заполняет кольца подписками, созданными за последние 7 дней.
+     */
+    @PostConstruct
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now(clock).minus(TrendingWindow.SEVEN_DAYS.getDuration());
+        long restored = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<SubscriptionEventView> events = subscriptionRepository.streamEventsCreatedAfter(since)) {
+                for (SubscriptionEventView event : (Iterable<SubscriptionEventView>) events::iterator) {
+                    apply(serviceNameDictionary.name(event.getServiceId()), toEpochMillis(event.getCreatedAt()), 1);
+                    count++;
+                }
+            }
+            return count;
+        });
+        log.info("Трендовые подписки восстановлены из базы: {} событий с {}", restored, since);
+    }
+
+    /**
+     * Учитывает новую подписку после коммита текущей транзакции.
+     *
+     * @param serviceName название сервиса
+     * @param createdAt   время создания подписки
+     */
+    public void record(String serviceName, LocalDateTime createdAt) {
+        record(serviceName, createdAt, 1);
+    }
+
+    /**
+     * Учитывает {@code count} новых подписок на сервис после коммита текущей транзакции.
+     *
+     * @param serviceName название сервиса
+     * @param createdAt   время создания подписок
+     * @param count       количество подписок
+     */
+    public void record(String serviceName, LocalDateTime createdAt, int count) {
+        if (count > 0) {
+            long epochMillis = toEpochMillis(createdAt);
+            TransactionCallbacks.afterCommit(() -> apply(serviceName, epochMillis, count));
+        }
+    }
+
+    /**
+     * Возвращает сервисы с наибольшим количеством новых подписок за окно.
+     *
+     * @param window окно
+     * @param limit  количество записей
+     * @return список {@link SubscriptionTopDTO} с оценкой количества новых подписок, по убыванию
+     */
+    public List<SubscriptionTopDTO> top(TrendingWindow window, int limit) {
+        Ring ring = window.getDuration().compareTo(minuteRing.span()) <= 0 ? minuteRing : hourRing;
+        long nowMillis = clock.millis();
+        lock.lock();
+        try {
+            return ring.top(window.getDuration(), nowMillis, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(String serviceName, long epochMillis, int count) {
+        long nowMillis = clock.millis();
+        lock.lock();
+        try {
+            minuteRing.record(serviceName, epochMillis, nowMillis, count);
+            hourRing.record(serviceName, epochMillis, nowMillis, count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Кольцо временных корзин одинаковой длительности.
+     */
+    private static final class Ring {
+        private final long bucketMillis;
+        private final Bucket[] buckets;
+
+        Ring(Duration bucketDuration, Duration span, int depth, int width, int topK) {
+            this.bucketMillis = bucketDuration.toMillis();
+            this.buckets = new Bucket[(int) (span.toMillis() / bucketMillis)];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new Bucket(new CountMinSketch(depth, width), topK);
+            }
+        }
+
+        Duration span() {
+            return Duration.ofMillis(bucketMillis * buckets.length);
+        }
+
+        void record(String serviceName, long epochMillis, long nowMillis, int count) {
+            long nowSlot = nowMillis / bucketMillis;
+            long slot = Math.min(epochMillis / bucketMillis, nowSlot);
+            if (slot <= nowSlot - buckets.length) {
+                return;
+            }
+            Bucket bucket = buckets[(int) Math.floorMod(slot, (long) buckets.length)];
+            if (bucket.slot != slot) {
+                bucket.reset(slot);
+            }
+            bucket.offer(serviceName, bucket.sketch.add(serviceName, count));
+        }
+
+        List<SubscriptionTopDTO> top(Duration window, long nowMillis, int limit) {
+            long nowSlot = nowMillis / bucketMillis;
+            long firstSlot = nowSlot - Math.min(window.toMillis() / bucketMillis, buckets.length) + 1;
+            List<CountMinSketch> sketches = new ArrayList<>();
+            Set<String> candidates = new HashSet<>();
+            for (Bucket bucket : buckets) {
+                if (bucket.slot >= firstSlot && bucket.slot <= nowSlot) {
+                    sketches.add(bucket.sketch);
+                    candidates.addAll(bucket.candidates.keySet());
+                }
+            }
+            return candidates.stream()
+                    .map(name -> new SubscriptionTopDTO(name, CountMinSketch.estimate(name, sketches)))
+                    .sorted(Comparator.comparingLong(SubscriptionTopDTO::getCount).reversed()
+                            .thenComparing(SubscriptionTopDTO::getServiceName))
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    /**
+     * Корзина: скетч частот и ограниченный набор самых частых сервисов за её интервал.
+     */
+    private static final class Bucket {
+        private final CountMinSketch sketch;
+        private final Map<String, Long> candidates;
+        private final int topK;
+        private long slot = Long.MIN_VALUE;
+
+        Bucket(CountMinSketch sketch, int topK) {
+            this.sketch = sketch;
+            this.topK = topK;
+            this.candidates = new HashMap<>(topK * 2);
+        }
+
+        void reset(long newSlot) {
+            sketch.clear();
+            candidates.clear();
+            slot = newSlot;
+        }
+
+        void offer(String serviceName, long estimate) {
+            if (candidates.size() < topK || candidates.containsKey(serviceName)) {
+                candidates.put(serviceName, estimate);
+                return;
+            }
+            Map.Entry<String, Long> weakest = null;
+            for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+                if (weakest == null || entry.getValue() < weakest.getValue()) {
+                    weakest = entry;
+                }
+            }
+            if (weakest != null && estimate > weakest.getValue()) {
+                candidates.remove(weakest.getKey());
+                candidates.put(serviceName, estimate);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.semavin.microservice.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.semavin.microservice.util.ExceptionFactory;
+
+import java.time.Duration;
+
+/**
+ * Окна, за которые считаются трендовые подписки.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TrendingWindow {
+    ONE_HOUR("1h", Duration.ofHours(1)),
+    ONE_DAY("24h", Duration.ofDays(1)),
+    SEVEN_DAYS("7d", Duration.ofDays(7));
+
+    /**
+     * Значение параметра {@code window} в запросе.
+     */
+    private final String value;
+
+    /**
+     * Длительность окна.
+     */
+    private final Duration duration;
+
+    /**
+     * Находит окно по значению параметра запроса.
+     *
+     * @param value значение параметра {@code window}: {@code 1h}, {@code 24h} или {@code 7d}
+     * @return соответствующее окно
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если значение неизвестно
+     */
+    public static TrendingWindow fromValue(String value) {
+        for (TrendingWindow window : values()) {
+            if (window.value.equalsIgnoreCase(value)) {
+                return window;
+            }
+        }
+        throw ExceptionFactory.invalidParameter("window", value);
+    }
+}
@@ -0,0 +1,161 @@
+package ru.semavin.microservice.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.microservice.dtos.BulkImportResultDTO;
+import ru.semavin.microservice.dtos.BulkImportRowErrorDTO;
+import ru.semavin.microservice.dtos.UserDTO;
+import ru.semavin.microservice.mapper.UserMapper;
+import ru.semavin.microservice.models.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Сервис массового импорта пользователей.
+ *
+ * <p>Читает JSON-массив или NDJSON потоково, проверяет каждую строку ограничениями {@link UserDTO}
+ * и сохраняет корректные строки пачками по {@code users.bulk.batch-size} — каждая пачка в своей
+ * транзакции, одним JDBC batch (идентификаторы выдаются последовательностью с pooled-оптимизатором).
+ * Если пачка не сохраняется целиком (например, из-за дубликата email), её строки сохраняются
+ * по одной, чтобы указать в результате конкретные строки с ошибками. Email сохраняемых строк
+ * добавляются в {@link UserEmailRegistry}.</p>
+ */
+@Slf4j
+@Service
+public class UserBulkImportService {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEmailRegistry userEmailRegistry;
+
+    @Value("${users.bulk.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${users.bulk.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public UserBulkImportService(ObjectMapper objectMapper,
+                                 Validator validator,
+                                 UserMapper userMapper,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 UserEmailRegistry userEmailRegistry) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.userMapper = userMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userEmailRegistry = userEmailRegistry;
+    }
+
+    /**
+     * Импортирует пользователей из потока.
+     *
+     * @param body JSON-массив объектов {@link UserDTO} или NDJSON (по объекту на строку)
+     * @return итог импорта с ошибками по строкам
+     */
+    public BulkImportResultDTO importUsers(InputStream body) {
+        log.info("Начало массового импорта пользователей");
+        long started = System.nanoTime();
+        BulkImportResultDTO result = BulkImportResultDTO.builder().build();
+        List<Row> batch = new ArrayList<>(batchSize);
+        long rowNumber = 0;
+
+        try (MappingIterator<UserDTO> rows = objectMapper.readerFor(UserDTO.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                UserDTO userDto = rows.nextValue();
+                rowNumber++;
+                Set<ConstraintViolation<UserDTO>> violations = validator.validate(userDto);
+                if (!violations.isEmpty()) {
+                    reject(result, rowNumber, userDto.getEmail(), violations.stream()
+                            .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                            .map(violation -> String.format("Поле '%s': %s",
+                                    violation.getPropertyPath(), violation.getMessage()))
+                            .toList());
+                    continue;
+                }
+                batch.add(new Row(rowNumber, userDto));
+                if (batch.size() == batchSize) {
+                    flush(batch, result);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Импорт прерван на строке {}: {}", rowNumber + 1, e.getMessage());
+            result.setAborted(true);
+            reject(result, rowNumber + 1, null, List.of("Некорректные входные данные: " + e.getMessage()));
+        }
+        flush(batch, result);
+
+        result.setTotal(rowNumber);
+        result.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Импорт пользователей завершён: прочитано {}, создано {}, ошибок {} за {} мс ({} строк/с)",
+                result.getTotal(), result.getCreated(), result.getFailed(), result.getElapsedMillis(),
+                result.getTotal() * 1000 / Math.max(1, result.getElapsedMillis()));
+        return result;
+    }
+
+    private void flush(List<Row> batch, BulkImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            persist(batch);
+            result.setCreated(result.getCreated() + batch.size());
+        } catch (DataAccessException | PersistenceException e) {
+            log.warn("Пачка из {} строк не сохранена ({}), сохранение по одной строке", batch.size(), e.getMessage());
+            for (Row row : batch) {
+                try {
+                    persist(List.of(row));
+                    result.setCreated(result.getCreated() + 1);
+                } catch (DataAccessException | PersistenceException rowError) {
+                    reject(result, row.number(), row.user().getEmail(),
+                            List.of("Пользователь с таким email уже существует или данные нарушают ограничения БД"));
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void persist(List<Row> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                for (Row row : rows) {
+                    User user = userMapper.userDTOToUser(row.user());
+                    user.setId(null);
+                    entityManager.persist(user);
+                    // Email попадает в фильтр до вставки: иначе параллельная регистрация могла бы его пропустить
+                    userEmailRegistry.add(user.getEmail());
+                }
+                entityManager.flush();
+            } finally {
+                entityManager.clear();
+            }
+        });
+    }
+
+    private void reject(BulkImportResultDTO result, long rowNumber, String email, List<String> errors) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportRowErrorDTO(rowNumber, email, errors));
+        }
+    }
+
+    private record Row(long number, UserDTO user) {}
+}
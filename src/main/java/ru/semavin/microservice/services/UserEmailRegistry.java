@@ -0,0 +1,225 @@
+package ru.semavin.microservice.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.microservice.repositrories.UserRepository;
+import ru.semavin.microservice.util.TransactionCallbacks;
+import ru.semavin.microservice.util.sketch.BloomFilter;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Фильтр Блума email пользователей.
+ *
+ * <p>Перед проверкой уникальности email при регистрации и смене email ({@link #find(String, Function)})
+ * проверяет фильтр: если email в нём нет, проверка не выполняется. Так регистрация с новым email не делает
+ * предварительного запроса, а запрос к индексу {@code lower(email)} остаётся только для возможных дубликатов.</p>
+ *
+ * <ul>
+ *     <li>фильтр заполняется потоковым чтением email при старте;</li>
+ *     <li>email, добавленные за последнюю минуту, после пересборки добавляются в новый фильтр повторно:
+ *     пользователь, вставленный транзакцией, которая закоммитилась уже после начала чтения, иначе
+ *     пропал бы из фильтра;</li>
+ *     <li>email добавляется до вставки пользователя, чтобы параллельная регистрация с тем же email
+ *     уже видела его в фильтре; если транзакция откатится, останется только лишнее ложное срабатывание;</li>
+ *     <li>email удалённого пользователя и прежний email при изменении из фильтра убрать нельзя: они
+ *     учитываются как устаревшие, и когда добавленных и устаревших больше, чем рассчитан фильтр,
+ *     он пересобирается в фоне по текущим данным.</li>
+ * </ul>
+ *
+ * <p>Фильтр только экономит запросы: он знает лишь email, записанные этим экземпляром приложения, и
+ * дубликат, который он пропустит (пользователь создан другим экземпляром или напрямую в базе), отклоняет
+ * уникальный индекс {@code lower(email)}. Поэтому фильтр не используется для чтения пользователя по email.</p>
+ */
+@Slf4j
+@Component
+public class UserEmailRegistry {
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final ExecutorService rebuilder;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final Cache<String, Boolean> recentlyAdded = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+    private final Counter skippedLookups;
+    private final Counter foundLookups;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+
+    public UserEmailRegistry(UserRepository userRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${users.email-filter.enabled:true}") boolean enabled,
+                             @Value("${users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                             @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-email-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.skippedLookups = lookupCounter("skipped", meterRegistry);
+        this.foundLookups = lookupCounter("found", meterRegistry);
+        this.falsePositives = lookupCounter("false_positive", meterRegistry);
+        Gauge.builder("users.email.filter.false-positive-rate", this, registry -> registry.filter.falsePositiveRate())
+                .description("Оценка доли ложных срабатываний фильтра Блума email по заполненности")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Приводит email к виду, в котором он хранится в фильтре и ищется по индексу {@code lower(email)}.
+     *
+     * @param email email
+     * @return email в нижнем регистре
+     */
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Заполняет фильтр email всех пользователей. Фильтр рассчитывается на вдвое большее число
+     * пользователей, чем есть сейчас, но не меньше {@code users.email-filter.expected-insertions}.
+     */
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        staleEntries.set(0);
+        long loaded = readOnlyTransaction.execute(status -> {
+            BloomFilter next = new BloomFilter(Math.max(expectedInsertions, 2 * userRepository.count()),
+                    falsePositiveRate);
+            long count = 0;
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                for (String email : (Iterable<String>) emails::iterator) {
+                    next.put(normalize(email));
+                    count++;
+                }
+            }
+            // До замены — чтобы новый фильтр сразу знал недавние email, после — чтобы не потерять
+            // добавленные в старый фильтр во время замены
+            recentlyAdded.asMap().keySet().forEach(next::put);
+            filter = next;
+            recentlyAdded.asMap().keySet().forEach(next::put);
+            return count;
+        });
+        log.info("Фильтр email пользователей заполнен: {} email за {} мс, рассчитан на {}",
+                loaded, (System.nanoTime() - started) / 1_000_000, filter.expectedInsertions());
+    }
+
+    /**
+     * Ищет данные по email, если фильтр допускает, что email занят.
+     *
+     * @param email  email в любом регистре
+     * @param lookup поиск по нормализованному email
+     * @return результат поиска или пустой результат без обращения к {@code lookup}, если email точно свободен
+     */
+    public <T> Optional<T> find(String email, Function<String, Optional<T>> lookup) {
+        String normalized = normalize(email);
+        if (enabled && !filter.mightContain(normalized)) {
+            skippedLookups.increment();
+            return Optional.empty();
+        }
+        Optional<T> result = lookup.apply(normalized);
+        (result.isPresent() ? foundLookups : falsePositives).increment();
+        return result;
+    }
+
+    /**
+     * Добавляет email нового или изменённого пользователя.
+     *
+     * @param email email в любом регистре
+     */
+    public void add(String email) {
+        if (!enabled) {
+            return;
+        }
+        String normalized = normalize(email);
+        recentlyAdded.put(normalized, Boolean.TRUE);
+        filter.put(normalized);
+        rebuildIfSaturated();
+    }
+
+    /**
+     * Учитывает email, который после коммита текущей транзакции больше никому не принадлежит.
+     *
+     * @param email email удалённого пользователя или прежний email
+     */
+    public void remove(String email) {
+        if (enabled) {
+            TransactionCallbacks.afterCommit(() -> {
+                staleEntries.incrementAndGet();
+                rebuildIfSaturated();
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuildIfSaturated() {
+        BloomFilter current = filter;
+        if (current.insertions() + staleEntries.get() <= current.expectedInsertions()
+                || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        log.info("Фильтр email пользователей заполнен ({} добавлено, {} устарело), пересборка",
+                current.insertions(), staleEntries.get());
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось пересобрать фильтр email пользователей: {}", e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.set(false);
+        }
+    }
+
+    private static Counter lookupCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("users.email.lookups")
+                .description("Проверки email по фильтру Блума: skipped — без запроса к базе, "
+                        + "found — email занят, false_positive — лишний запрос")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,16 +1,33 @@
 package ru.semavin.microservice.services;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.semavin.microservice.cache.SerializedResponseCache;
+import ru.semavin.microservice.config.CacheConfig;
+import ru.semavin.microservice.config.MetricsConfig;
+import ru.semavin.microservice.datasource.ReplicaRoutingContext;
+import ru.semavin.microservice.dtos.CursorPageDTO;
 import ru.semavin.microservice.dtos.UserDTO;
 import ru.semavin.microservice.mapper.UserMapper;
 import ru.semavin.microservice.models.User;
 import ru.semavin.microservice.repositrories.UserRepository;
+import ru.semavin.microservice.util.CursorCodec;
+import ru.semavin.microservice.util.EntityTags;
 import ru.semavin.microservice.util.ExceptionFactory;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * Сервисный слой для управления пользователями.
@@ -20,31 +37,60 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class UserService {
+    /**
+     * Ограничения уникальности email: индекс {@code lower(email)} (миграция V3) и ограничение столбца (V1).
+     */
+    private static final Set<String> EMAIL_CONSTRAINTS = Set.of("uk_users_email_lower", "uk_users_email");
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final SubscriptionCounterStore subscriptionCounterStore;
+    private final SerializedResponseCache serializedResponseCache;
+    private final UserEmailRegistry userEmailRegistry;
+
+    @Value("${users.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${users.page.max-size:500}")
+    private int maxPageSize;
 
     /**
      * Создаёт нового пользователя.
      *
+     * <p>Email, которого нет в {@link UserEmailRegistry}, вставляется без предварительной проверки;
+     * для возможного дубликата выполняется один запрос по индексу {@code lower(email)}.</p>
+     *
      * @param userDto DTO с данными нового пользователя.
      * @return DTO созданного пользователя.
+     * @throws ru.semavin.microservice.util.exceptions.UserAlreadyExistsException если email уже занят.
      */
     public UserDTO createUser(UserDTO userDto) {
-        log.info("Создание нового пользователя: {}", userDto);
+        log.info("Создание нового пользователя");
+        String email = userDto.getEmail();
+        if (userEmailRegistry.find(email, userRepository::findIdByNormalizedEmail).isPresent()) {
+            log.warn("Попытка создания пользователя с занятым email");
+            throw ExceptionFactory.userAlreadyExists(email);
+        }
         User user = userMapper.userDTOToUser(userDto);
-        User createdUser = userRepository.save(user);
-        log.info("Пользователь успешно создан: {}", createdUser);
+        userEmailRegistry.add(email);
+        User createdUser = saveUniqueEmail(user, email);
+        // ID нового пользователя неизвестен до сохранения: сразу после создания он читается с основного сервера
+        ReplicaRoutingContext.bindUser(createdUser.getId());
+        log.info("Пользователь успешно создан: ID {}", createdUser.getId());
         return userMapper.userToUserDTO(createdUser);
     }
 
     /**
      * Получает пользователя по ID.
+     * <p>Результат кэшируется в {@link CacheConfig#USERS_CACHE} до изменения или удаления пользователя.</p>
      *
      * @param id идентификатор пользователя.
      * @return DTO пользователя, если он найден.
      * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден.
      */
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     @Transactional(readOnly = true)
     public UserDTO findUserDTOById(Long id) {
         log.info("Запрос информации о пользователе с ID: {}", id);
@@ -56,20 +102,49 @@ public class UserService {
      * Обновляет данные существующего пользователя.
      * partial update.
      *
+     * <p>Если передан {@code If-Match}, обновление выполняется только при совпадении ETag текущей версии.
+     * Изменение, записанное параллельно между чтением и сохранением, отклоняется по версии сущности
+     * ({@link org.springframework.orm.ObjectOptimisticLockingFailureException}).</p>
+     *
      * @param id      идентификатор пользователя.
      * @param userDto DTO с обновлёнными данными пользователя.
-     * @return DTO обновлённого пользователя.
-     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден.
+     * @param ifMatch значение заголовка {@code If-Match} или {@code null}.
+     * @return DTO обновлённого пользователя с новой версией.
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException        если пользователь не найден.
+     * @throws ru.semavin.microservice.util.exceptions.PreconditionFailedException если версия не совпадает с {@code If-Match}.
+     * @throws ru.semavin.microservice.util.exceptions.UserAlreadyExistsException  если новый email занят другим пользователем.
      */
-    public UserDTO updateUser(Long id, UserDTO userDto) {
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserDTO updateUser(Long id, UserDTO userDto, String ifMatch) {
         log.info("Обновление пользователя с ID: {}", id);
         User user = userRepository.findById(id)
                 .orElseThrow(() -> {
                     log.warn("Попытка обновления несуществующего пользователя с ID {}", id);
                     return ExceptionFactory.userNotFound(id);
                 });
+        if (ifMatch != null && !EntityTags.matches(ifMatch, EntityTags.of(id, user.getVersion()), true)) {
+            log.warn("Версия {} пользователя с ID {} не совпадает с If-Match", user.getVersion(), id);
+            throw ExceptionFactory.userVersionMismatch(id);
+        }
+
+        String previousEmail = user.getEmail();
+        boolean emailChanged = userDto.getEmail() != null && !UserEmailRegistry.normalize(userDto.getEmail())
+                .equals(UserEmailRegistry.normalize(previousEmail));
+        if (emailChanged && userEmailRegistry.find(userDto.getEmail(), userRepository::findIdByNormalizedEmail)
+                .filter(ownerId -> !ownerId.equals(id))
+                .isPresent()) {
+            log.warn("Попытка сменить email пользователя с ID {} на занятый", id);
+            throw ExceptionFactory.userAlreadyExists(userDto.getEmail());
+        }
 
         userMapper.updateUserFromDto(userDto, user);
+        if (emailChanged) {
+            userEmailRegistry.add(user.getEmail());
+            userEmailRegistry.remove(previousEmail);
+        }
+        // Версия увеличивается при flush, а в ответе нужна уже новая
+        saveUniqueEmail(user, user.getEmail());
+        serializedResponseCache.invalidate(SerializedResponseCache.USER, id);
         log.info("Данные пользователя с ID {} обновлены", id);
         return userMapper.userToUserDTO(user);
     }
@@ -80,29 +155,70 @@ public class UserService {
      * @param id идентификатор пользователя.
      * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден.
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USER_EXISTS_CACHE, key = "#id")
+    })
     public void deleteUser(Long id) {
         log.info("Удаление пользователя с ID: {}", id);
-        if (!userRepository.existsById(id)) {
-            log.warn("Попытка удаления несуществующего пользователя с ID {}", id);
-            throw ExceptionFactory.userNotFound(id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Попытка удаления несуществующего пользователя с ID {}", id);
+                    return ExceptionFactory.userNotFound(id);
+                });
+        subscriptionCounterStore.onUserDeleted(id);
+        userRepository.delete(user);
+        userEmailRegistry.remove(user.getEmail());
+        serializedResponseCache.invalidate(SerializedResponseCache.USER, id);
+        serializedResponseCache.markStale(SerializedResponseCache.SUBSCRIPTIONS_TOP);
         log.info("Пользователь с ID {} успешно удалён", id);
     }
 
     /**
-     * Получает список всех пользователей.
+     * Получает пользователя по email без учёта регистра.
+     * <p>Всегда ищет по индексу {@code lower(email)}: {@link UserEmailRegistry} знает только email,
+     * записанные этим экземпляром, и годится лишь для проверки уникальности, которую подстраховывает индекс.</p>
+     *
+     * @param email email пользователя.
+     * @return DTO пользователя, если он найден.
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден.
+     */
+    @Transactional(readOnly = true)
+    public UserDTO findUserDTOByEmail(String email) {
+        log.info("Запрос информации о пользователе по email");
+        return userRepository.findByNormalizedEmail(UserEmailRegistry.normalize(email))
+                .map(userMapper::userToUserDTO)
+                .orElseThrow(() -> ExceptionFactory.userNotFoundByEmail(email));
+    }
+
+    /**
+     * Получает страницу пользователей, упорядоченных по ID.
+     *
+     * <p>Используется keyset-пагинация: страница начинается строго после ID, закодированного в курсоре,
+     * поэтому запрос не использует OFFSET и стоит одинаково для любой страницы.
+     * Размер страницы ограничивается сверху значением {@code users.page.max-size}.</p>
      *
-     * @return список всех пользователей в виде DTO.
+     * @param cursor курсор из предыдущего ответа или {@code null} для первой страницы.
+     * @param limit  размер страницы или {@code null} для размера по умолчанию.
+     * @return страница пользователей в виде DTO и курсор следующей страницы.
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если курсор некорректен или {@code limit} меньше 1.
      */
     @Transactional(readOnly = true)
-    public List<UserDTO> getAllUsers() {
-        log.info("Запрос списка всех пользователей");
-        List<UserDTO> users = userRepository.findAll().stream()
+    public CursorPageDTO<UserDTO> getUsersPage(String cursor, Integer limit) {
+        long afterId = CursorCodec.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+        log.info("Запрос страницы пользователей после ID {}, размер {}", afterId, pageSize);
+
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = users.size() > pageSize;
+        List<UserDTO> items = users.stream()
+                .limit(pageSize)
                 .map(userMapper::userToUserDTO)
                 .toList();
-        log.info("Найдено {} пользователей", users.size());
-        return users;
+        String nextCursor = hasNext ? CursorCodec.encode(items.get(items.size() - 1).getId()) : null;
+
+        log.info("Найдено {} пользователей, есть следующая страница: {}", items.size(), hasNext);
+        return new CursorPageDTO<>(items, nextCursor);
     }
 
     /**
@@ -121,4 +237,69 @@ public class UserService {
         return userRepository.findById(id)
                 .orElseThrow(() -> ExceptionFactory.userNotFound(id));
     }
+
+    /**
+     * Получает текущую версию пользователя без загрузки его данных.
+     * <p>Используется для ответа {@code 304 Not Modified} на условные запросы.</p>
+     *
+     * @param id идентификатор пользователя.
+     * @return версия пользователя.
+     * @throws ru.semavin.microservice.util.exceptions.UserNotFoundException если пользователь не найден.
+     */
+    @Transactional(readOnly = true)
+    public long getUserVersion(Long id) {
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> ExceptionFactory.userNotFound(id));
+    }
+
+    /**
+     * Проверяет, существует ли пользователь.
+     * <p>Кэшируется только положительный ответ: запись в {@link CacheConfig#USER_EXISTS_CACHE}
+     * вытесняется при удалении пользователя, а отсутствие пользователя всегда проверяется по базе.</p>
+     *
+     * @param id идентификатор пользователя.
+     * @return {@code true}, если пользователь существует.
+     */
+    @Cacheable(cacheNames = CacheConfig.USER_EXISTS_CACHE, key = "#id", unless = "!#result")
+    @Transactional(readOnly = true)
+    public boolean userExists(Long id) {
+        return userRepository.existsById(id);
+    }
+
+    /**
+     * Записывает пользователя сразу, чтобы email, занятый параллельной регистрацией, был отклонён
+     * уникальным индексом здесь, а не при коммите с общей ошибкой целостности.
+     * Остальные нарушения целостности пробрасываются как есть.
+     */
+    private User saveUniqueEmail(User user, String email) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailConstraint(e)) {
+                throw e;
+            }
+            log.warn("Email пользователя занят параллельным запросом: {}", e.getMostSpecificCause().getMessage());
+            throw ExceptionFactory.userAlreadyExists(email);
+        }
+    }
+
+    private static boolean isEmailConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName() != null
+                        && EMAIL_CONSTRAINTS.contains(violation.getConstraintName().toLowerCase(Locale.ROOT));
+            }
+        }
+        return false;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw ExceptionFactory.invalidParameter("limit", limit);
+        }
+        return Math.min(limit, maxPageSize);
+    }
 }
@@ -0,0 +1,26 @@
+package ru.semavin.microservice.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Допустимое число SQL-запросов на один вызов эндпоинта.
+ * <p>
+ * Указывается на методе или классе контроллера. Без аннотации действует
+ * {@code sql.statements.default-budget}. Превышение не прерывает запрос: оно логируется
+ * с местами вызова и учитывается в метрике {@code http.server.requests.sql.budget.exceeded}.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface SqlStatementBudget {
+
+    /**
+     * @return максимальное число SQL-запросов
+     */
+    int value();
+}
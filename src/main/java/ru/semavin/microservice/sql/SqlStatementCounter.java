@@ -0,0 +1,108 @@
+package ru.semavin.microservice.sql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Счётчик SQL-запросов, выполненных текущим потоком.
+ *
+ * <p>Запросы учитываются только внутри открытой области {@link Scope}: фильтр открывает её на время
+ * HTTP-запроса, тесты — вокруг проверяемого кода. Области могут быть вложенными, запрос учитывается
+ * во всех открытых областях потока. Запросы из других потоков (например, при потоковой выгрузке)
+ * в область не попадают.</p>
+ */
+public final class SqlStatementCounter {
+    /**
+     * Максимальное число разных запросов и мест вызова, сохраняемых в области.
+     */
+    private static final int MAX_TRACKED = 100;
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private SqlStatementCounter() {}
+
+    /**
+     * Открывает область подсчёта в текущем потоке.
+     *
+     * @return область, которую нужно закрыть после выполнения кода
+     */
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void record(String sql, String callSite) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.add(sql, callSite);
+        }
+    }
+
+    /**
+     * Область подсчёта SQL-запросов.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final Map<String, Long> statements = new LinkedHashMap<>();
+        private final Map<String, Long> callSites = new LinkedHashMap<>();
+        private long count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * @return число выполненных запросов; пакет (batch) считается одним запросом
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Запросы, повторённые не меньше {@code threshold} раз, — характерный признак проблемы N+1.
+         *
+         * @param threshold минимальное число повторений
+         * @return текст запроса и число его выполнений
+         */
+        public Map<String, Long> repeatedStatements(long threshold) {
+            return statements.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Long::sum, LinkedHashMap::new));
+        }
+
+        /**
+         * @return места вызова в коде приложения и число запросов из каждого;
+         * пусто, если сбор мест вызова отключён
+         */
+        public Map<String, Long> callSites() {
+            return callSites;
+        }
+
+        @Override
+        public void close() {
+            CURRENT.set(parent);
+        }
+
+        private void add(String sql, String callSite) {
+            count++;
+            increment(statements, sql);
+            if (callSite != null) {
+                increment(callSites, callSite);
+            }
+        }
+
+        private static void increment(Map<String, Long> counts, String key) {
+            if (counts.containsKey(key) || counts.size() < MAX_TRACKED) {
+                counts.merge(key, 1L, Long::sum);
+            }
+        }
+    }
+}
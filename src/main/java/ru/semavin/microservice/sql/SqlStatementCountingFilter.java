@@ -0,0 +1,149 @@
+package ru.semavin.microservice.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Фильтр, считающий SQL-запросы каждого HTTP-запроса.
+ *
+ * <p>Число запросов отдаётся в заголовке {@link #STATEMENT_COUNT_HEADER} и в метрике
+ * {@code http.server.requests.sql.statements} с тегами {@code method} и {@code uri}. Заголовок
+ * выставляется перед записью тела ответа, поэтому запросы, выполненные во время потоковой выдачи,
+ * в него не попадают. При превышении бюджета {@link SqlStatementBudget} в лог пишутся места вызова,
+ * а при многократном повторении одного и того же запроса — предупреждение о возможной проблеме N+1.</p>
+ */
+@Slf4j
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+    /**
+     * Заголовок ответа с числом SQL-запросов, выполненных до отправки тела.
+     */
+    public static final String STATEMENT_COUNT_HEADER = "X-SQL-Statement-Count";
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final long repeatThreshold;
+    private final boolean headerEnabled;
+
+    public SqlStatementCountingFilter(MeterRegistry meterRegistry, int defaultBudget, long repeatThreshold,
+                                      boolean headerEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.repeatThreshold = repeatThreshold;
+        this.headerEnabled = headerEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            StatementCountResponse countingResponse = new StatementCountResponse(response, scope);
+            try {
+                chain.doFilter(request, headerEnabled ? countingResponse : response);
+            } finally {
+                if (headerEnabled && !response.isCommitted()) {
+                    countingResponse.writeHeader();
+                }
+                report(request, scope);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        long count = scope.count();
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL-запросы на HTTP-запрос")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(count);
+
+        int budget = budget(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+        if (count > budget) {
+            Counter.builder("http.server.requests.sql.budget.exceeded")
+                    .description("HTTP-запросы, превысившие бюджет SQL-запросов")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Превышен бюджет SQL-запросов для {} {}: {} при допустимых {}. Места вызова: {}",
+                    request.getMethod(), uri, count, budget, format(scope.callSites()));
+        }
+        Map<String, Long> repeated = scope.repeatedStatements(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            log.warn("Возможная проблема N+1 в {} {}: {}", request.getMethod(), uri, format(repeated));
+        }
+    }
+
+    private int budget(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            SqlStatementBudget budget = handlerMethod.getMethodAnnotation(SqlStatementBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), SqlStatementBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+
+    private static String format(Map<String, Long> counts) {
+        StringBuilder result = new StringBuilder();
+        counts.forEach((key, value) -> result.append(System.lineSeparator()).append("  ").append(value).append(" x ").append(key));
+        return result.isEmpty() ? "не собирались" : result.toString();
+    }
+
+    /**
+     * Обёртка ответа, выставляющая заголовок с числом запросов перед записью тела.
+     */
+    private static final class StatementCountResponse extends HttpServletResponseWrapper {
+        private final SqlStatementCounter.Scope scope;
+        private boolean headerWritten;
+
+        StatementCountResponse(HttpServletResponse response, SqlStatementCounter.Scope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        void writeHeader() {
+            if (!headerWritten) {
+                headerWritten = true;
+                setHeader(STATEMENT_COUNT_HEADER, Long.toString(scope.count()));
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.semavin.microservice.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Слушатель datasource-proxy, передающий выполненные запросы в {@link SqlStatementCounter}.
+ *
+ * <p>Место вызова — три ближайших кадра стека из кода приложения. Сбор стека стоит единиц
+ * микросекунд и выполняется только внутри открытой области подсчёта.</p>
+ */
+public class SqlStatementListener implements QueryExecutionListener {
+    private static final String APPLICATION_PACKAGE = "ru.semavin.microservice.";
+    private static final Set<String> INFRASTRUCTURE = Set.of(SqlStatementListener.class.getName(),
+            SqlStatementCounter.class.getName(), SqlStatementCountingFilter.class.getName());
+    private static final int CALL_SITE_DEPTH = 3;
+
+    private final boolean captureCallSites;
+
+    public SqlStatementListener(boolean captureCallSites) {
+        this.captureCallSites = captureCallSites;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!SqlStatementCounter.isActive() || queryInfoList.isEmpty()) {
+            return;
+        }
+        SqlStatementCounter.record(queryInfoList.get(0).getQuery(), captureCallSites ? callSite() : null);
+    }
+
+    private static String callSite() {
+        String callSite = StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(frame -> !INFRASTRUCTURE.contains(frame.getClassName()))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .limit(CALL_SITE_DEPTH)
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- ")));
+        return callSite.isEmpty() ? "<вне кода приложения>" : callSite;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
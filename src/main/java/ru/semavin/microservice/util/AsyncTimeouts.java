@@ -0,0 +1,36 @@
+package ru.semavin.microservice.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.Duration;
+
+/**
+ * Тайм-ауты асинхронной обработки отдельных запросов.
+ * <p>
+ * Общий тайм-аут {@code spring.mvc.async.request-timeout} рассчитан на обычные ответы; длинные выгрузки
+ * продлевают его только для своего запроса.
+ * </p>
+ */
+public final class AsyncTimeouts {
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private AsyncTimeouts() {}
+
+    /**
+     * Задаёт тайм-аут асинхронной обработки текущего запроса.
+     * <p>Вызывается из метода контроллера до возврата {@code StreamingResponseBody}: Spring MVC создаёт
+     * асинхронный запрос с общим тайм-аутом до вызова метода, а задача выгрузки своего тайм-аута не задаёт.</p>
+     *
+     * @param request текущий запрос
+     * @param timeout тайм-аут
+     */
+    public static void set(HttpServletRequest request, Duration timeout) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(timeout.toMillis());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.semavin.microservice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Кодирование курсоров keyset-пагинации.
+ * <p>
+ * Курсор — непрозрачная для клиента строка, содержащая идентификатор последнего
+ * элемента предыдущей страницы.
+ * </p>
+ */
+public final class CursorCodec {
+    /**
+     * Заголовок ответа, в котором передаётся курсор следующей страницы.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String PREFIX = "id:";
+
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private CursorCodec() {}
+
+    /**
+     * Кодирует идентификатор последнего элемента страницы в курсор.
+     *
+     * @param lastId идентификатор последнего элемента
+     * @return курсор следующей страницы
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует курсор в идентификатор, после которого начинается страница.
+     *
+     * @param cursor курсор или {@code null} для первой страницы
+     * @return идентификатор последнего элемента предыдущей страницы, {@code 0} для первой страницы
+     * @throws ru.semavin.microservice.util.exceptions.InvalidRequestParameterException если курсор некорректен
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw ExceptionFactory.invalidParameter("cursor", cursor);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw ExceptionFactory.invalidParameter("cursor", cursor);
+        }
+    }
+}
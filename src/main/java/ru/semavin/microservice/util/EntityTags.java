@@ -0,0 +1,48 @@
+package ru.semavin.microservice.util;
+
+import org.springframework.http.ETag;
+
+/**
+ * Построение и сравнение ETag ресурсов пользователя.
+ *
+ * <p>Тег строится из ID и версии пользователя ({@code "<id>-<version>"}), поэтому для ответа
+ * {@code 304 Not Modified} достаточно прочитать версию, не загружая и не сериализуя сами данные.
+ * Версия увеличивается при изменении пользователя и его подписок.</p>
+ */
+public final class EntityTags {
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private EntityTags() {}
+
+    /**
+     * Строит сильный ETag для версии пользователя.
+     *
+     * @param id      ID пользователя
+     * @param version версия пользователя
+     * @return ETag
+     */
+    public static ETag of(Long id, long version) {
+        return new ETag(id + "-" + version, false);
+    }
+
+    /**
+     * Проверяет, совпадает ли один из тегов заголовка {@code If-None-Match} или {@code If-Match} с текущим.
+     *
+     * @param header  значение заголовка или {@code null}
+     * @param current текущий ETag ресурса
+     * @param strong  {@code true} для сильного сравнения ({@code If-Match}), {@code false} — для слабого
+     * @return {@code true}, если заголовок содержит {@code *} или совпадающий тег
+     */
+    public static boolean matches(String header, ETag current, boolean strong) {
+        if (header == null) {
+            return false;
+        }
+        for (ETag tag : ETag.parse(header)) {
+            if (tag.isWildcard() || tag.compare(current, strong)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,10 +1,20 @@
 package ru.semavin.microservice.util;
 
 import lombok.extern.slf4j.Slf4j;
+import ru.semavin.microservice.util.exceptions.CampaignNotFoundException;
+import ru.semavin.microservice.util.exceptions.DatabaseBusyException;
+import ru.semavin.microservice.util.exceptions.InvalidRequestParameterException;
+import ru.semavin.microservice.util.exceptions.JobQueueFullException;
+import ru.semavin.microservice.util.exceptions.NotificationDispatchNotFoundException;
+import ru.semavin.microservice.util.exceptions.PreconditionFailedException;
+import ru.semavin.microservice.util.exceptions.SubscriptionAlreadyExistsException;
 import ru.semavin.microservice.util.exceptions.SubscriptionNotBelongToUserException;
 import ru.semavin.microservice.util.exceptions.SubscriptionNotFoundException;
+import ru.semavin.microservice.util.exceptions.UserAlreadyExistsException;
 import ru.semavin.microservice.util.exceptions.UserNotFoundException;
 
+import java.util.UUID;
+
 /**
  * Фабрика исключений, связанных с пользователями и подписками.
  * <p>
@@ -25,10 +35,43 @@ public final class ExceptionFactory {
      * @return экземпляр {@link UserNotFoundException} с подробным сообщением
      */
     public static UserNotFoundException userNotFound(Long userId) {
-        log.warn("Пользователь с ID {} не найден", userId);
+        log.debug("Пользователь с ID {} не найден", userId);
         return new UserNotFoundException(String.format("Пользователь с id: %d не найден", userId));
     }
 
+    /**
+     * Создаёт исключение {@link UserNotFoundException}, если пользователь с указанным email не найден.
+     *
+     * @param email email, по которому искали пользователя
+     * @return экземпляр {@link UserNotFoundException} с подробным сообщением
+     */
+    public static UserNotFoundException userNotFoundByEmail(String email) {
+        log.debug("Пользователь с email {} не найден", email);
+        return new UserNotFoundException(String.format("Пользователь с email: %s не найден", email));
+    }
+
+    /**
+     * Создаёт исключение {@link UserAlreadyExistsException}, если email занят другим пользователем.
+     *
+     * @param email email без учёта регистра
+     * @return экземпляр {@link UserAlreadyExistsException} с подробным сообщением
+     */
+    public static UserAlreadyExistsException userAlreadyExists(String email) {
+        return new UserAlreadyExistsException(String.format("Пользователь с email: %s уже существует", email));
+    }
+
+    /**
+     * Создаёт исключение {@link SubscriptionAlreadyExistsException}, если пользователь уже подписан на сервис.
+     *
+     * @param userId      идентификатор пользователя
+     * @param serviceName название сервиса
+     * @return экземпляр {@link SubscriptionAlreadyExistsException} с подробным сообщением
+     */
+    public static SubscriptionAlreadyExistsException subscriptionAlreadyExists(Long userId, String serviceName) {
+        return new SubscriptionAlreadyExistsException(
+                String.format("Пользователь %d уже подписан на сервис %s", userId, serviceName));
+    }
+
     /**
      * Создаёт исключение {@link SubscriptionNotFoundException}, если подписка с указанным идентификатором не найдена.
      *
@@ -50,4 +93,68 @@ public final class ExceptionFactory {
                 String.format("Подписка %d не принадлежит пользователю %d", subscriptionId, userId)
         );
     }
+
+    /**
+     * Создаёт исключение {@link InvalidRequestParameterException} для некорректного параметра запроса.
+     *
+     * @param name  имя параметра
+     * @param value переданное значение
+     * @return экземпляр {@link InvalidRequestParameterException} с подробным сообщением
+     */
+    public static InvalidRequestParameterException invalidParameter(String name, Object value) {
+        return new InvalidRequestParameterException(
+                String.format("Некорректное значение параметра '%s': %s", name, value)
+        );
+    }
+
+    /**
+     * Создаёт исключение {@link CampaignNotFoundException}, если кампания с указанным идентификатором не найдена.
+     *
+     * @param campaignId идентификатор кампании
+     * @return экземпляр {@link CampaignNotFoundException} с подробным сообщением
+     */
+    public static CampaignNotFoundException campaignNotFound(UUID campaignId) {
+        return new CampaignNotFoundException(String.format("Кампания с id: %s не найдена", campaignId));
+    }
+
+    /**
+     * Создаёт исключение {@link NotificationDispatchNotFoundException}, если рассылка с указанным идентификатором не найдена.
+     *
+     * @param dispatchId идентификатор рассылки
+     * @return экземпляр {@link NotificationDispatchNotFoundException} с подробным сообщением
+     */
+    public static NotificationDispatchNotFoundException notificationDispatchNotFound(UUID dispatchId) {
+        return new NotificationDispatchNotFoundException(String.format("Рассылка с id: %s не найдена", dispatchId));
+    }
+
+    /**
+     * Создаёт исключение {@link DatabaseBusyException}, если запрос не дождался свободного соединения с базой.
+     *
+     * @return экземпляр {@link DatabaseBusyException} с подробным сообщением
+     */
+    public static DatabaseBusyException databaseBusy() {
+        return new DatabaseBusyException("Сервис перегружен: все соединения с базой заняты, повторите запрос позже");
+    }
+
+    /**
+     * Создаёт исключение {@link JobQueueFullException}, если очередь фоновых задач заполнена.
+     *
+     * @param queueName название очереди, например «кампаний»
+     * @return экземпляр {@link JobQueueFullException} с подробным сообщением
+     */
+    public static JobQueueFullException jobQueueFull(String queueName) {
+        return new JobQueueFullException(String.format("Очередь %s переполнена, повторите запрос позже", queueName));
+    }
+
+    /**
+     * Создаёт исключение {@link PreconditionFailedException}, если версия пользователя не совпадает с {@code If-Match}.
+     *
+     * @param userId идентификатор пользователя
+     * @return экземпляр {@link PreconditionFailedException} с подробным сообщением
+     */
+    public static PreconditionFailedException userVersionMismatch(Long userId) {
+        return new PreconditionFailedException(
+                String.format("Пользователь с id: %d изменён, версия не совпадает с If-Match", userId)
+        );
+    }
 }
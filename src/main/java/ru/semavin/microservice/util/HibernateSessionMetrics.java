@@ -0,0 +1,72 @@
+package ru.semavin.microservice.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики одной сессии Hibernate.
+ *
+ * <p>Подключается свойством {@code hibernate.session.events.auto} и создаётся Hibernate на каждую сессию.
+ * При включённом open-in-view сессия живёт ровно один HTTP-запрос, поэтому распределения показывают
+ * число SQL-запросов, flush'ей и время в JDBC на запрос. Общие счётчики Hibernate (загрузки сущностей,
+ * запросы, попадания в кэш) отдаются отдельно через {@code hibernate-micrometer}.</p>
+ */
+public class HibernateSessionMetrics implements SessionEventListener {
+    private long statements;
+    private long flushes;
+    private long flushedEntities;
+    private long jdbcNanos;
+    private long jdbcStarted;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        jdbcStarted = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statements++;
+        jdbcNanos += System.nanoTime() - jdbcStarted;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcStarted = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statements++;
+        jdbcNanos += System.nanoTime() - jdbcStarted;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushes++;
+        flushedEntities += numberOfEntities;
+    }
+
+    @Override
+    public void end() {
+        DistributionSummary.builder("hibernate.session.statements")
+                .description("SQL-запросы и пакеты, выполненные за сессию Hibernate")
+                .register(Metrics.globalRegistry)
+                .record(statements);
+        DistributionSummary.builder("hibernate.session.flushes")
+                .description("Flush'и за сессию Hibernate")
+                .register(Metrics.globalRegistry)
+                .record(flushes);
+        DistributionSummary.builder("hibernate.session.flushed.entities")
+                .description("Сущности, проверенные при flush'ах за сессию Hibernate")
+                .register(Metrics.globalRegistry)
+                .record(flushedEntities);
+        Timer.builder("hibernate.session.jdbc")
+                .description("Время выполнения SQL за сессию Hibernate")
+                .register(Metrics.globalRegistry)
+                .record(jdbcNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.semavin.microservice.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Утилиты для привязки действий к жизненному циклу текущей транзакции.
+ */
+public final class TransactionCallbacks {
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private TransactionCallbacks() {}
+
+    /**
+     * Выполняет действие после успешного коммита текущей транзакции.
+     * <p>Если транзакции нет, действие выполняется сразу. При откате действие не выполняется.</p>
+     *
+     * @param action действие, которое нужно выполнить
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
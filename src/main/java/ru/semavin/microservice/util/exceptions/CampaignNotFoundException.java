@@ -0,0 +1,7 @@
+package ru.semavin.microservice.util.exceptions;
+
+public class CampaignNotFoundException extends RuntimeException {
+    public CampaignNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.semavin.microservice.util.exceptions;
+
+public class DatabaseBusyException extends RuntimeException {
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.semavin.microservice.util.exceptions;
+
+public class JobQueueFullException extends RuntimeException {
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
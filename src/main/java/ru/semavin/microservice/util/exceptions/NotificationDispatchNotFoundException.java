@@ -0,0 +1,7 @@
+package ru.semavin.microservice.util.exceptions;
+
+public class NotificationDispatchNotFoundException extends RuntimeException {
+    public NotificationDispatchNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.semavin.microservice.util.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.semavin.microservice.util.exceptions;
+
+public class SubscriptionAlreadyExistsException extends RuntimeException {
+    public SubscriptionAlreadyExistsException(String message) {
+        super(message);
+    }
+}
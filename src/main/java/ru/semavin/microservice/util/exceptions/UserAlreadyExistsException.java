@@ -0,0 +1,7 @@
+package ru.semavin.microservice.util.exceptions;
+
+public class UserAlreadyExistsException extends RuntimeException {
+    public UserAlreadyExistsException(String message) {
+        super(message);
+    }
+}
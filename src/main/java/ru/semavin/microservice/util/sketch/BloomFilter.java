@@ -0,0 +1,129 @@
+package ru.semavin.microservice.util.sketch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума — вероятностное множество строк.
+ *
+ * <p>{@link #mightContain(String)} никогда не возвращает {@code false} для добавленного ключа, а для
+ * отсутствующего ошибается с вероятностью около {@code falsePositiveRate}, пока добавлено не больше
+ * {@code expectedInsertions} ключей. Объём памяти фиксирован: {@code -n ln p / ln² 2} бит, около
+ * 1.2 МБ на миллион ключей при 1% ложных срабатываний. Удалить ключ нельзя.</p>
+ *
+ * <p>В отличие от {@link CountMinSketch}, класс потокобезопасен: биты выставляются атомарно,
+ * добавление и проверка выполняются без блокировок.</p>
+ */
+public final class BloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final long expectedInsertions;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLongArray words;
+    private final AtomicLong setBits = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Создаёт пустой фильтр с оптимальными для заданных параметров размером и числом хеш-функций.
+     *
+     * @param expectedInsertions ожидаемое количество ключей
+     * @param falsePositiveRate  допустимая доля ложных срабатываний, от 0 до 1
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("expectedInsertions должен быть положительным");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate должен быть от 0 до 1");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+        this.expectedInsertions = expectedInsertions;
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+        this.words = new AtomicLongArray(wordCount);
+    }
+
+    /**
+     * Добавляет ключ.
+     *
+     * @param key ключ
+     * @return {@code true}, если ключа в фильтре точно не было
+     */
+    public boolean put(String key) {
+        long hash = Hashing.hash64(key);
+        long step = hash >>> 32;
+        boolean changed = false;
+        for (int i = 1; i <= hashCount; i++) {
+            changed |= setBit(index(hash, step, i));
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * Проверяет ключ.
+     *
+     * @param key ключ
+     * @return {@code false}, если ключ точно не добавлялся; {@code true}, если мог быть добавлен
+     */
+    public boolean mightContain(String key) {
+        long hash = Hashing.hash64(key);
+        long step = hash >>> 32;
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(hash, step, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return количество ключей, на которое рассчитан фильтр
+     */
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * @return количество добавленных различных ключей (без учёта ключей, совпавших по всем битам)
+     */
+    public long insertions() {
+        return insertions.get();
+    }
+
+    /**
+     * Оценивает текущую вероятность ложного срабатывания по доле выставленных бит.
+     *
+     * @return вероятность, что {@link #mightContain(String)} вернёт {@code true} для нового ключа
+     */
+    public double falsePositiveRate() {
+        return Math.pow((double) setBits.get() / bitCount, hashCount);
+    }
+
+    private boolean setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current | mask)) {
+                setBits.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Двойное хеширование: {@code i}-я функция — {@code hash + i * step} (Kirsch–Mitzenmacher).
+     */
+    private long index(long hash, long step, int i) {
+        return Math.floorMod(hash + i * step, bitCount);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.semavin.microservice.util.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch — вероятностная структура для оценки частот ключей в потоке.
+ *
+ * <p>Занимает фиксированный объём памяти {@code depth * width} счётчиков независимо от числа
+ * различных ключей. Оценка частоты никогда не бывает меньше реальной и превышает её
+ * не более чем на {@code e / width} от общего количества добавлений с вероятностью
+ * {@code 1 - e^-depth}.</p>
+ *
+ * <p>Скетчи с одинаковыми размерами используют одни и те же хеш-функции, поэтому
+ * оценку по нескольким скетчам можно получить через {@link #estimate(String, Iterable)}.</p>
+ *
+ * <p>Класс не потокобезопасен: синхронизация остаётся на стороне вызывающего кода.</p>
+ */
+public final class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int depth;
+    private final int width;
+    private final int[][] counts;
+
+    /**
+     * Создаёт пустой скетч.
+     *
+     * @param depth количество хеш-функций (строк), от 1 до 8
+     * @param width количество счётчиков в строке
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth должен быть от 1 до " + SEEDS.length);
+        }
+        if (width < 1) {
+            throw new IllegalArgumentException("width должен быть положительным");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counts = new int[depth][width];
+    }
+
+    /**
+     * Учитывает {@code count} появлений ключа.
+     *
+     * @param key   ключ
+     * @param count количество появлений
+     * @return оценка частоты ключа после добавления
+     */
+    public long add(String key, int count) {
+        long hash = Hashing.hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int[] line = counts[row];
+            int index = index(hash, row);
+            line[index] = saturatedAdd(line[index], count);
+            estimate = Math.min(estimate, line[index]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Возвращает оценку частоты ключа.
+     *
+     * @param key ключ
+     * @return оценка сверху количества появлений ключа
+     */
+    public long estimate(String key) {
+        long hash = Hashing.hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row][index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Оценивает суммарную частоту ключа по нескольким скетчам одинакового размера.
+     * <p>Результат эквивалентен оценке по скетчу, полученному сложением переданных.</p>
+     *
+     * @param key      ключ
+     * @param sketches скетчи, по которым выполняется оценка
+     * @return оценка сверху суммарного количества появлений ключа
+     */
+    public static long estimate(String key, Iterable<CountMinSketch> sketches) {
+        long hash = Hashing.hash64(key);
+        long[] rowSums = null;
+        for (CountMinSketch sketch : sketches) {
+            if (rowSums == null) {
+                rowSums = new long[sketch.depth];
+            }
+            for (int row = 0; row < sketch.depth; row++) {
+                rowSums[row] += sketch.counts[row][sketch.index(hash, row)];
+            }
+        }
+        if (rowSums == null) {
+            return 0;
+        }
+        long estimate = Long.MAX_VALUE;
+        for (long sum : rowSums) {
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    /**
+     * Обнуляет все счётчики.
+     */
+    public void clear() {
+        for (int[] line : counts) {
+            Arrays.fill(line, 0);
+        }
+    }
+
+    /**
+     * Индекс в строке {@code row}: 64-битный хеш ключа, перемешанный с зерном строки. Ключи с одинаковым
+     * {@link String#hashCode()} получают разные индексы, поэтому оценка ошибки скетча сохраняется.
+     */
+    private int index(long hash, int row) {
+        return (int) Math.floorMod(Hashing.mix(hash ^ SEEDS[row]), (long) width);
+    }
+
+    private static int saturatedAdd(int value, int delta) {
+        long sum = (long) value + delta;
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.semavin.microservice.util.sketch;
+
+/**
+ * Хеш-функции для вероятностных структур.
+ */
+final class Hashing {
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private Hashing() {}
+
+    /**
+     * 64-битный FNV-1a по символам строки с финализатором SplitMix64.
+     * <p>В отличие от {@link String#hashCode()}, строки вроде {@code "Aa"} и {@code "BB"} не совпадают.</p>
+     */
+    static long hash64(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Финализатор SplitMix64: равномерно перемешивает биты значения.
+     */
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
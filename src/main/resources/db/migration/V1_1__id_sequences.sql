@@ -0,0 +1,17 @@
+-- ID пользователей и подписок выдаются последовательностями с шагом 50 (pooled-оптимизатор Hibernate),
+-- чтобы INSERT группировались в JDBC batch. Pooled-оптимизатор считает значение последовательности верхней
+-- границей выделенного блока, поэтому она выставляется на шаг выше текущего максимума: новые ID не пересекутся
+-- с выданными IDENTITY. Последовательность, уже созданная ddl-auto=update, назад не сдвигается.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE subscriptions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS subscriptions_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('users_seq', GREATEST(max(id) + 50, (SELECT last_value FROM users_seq)))
+FROM users
+HAVING max(id) IS NOT NULL;
+SELECT setval('subscriptions_seq', GREATEST(max(id) + 50, (SELECT last_value FROM subscriptions_seq)))
+FROM subscriptions
+HAVING max(id) IS NOT NULL;
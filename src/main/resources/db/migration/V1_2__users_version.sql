@@ -0,0 +1,21 @@
+-- Версия пользователя (@Version): оптимистическая блокировка и ETag. Существующие пользователи получают версию 0.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- ddl-auto=update называл уникальность email хешем (UK...): имя нужно, чтобы отличать нарушение уникальности
+-- email от других нарушений целостности
+DO $$
+DECLARE
+    email_constraint TEXT;
+BEGIN
+    SELECT c.conname INTO email_constraint
+    FROM pg_constraint c
+             JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+    WHERE c.conrelid = 'users'::regclass
+      AND c.contype = 'u'
+      AND cardinality(c.conkey) = 1
+      AND a.attname = 'email';
+    IF email_constraint IS NOT NULL AND email_constraint <> 'uk_users_email' THEN
+        EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO uk_users_email', email_constraint);
+    END IF;
+END
+$$;
@@ -0,0 +1,24 @@
+-- Пользователь подписан на сервис не больше одного раза: на ограничение опираются INSERT ... ON CONFLICT
+-- и пакетное оформление подписок. Старая схема его не имела, поэтому дубликаты сначала удаляются,
+-- остаётся самая ранняя подписка. Запись в таблицу блокируется до добавления ограничения, чтобы между
+-- удалением и проверкой не появились новые дубликаты.
+
+LOCK TABLE subscriptions IN SHARE ROW EXCLUSIVE MODE;
+
+DELETE FROM subscriptions s
+    USING subscriptions d
+WHERE s.user_id = d.user_id
+  AND s.service_name = d.service_name
+  AND s.id > d.id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1
+                   FROM pg_constraint
+                   WHERE conrelid = 'subscriptions'::regclass
+                     AND conname = 'uk_subscriptions_user_service') THEN
+        ALTER TABLE subscriptions
+            ADD CONSTRAINT uk_subscriptions_user_service UNIQUE (user_id, service_name);
+    END IF;
+END
+$$;
@@ -0,0 +1,23 @@
+-- Схема, которую создавал spring.jpa.hibernate.ddl-auto=update до перехода на миграции: ID выдаёт IDENTITY,
+-- версии пользователя и уникальности подписки ещё нет. Существующая база с этой схемой отмечается версией 1
+-- без выполнения скрипта (spring.flyway.baseline-on-migrate) и доводится до текущей следующими миграциями,
+-- поэтому скрипт выполняется только на пустой базе; IF NOT EXISTS делает повторный запуск безопасным.
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at TIMESTAMP(6) NOT NULL,
+    email      VARCHAR(150) NOT NULL,
+    name       VARCHAR(100) NOT NULL,
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS subscriptions (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at           TIMESTAMP(6) NOT NULL,
+    notification_enabled BOOLEAN      NOT NULL,
+    service_name         VARCHAR(100) NOT NULL,
+    user_id              BIGINT       NOT NULL,
+    CONSTRAINT subscriptions_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_subscriptions_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
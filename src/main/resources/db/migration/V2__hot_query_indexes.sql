@@ -0,0 +1,16 @@
+-- Индексы под запросы SubscriptionRepository. Индексы строятся без блокировки записи (CONCURRENTLY),
+-- поэтому скрипт выполняется вне транзакции. Прерванное построение оставляет невалидный индекс, который
+-- IF NOT EXISTS не пересоздаст: его нужно удалить вручную, иначе приложение не запустится (см. SchemaIndexVerifier).
+
+-- ТОП подписок и получатели уведомлений: поиск по сервису с продолжением по user_id без обращения к таблице
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_subscriptions_service_user_covering
+    ON subscriptions (service_name, user_id) INCLUDE (notification_enabled);
+DROP INDEX CONCURRENTLY IF EXISTS idx_subscriptions_service_user;
+
+-- Страница подписок пользователя по возрастанию id без сортировки и без обращения к таблице
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_subscriptions_user_id
+    ON subscriptions (user_id, id) INCLUDE (service_name, notification_enabled);
+
+-- Новые подписки за окно трендов
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_subscriptions_created_at
+    ON subscriptions (created_at) INCLUDE (service_name);
@@ -0,0 +1,5 @@
+-- Поиск пользователя по email без учёта регистра: GET /users/by-email и проверка дубликатов при регистрации.
+-- Индекс уникальный, поэтому адреса, различающиеся только регистром, считаются одним. Если такие дубликаты
+-- уже есть, построение оставит невалидный индекс и запуск остановит SchemaIndexVerifier: дубликаты нужно
+-- исправить, удалить индекс и перезапустить приложение.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_users_email_lower ON users (lower(email));
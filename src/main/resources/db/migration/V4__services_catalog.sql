@@ -0,0 +1,52 @@
+-- Справочник сервисов: подписки хранят INTEGER service_id вместо повторяющегося в каждой строке названия.
+-- Таблица подписок переписывается целиком (а не ALTER ... DROP COLUMN), чтобы строки и индексы стали
+-- компактнее сразу, без VACUUM FULL. Скрипт выполняется в одной транзакции: запись в subscriptions
+-- блокируется на время копирования, чтение продолжается до переименования таблиц.
+
+CREATE TABLE services (
+    id   INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(100) NOT NULL,
+    CONSTRAINT services_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_services_name UNIQUE (name)
+);
+
+LOCK TABLE subscriptions IN SHARE MODE;
+
+INSERT INTO services (name)
+SELECT DISTINCT service_name FROM subscriptions ORDER BY service_name;
+
+-- Колонки упорядочены по выравниванию: 8-байтовые, затем INTEGER и BOOLEAN без промежутков
+CREATE TABLE subscriptions_v4 (
+    id                   BIGINT       NOT NULL,
+    user_id              BIGINT       NOT NULL,
+    created_at           TIMESTAMP(6) NOT NULL,
+    service_id           INTEGER      NOT NULL,
+    notification_enabled BOOLEAN      NOT NULL
+);
+
+-- Строки пользователя оказываются рядом: страница подписок читает меньше страниц таблицы
+INSERT INTO subscriptions_v4 (id, user_id, created_at, service_id, notification_enabled)
+SELECT s.id, s.user_id, s.created_at, c.id, s.notification_enabled
+FROM subscriptions s
+         JOIN services c ON c.name = s.service_name
+ORDER BY s.user_id, s.id;
+
+DROP TABLE subscriptions;
+ALTER TABLE subscriptions_v4 RENAME TO subscriptions;
+
+ALTER TABLE subscriptions
+    ADD CONSTRAINT subscriptions_pkey PRIMARY KEY (id),
+    ADD CONSTRAINT uk_subscriptions_user_service UNIQUE (user_id, service_id),
+    ADD CONSTRAINT fk_subscriptions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    ADD CONSTRAINT fk_subscriptions_service FOREIGN KEY (service_id) REFERENCES services (id);
+
+-- Те же индексы, что в V2, по service_id
+CREATE INDEX idx_subscriptions_service_user_covering
+    ON subscriptions (service_id, user_id) INCLUDE (notification_enabled);
+CREATE INDEX idx_subscriptions_user_id
+    ON subscriptions (user_id, id) INCLUDE (service_id, notification_enabled);
+CREATE INDEX idx_subscriptions_created_at
+    ON subscriptions (created_at) INCLUDE (service_id);
+
+ANALYZE services;
+ANALYZE subscriptions;
@@ -0,0 +1,126 @@
+package ru.semavin.microservice.perf;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.semavin.microservice.MicroserviceApplication;
+import ru.semavin.microservice.services.ServiceNameDictionary;
+import ru.semavin.microservice.services.SubscriptionCounterStore;
+import ru.semavin.microservice.services.SubscriptionTrendingTracker;
+import ru.semavin.microservice.services.UserEmailRegistry;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сквозной нагрузочный тест эндпоинтов на встроенном PostgreSQL.
+ *
+ * <p>Поднимает {@link MicroserviceApplication} на случайном порту против встроенного PostgreSQL,
+ * загружает набор данных {@link PerfDataSet} и по очереди нагружает каждый эндпоинт
+ * {@link PerfScenario} в замкнутой и открытой модели. Для каждой пары эндпоинт/модель создаётся
+ * отдельный тест, который падает при превышении бюджета {@link LatencyBudget}. Итоговая таблица
+ * сохраняется в {@code target/perf/endpoint-latency.csv}.</p>
+ *
+ * <p>Генератор нагрузки работает в той же JVM, что и приложение, поэтому абсолютные значения
+ * стоит сравнивать только между прогонами на одной машине с одинаковыми настройками.</p>
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EndpointLatencyPerfIT {
+    private static final Path REPORT = Path.of("target", "perf", "endpoint-latency.csv");
+
+    private final PerfSettings settings = PerfSettings.load();
+    private final List<LoadResult> results = new ArrayList<>();
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private LoadDriver driver;
+    private PerfScenario scenario;
+
+    @BeforeAll
+    void startApplication() throws Exception {
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "200")
+                .setServerConfig("shared_buffers", "256MB")
+                .start();
+        context = new SpringApplicationBuilder(MicroserviceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.ru.semavin.microservice.perf=INFO");
+
+        PerfDataSet data = new PerfDataSet(settings);
+        data.seed(context.getBean(JdbcTemplate.class));
+        // Справочник сервисов, фильтр email, счётчики ТОП-N и трендов заполнялись при старте по пустой базе
+        context.getBean(ServiceNameDictionary.class).load();
+        context.getBean(UserEmailRegistry.class).rebuild();
+        context.getBean(SubscriptionCounterStore.class).rebuild();
+        context.getBean(SubscriptionTrendingTracker.class).rebuild();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        scenario = new PerfScenario("http://localhost:" + port, data, settings.timeout());
+        driver = new LoadDriver(settings.timeout(), settings.maxInFlight());
+    }
+
+    @TestFactory
+    Stream<DynamicTest> endpointLatencies() {
+        Pattern filter = settings.endpoints();
+        return scenario.endpoints().stream()
+                .filter(endpoint -> filter.matcher(endpoint.name()).matches())
+                .flatMap(endpoint -> settings.models().stream()
+                        .map(model -> DynamicTest.dynamicTest(endpoint.name() + " [" + model.value() + "]",
+                                () -> measure(endpoint, model))));
+    }
+
+    @AfterAll
+    void stopApplication() throws Exception {
+        try {
+            if (!results.isEmpty()) {
+                LoadResult.writeCsv(REPORT, results);
+                log.info("Отчёт о задержках сохранён в {}:\n{}\n{}", REPORT.toAbsolutePath(), LoadResult.CSV_HEADER,
+                        String.join("\n", results.stream().map(LoadResult::toCsv).toList()));
+            }
+        } finally {
+            if (driver != null) {
+                driver.close();
+            }
+            if (context != null) {
+                context.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private void measure(PerfEndpoint endpoint, LoadModel model) throws InterruptedException {
+        LoadResult result = switch (model) {
+            case CLOSED -> driver.closedLoop(endpoint, settings.concurrency(endpoint.name()),
+                    settings.warmup(), settings.duration());
+            case OPEN -> driver.openLoop(endpoint, settings.rate(endpoint.name()),
+                    settings.warmup(), settings.duration());
+        };
+        results.add(result);
+        log.info("{}", result.toCsv());
+
+        assertThat(settings.budget(endpoint.name()).violations(result))
+                .as("Бюджет задержек %s [%s]", endpoint.name(), model.value())
+                .isEmpty();
+    }
+}
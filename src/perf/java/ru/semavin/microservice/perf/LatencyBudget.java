@@ -0,0 +1,43 @@
+package ru.semavin.microservice.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Допустимые задержки и доля ошибок эндпоинта.
+ *
+ * @param p50Millis      предельная медиана, мс
+ * @param p99Millis      предельный 99-й перцентиль, мс
+ * @param p999Millis     предельный 99,9-й перцентиль, мс
+ * @param maxErrorRate   допустимая доля ошибок от всех запросов
+ */
+record LatencyBudget(double p50Millis, double p99Millis, double p999Millis, double maxErrorRate) {
+
+    /**
+     * Сравнивает результат прогона с бюджетом.
+     *
+     * @param result результат прогона
+     * @return описания нарушений; пустой список, если бюджет соблюдён
+     */
+    List<String> violations(LoadResult result) {
+        List<String> violations = new ArrayList<>();
+        if (result.requests() == 0) {
+            violations.add("нет ни одного успешного запроса");
+            return violations;
+        }
+        check(violations, "p50", result.percentileMillis(50), p50Millis);
+        check(violations, "p99", result.percentileMillis(99), p99Millis);
+        check(violations, "p99.9", result.percentileMillis(99.9), p999Millis);
+        if (result.errorRate() > maxErrorRate) {
+            violations.add(String.format(Locale.ROOT, "доля ошибок %.4f > %.4f", result.errorRate(), maxErrorRate));
+        }
+        return violations;
+    }
+
+    private static void check(List<String> violations, String name, double actual, double limit) {
+        if (actual > limit) {
+            violations.add(String.format(Locale.ROOT, "%s %.2f мс > %.2f мс", name, actual, limit));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.semavin.microservice.perf;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.semavin.microservice.MicroserviceApplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запуск приложения на базе, созданной до перехода на миграции.
+ *
+ * <p>Схема создаётся так, как её создавал {@code spring.jpa.hibernate.ddl-auto=update}: ID через IDENTITY,
+ * ограничения с именами-хешами Hibernate, без версии пользователя и без уникальности подписки; в данных есть
+ * повторные подписки пользователя на один сервис. Flyway отмечает такую базу версией 1, остальные миграции
+ * должны довести её до схемы, которую принимает {@code ddl-auto=validate}.</p>
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class LegacySchemaMigrationPerfIT {
+    private static final String LEGACY_SCHEMA = """
+            CREATE TABLE users (
+                id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+                created_at TIMESTAMP(6) NOT NULL,
+                email      VARCHAR(150) NOT NULL,
+                name       VARCHAR(100) NOT NULL,
+                PRIMARY KEY (id)
+            );
+            CREATE TABLE subscriptions (
+                id                   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+                created_at           TIMESTAMP(6) NOT NULL,
+                notification_enabled BOOLEAN      NOT NULL,
+                service_name         VARCHAR(100) NOT NULL,
+                user_id              BIGINT       NOT NULL,
+                PRIMARY KEY (id)
+            );
+            ALTER TABLE users ADD CONSTRAINT uk6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email);
+            ALTER TABLE subscriptions ADD CONSTRAINT fkhro52ohfqfbay9774bev0qinr
+                FOREIGN KEY (user_id) REFERENCES users;
+            """;
+
+    private EmbeddedPostgres postgres;
+    private JdbcTemplate jdbcTemplate;
+    private ConfigurableApplicationContext context;
+
+    @BeforeAll
+    void startApplication() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute(LEGACY_SCHEMA);
+        jdbcTemplate.update("""
+                INSERT INTO users (name, email, created_at)
+                SELECT 'Пользователь ' || n, 'user' || n || '@perf.local', now()
+                FROM generate_series(1, 3) AS n
+                """);
+        // У пользователя 1 две подписки на service-a: остаться должна первая
+        jdbcTemplate.update("""
+                INSERT INTO subscriptions (user_id, service_name, notification_enabled, created_at)
+                VALUES (1, 'service-a', true, now()),
+                       (1, 'service-b', true, now()),
+                       (1, 'service-a', false, now()),
+                       (2, 'service-a', true, now())
+                """);
+
+        context = new SpringApplicationBuilder(MicroserviceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+    }
+
+    @Test
+    void duplicateSubscriptionsRemoved() {
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT s.user_id || ':' || c.name || ':' || s.notification_enabled
+                FROM subscriptions s JOIN services c ON c.id = s.service_id
+                ORDER BY s.id
+                """, String.class))
+                .containsExactly("1:service-a:true", "1:service-b:true", "2:service-a:true");
+    }
+
+    @Test
+    void sequencesStartAboveExistingIds() {
+        long maxUserId = jdbcTemplate.queryForObject("SELECT max(id) FROM users", Long.class);
+        long maxSubscriptionId = jdbcTemplate.queryForObject("SELECT max(id) FROM subscriptions", Long.class);
+
+        // Pooled-оптимизатор выдаёт блок (nextval - 50, nextval]
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('users_seq')", Long.class) - 50)
+                .isGreaterThanOrEqualTo(maxUserId);
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('subscriptions_seq')", Long.class) - 50)
+                .isGreaterThanOrEqualTo(maxSubscriptionId);
+    }
+
+    @Test
+    void existingUsersVersioned() {
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT version FROM users", Long.class))
+                .containsExactly(0L);
+    }
+
+    @Test
+    void emailConstraintRenamed() {
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT conname FROM pg_constraint WHERE conrelid = 'users'::regclass AND contype = 'u'
+                """, String.class))
+                .containsExactly("uk_users_email");
+    }
+
+    @AfterAll
+    void stopApplication() throws Exception {
+        try {
+            if (context != null) {
+                context.close();
+            }
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.semavin.microservice.perf;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Подаёт HTTP-нагрузку на эндпоинт по замкнутой или открытой модели.
+ *
+ * <p>Задержки успешных ответов записываются в HdrHistogram в микросекундах. Запросы, отправленные
+ * во время прогрева, в результат не попадают. В открытой модели задержка отсчитывается от момента,
+ * когда запрос должен был уйти по расписанию, поэтому задержка отправки из-за перегрузки
+ * не скрывает хвостовые задержки (coordinated omission).</p>
+ */
+final class LoadDriver implements AutoCloseable {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ExecutorService callbackExecutor;
+    private final HttpClient client;
+    private final Duration timeout;
+    private final int maxInFlight;
+
+    LoadDriver(Duration timeout, int maxInFlight) {
+        this.callbackExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(callbackExecutor)
+                .build();
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Нагружает эндпоинт {@code concurrency} клиентами, каждый из которых отправляет следующий
+     * запрос сразу после ответа на предыдущий.
+     */
+    LoadResult closedLoop(PerfEndpoint endpoint, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        Measurement measurement = new Measurement(warmup, duration);
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            sendNext(endpoint, measurement, finished);
+        }
+        if (!finished.await(warmup.plus(duration).plus(timeout).toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Клиенты не завершились за отведённое время: " + endpoint.name());
+        }
+        return measurement.result(endpoint.name(), LoadModel.CLOSED, concurrency);
+    }
+
+    /**
+     * Отправляет запросы с частотой {@code rate} в секунду, не дожидаясь ответов.
+     */
+    LoadResult openLoop(PerfEndpoint endpoint, double rate, Duration warmup, Duration duration)
+            throws InterruptedException {
+        Measurement measurement = new Measurement(warmup, duration);
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        for (long intended = measurement.startNanos; intended < measurement.endNanos; intended += intervalNanos) {
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            long scheduled = intended;
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                measurement.recordError(scheduled);
+                continue;
+            }
+            client.sendAsync(endpoint.requests().get(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.decrementAndGet();
+                        measurement.record(scheduled, response, error);
+                    });
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return measurement.result(endpoint.name(), LoadModel.OPEN, rate);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        callbackExecutor.shutdown();
+        callbackExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void sendNext(PerfEndpoint endpoint, Measurement measurement, CountDownLatch finished) {
+        long started = System.nanoTime();
+        if (started >= measurement.endNanos) {
+            finished.countDown();
+            return;
+        }
+        client.sendAsync(endpoint.requests().get(), HttpResponse.BodyHandlers.discarding())
+                .whenCompleteAsync((response, error) -> {
+                    measurement.record(started, response, error);
+                    sendNext(endpoint, measurement, finished);
+                }, callbackExecutor);
+    }
+
+    /**
+     * Окно измерения и собранные в нём задержки.
+     */
+    private final class Measurement {
+        private final Recorder recorder = new Recorder(timeout.toNanos() / 1000, SIGNIFICANT_DIGITS);
+        private final AtomicLong errors = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+        private final long measureFromNanos;
+        private final long endNanos;
+        private final Duration duration;
+
+        Measurement(Duration warmup, Duration duration) {
+            this.measureFromNanos = startNanos + warmup.toNanos();
+            this.endNanos = measureFromNanos + duration.toNanos();
+            this.duration = duration;
+        }
+
+        void record(long startedNanos, HttpResponse<?> response, Throwable error) {
+            if (startedNanos < measureFromNanos) {
+                return;
+            }
+            if (error != null || response.statusCode() >= 400) {
+                errors.incrementAndGet();
+                return;
+            }
+            long micros = (System.nanoTime() - startedNanos) / 1000;
+            recorder.recordValue(Math.min(micros, timeout.toNanos() / 1000));
+        }
+
+        void recordError(long startedNanos) {
+            if (startedNanos >= measureFromNanos) {
+                errors.incrementAndGet();
+            }
+        }
+
+        LoadResult result(String endpoint, LoadModel model, double load) {
+            Histogram latencies = recorder.getIntervalHistogram();
+            return new LoadResult(endpoint, model, load, errors.get(), latencies, duration);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.semavin.microservice.perf;
+
+/**
+ * Модель подачи нагрузки.
+ */
+enum LoadModel {
+    /**
+     * Замкнутый цикл: фиксированное число клиентов, каждый ждёт ответа перед следующим запросом.
+     */
+    CLOSED("closed"),
+
+    /**
+     * Открытый цикл: запросы отправляются с заданной частотой независимо от ответов,
+     * задержка отсчитывается от запланированного момента отправки.
+     */
+    OPEN("open");
+
+    private final String value;
+
+    LoadModel(String value) {
+        this.value = value;
+    }
+
+    String value() {
+        return value;
+    }
+
+    static LoadModel fromValue(String value) {
+        for (LoadModel model : values()) {
+            if (model.value.equals(value)) {
+                return model;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная модель нагрузки: " + value);
+    }
+}
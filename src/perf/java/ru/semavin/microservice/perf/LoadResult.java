@@ -0,0 +1,58 @@
+package ru.semavin.microservice.perf;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Результат нагрузки одного эндпоинта в одной модели.
+ *
+ * @param endpoint  имя эндпоинта
+ * @param model     модель нагрузки
+ * @param load      параметр нагрузки: число клиентов или запросов в секунду
+ * @param errors    число ошибок: исключения, ответы 4xx/5xx и запросы сверх лимита в полёте
+ * @param latencies гистограмма задержек успешных запросов, мкс
+ * @param duration  длительность измерения
+ */
+record LoadResult(String endpoint, LoadModel model, double load, long errors, Histogram latencies, Duration duration) {
+    static final String CSV_HEADER = "endpoint,model,load,requests,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms";
+
+    long requests() {
+        return latencies.getTotalCount();
+    }
+
+    double throughput() {
+        return requests() / (duration.toMillis() / 1000.0);
+    }
+
+    double errorRate() {
+        long total = requests() + errors;
+        return total == 0 ? 0 : errors / (double) total;
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    String toCsv() {
+        return String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f",
+                endpoint, model.value(), load, requests(), errors, throughput(),
+                percentileMillis(50), percentileMillis(99), percentileMillis(99.9), latencies.getMaxValue() / 1000.0);
+    }
+
+    static void writeCsv(Path output, List<LoadResult> results) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        results.forEach(result -> lines.add(result.toCsv()));
+        Files.write(output, lines);
+    }
+}
@@ -0,0 +1,164 @@
+package ru.semavin.microservice.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сгенерированный набор данных и выбор идентификаторов для запросов.
+ *
+ * <p>Раскладка детерминирована: пользователи {@code 1..users} имеют по {@code subscriptionsPerUser}
+ * подписок, подписка {@code s} принадлежит пользователю {@code (s - 1) / subscriptionsPerUser + 1}.
+ * Пользователи {@code users + 1..users + reservedUsers} создаются без подписок: с начала запаса
+ * их расходуют запросы удаления, с конца — новые подписки на загруженные сервисы. Случайные идентификаторы выводятся из {@code perf.seed}, поэтому
+ * последовательность запросов воспроизводима.</p>
+ */
+@Slf4j
+final class PerfDataSet {
+    private final long users;
+    private final long subscriptionsPerUser;
+    private final long reservedUsers;
+    private final int services;
+    private final long seed;
+
+    private final AtomicLong randomSequence = new AtomicLong();
+    private final AtomicLong uniqueSequence = new AtomicLong();
+    private final AtomicLong nextSubscription = new AtomicLong();
+    private final AtomicLong nextBulkDeleteUser = new AtomicLong();
+    private final AtomicLong nextReservedUser = new AtomicLong();
+    private final AtomicLong nextNewSubscription = new AtomicLong();
+
+    PerfDataSet(PerfSettings settings) {
+        this.users = settings.users();
+        this.subscriptionsPerUser = settings.subscriptionsPerUser();
+        this.reservedUsers = settings.reservedUsers();
+        this.services = settings.services();
+        this.seed = settings.seed();
+        if (subscriptionsPerUser > services) {
+            throw new IllegalStateException("perf.subscriptions-per-user не может превышать perf.services");
+        }
+    }
+
+    /**
+     * Заполняет пустую схему, созданную приложением, и обновляет статистику планировщика.
+     */
+    void seed(JdbcTemplate jdbcTemplate) {
+        long started = System.nanoTime();
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, created_at)
+                SELECT id, 'Пользователь ' || id, 'user' || id || '@perf.local', now() - id * interval '1 second'
+                FROM generate_series(1::bigint, ?) AS id
+                """, users + reservedUsers);
+        // Сервис service-N получает ID N + 1
+        jdbcTemplate.update("""
+                INSERT INTO services (id, name)
+                SELECT n + 1, 'service-' || n
+                FROM generate_series(0, ? - 1) AS n
+                """, services);
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('services', 'id'), ?)", Long.class,
+                (long) services);
+        jdbcTemplate.update("""
+                INSERT INTO subscriptions (id, user_id, service_id, notification_enabled, created_at)
+                SELECT s,
+                       (s - 1) / ? + 1,
+                       ((((s - 1) / ?) * 7 + (s - 1) % ?) % ?) + 1,
+                       s % 2 = 0,
+                       now() - (s % 10080) * interval '1 minute'
+                FROM generate_series(1::bigint, ?) AS s
+                """, subscriptionsPerUser, subscriptionsPerUser, subscriptionsPerUser, services,
+                users * subscriptionsPerUser);
+        // Запас больше allocationSize, чтобы идентификаторы новых строк не пересеклись с загруженными
+        jdbcTemplate.queryForObject("SELECT setval('users_seq', ?)", Long.class, users + reservedUsers + 1000);
+        jdbcTemplate.queryForObject("SELECT setval('subscriptions_seq', ?)", Long.class,
+                users * subscriptionsPerUser + 1000);
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Загружено {} пользователей и {} подписок за {} с", users + reservedUsers,
+                users * subscriptionsPerUser, (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    /**
+     * Случайный пользователь с подписками.
+     */
+    long randomUserId() {
+        return Math.floorMod(mix(seed + randomSequence.incrementAndGet()), users) + 1;
+    }
+
+    /**
+     * Случайный сервис из загруженных.
+     */
+    String randomServiceName() {
+        return "service-" + Math.floorMod(mix(seed + randomSequence.incrementAndGet()), services);
+    }
+
+    /**
+     * ID загруженного сервиса в справочнике {@code services}.
+     */
+    static int serviceId(String serviceName) {
+        return Integer.parseInt(serviceName.substring("service-".length())) + 1;
+    }
+
+    /**
+     * Уникальное значение для создаваемых записей (email, имя пользователя).
+     */
+    long nextUnique() {
+        return uniqueSequence.incrementAndGet();
+    }
+
+    /**
+     * Следующая ещё не удалённая подписка: {@code {userId, subscriptionId}}.
+     * Подписки расходуются с начала таблицы.
+     */
+    long[] nextSubscription() {
+        long subscriptionId = wrap(nextSubscription.incrementAndGet(), users * subscriptionsPerUser);
+        return new long[]{(subscriptionId - 1) / subscriptionsPerUser + 1, subscriptionId};
+    }
+
+    /**
+     * Пользователь для массовой отписки. Пользователи расходуются с конца диапазона,
+     * чтобы не пересекаться с {@link #nextSubscription()}.
+     */
+    long nextBulkDeleteUserId() {
+        return users - wrap(nextBulkDeleteUser.incrementAndGet(), users) + 1;
+    }
+
+    /**
+     * Следующий пользователь из запаса для удаления. После исчерпания запаса
+     * запросы получают 404 и учитываются как ошибки — увеличьте {@code perf.reserved-users}.
+     */
+    long nextReservedUserId() {
+        return users + wrap(nextReservedUser.incrementAndGet(), reservedUsers);
+    }
+
+    /**
+     * Следующие {@code count} ещё не оформленных подписок одного пользователя из запаса на загруженные
+     * сервисы: {@code {userId, N}}, сервисы {@code service-N..service-(N + count - 1)}. Пары
+     * «пользователь — сервис» расходуются с конца запаса, чтобы не пересекаться с {@link #nextReservedUserId()},
+     * и не повторяются, пока не исчерпан запас из {@code reservedUsers * services} пар.
+     */
+    long[] nextNewSubscriptions(int count) {
+        long pair = alignToUser(nextNewSubscription.getAndUpdate(next -> alignToUser(next, count) + count), count);
+        return new long[]{users + reservedUsers - wrap(pair / services + 1, reservedUsers) + 1, pair % services};
+    }
+
+    /**
+     * Переносит пачку на следующего пользователя, если его сервисов на неё не хватает.
+     */
+    private long alignToUser(long pair, int count) {
+        return pair % services + count > services ? (pair / services + 1) * services : pair;
+    }
+
+    private static long wrap(long value, long size) {
+        return (value - 1) % size + 1;
+    }
+
+    /**
+     * Финализатор SplitMix64: равномерно перемешивает последовательные значения.
+     */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
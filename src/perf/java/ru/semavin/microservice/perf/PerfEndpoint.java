@@ -0,0 +1,13 @@
+package ru.semavin.microservice.perf;
+
+import java.net.http.HttpRequest;
+import java.util.function.Supplier;
+
+/**
+ * Нагружаемый эндпоинт.
+ *
+ * @param name     имя эндпоинта в отчёте и в настройках {@code perf.endpoint.<имя>.*}
+ * @param requests источник запросов; вызывается конкурентно и для записи каждый раз отдаёт новые данные
+ */
+record PerfEndpoint(String name, Supplier<HttpRequest> requests) {
+}
@@ -0,0 +1,109 @@
+package ru.semavin.microservice.perf;
+
+import ru.semavin.microservice.util.CursorCodec;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+/**
+ * Эндпоинты {@code UserController}, {@code SubscriptionController} и {@code GlobalSubscriptionController}
+ * в порядке нагрузки: сначала чтение, затем запись, в конце удаление.
+ */
+final class PerfScenario {
+    private static final int BULK_IMPORT_SIZE = 100;
+    private static final int BATCH_SUBSCRIBE_SIZE = 10;
+
+    private final String baseUrl;
+    private final PerfDataSet data;
+    private final Duration timeout;
+
+    PerfScenario(String baseUrl, PerfDataSet data, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.timeout = timeout;
+    }
+
+    List<PerfEndpoint> endpoints() {
+        return List.of(
+                endpoint("users-get", () -> get("/api/v1/users/" + data.randomUserId())),
+                endpoint("users-page", () -> get("/api/v1/users?limit=50&cursor="
+                        + CursorCodec.encode(data.randomUserId() - 1))),
+                endpoint("subscriptions-get", () -> get("/api/v1/users/" + data.randomUserId() + "/subscriptions")),
+                endpoint("subscriptions-top", () -> get("/api/v1/subscriptions/top?limit=10")),
+                endpoint("subscriptions-trending", () -> get("/api/v1/subscriptions/trending?window=24h&limit=10")),
+                endpoint("users-export", () -> get("/api/v1/users/export")),
+                endpoint("subscriptions-export", () -> get("/api/v1/subscriptions/export")),
+                endpoint("users-create", () -> send("POST", "/api/v1/users", user(data.nextUnique()))),
+                endpoint("users-bulk-import", () -> send("POST", "/api/v1/users/bulk", users())),
+                endpoint("users-update", () -> {
+                    long userId = data.randomUserId();
+                    return send("PUT", "/api/v1/users/" + userId, String.format(
+                            "{\"name\":\"Обновлён %d\",\"email\":\"user%d@perf.local\"}", data.nextUnique(), userId));
+                }),
+                endpoint("subscriptions-create", () -> {
+                    long[] target = data.nextNewSubscriptions(1);
+                    return send("POST", "/api/v1/users/" + target[0] + "/subscriptions", subscription(target[1]));
+                }),
+                endpoint("subscriptions-batch", () -> {
+                    long[] target = data.nextNewSubscriptions(BATCH_SUBSCRIBE_SIZE);
+                    return send("POST", "/api/v1/users/" + target[0] + "/subscriptions/batch", subscriptions(target[1]));
+                }),
+                endpoint("subscriptions-delete", () -> {
+                    long[] subscription = data.nextSubscription();
+                    return send("DELETE", "/api/v1/users/" + subscription[0] + "/subscriptions/" + subscription[1], null);
+                }),
+                endpoint("subscriptions-bulk-delete", () -> send("DELETE", "/api/v1/users/" + data.nextBulkDeleteUserId()
+                        + "/subscriptions?service=" + data.randomServiceName() + "&service=" + data.randomServiceName(), null)),
+                endpoint("users-delete", () -> send("DELETE", "/api/v1/users/" + data.nextReservedUserId(), null))
+        );
+    }
+
+    private static PerfEndpoint endpoint(String name, Supplier<HttpRequest> requests) {
+        return new PerfEndpoint(name, requests);
+    }
+
+    private HttpRequest get(String path) {
+        return send("GET", path, null);
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        if (json == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String user(long n) {
+        return String.format("{\"name\":\"Нагрузка %d\",\"email\":\"perf-%d@perf.local\"}", n, n);
+    }
+
+    private String users() {
+        StringJoiner users = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < BULK_IMPORT_SIZE; i++) {
+            users.add(user(data.nextUnique()));
+        }
+        return users.toString();
+    }
+
+    /**
+     * Подписка на загруженный сервис {@code service-N}: справочник сервисов не растёт.
+     */
+    private static String subscription(long service) {
+        return String.format("{\"serviceName\":\"service-%d\",\"notificationEnabled\":%b}", service, service % 2 == 0);
+    }
+
+    private static String subscriptions(long firstService) {
+        StringJoiner subscriptions = new StringJoiner(",", "{\"subscriptions\":[", "]}");
+        for (int i = 0; i < BATCH_SUBSCRIBE_SIZE; i++) {
+            subscriptions.add(subscription(firstService + i));
+        }
+        return subscriptions.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package ru.semavin.microservice.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Настройки нагрузочного прогона.
+ * <p>
+ * Значения по умолчанию берутся из {@code perf.properties}, системные свойства {@code perf.*}
+ * имеют приоритет. Для эндпоинта параметр ищется сначала в ключе {@code perf.endpoint.<имя>.<параметр>},
+ * затем в общем ключе.
+ * </p>
+ */
+final class PerfSettings {
+    private static final String RESOURCE = "perf.properties";
+
+    private final Properties properties;
+
+    private PerfSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    static PerfSettings load() {
+        Properties properties = new Properties();
+        try (InputStream input = PerfSettings.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Не найден ресурс " + RESOURCE);
+            }
+            properties.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать " + RESOURCE, e);
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("perf."))
+                .forEach(name -> properties.setProperty(name, System.getProperty(name)));
+        return new PerfSettings(properties);
+    }
+
+    int users() {
+        return intValue("perf.users");
+    }
+
+    int subscriptionsPerUser() {
+        return intValue("perf.subscriptions-per-user");
+    }
+
+    int reservedUsers() {
+        return intValue("perf.reserved-users");
+    }
+
+    int services() {
+        return intValue("perf.services");
+    }
+
+    long seed() {
+        return Long.parseLong(value("perf.seed"));
+    }
+
+    Pattern endpoints() {
+        return Pattern.compile(value("perf.endpoints"));
+    }
+
+    List<LoadModel> models() {
+        return Arrays.stream(value("perf.models").split(","))
+                .map(String::trim)
+                .map(LoadModel::fromValue)
+                .toList();
+    }
+
+    Duration warmup() {
+        return Duration.ofSeconds(intValue("perf.warmup-seconds"));
+    }
+
+    Duration duration() {
+        return Duration.ofSeconds(intValue("perf.duration-seconds"));
+    }
+
+    Duration timeout() {
+        return Duration.ofSeconds(intValue("perf.timeout-seconds"));
+    }
+
+    int maxInFlight() {
+        return intValue("perf.open.max-in-flight");
+    }
+
+    int concurrency(String endpoint) {
+        return Integer.parseInt(endpointValue(endpoint, "closed.concurrency", "concurrency"));
+    }
+
+    double rate(String endpoint) {
+        return Double.parseDouble(endpointValue(endpoint, "open.rate", "rate"));
+    }
+
+    LatencyBudget budget(String endpoint) {
+        return new LatencyBudget(
+                Double.parseDouble(endpointValue(endpoint, "budget.p50-ms", "budget.p50-ms")),
+                Double.parseDouble(endpointValue(endpoint, "budget.p99-ms", "budget.p99-ms")),
+                Double.parseDouble(endpointValue(endpoint, "budget.p999-ms", "budget.p999-ms")),
+                Double.parseDouble(endpointValue(endpoint, "budget.max-error-rate", "budget.max-error-rate")));
+    }
+
+    private String endpointValue(String endpoint, String globalKey, String endpointKey) {
+        String value = properties.getProperty("perf.endpoint." + endpoint + "." + endpointKey);
+        return value != null ? value.trim() : value("perf." + globalKey);
+    }
+
+    private int intValue(String key) {
+        return Integer.parseInt(value(key));
+    }
+
+    private String value(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Не задано свойство " + key);
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,236 @@
+package ru.semavin.microservice.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.microservice.MicroserviceApplication;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.repositrories.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы горячих запросов на встроенном PostgreSQL.
+ *
+ * <p>Поднимает {@link MicroserviceApplication} против пустой базы — схему и индексы создают миграции, —
+ * загружает набор данных {@link PerfDataSet} и для каждого запроса проверяет, что в плане
+ * {@code EXPLAIN} нет последовательного чтения таблиц. Запросы не копируются в тест: вызываются методы
+ * {@link UserRepository} и {@link SubscriptionRepository} в транзакции, которая затем откатывается, а
+ * отправленные Hibernate SQL-запросы вместе с параметрами перехватываются слушателем datasource-proxy.
+ * Запросы, читающие таблицу целиком по назначению (выгрузки, пересчёт ТОП-N при запуске), не проверяются.</p>
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanPerfIT {
+    private static final String SERVICE = "service-7";
+    private static final int SERVICE_ID = PerfDataSet.serviceId(SERVICE);
+    private static final int OTHER_SERVICE_ID = PerfDataSet.serviceId("service-8");
+    /**
+     * Доля загруженных пользователей в диапазоне массовой подписки: на малом наборе данных пачка
+     * {@code campaigns.chunk-size} покрывала бы заметную часть таблицы, и планировщик законно читал бы её целиком.
+     */
+    private static final int CAMPAIGN_RANGE_DIVISOR = 50;
+
+    private final PerfSettings settings = PerfSettings.load();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StatementCapture statementCapture = new StatementCapture();
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private SubscriptionRepository subscriptionRepository;
+    private TransactionTemplate transactionTemplate;
+    private int campaignChunkSize;
+
+    @BeforeAll
+    void startApplication() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(MicroserviceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.ru.semavin.microservice.perf=INFO");
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        new PerfDataSet(settings).seed(jdbcTemplate);
+        // Карта видимости нужна планировщику, чтобы выбрать чтение только индекса
+        jdbcTemplate.execute("VACUUM ANALYZE");
+
+        ((ProxyDataSource) context.getBean(DataSource.class)).getProxyConfig().getQueryListener()
+                .addListener(statementCapture);
+        userRepository = context.getBean(UserRepository.class);
+        subscriptionRepository = context.getBean(SubscriptionRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        long seededUsers = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        campaignChunkSize = (int) Math.max(1, Math.min(
+                context.getEnvironment().getProperty("campaigns.chunk-size", Integer.class, 5000),
+                seededUsers / CAMPAIGN_RANGE_DIVISOR));
+    }
+
+    @TestFactory
+    Stream<DynamicTest> hotQueriesUseIndexes() {
+        long userId = settings.users() / 2;
+        return Stream.of(
+                query("users-get", () -> userRepository.findById(userId)),
+                query("users-by-email", () -> userRepository.findByNormalizedEmail("user" + userId + "@perf.local")),
+                query("users-page", () -> userRepository.findByIdGreaterThanOrderByIdAsc(userId, Limit.of(50))),
+                query("subscriptions-page",
+                        () -> subscriptionRepository.findPageByUserId(userId, 0L, null, Limit.of(51))),
+                query("subscriptions-page-by-service",
+                        () -> subscriptionRepository.findPageByUserId(userId, 0L, SERVICE_ID, Limit.of(51))),
+                query("subscriptions-service-ids", () -> subscriptionRepository.findServiceIdsByUserId(userId)),
+                query("subscriptions-by-services", () -> subscriptionRepository.findRowsByUserIdAndServiceIdIn(
+                        userId, List.of(SERVICE_ID, OTHER_SERVICE_ID))),
+                query("subscriptions-insert", () -> subscriptionRepository.insertIfAbsent(
+                        userId, SERVICE_ID, true, LocalDateTime.now())),
+                query("subscriptions-delete-by-id", () -> subscriptionRepository.deleteByIdAndUserIdReturningServiceId(
+                        userId * settings.subscriptionsPerUser(), userId)),
+                query("subscriptions-delete-by-services", () -> subscriptionRepository.deleteByUserIdAndServiceIdIn(
+                        userId, List.of(SERVICE_ID, OTHER_SERVICE_ID))),
+                query("subscriptions-delete-by-ids", () -> subscriptionRepository.deleteByUserIdAndIdIn(
+                        userId, List.of(userId * settings.subscriptionsPerUser(), userId * settings.subscriptionsPerUser() - 1))),
+                query("notification-recipients",
+                        () -> subscriptionRepository.findNotificationRecipients(SERVICE_ID, userId, Limit.of(1000))),
+                query("campaign-user-chunk",
+                        () -> userRepository.findNextIdChunk(userId, Long.MAX_VALUE, campaignChunkSize)),
+                query("campaign-subscribe-range", () -> subscriptionRepository.subscribeUserRange(
+                        userId, userId + campaignChunkSize, SERVICE_ID, true, LocalDateTime.now())),
+                query("trending-window", () -> {
+                    try (var events = subscriptionRepository.streamEventsCreatedAfter(LocalDateTime.now().minusHours(1))) {
+                        events.findFirst();
+                    }
+                }));
+    }
+
+    @AfterAll
+    void stopApplication() throws Exception {
+        try {
+            if (context != null) {
+                context.close();
+            }
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    /**
+     * Выполняет вызов репозитория в откатываемой транзакции и проверяет планы всех отправленных запросов.
+     */
+    private DynamicTest query(String name, Runnable call) {
+        return DynamicTest.dynamicTest(name, () -> {
+            List<CapturedStatement> statements = transactionTemplate.execute(status -> {
+                status.setRollbackOnly();
+                return statementCapture.capture(call);
+            });
+            assertThat(statements).as("SQL-запросы %s", name).isNotEmpty();
+
+            for (CapturedStatement statement : statements) {
+                JsonNode root = objectMapper.readTree(explain(statement)).get(0).get("Plan");
+                log.info("План {}:\n{}\n{}", name, statement.sql(), root.toPrettyString());
+
+                List<String> seqScans = new ArrayList<>();
+                collectSeqScans(root, seqScans);
+                assertThat(seqScans).as("Последовательное чтение таблиц в плане %s: %s", name, statement.sql())
+                        .isEmpty();
+            }
+        });
+    }
+
+    /**
+     * Строит план запроса с теми же параметрами, с какими его выполнил Hibernate. Соединение берётся
+     * в обход datasource-proxy приложения, поэтому сам {@code EXPLAIN} не перехватывается.
+     */
+    private String explain(CapturedStatement captured) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + captured.sql())) {
+            for (ParameterSetOperation operation : captured.parameters()) {
+                operation.getMethod().invoke(statement, operation.getArgs());
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            seqScans.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+
+    private record CapturedStatement(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    /**
+     * Слушатель datasource-proxy, запоминающий запросы текущего потока во время {@link #capture(Runnable)}.
+     * Фоновые задачи приложения выполняют запросы в своих потоках и не попадают в результат.
+     */
+    private static class StatementCapture implements QueryExecutionListener {
+        private final ThreadLocal<List<CapturedStatement>> captured = new ThreadLocal<>();
+
+        List<CapturedStatement> capture(Runnable call) {
+            List<CapturedStatement> statements = new ArrayList<>();
+            captured.set(statements);
+            try {
+                call.run();
+                return statements;
+            } finally {
+                captured.remove();
+            }
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<CapturedStatement> statements = captured.get();
+            if (statements == null) {
+                return;
+            }
+            for (QueryInfo queryInfo : queryInfoList) {
+                List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+                if (parametersList.isEmpty()) {
+                    statements.add(new CapturedStatement(queryInfo.getQuery(), List.of()));
+                }
+                parametersList.forEach(parameters ->
+                        statements.add(new CapturedStatement(queryInfo.getQuery(), List.copyOf(parameters))));
+            }
+        }
+    }
+}
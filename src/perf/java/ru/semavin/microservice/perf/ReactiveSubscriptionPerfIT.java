@@ -0,0 +1,114 @@
+package ru.semavin.microservice.perf;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.semavin.microservice.MicroserviceApplication;
+
+/**
+ * Профиль {@code reactive} на встроенном PostgreSQL.
+ *
+ * <p>Приложение поднимается с R2DBC и JDBC против одной базы. Сервисы добавляются в справочник после старта,
+ * как если бы их создал другой экземпляр приложения: словарь их не знает, и названия дочитываются вне
+ * потоков event loop. Каждый тест работает со своим пользователем.</p>
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ReactiveSubscriptionPerfIT {
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private WebTestClient webTestClient;
+
+    @BeforeAll
+    void startApplication() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(MicroserviceApplication.class).run(
+                "--spring.profiles.active=reactive",
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+                "--spring.r2dbc.username=postgres",
+                "--spring.r2dbc.password=",
+                "--logging.level.root=WARN");
+
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, created_at, version)
+                SELECT id, 'Пользователь ' || id, 'user' || id || '@perf.local', now(), 0
+                FROM generate_series(1::bigint, 3) AS id
+                """);
+        jdbcTemplate.update("INSERT INTO services (id, name) VALUES (101, 'service-a'), (102, 'service-b')");
+        jdbcTemplate.update("""
+                INSERT INTO subscriptions (id, user_id, service_id, notification_enabled, created_at)
+                SELECT id, (id - 1) / 2 + 1, (id - 1) % 2 + 101, true, now()
+                FROM generate_series(1::bigint, 6) AS id
+                """);
+        jdbcTemplate.queryForObject("SELECT setval('subscriptions_seq', 1000)", Long.class);
+
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+                .build();
+    }
+
+    @Test
+    void getSubscriptionsOfServicesAddedElsewhere() {
+        webTestClient.get().uri("/api/v1/users/1/subscriptions")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"1-0\"")
+                .expectBody()
+                .jsonPath("$[0].serviceName").isEqualTo("service-a")
+                .jsonPath("$[1].serviceName").isEqualTo("service-b");
+
+        webTestClient.get().uri("/api/v1/users/1/subscriptions")
+                .header("If-None-Match", "\"1-0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void subscribeAndUnsubscribe() {
+        webTestClient.post().uri("/api/v1/users/2/subscriptions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"serviceName\":\"service-new\",\"notificationEnabled\":true}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.serviceName").isEqualTo("service-new");
+
+        webTestClient.delete().uri("/api/v1/users/2/subscriptions/3")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void unsubscribeAllByIds() {
+        webTestClient.delete().uri("/api/v1/users/3/subscriptions?ids=5,6")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deleted").isEqualTo(2);
+    }
+
+    @AfterAll
+    void stopApplication() throws Exception {
+        try {
+            if (context != null) {
+                context.close();
+            }
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+}
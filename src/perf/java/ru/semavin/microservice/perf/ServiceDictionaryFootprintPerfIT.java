@@ -0,0 +1,149 @@
+package ru.semavin.microservice.perf;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Объём подписок до и после перехода на справочник сервисов (миграция V4).
+ *
+ * <p>Схема поднимается миграциями до версии 3, где подписки хранят название сервиса, заполняется
+ * тем же объёмом, что и {@link PerfDataSet}, и мигрируется до последней версии. Размеры таблицы и индексов
+ * подписок и занимаемая списком DTO куча сравниваются до и после и пишутся в лог.</p>
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ServiceDictionaryFootprintPerfIT {
+    private static final String SIZES = """
+            SELECT pg_table_size('subscriptions') AS table_bytes,
+                   pg_indexes_size('subscriptions') AS index_bytes
+            """;
+
+    private final PerfSettings settings = PerfSettings.load();
+
+    private EmbeddedPostgres postgres;
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void startDatabase() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void migrationShrinksSubscriptions() {
+        migrate("3");
+        long subscriptions = (long) settings.users() * settings.subscriptionsPerUser();
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, created_at)
+                SELECT id, 'Пользователь ' || id, 'user' || id || '@perf.local', now()
+                FROM generate_series(1::bigint, ?) AS id
+                """, settings.users());
+        jdbcTemplate.update("""
+                INSERT INTO subscriptions (id, user_id, service_name, notification_enabled, created_at)
+                SELECT s,
+                       (s - 1) / ? + 1,
+                       'service-' || ((((s - 1) / ?) * 7 + (s - 1) % ?) % ?),
+                       s % 2 = 0,
+                       now() - (s % 10080) * interval '1 minute'
+                FROM generate_series(1::bigint, ?) AS s
+                """, settings.subscriptionsPerUser(), settings.subscriptionsPerUser(),
+                settings.subscriptionsPerUser(), settings.services(), subscriptions);
+        jdbcTemplate.execute("VACUUM ANALYZE subscriptions");
+        Map<String, Object> before = jdbcTemplate.queryForMap(SIZES);
+
+        long started = System.nanoTime();
+        migrate(null);
+        long migrationMillis = (System.nanoTime() - started) / 1_000_000;
+        jdbcTemplate.execute("VACUUM ANALYZE subscriptions");
+        Map<String, Object> after = jdbcTemplate.queryForMap(SIZES);
+
+        log.info("Миграция V4 для {} подписок: {} мс; таблица {} -> {} байт, индексы {} -> {} байт",
+                subscriptions, migrationMillis, before.get("table_bytes"), after.get("table_bytes"),
+                before.get("index_bytes"), after.get("index_bytes"));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM subscriptions", Long.class))
+                .isEqualTo(subscriptions);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM services", Long.class))
+                .isEqualTo((long) settings.services());
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT c.name FROM subscriptions s JOIN services c ON c.id = s.service_id WHERE s.id = ?
+                """, String.class, settings.subscriptionsPerUser() + 1L))
+                .isEqualTo("service-7");
+        assertThat((Long) after.get("table_bytes")).isLessThan((Long) before.get("table_bytes"));
+        assertThat((Long) after.get("index_bytes")).isLessThan((Long) before.get("index_bytes"));
+    }
+
+    /**
+     * Без словаря драйвер создаёт строку названия на каждую прочитанную подписку,
+     * со словарём все DTO одного сервиса ссылаются на одну строку.
+     */
+    @Test
+    void dictionaryNamesShrinkHeap() {
+        int rows = settings.users();
+        String[] names = new String[settings.services()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "service-" + i;
+        }
+        long perRowNames = retainedBytes(rows, id -> new SubscriptionDTO(id, id / 10,
+                new String(names[(int) (id % names.length)].toCharArray()), true));
+        long sharedNames = retainedBytes(rows, id -> new SubscriptionDTO(id, id / 10,
+                names[(int) (id % names.length)], true));
+
+        log.info("{} DTO подписок в куче: {} байт с названием на строку, {} байт со словарём",
+                rows, perRowNames, sharedNames);
+        assertThat(sharedNames).isLessThan(perRowNames);
+    }
+
+    @AfterAll
+    void stopDatabase() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    private void migrate(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"));
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
+
+    private static long retainedBytes(int rows, LongFunction<SubscriptionDTO> factory) {
+        long baseline = usedHeapAfterGc();
+        List<SubscriptionDTO> retained = new ArrayList<>(rows);
+        for (long id = 1; id <= rows; id++) {
+            retained.add(factory.apply(id));
+        }
+        long used = usedHeapAfterGc() - baseline;
+        assertThat(retained).hasSize(rows);
+        return used;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,249 @@
+package ru.semavin.microservice.perf;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import ru.semavin.microservice.MicroserviceApplication;
+import ru.semavin.microservice.services.ServiceNameDictionary;
+import ru.semavin.microservice.services.SubscriptionCounterStore;
+import ru.semavin.microservice.services.SubscriptionTrendingTracker;
+import ru.semavin.microservice.services.UserEmailRegistry;
+import ru.semavin.microservice.sql.SqlStatementCountingFilter;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.semavin.microservice.sql.SqlStatementAssertions.withinSqlStatementBudget;
+
+/**
+ * Бюджеты SQL-запросов основных эндпоинтов на встроенном PostgreSQL.
+ *
+ * <p>Поднимает {@link MicroserviceApplication} против встроенного PostgreSQL, загружает небольшой набор
+ * данных и выполняет каждый эндпоинт один раз с холодными кэшами ответов. Тест падает, если число
+ * SQL-запросов превышает {@link ru.semavin.microservice.sql.SqlStatementBudget} обработчика: фильтр
+ * приложения в этом случае только пишет предупреждение в лог.</p>
+ *
+ * <p>Пользователи {@code 1..USERS} подписаны на сервисы {@code service-0..service-(SUBSCRIPTIONS_PER_USER - 1)};
+ * каждый тест изменяет данные только своего пользователя.</p>
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SqlStatementBudgetPerfIT {
+    private static final int USERS = 20;
+    private static final int SERVICES = 10;
+    private static final int SUBSCRIPTIONS_PER_USER = 5;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    void startApplication() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(MicroserviceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed(jdbcTemplate);
+        // Справочник сервисов, фильтр email и счётчики заполнялись при старте по пустой базе
+        context.getBean(ServiceNameDictionary.class).load();
+        context.getBean(UserEmailRegistry.class).rebuild();
+        context.getBean(SubscriptionCounterStore.class).rebuild();
+        context.getBean(SubscriptionTrendingTracker.class).rebuild();
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean(SqlStatementCountingFilter.class))
+                .build();
+    }
+
+    @Test
+    void getUser() throws Exception {
+        mockMvc.perform(get("/api/v1/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void getAllUsers() throws Exception {
+        mockMvc.perform(get("/api/v1/users").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void getUserByEmail() throws Exception {
+        mockMvc.perform(get("/api/v1/users/by-email").param("email", "USER2@perf.local"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    /**
+     * Пользователь, созданный в обход этого экземпляра, не попал в фильтр email, но находится по email.
+     */
+    @Test
+    void getUserByEmailCreatedElsewhere() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, created_at, version)
+                VALUES (?, 'Создан другим экземпляром', 'elsewhere@perf.local', now(), 0)
+                """, USERS + 1L);
+
+        mockMvc.perform(get("/api/v1/users/by-email").param("email", "Elsewhere@perf.local"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void createUser() throws Exception {
+        mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Новый пользователь\",\"email\":\"new@perf.local\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    /**
+     * Email, занятый в обход этого экземпляра, фильтр пропускает, а отклоняет уникальный индекс {@code lower(email)}.
+     */
+    @Test
+    void createUserWithEmailTakenElsewhere() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, created_at, version)
+                VALUES (?, 'Создан другим экземпляром', 'taken@perf.local', now(), 0)
+                """, USERS + 2L);
+
+        mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Дубликат\",\"email\":\"Taken@perf.local\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Пользователь с email: Taken@perf.local уже существует"));
+    }
+
+    @Test
+    void updateUser() throws Exception {
+        mockMvc.perform(put("/api/v1/users/3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Обновлён\",\"email\":\"updated3@perf.local\"}"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void deleteUser() throws Exception {
+        mockMvc.perform(delete("/api/v1/users/" + USERS))
+                .andExpect(status().isNoContent())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void getSubscriptions() throws Exception {
+        mockMvc.perform(get("/api/v1/users/4/subscriptions"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void subscribe() throws Exception {
+        mockMvc.perform(post("/api/v1/users/5/subscriptions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"serviceName\":\"service-9\",\"notificationEnabled\":true}"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void subscribeAll() throws Exception {
+        mockMvc.perform(post("/api/v1/users/6/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"subscriptions":[
+                                  {"serviceName":"service-6","notificationEnabled":true},
+                                  {"serviceName":"service-7","notificationEnabled":false},
+                                  {"serviceName":"service-0","notificationEnabled":true}
+                                ]}"""))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void unsubscribe() throws Exception {
+        mockMvc.perform(delete("/api/v1/users/7/subscriptions/" + (6 * SUBSCRIPTIONS_PER_USER + 1)))
+                .andExpect(status().isNoContent())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void unsubscribeAll() throws Exception {
+        mockMvc.perform(delete("/api/v1/users/8/subscriptions").param("service", "service-0", "service-1"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void getTopSubscriptions() throws Exception {
+        mockMvc.perform(get("/api/v1/subscriptions/top").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @Test
+    void getTrendingSubscriptions() throws Exception {
+        mockMvc.perform(get("/api/v1/subscriptions/trending").param("window", "24h").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(withinSqlStatementBudget());
+    }
+
+    @AfterAll
+    void stopApplication() throws Exception {
+        try {
+            if (context != null) {
+                context.close();
+            }
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, created_at)
+                SELECT id, 'Пользователь ' || id, 'user' || id || '@perf.local', now()
+                FROM generate_series(1::bigint, ?) AS id
+                """, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO services (id, name)
+                SELECT n + 1, 'service-' || n
+                FROM generate_series(0, ? - 1) AS n
+                """, SERVICES);
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('services', 'id'), ?)", Long.class,
+                (long) SERVICES);
+        jdbcTemplate.update("""
+                INSERT INTO subscriptions (id, user_id, service_id, notification_enabled, created_at)
+                SELECT s, (s - 1) / ? + 1, (s - 1) % ? + 1, true, now()
+                FROM generate_series(1::bigint, ?) AS s
+                """, SUBSCRIPTIONS_PER_USER, SUBSCRIPTIONS_PER_USER, (long) USERS * SUBSCRIPTIONS_PER_USER);
+        // Запас больше allocationSize, чтобы идентификаторы новых строк не пересеклись с загруженными
+        jdbcTemplate.queryForObject("SELECT setval('users_seq', ?)", Long.class, USERS + 1000L);
+        jdbcTemplate.queryForObject("SELECT setval('subscriptions_seq', ?)", Long.class,
+                (long) USERS * SUBSCRIPTIONS_PER_USER + 1000);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
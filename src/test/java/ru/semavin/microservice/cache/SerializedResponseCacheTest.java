@@ -0,0 +1,300 @@
+package ru.semavin.microservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты для {@link SerializedResponseCache}.
+ * <p>
+ * Транзакции нет, поэтому инвалидация срабатывает сразу.
+ * </p>
+ */
+public class SerializedResponseCacheTest {
+    private static final int GZIP_MIN_SIZE = 64;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SerializedResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SerializedResponseCache(new ObjectMapper(), meterRegistry, true, 100,
+                Duration.ofHours(1), Duration.ofHours(1), GZIP_MIN_SIZE, 1);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    /**
+     * Повторный запрос отдаётся из кэша без обращения к загрузчику.
+     */
+    @Test
+    @DisplayName("get_CachesBody: Повторный запрос не вызывает загрузчик")
+    void get_CachesBody() {
+        ResponseEntity<byte[]> first = cache.get(SerializedResponseCache.USER, 1L, null, loader("Alice"));
+        ResponseEntity<byte[]> second = cache.get(SerializedResponseCache.USER, 1L, null, loader("Bob"));
+
+        assertThat(loads).hasValue(1);
+        assertThat(first.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(text(second.getBody())).isEqualTo("[\"Alice\"]");
+    }
+
+    /**
+     * Разные аргументы кэшируются независимо.
+     */
+    @Test
+    @DisplayName("get_KeyedByArgument: Ответы с разными аргументами не пересекаются")
+    void get_KeyedByArgument() {
+        cache.get(SerializedResponseCache.USER, 1L, null, loader("Alice"));
+        ResponseEntity<byte[]> other = cache.get(SerializedResponseCache.USER, 2L, null, loader("Bob"));
+
+        assertThat(loads).hasValue(2);
+        assertThat(text(other.getBody())).isEqualTo("[\"Bob\"]");
+    }
+
+    /**
+     * Большое тело сжимается, только если клиент принимает gzip.
+     */
+    @Test
+    @DisplayName("get_Gzip: Сжимает большое тело при Accept-Encoding: gzip")
+    void get_Gzip() throws IOException {
+        String name = "x".repeat(GZIP_MIN_SIZE);
+        cache.get(SerializedResponseCache.SUBSCRIPTIONS_TOP, 10, null, loader(name));
+
+        ResponseEntity<byte[]> gzip = cache.get(SerializedResponseCache.SUBSCRIPTIONS_TOP, 10, "deflate, gzip;q=0.8", loader(name));
+        ResponseEntity<byte[]> refused = cache.get(SerializedResponseCache.SUBSCRIPTIONS_TOP, 10, "gzip;q=0", loader(name));
+        ResponseEntity<byte[]> plain = cache.get(SerializedResponseCache.SUBSCRIPTIONS_TOP, 10, null, loader(name));
+
+        assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(gzip.getBody())).isEqualTo("[\"" + name + "\"]");
+        assertThat(refused.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(plain.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(plain.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(loads).hasValue(1);
+    }
+
+    /**
+     * Маленькое тело не сжимается даже при поддержке gzip.
+     */
+    @Test
+    @DisplayName("get_SmallBodyNotCompressed: Не сжимает тело меньше порога")
+    void get_SmallBodyNotCompressed() {
+        ResponseEntity<byte[]> response = cache.get(SerializedResponseCache.USER, 1L, "gzip", loader("Alice"));
+
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(text(response.getBody())).isEqualTo("[\"Alice\"]");
+    }
+
+    /**
+     * ETag вычисляется по загруженным данным и хранится вместе с телом.
+     */
+    @Test
+    @DisplayName("get_ETag: Отдаёт ETag загруженных данных")
+    void get_ETag() {
+        cache.get(SerializedResponseCache.USER, 1L, null, loader("Alice"), data -> "\"1-0\"");
+        ResponseEntity<byte[]> cached = cache.get(SerializedResponseCache.USER, 1L, null, loader("Alice"), data -> "\"1-5\"");
+
+        assertThat(cached.getHeaders().getETag()).isEqualTo("\"1-0\"");
+    }
+
+    /**
+     * После инвалидации следующий запрос загружает данные синхронно.
+     */
+    @Test
+    @DisplayName("invalidate_ReloadsSynchronously: Инвалидированный ответ загружается заново")
+    void invalidate_ReloadsSynchronously() {
+        cache.get(SerializedResponseCache.USER, 1L, null, loader("Alice"));
+
+        cache.invalidate(SerializedResponseCache.USER, 1L);
+        ResponseEntity<byte[]> response = cache.get(SerializedResponseCache.USER, 1L, null, loader("Bob"));
+
+        assertThat(loads).hasValue(2);
+        assertThat(text(response.getBody())).isEqualTo("[\"Bob\"]");
+    }
+
+    /**
+     * Устаревший ответ отдаётся сразу, а новый загружается в фоне.
+     */
+    @Test
+    @DisplayName("markStale_RefreshesInBackground: Отдаёт устаревший ответ и обновляет его в фоне")
+    void markStale_RefreshesInBackground() throws InterruptedException {
+        cache.get(SerializedResponseCache.SUBSCRIPTIONS_TOP, 10, null, loader("Alice"));
+
+        cache.markStale(SerializedResponseCache.SUBSCRIPTIONS_TOP);
+        ResponseEntity<byte[]> stale = cache.get(SerializedResponseCache.SUBSCRIPTIONS_TOP, 10, null, loader("Bob"));
+        assertThat(text(stale.getBody())).isEqualTo("[\"Alice\"]");
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String body = text(stale.getBody());
+        while (!body.equals("[\"Bob\"]") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = text(cache.get(SerializedResponseCache.SUBSCRIPTIONS_TOP, 10, null, loader("Carol")).getBody());
+        }
+        assertThat(body).isEqualTo("[\"Bob\"]");
+        assertThat(loads).hasValue(2);
+    }
+
+    /**
+     * Исключение загрузчика передаётся вызывающему, а ошибка не кэшируется.
+     */
+    @Test
+    @DisplayName("get_LoaderFailure: Исключение загрузчика не кэшируется")
+    void get_LoaderFailure() {
+        assertThatThrownBy(() -> cache.get(SerializedResponseCache.USER, 1L, null, () -> {
+            throw new IllegalArgumentException("Пользователь не найден");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        ResponseEntity<byte[]> response = cache.get(SerializedResponseCache.USER, 1L, null, loader("Alice"));
+
+        assertThat(text(response.getBody())).isEqualTo("[\"Alice\"]");
+    }
+
+    /**
+     * Одновременные запросы одного ключа ждут загрузку первого, а не загружают ответ повторно.
+     */
+    @Test
+    @DisplayName("get_ConcurrentLoadOnce: Одновременные запросы одного ключа загружают ответ один раз")
+    void get_ConcurrentLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<byte[]>> first = executor.submit(() ->
+                    cache.get(SerializedResponseCache.USER, 1L, null, () -> {
+                        loading.countDown();
+                        await(release);
+                        return loader("Alice").get();
+                    }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<ResponseEntity<byte[]>> second = executor.submit(() ->
+                    cache.get(SerializedResponseCache.USER, 1L, null, loader("Bob")));
+
+            release.countDown();
+
+            assertThat(text(first.get(5, TimeUnit.SECONDS).getBody())).isEqualTo("[\"Alice\"]");
+            assertThat(text(second.get(5, TimeUnit.SECONDS).getBody())).isEqualTo("[\"Alice\"]");
+            assertThat(loads).hasValue(1);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Медленная загрузка одного ключа не задерживает запросы других ключей.
+     */
+    @Test
+    @DisplayName("get_SlowLoadDoesNotBlockOtherKeys: Медленная загрузка не блокирует другие ключи")
+    void get_SlowLoadDoesNotBlockOtherKeys() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ResponseEntity<byte[]>> slow = executor.submit(() ->
+                    cache.get(SerializedResponseCache.USER, 1L, null, () -> {
+                        loading.countDown();
+                        await(release);
+                        return loader("Alice").get();
+                    }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            for (long id = 2; id <= 50; id++) {
+                cache.get(SerializedResponseCache.USER, id, null, loader("Bob"));
+            }
+
+            assertThat(slow).isNotDone();
+            release.countDown();
+            assertThat(text(slow.get(5, TimeUnit.SECONDS).getBody())).isEqualTo("[\"Alice\"]");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Метрики кэша регистрируются в реестре приложения с теми же ключами тегов, что у кэшей Spring Boot.
+     */
+    @Test
+    @DisplayName("metrics_BootTags: Метрики кэша с тегами cache и cache.manager")
+    void metrics_BootTags() {
+        cache.get(SerializedResponseCache.USER, 1L, null, loader("Alice"));
+        cache.get(SerializedResponseCache.USER, 1L, null, loader("Alice"));
+
+        assertThat(meterRegistry.get("cache.gets")
+                .tags("cache", "responses", "cache.manager", SerializedResponseCache.CACHE_MANAGER, "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Выключенный кэш загружает данные на каждый запрос.
+     */
+    @Test
+    @DisplayName("get_Disabled: Выключенный кэш всегда вызывает загрузчик")
+    void get_Disabled() {
+        SerializedResponseCache disabled = new SerializedResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), false, 100,
+                Duration.ofHours(1), Duration.ofHours(1), GZIP_MIN_SIZE, 1);
+        try {
+            disabled.get(SerializedResponseCache.USER, 1L, null, loader("Alice"));
+            disabled.get(SerializedResponseCache.USER, 1L, null, loader("Alice"));
+        } finally {
+            disabled.shutdown();
+        }
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private Supplier<List<String>> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(value);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String text(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return text(in.readAllBytes());
+        }
+    }
+}
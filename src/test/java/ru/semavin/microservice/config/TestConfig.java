@@ -1,11 +1,21 @@
 package ru.semavin.microservice.config;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.semavin.microservice.cache.SerializedResponseCache;
+import ru.semavin.microservice.services.ExportService;
+import ru.semavin.microservice.services.NotificationDispatchService;
+import ru.semavin.microservice.services.ReactiveSubscriptionService;
+import ru.semavin.microservice.services.SubscriptionCampaignService;
 import ru.semavin.microservice.services.SubscriptionService;
+import ru.semavin.microservice.services.UserBulkImportService;
 import ru.semavin.microservice.services.UserService;
 
+import java.time.Duration;
+
 @TestConfiguration
 public class TestConfig {
 
@@ -18,4 +28,38 @@ public class TestConfig {
     public SubscriptionService subscriptionService() {
         return Mockito.mock(SubscriptionService.class);
     }
-}
\ No newline at end of file
+
+    @Bean
+    public ExportService exportService() {
+        return Mockito.mock(ExportService.class);
+    }
+
+    @Bean
+    public UserBulkImportService userBulkImportService() {
+        return Mockito.mock(UserBulkImportService.class);
+    }
+
+    @Bean
+    public SubscriptionCampaignService subscriptionCampaignService() {
+        return Mockito.mock(SubscriptionCampaignService.class);
+    }
+
+    @Bean
+    public ReactiveSubscriptionService reactiveSubscriptionService() {
+        return Mockito.mock(ReactiveSubscriptionService.class);
+    }
+
+    @Bean
+    public NotificationDispatchService notificationDispatchService() {
+        return Mockito.mock(NotificationDispatchService.class);
+    }
+
+    /**
+     * Кэш ответов в выключенном режиме: каждый запрос доходит до мока сервиса, тесты не влияют друг на друга.
+     */
+    @Bean
+    public SerializedResponseCache serializedResponseCache() {
+        return new SerializedResponseCache(Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), false, 0,
+                Duration.ofSeconds(1), Duration.ofMinutes(5), 1024, 1);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.semavin.microservice.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.semavin.microservice.config.TestConfig;
+import ru.semavin.microservice.dtos.SubscriptionTopDTO;
+import ru.semavin.microservice.services.SubscriptionService;
+import ru.semavin.microservice.util.ExceptionFactory;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Тесты для {@link GlobalSubscriptionController}.
+ * <p>
+ * Покрывает получение ТОП-N популярных и трендовых подписок, а также обработку некорректных параметров.
+ * </p>
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = GlobalSubscriptionController.class)
+@Import({GlobalAdviceController.class, TestConfig.class})
+public class GlobalSubscriptionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    /**
+     * Без параметра {@code limit} запрашивается ТОП-3.
+     * Ожидаем 200 OK и список в порядке убывания популярности.
+     */
+    @Test
+    @DisplayName("getTopSubscriptions_DefaultLimit: Возвращает ТОП-3 по умолчанию")
+    void getTopSubscriptions_DefaultLimit() throws Exception {
+        Mockito.when(subscriptionService.resolveTopLimit(3)).thenReturn(3);
+        Mockito.when(subscriptionService.getTopSubscriptions(3))
+                .thenReturn(List.of(new SubscriptionTopDTO("Netflix", 10L), new SubscriptionTopDTO("Spotify", 7L)));
+
+        mockMvc.perform(get("/api/v1/subscriptions/top"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serviceName").value("Netflix"))
+                .andExpect(jsonPath("$[0].count").value(10))
+                .andExpect(jsonPath("$[1].serviceName").value("Spotify"));
+    }
+
+    /**
+     * Сценарий с некорректным значением {@code limit}.
+     * Ожидаем 400 Bad Request.
+     */
+    @Test
+    @DisplayName("getTopSubscriptions_InvalidLimit: Возвращает 400 при limit меньше 1")
+    void getTopSubscriptions_InvalidLimit() throws Exception {
+        Mockito.when(subscriptionService.resolveTopLimit(0))
+                .thenThrow(ExceptionFactory.invalidParameter("limit", 0));
+
+        mockMvc.perform(get("/api/v1/subscriptions/top").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректное значение параметра 'limit': 0"));
+        Mockito.verify(subscriptionService, Mockito.never()).getTopSubscriptions(0);
+    }
+
+    /**
+     * Сценарий с {@code limit} больше максимума.
+     * Ожидаем, что ТОП загружается с ограниченным значением.
+     */
+    @Test
+    @DisplayName("getTopSubscriptions_ClampedLimit: Запрашивает ТОП с ограниченным limit")
+    void getTopSubscriptions_ClampedLimit() throws Exception {
+        Mockito.when(subscriptionService.resolveTopLimit(1000)).thenReturn(100);
+        Mockito.when(subscriptionService.getTopSubscriptions(100))
+                .thenReturn(List.of(new SubscriptionTopDTO("Netflix", 10L)));
+
+        mockMvc.perform(get("/api/v1/subscriptions/top").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serviceName").value("Netflix"));
+        Mockito.verify(subscriptionService).getTopSubscriptions(100);
+    }
+
+    /**
+     * Сценарий получения трендовых подписок за час.
+     * Ожидаем 200 OK и список из сервиса.
+     */
+    @Test
+    @DisplayName("getTrendingSubscriptions_Success: Возвращает трендовые подписки за окно")
+    void getTrendingSubscriptions_Success() throws Exception {
+        Mockito.when(subscriptionService.getTrendingSubscriptions("1h", 10))
+                .thenReturn(List.of(new SubscriptionTopDTO("Okko", 42L)));
+
+        mockMvc.perform(get("/api/v1/subscriptions/trending").param("window", "1h"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serviceName").value("Okko"))
+                .andExpect(jsonPath("$[0].count").value(42));
+    }
+
+    /**
+     * Сценарий с неизвестным окном.
+     * Ожидаем 400 Bad Request.
+     */
+    @Test
+    @DisplayName("getTrendingSubscriptions_InvalidWindow: Возвращает 400 для неизвестного окна")
+    void getTrendingSubscriptions_InvalidWindow() throws Exception {
+        Mockito.when(subscriptionService.getTrendingSubscriptions("2w", 10))
+                .thenThrow(ExceptionFactory.invalidParameter("window", "2w"));
+
+        mockMvc.perform(get("/api/v1/subscriptions/trending").param("window", "2w"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректное значение параметра 'window': 2w"));
+    }
+}
@@ -0,0 +1,144 @@
+package ru.semavin.microservice.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.semavin.microservice.config.TestConfig;
+import ru.semavin.microservice.dtos.CampaignStatus;
+import ru.semavin.microservice.dtos.NotificationDispatchDTO;
+import ru.semavin.microservice.dtos.NotificationRequestDTO;
+import ru.semavin.microservice.services.NotificationDispatchService;
+import ru.semavin.microservice.util.ExceptionFactory;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Тесты для {@link NotificationDispatchController}.
+ * <p>
+ * Покрывают запуск рассылки уведомлений и получение её состояния.
+ * </p>
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = NotificationDispatchController.class)
+@Import({GlobalAdviceController.class, TestConfig.class})
+public class NotificationDispatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NotificationDispatchService notificationDispatchService;
+
+    /**
+     * Сценарий запуска рассылки.
+     * Ожидаем 202 Accepted и ссылку на состояние рассылки в заголовке Location.
+     */
+    @Test
+    @DisplayName("startDispatch_Accepted: Ставит рассылку в очередь и возвращает 202")
+    void startDispatch_Accepted() throws Exception {
+        UUID dispatchId = UUID.randomUUID();
+        NotificationRequestDTO request = new NotificationRequestDTO("Яндекс.Плюс", "Новый сезон уже доступен");
+        Mockito.when(notificationDispatchService.start(ArgumentMatchers.any(NotificationRequestDTO.class)))
+                .thenReturn(NotificationDispatchDTO.builder()
+                        .id(dispatchId)
+                        .serviceName("Яндекс.Плюс")
+                        .status(CampaignStatus.PENDING)
+                        .build());
+
+        mockMvc.perform(post("/api/v1/subscriptions/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/subscriptions/notifications/" + dispatchId))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    /**
+     * Сценарий запуска рассылки при заполненной очереди.
+     * Ожидаем 503 Service Unavailable: рассылка не принята.
+     */
+    @Test
+    @DisplayName("startDispatch_QueueFull: Возвращает 503, если очередь рассылок заполнена")
+    void startDispatch_QueueFull() throws Exception {
+        NotificationRequestDTO request = new NotificationRequestDTO("Яндекс.Плюс", "Новый сезон уже доступен");
+        Mockito.when(notificationDispatchService.start(ArgumentMatchers.any(NotificationRequestDTO.class)))
+                .thenThrow(ExceptionFactory.jobQueueFull("рассылок"));
+
+        mockMvc.perform(post("/api/v1/subscriptions/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(header().doesNotExist("Location"));
+    }
+
+    /**
+     * Сценарий запуска рассылки без содержимого уведомления.
+     * Ожидаем 400 Bad Request.
+     */
+    @Test
+    @DisplayName("startDispatch_InvalidRequest: Возвращает 400 без содержимого уведомления")
+    void startDispatch_InvalidRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/subscriptions/notifications")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"serviceName\":\"Яндекс.Плюс\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Сценарий получения состояния выполняющейся рассылки.
+     * Ожидаем 200 OK и прогресс.
+     */
+    @Test
+    @DisplayName("getDispatch_Success: Возвращает прогресс рассылки")
+    void getDispatch_Success() throws Exception {
+        UUID dispatchId = UUID.randomUUID();
+        Mockito.when(notificationDispatchService.getStatus(dispatchId))
+                .thenReturn(NotificationDispatchDTO.builder()
+                        .id(dispatchId)
+                        .serviceName("Яндекс.Плюс")
+                        .status(CampaignStatus.RUNNING)
+                        .scannedRecipients(20_000)
+                        .deliveredRecipients(18_000)
+                        .retries(2)
+                        .build());
+
+        mockMvc.perform(get("/api/v1/subscriptions/notifications/{dispatchId}", dispatchId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.deliveredRecipients").value(18_000))
+                .andExpect(jsonPath("$.retries").value(2));
+    }
+
+    /**
+     * Сценарий запроса неизвестной рассылки.
+     * Ожидаем 404 Not Found.
+     */
+    @Test
+    @DisplayName("getDispatch_NotFound: Возвращает 404 для неизвестной рассылки")
+    void getDispatch_NotFound() throws Exception {
+        UUID dispatchId = UUID.randomUUID();
+        Mockito.when(notificationDispatchService.getStatus(dispatchId))
+                .thenThrow(ExceptionFactory.notificationDispatchNotFound(dispatchId));
+
+        mockMvc.perform(get("/api/v1/subscriptions/notifications/{dispatchId}", dispatchId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Рассылка с id: " + dispatchId + " не найдена"));
+    }
+}
@@ -0,0 +1,213 @@
+package ru.semavin.microservice.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.semavin.microservice.config.TestConfig;
+import ru.semavin.microservice.dtos.CursorPageDTO;
+import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.services.ReactiveSubscriptionService;
+import ru.semavin.microservice.util.ExceptionFactory;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Тесты для {@link ReactiveSubscriptionController}.
+ * <p>
+ * Проверяют, что неблокирующая реализация сохраняет контракт сервлетной:
+ * коды ответов, заголовок курсора и формат ошибок, а также потоковую выдачу NDJSON.
+ * </p>
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("reactive")
+@WebFluxTest(controllers = ReactiveSubscriptionController.class)
+@Import({GlobalAdviceController.class, TestConfig.class})
+public class ReactiveSubscriptionControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveSubscriptionService subscriptionService;
+
+    /**
+     * Сценарий успешного оформления подписки.
+     * Ожидаем 200 OK и данные подписки.
+     */
+    @Test
+    @DisplayName("subscribe_Success: Успешно оформляет подписку")
+    void subscribe_Success() {
+        Mockito.when(subscriptionService.subscribe(eq(1L), any(SubscriptionDTO.class)))
+                .thenReturn(Mono.just(new SubscriptionDTO(10L, 1L, "Netflix", true)));
+
+        webTestClient.post().uri("/api/v1/users/1/subscriptions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"serviceName\":\"Netflix\",\"notificationEnabled\":true}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(10)
+                .jsonPath("$.serviceName").isEqualTo("Netflix");
+    }
+
+    /**
+     * Сценарий повторной подписки на сервис.
+     * Ожидаем 409 Conflict.
+     */
+    @Test
+    @DisplayName("subscribe_AlreadyExists: Возвращает 409, если пользователь уже подписан на сервис")
+    void subscribe_AlreadyExists() {
+        Mockito.when(subscriptionService.subscribe(eq(1L), any(SubscriptionDTO.class)))
+                .thenReturn(Mono.error(ExceptionFactory.subscriptionAlreadyExists(1L, "Netflix")));
+
+        webTestClient.post().uri("/api/v1/users/1/subscriptions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"serviceName\":\"Netflix\",\"notificationEnabled\":true}")
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    /**
+     * Сценарий оформления подписки без названия сервиса.
+     * Ожидаем 400 Bad Request с описанием ошибки валидации.
+     */
+    @Test
+    @DisplayName("subscribe_BadRequest: Возвращает 400 при пустом названии сервиса")
+    void subscribe_BadRequest() {
+        webTestClient.post().uri("/api/v1/users/1/subscriptions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"serviceName\":\"\",\"notificationEnabled\":true}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").value(message ->
+                        assertThat((String) message)
+                                .contains("Название сервиса не может быть пустым"));
+    }
+
+    /**
+     * Сценарий получения страницы подписок.
+     * Ожидаем 200 OK и курсор следующей страницы в заголовке.
+     */
+    @Test
+    @DisplayName("getSubscriptions_Success: Возвращает страницу подписок с курсором и ETag")
+    void getSubscriptions_Success() {
+        Mockito.when(subscriptionService.getSubscriptions(1L, null, null, null))
+                .thenReturn(Mono.just(new CursorPageDTO<>(List.of(new SubscriptionDTO(10L, 1L, "Netflix", true)), "aWQ6MTA", 7L)));
+
+        webTestClient.get().uri("/api/v1/users/1/subscriptions")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "aWQ6MTA")
+                .expectHeader().valueEquals("ETag", "\"1-7\"")
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(10);
+    }
+
+    /**
+     * Сценарий условного получения подписок, которые не изменились.
+     * Ожидаем 304 Not Modified без тела и без чтения подписок.
+     */
+    @Test
+    @DisplayName("getSubscriptions_NotModified: Возвращает 304, если ETag совпадает с версией пользователя")
+    void getSubscriptions_NotModified() {
+        Mockito.when(subscriptionService.getSubscriptionsVersion(2L)).thenReturn(Mono.just(7L));
+
+        webTestClient.get().uri("/api/v1/users/2/subscriptions")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("If-None-Match", "\"2-7\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"2-7\"")
+                .expectBody().isEmpty();
+
+        Mockito.verify(subscriptionService, Mockito.never()).getSubscriptions(eq(2L), any(), any(), any());
+    }
+
+    /**
+     * Сценарий условного получения подписок после их изменения.
+     * Ожидаем 200 OK и новый ETag.
+     */
+    @Test
+    @DisplayName("getSubscriptions_Modified: Возвращает 200 и новый ETag, если подписки изменились")
+    void getSubscriptions_Modified() {
+        Mockito.when(subscriptionService.getSubscriptionsVersion(3L)).thenReturn(Mono.just(8L));
+        Mockito.when(subscriptionService.getSubscriptions(3L, null, null, null))
+                .thenReturn(Mono.just(new CursorPageDTO<>(List.of(new SubscriptionDTO(10L, 3L, "Netflix", true)), null, 8L)));
+
+        webTestClient.get().uri("/api/v1/users/3/subscriptions")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("If-None-Match", "\"3-7\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3-8\"")
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(10);
+    }
+
+    /**
+     * Сценарий потоковой выдачи подписок в формате NDJSON.
+     * Ожидаем 200 OK и все подписки из потока.
+     */
+    @Test
+    @DisplayName("streamSubscriptions_Success: Отдаёт подписки потоком NDJSON")
+    void streamSubscriptions_Success() {
+        Mockito.when(subscriptionService.streamSubscriptions(1L, null))
+                .thenReturn(Flux.just(new SubscriptionDTO(10L, 1L, "Netflix", true),
+                        new SubscriptionDTO(11L, 1L, "Okko", false)));
+
+        webTestClient.get().uri("/api/v1/users/1/subscriptions")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(SubscriptionDTO.class)
+                .hasSize(2);
+    }
+
+    /**
+     * Сценарий получения подписок несуществующего пользователя.
+     * Ожидаем 404 Not Found.
+     */
+    @Test
+    @DisplayName("getSubscriptions_UserNotFound: Возвращает 404, если пользователь не найден")
+    void getSubscriptions_UserNotFound() {
+        Mockito.when(subscriptionService.getSubscriptions(5L, null, null, null))
+                .thenReturn(Mono.error(ExceptionFactory.userNotFound(5L)));
+
+        webTestClient.get().uri("/api/v1/users/5/subscriptions")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Пользователь с id: 5 не найден");
+    }
+
+    /**
+     * Сценарий удаления подписки.
+     * Ожидаем 204 No Content.
+     */
+    @Test
+    @DisplayName("unsubscribe_Success: Успешно удаляет подписку")
+    void unsubscribe_Success() {
+        Mockito.when(subscriptionService.unsubscribe(1L, 10L)).thenReturn(Mono.empty());
+
+        webTestClient.delete().uri("/api/v1/users/1/subscriptions/10")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+}
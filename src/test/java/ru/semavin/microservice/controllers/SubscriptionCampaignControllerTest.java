@@ -0,0 +1,151 @@
+package ru.semavin.microservice.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.semavin.microservice.config.TestConfig;
+import ru.semavin.microservice.dtos.CampaignRequestDTO;
+import ru.semavin.microservice.dtos.CampaignStatus;
+import ru.semavin.microservice.dtos.CampaignStatusDTO;
+import ru.semavin.microservice.services.SubscriptionCampaignService;
+import ru.semavin.microservice.util.ExceptionFactory;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Тесты для {@link SubscriptionCampaignController}.
+ * <p>
+ * Покрывают запуск кампании массовой подписки и получение её состояния.
+ * </p>
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = SubscriptionCampaignController.class)
+@Import({GlobalAdviceController.class, TestConfig.class})
+public class SubscriptionCampaignControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SubscriptionCampaignService subscriptionCampaignService;
+
+    /**
+     * Сценарий запуска кампании по диапазону ID.
+     * Ожидаем 202 Accepted и ссылку на состояние кампании в заголовке Location.
+     */
+    @Test
+    @DisplayName("startCampaign_Accepted: Ставит кампанию в очередь и возвращает 202")
+    void startCampaign_Accepted() throws Exception {
+        UUID campaignId = UUID.randomUUID();
+        CampaignRequestDTO request = CampaignRequestDTO.builder()
+                .serviceName("Яндекс.Плюс")
+                .fromUserId(1L)
+                .toUserId(500_000L)
+                .build();
+        Mockito.when(subscriptionCampaignService.start(ArgumentMatchers.any(CampaignRequestDTO.class)))
+                .thenReturn(CampaignStatusDTO.builder()
+                        .id(campaignId)
+                        .serviceName("Яндекс.Плюс")
+                        .status(CampaignStatus.PENDING)
+                        .build());
+
+        mockMvc.perform(post("/api/v1/subscriptions/campaigns")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/subscriptions/campaigns/" + campaignId))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    /**
+     * Сценарий запуска кампании при заполненной очереди.
+     * Ожидаем 503 Service Unavailable: кампания не принята.
+     */
+    @Test
+    @DisplayName("startCampaign_QueueFull: Возвращает 503, если очередь кампаний заполнена")
+    void startCampaign_QueueFull() throws Exception {
+        CampaignRequestDTO request = CampaignRequestDTO.builder()
+                .serviceName("Яндекс.Плюс")
+                .userIds(List.of(1L, 2L))
+                .build();
+        Mockito.when(subscriptionCampaignService.start(ArgumentMatchers.any(CampaignRequestDTO.class)))
+                .thenThrow(ExceptionFactory.jobQueueFull("кампаний"));
+
+        mockMvc.perform(post("/api/v1/subscriptions/campaigns")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(header().doesNotExist("Location"));
+    }
+
+    /**
+     * Сценарий запуска кампании без названия сервиса.
+     * Ожидаем 400 Bad Request.
+     */
+    @Test
+    @DisplayName("startCampaign_InvalidRequest: Возвращает 400 без названия сервиса")
+    void startCampaign_InvalidRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/subscriptions/campaigns")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[1,2,3]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Сценарий получения состояния выполняющейся кампании.
+     * Ожидаем 200 OK и прогресс.
+     */
+    @Test
+    @DisplayName("getCampaign_Success: Возвращает прогресс кампании")
+    void getCampaign_Success() throws Exception {
+        UUID campaignId = UUID.randomUUID();
+        Mockito.when(subscriptionCampaignService.getStatus(campaignId))
+                .thenReturn(CampaignStatusDTO.builder()
+                        .id(campaignId)
+                        .serviceName("Яндекс.Плюс")
+                        .status(CampaignStatus.RUNNING)
+                        .processedUsers(10_000)
+                        .createdSubscriptions(9_990)
+                        .processedChunks(2)
+                        .build());
+
+        mockMvc.perform(get("/api/v1/subscriptions/campaigns/{campaignId}", campaignId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.processedUsers").value(10_000))
+                .andExpect(jsonPath("$.createdSubscriptions").value(9_990));
+    }
+
+    /**
+     * Сценарий запроса неизвестной кампании.
+     * Ожидаем 404 Not Found.
+     */
+    @Test
+    @DisplayName("getCampaign_NotFound: Возвращает 404 для неизвестной кампании")
+    void getCampaign_NotFound() throws Exception {
+        UUID campaignId = UUID.randomUUID();
+        Mockito.when(subscriptionCampaignService.getStatus(campaignId))
+                .thenThrow(ExceptionFactory.campaignNotFound(campaignId));
+
+        mockMvc.perform(get("/api/v1/subscriptions/campaigns/{campaignId}", campaignId))
+                .andExpect(status().isNotFound());
+    }
+}
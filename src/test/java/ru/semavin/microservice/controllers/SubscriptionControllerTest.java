@@ -1,5 +1,6 @@
 package ru.semavin.microservice.controllers;
 
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,15 +14,20 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.semavin.microservice.config.TestConfig;
+import ru.semavin.microservice.dtos.CursorPageDTO;
+import ru.semavin.microservice.dtos.SubscriptionBatchResultDTO;
 import ru.semavin.microservice.dtos.SubscriptionDTO;
+import ru.semavin.microservice.dtos.SubscriptionDeleteResultDTO;
 import ru.semavin.microservice.services.SubscriptionService;
 import ru.semavin.microservice.util.ExceptionFactory;
 import ru.semavin.microservice.util.exceptions.SubscriptionNotBelongToUserException;
 import ru.semavin.microservice.util.exceptions.SubscriptionNotFoundException;
 
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,8 +38,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Покрывает основные сценарии использования API:
  * <ul>
  *     <li>Оформление подписки</li>
- *     <li>Получение списка подписок</li>
+ *     <li>Получение страницы подписок с фильтром по сервису</li>
+ *     <li>Условное получение подписок по ETag</li>
  *     <li>Удаление подписки</li>
+ *     <li>Массовое удаление подписок по сервисам и по ID</li>
  *     <li>Ошибки: пользователь не найден, подписка не найдена, подписка не принадлежит пользователю</li>
  *     <li>Ошибки уникальности (пользователь уже подписан на сервис)</li>
  * </ul>
@@ -103,31 +111,138 @@ public class SubscriptionControllerTest {
     @DisplayName("subscribe_AlreadyExists: Возвращает 409, если пользователь уже подписан на сервис")
     void subscribe_AlreadyExists() throws Exception {
         Mockito.when(subscriptionService.subscribe(anyLong(), any(SubscriptionDTO.class)))
-                .thenThrow(new DataIntegrityViolationException("Пользователь уже подписан на этот сервис"));
+                .thenThrow(ExceptionFactory.subscriptionAlreadyExists(1L, "Test Service"));
 
         mockMvc.perform(post("/api/v1/users/1/subscriptions")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"serviceName\":\"Test Service\"}"))
                 .andExpect(status().isConflict())
-                .andExpect(jsonPath("$.message").value("Пользователь уже подписан на этот сервис"));
+                .andExpect(jsonPath("$.message").value("Пользователь 1 уже подписан на сервис Test Service"));
+    }
+
+    /**
+     * Сценарий нарушения ограничения базы, которое сервис не перевёл в предметную ошибку.
+     * Ожидаем 409 Conflict с общим сообщением, а не сообщением о повторной подписке.
+     */
+    @Test
+    @DisplayName("subscribe_IntegrityViolation: Возвращает 409 с общим сообщением при нарушении ограничения")
+    void subscribe_IntegrityViolation() throws Exception {
+        Mockito.when(subscriptionService.subscribe(anyLong(), any(SubscriptionDTO.class)))
+                .thenThrow(new DataIntegrityViolationException("null value in column \"created_at\""));
+
+        mockMvc.perform(post("/api/v1/users/1/subscriptions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"serviceName\":\"Test Service\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Данные нарушают ограничения целостности"));
+    }
+
+    /**
+     * Сценарий оформления нескольких подписок одним запросом.
+     * Ожидаем 200 OK и разделение на созданные и уже существующие подписки.
+     */
+    @Test
+    @DisplayName("subscribeAll_Success: Оформляет несколько подписок одним запросом")
+    void subscribeAll_Success() throws Exception {
+        SubscriptionDTO existing = SubscriptionDTO.builder().id(11L).userId(1L).serviceName("Okko").build();
+        Mockito.when(subscriptionService.subscribeAll(anyLong(), anyList()))
+                .thenReturn(new SubscriptionBatchResultDTO(List.of(validSubscription), List.of(existing)));
+
+        mockMvc.perform(post("/api/v1/users/1/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subscriptions\":[{\"serviceName\":\"Test Service\"},{\"serviceName\":\"Okko\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created[0].id").value(10L))
+                .andExpect(jsonPath("$.existing[0].serviceName").value("Okko"));
+    }
+
+    /**
+     * Сценарий с пустым названием сервиса в наборе.
+     * Ожидаем 400 Bad Request.
+     */
+    @Test
+    @DisplayName("subscribeAll_BadRequest: Возвращает 400, если подписка в наборе не проходит валидацию")
+    void subscribeAll_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/users/1/subscriptions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subscriptions\":[{\"serviceName\":\"\"}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(Matchers.containsString("Название сервиса не может быть пустым")));
     }
 
     /**
      * Сценарий успешного получения списка подписок.
-     * Ожидаем 200 OK и список подписок.
+     * Ожидаем 200 OK, список подписок и курсор следующей страницы в заголовке.
      */
     @Test
     @DisplayName("getSubscriptions_Success: Успешно получает список подписок")
     void getSubscriptions_Success() throws Exception {
-        Mockito.when(subscriptionService.getSubscriptions(anyLong()))
-                .thenReturn(Collections.singletonList(validSubscription));
+        Mockito.when(subscriptionService.getSubscriptions(1L, null, null, null))
+                .thenReturn(new CursorPageDTO<>(Collections.singletonList(validSubscription), "aWQ6MTA", 7L));
 
         mockMvc.perform(get("/api/v1/users/1/subscriptions"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "aWQ6MTA"))
+                .andExpect(header().string("ETag", "\"1-7\""))
                 .andExpect(jsonPath("$[0].id").value(10L))
                 .andExpect(jsonPath("$[0].serviceName").value("Test Service"));
     }
 
+    /**
+     * Сценарий получения последней страницы подписок с фильтром по сервису.
+     * Ожидаем 200 OK без заголовка X-Next-Cursor.
+     */
+    @Test
+    @DisplayName("getSubscriptions_FilteredLastPage: Возвращает отфильтрованную последнюю страницу без курсора")
+    void getSubscriptions_FilteredLastPage() throws Exception {
+        Mockito.when(subscriptionService.getSubscriptions(1L, "aWQ6MTA", "Test Service", 20))
+                .thenReturn(new CursorPageDTO<>(List.of(), null, 7L));
+
+        mockMvc.perform(get("/api/v1/users/1/subscriptions")
+                        .param("cursor", "aWQ6MTA")
+                        .param("service", "Test Service")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    /**
+     * Сценарий условного получения подписок, которые не изменились.
+     * Ожидаем 304 Not Modified без тела и без чтения подписок.
+     */
+    @Test
+    @DisplayName("getSubscriptions_NotModified: Возвращает 304, если ETag совпадает с версией пользователя")
+    void getSubscriptions_NotModified() throws Exception {
+        Mockito.when(subscriptionService.getSubscriptionsVersion(2L)).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/users/2/subscriptions")
+                        .header("If-None-Match", "\"2-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2-7\""))
+                .andExpect(content().string(""));
+
+        Mockito.verify(subscriptionService, Mockito.never()).getSubscriptions(Mockito.eq(2L), any(), any(), any());
+    }
+
+    /**
+     * Сценарий условного получения подписок после их изменения.
+     * Ожидаем 200 OK и новый ETag.
+     */
+    @Test
+    @DisplayName("getSubscriptions_Modified: Возвращает 200 и новый ETag, если подписки изменились")
+    void getSubscriptions_Modified() throws Exception {
+        Mockito.when(subscriptionService.getSubscriptionsVersion(3L)).thenReturn(8L);
+        Mockito.when(subscriptionService.getSubscriptions(3L, null, null, null))
+                .thenReturn(new CursorPageDTO<>(Collections.singletonList(validSubscription), null, 8L));
+
+        mockMvc.perform(get("/api/v1/users/3/subscriptions")
+                        .header("If-None-Match", "\"3-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3-8\""))
+                .andExpect(jsonPath("$[0].id").value(10L));
+    }
+
     /**
      * Сценарий, когда пользователь не найден при получении списка подписок.
      * Ожидаем 404 Not Found.
@@ -135,7 +250,7 @@ public class SubscriptionControllerTest {
     @Test
     @DisplayName("getSubscriptions_UserNotFound: Возвращает 404, если пользователь не найден")
     void getSubscriptions_UserNotFound() throws Exception {
-        Mockito.when(subscriptionService.getSubscriptions(anyLong()))
+        Mockito.when(subscriptionService.getSubscriptions(5L, null, null, null))
                 .thenThrow(ExceptionFactory.userNotFound(5L));
 
         mockMvc.perform(get("/api/v1/users/5/subscriptions"))
@@ -183,4 +298,49 @@ public class SubscriptionControllerTest {
                 .andExpect(status().isForbidden())
                 .andExpect(jsonPath("$.message").value("Подписка 20 не принадлежит пользователю 1"));
     }
+
+    /**
+     * Сценарий массового удаления подписок по названиям сервисов.
+     * Ожидаем 200 OK и количество удалённых подписок.
+     */
+    @Test
+    @DisplayName("unsubscribeAll_ByService: Удаляет подписки пользователя по названиям сервисов")
+    void unsubscribeAll_ByService() throws Exception {
+        Mockito.when(subscriptionService.unsubscribeAll(1L, List.of("Netflix", "Okko"), null))
+                .thenReturn(new SubscriptionDeleteResultDTO(2));
+
+        mockMvc.perform(delete("/api/v1/users/1/subscriptions")
+                        .param("service", "Netflix", "Okko"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    /**
+     * Сценарий массового удаления подписок по списку ID.
+     * Ожидаем 200 OK и количество удалённых подписок.
+     */
+    @Test
+    @DisplayName("unsubscribeAll_ByIds: Удаляет подписки пользователя по списку ID")
+    void unsubscribeAll_ByIds() throws Exception {
+        Mockito.when(subscriptionService.unsubscribeAll(1L, null, List.of(10L, 11L, 12L)))
+                .thenReturn(new SubscriptionDeleteResultDTO(3));
+
+        mockMvc.perform(delete("/api/v1/users/1/subscriptions").param("ids", "10,11,12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(3));
+    }
+
+    /**
+     * Сценарий массового удаления без параметров.
+     * Ожидаем 400 Bad Request.
+     */
+    @Test
+    @DisplayName("unsubscribeAll_NoCriteria: Возвращает 400 без параметров service и ids")
+    void unsubscribeAll_NoCriteria() throws Exception {
+        Mockito.when(subscriptionService.unsubscribeAll(1L, null, null))
+                .thenThrow(ExceptionFactory.invalidParameter("service", null));
+
+        mockMvc.perform(delete("/api/v1/users/1/subscriptions"))
+                .andExpect(status().isBadRequest());
+    }
 }
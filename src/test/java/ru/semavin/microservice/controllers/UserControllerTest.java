@@ -13,16 +13,29 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.semavin.microservice.config.TestConfig;
+import ru.semavin.microservice.dtos.BulkImportResultDTO;
+import ru.semavin.microservice.dtos.BulkImportRowErrorDTO;
+import ru.semavin.microservice.dtos.CursorPageDTO;
 import ru.semavin.microservice.dtos.UserDTO;
+import ru.semavin.microservice.services.ExportService;
+import ru.semavin.microservice.services.UserBulkImportService;
 import ru.semavin.microservice.services.UserService;
 import ru.semavin.microservice.util.ExceptionFactory;
 import ru.semavin.microservice.util.exceptions.UserNotFoundException;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +48,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  *     <li>Валидация входных данных (BadRequest)</li>
  *     <li>Обработка ситуаций, когда пользователь не найден</li>
  *     <li>Обновление и удаление пользователя</li>
+ *     <li>Условные запросы по ETag (If-None-Match, If-Match)</li>
+ *     <li>Поиск по email и занятый email (Conflict)</li>
  * </ul>
  * </p>
  */
@@ -50,6 +65,12 @@ public class UserControllerTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private UserBulkImportService userBulkImportService;
+
     private UserDTO testUser;
 
     @BeforeEach
@@ -58,6 +79,7 @@ public class UserControllerTest {
                 .id(1L)
                 .name("Test User")
                 .email("test@example.com")
+                .version(3L)
                 .build();
     }
 
@@ -117,6 +139,55 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("test@example.com"));
     }
 
+    /**
+     * Проверяем создание пользователя с занятым email.
+     * Ожидаем 409 Conflict и сообщение о занятом email.
+     */
+    @Test
+    @DisplayName("createUser_Conflict: Возвращает 409, если email уже занят")
+    void createUser_Conflict() throws Exception {
+        Mockito.when(userService.createUser(any(UserDTO.class)))
+                .thenThrow(ExceptionFactory.userAlreadyExists("new.user@example.com"));
+
+        mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New User\", \"email\":\"new.user@example.com\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.message").value("Пользователь с email: new.user@example.com уже существует"));
+    }
+
+    /**
+     * Проверяем получение пользователя по email.
+     * Ожидаем 200 OK, данные пользователя и ETag его версии.
+     */
+    @Test
+    @DisplayName("getUserByEmail_Success: Возвращает 200 и пользователя с ETag")
+    void getUserByEmail_Success() throws Exception {
+        Mockito.when(userService.findUserDTOByEmail("Test@Example.com")).thenReturn(testUser);
+
+        mockMvc.perform(get("/api/v1/users/by-email").param("email", "Test@Example.com"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.email").value("test@example.com"));
+    }
+
+    /**
+     * Проверяем сценарий, когда пользователь с email не найден.
+     * Ожидаем 404 Not Found.
+     */
+    @Test
+    @DisplayName("getUserByEmail_NotFound: Возвращает 404, если пользователь не найден")
+    void getUserByEmail_NotFound() throws Exception {
+        Mockito.when(userService.findUserDTOByEmail("nobody@example.com"))
+                .thenThrow(ExceptionFactory.userNotFoundByEmail("nobody@example.com"));
+
+        mockMvc.perform(get("/api/v1/users/by-email").param("email", "nobody@example.com"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Пользователь с email: nobody@example.com не найден"));
+    }
+
     /**
      * Проверяем сценарий, когда пытаемся обновить несуществующего пользователя.
      * Ожидаем 404 Not Found.
@@ -124,7 +195,7 @@ public class UserControllerTest {
     @Test
     @DisplayName("updateUser_NotFound: Возвращает 404, если пользователь не найден")
     void updateUser_NotFound() throws Exception {
-        Mockito.when(userService.updateUser(anyLong(), any(UserDTO.class)))
+        Mockito.when(userService.updateUser(anyLong(), any(UserDTO.class), isNull()))
                 .thenThrow(new UserNotFoundException("User not found"));
 
         String validUserJson = "{\"name\":\"Updated User\", \"email\":\"updated@example.com\"}";
@@ -180,24 +251,183 @@ public class UserControllerTest {
 
         mockMvc.perform(get("/api/v1/users/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.name").value("Test User"))
-                .andExpect(jsonPath("$.email").value("test@example.com"));
+                .andExpect(jsonPath("$.email").value("test@example.com"))
+                .andExpect(jsonPath("$.version").doesNotExist());
     }
 
     /**
-     * Проверяем сценарий успешного получения списка всех пользователей.
-     * Ожидаем 200 OK и массив.
+     * Проверяем условный запрос пользователя, который не изменился.
+     * Ожидаем 304 Not Modified без тела и без загрузки пользователя.
      */
     @Test
-    @DisplayName("getAllUsers_Success: Возвращает 200 и список пользователей")
+    @DisplayName("getUser_NotModified: Возвращает 304, если ETag совпадает с текущей версией")
+    void getUser_NotModified() throws Exception {
+        Mockito.when(userService.getUserVersion(2L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/v1/users/2")
+                        .header("If-None-Match", "W/\"2-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2-3\""))
+                .andExpect(content().string(""));
+
+        Mockito.verify(userService, Mockito.never()).findUserDTOById(2L);
+    }
+
+    /**
+     * Проверяем условный запрос пользователя, который изменился.
+     * Ожидаем 200 OK и ETag новой версии.
+     */
+    @Test
+    @DisplayName("getUser_Modified: Возвращает 200 и новый ETag, если пользователь изменился")
+    void getUser_Modified() throws Exception {
+        Mockito.when(userService.getUserVersion(1L)).thenReturn(3L);
+        Mockito.when(userService.findUserDTOById(1L)).thenReturn(testUser);
+
+        mockMvc.perform(get("/api/v1/users/1")
+                        .header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
+    /**
+     * Проверяем успешное обновление пользователя с совпадающим If-Match.
+     * Ожидаем 200 OK и ETag новой версии.
+     */
+    @Test
+    @DisplayName("updateUser_IfMatch: Обновляет пользователя и возвращает ETag новой версии")
+    void updateUser_IfMatch() throws Exception {
+        UserDTO updated = UserDTO.builder().id(1L).name("Updated User").email("updated@example.com").version(4L).build();
+        Mockito.when(userService.updateUser(eq(1L), any(UserDTO.class), eq("\"1-3\""))).thenReturn(updated);
+
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Updated User\", \"email\":\"updated@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4\""))
+                .andExpect(jsonPath("$.name").value("Updated User"));
+    }
+
+    /**
+     * Проверяем обновление пользователя, изменённого после получения ETag.
+     * Ожидаем 412 Precondition Failed.
+     */
+    @Test
+    @DisplayName("updateUser_PreconditionFailed: Возвращает 412, если If-Match не совпадает с текущей версией")
+    void updateUser_PreconditionFailed() throws Exception {
+        Mockito.when(userService.updateUser(eq(1L), any(UserDTO.class), eq("\"1-2\"")))
+                .thenThrow(ExceptionFactory.userVersionMismatch(1L));
+
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "\"1-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Updated User\", \"email\":\"updated@example.com\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412))
+                .andExpect(jsonPath("$.message").value("Пользователь с id: 1 изменён, версия не совпадает с If-Match"));
+    }
+
+    /**
+     * Проверяем сценарий успешного получения первой страницы пользователей.
+     * Ожидаем 200 OK, массив и курсор следующей страницы в заголовке.
+     */
+    @Test
+    @DisplayName("getAllUsers_Success: Возвращает 200 и страницу пользователей")
     void getAllUsers_Success() throws Exception {
-        Mockito.when(userService.getAllUsers()).thenReturn(List.of(testUser));
+        Mockito.when(userService.getUsersPage(null, null))
+                .thenReturn(new CursorPageDTO<>(List.of(testUser), "aWQ6MQ"));
 
         mockMvc.perform(get("/api/v1/users"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "aWQ6MQ"))
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].name").value("Test User"))
                 .andExpect(jsonPath("$[0].email").value("test@example.com"));
     }
+
+    /**
+     * Проверяем, что у последней страницы нет заголовка с курсором.
+     */
+    @Test
+    @DisplayName("getAllUsers_LastPage: Не возвращает курсор на последней странице")
+    void getAllUsers_LastPage() throws Exception {
+        Mockito.when(userService.getUsersPage("aWQ6MQ", 10))
+                .thenReturn(new CursorPageDTO<>(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/users").param("cursor", "aWQ6MQ").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    /**
+     * Проверяем, что некорректный курсор приводит к 400.
+     */
+    @Test
+    @DisplayName("getAllUsers_InvalidCursor: Возвращает 400 для некорректного курсора")
+    void getAllUsers_InvalidCursor() throws Exception {
+        Mockito.when(userService.getUsersPage("broken", null))
+                .thenThrow(ExceptionFactory.invalidParameter("cursor", "broken"));
+
+        mockMvc.perform(get("/api/v1/users").param("cursor", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректное значение параметра 'cursor': broken"));
+    }
+
+    /**
+     * Проверяем потоковую выгрузку пользователей.
+     * Ожидаем 200 OK, тип application/x-ndjson и строки, записанные сервисом.
+     */
+    @Test
+    @DisplayName("exportUsers_Success: Отдаёт пользователей в формате NDJSON")
+    void exportUsers_Success() throws Exception {
+        String ndjson = "{\"id\":1,\"name\":\"Test User\",\"email\":\"test@example.com\"}\n";
+        Mockito.when(exportService.exportUsers(any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(ndjson.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+        Mockito.when(exportService.getRequestTimeout()).thenReturn(Duration.ofMinutes(30));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Продлённый тайм-аут действует только на запрос выгрузки
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(ndjson));
+    }
+
+    /**
+     * Проверяем массовый импорт в формате NDJSON.
+     * Ожидаем 200 OK и итог импорта с ошибкой по строке.
+     */
+    @Test
+    @DisplayName("importUsers_Success: Возвращает итог массового импорта")
+    void importUsers_Success() throws Exception {
+        BulkImportResultDTO summary = BulkImportResultDTO.builder()
+                .total(2)
+                .created(1)
+                .failed(1)
+                .errors(List.of(new BulkImportRowErrorDTO(2, "invalid-email", List.of("Поле 'email': Некорректный формат email"))))
+                .build();
+        Mockito.when(userBulkImportService.importUsers(any(InputStream.class))).thenReturn(summary);
+
+        mockMvc.perform(post("/api/v1/users/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"New User\",\"email\":\"new.user@example.com\"}\n" +
+                                "{\"name\":\"Bad User\",\"email\":\"invalid-email\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].errors[0]").value("Поле 'email': Некорректный формат email"));
+    }
 }
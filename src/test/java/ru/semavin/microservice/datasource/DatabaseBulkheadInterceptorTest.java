@@ -0,0 +1,122 @@
+package ru.semavin.microservice.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import ru.semavin.microservice.sql.SqlStatementBudget;
+import ru.semavin.microservice.util.exceptions.DatabaseBusyException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты для {@link DatabaseBulkheadInterceptor}.
+ * <p>
+ * Ограничение рассчитано на два одновременных запроса; обработчики — методы {@link Handlers}.
+ * </p>
+ */
+public class DatabaseBulkheadInterceptorTest {
+    private static final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+    private SimpleMeterRegistry meterRegistry;
+    private HandlerMethod databaseHandler;
+    private HandlerMethod cachedHandler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        meterRegistry = new SimpleMeterRegistry();
+        Handlers handlers = new Handlers();
+        databaseHandler = new HandlerMethod(handlers, Handlers.class.getMethod("database"));
+        cachedHandler = new HandlerMethod(handlers, Handlers.class.getMethod("cached"));
+    }
+
+    /**
+     * Запрос сверх ограничения при заполненной очереди отклоняется, освободившееся разрешение
+     * достаётся следующему запросу.
+     */
+    @Test
+    @DisplayName("preHandle_QueueFull: Отклоняет запрос сверх ограничения и пропускает после освобождения")
+    void preHandle_QueueFull() throws Exception {
+        DatabaseBulkheadInterceptor interceptor = interceptor(0, Duration.ofSeconds(5));
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        MockHttpServletRequest second = new MockHttpServletRequest();
+
+        assertThat(interceptor.preHandle(first, RESPONSE, databaseHandler)).isTrue();
+        assertThat(interceptor.preHandle(second, RESPONSE, databaseHandler)).isTrue();
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest(), RESPONSE, databaseHandler))
+                .isInstanceOf(DatabaseBusyException.class);
+
+        interceptor.afterCompletion(first, RESPONSE, databaseHandler, null);
+
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), RESPONSE, databaseHandler)).isTrue();
+        assertThat(meterRegistry.get("datasource.bulkhead.rejected").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Запрос, не дождавшийся разрешения за {@code acquireTimeout}, отклоняется.
+     */
+    @Test
+    @DisplayName("preHandle_Timeout: Отклоняет запрос, не дождавшийся разрешения")
+    void preHandle_Timeout() throws Exception {
+        DatabaseBulkheadInterceptor interceptor = interceptor(10, Duration.ofMillis(50));
+        interceptor.preHandle(new MockHttpServletRequest(), RESPONSE, databaseHandler);
+        interceptor.preHandle(new MockHttpServletRequest(), RESPONSE, databaseHandler);
+
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest(), RESPONSE, databaseHandler))
+                .isInstanceOf(DatabaseBusyException.class);
+    }
+
+    /**
+     * Обработчики без обращений к базе не занимают разрешений и не ограничиваются.
+     */
+    @Test
+    @DisplayName("preHandle_NoDatabase: Не ограничивает обработчики с бюджетом 0")
+    void preHandle_NoDatabase() throws Exception {
+        DatabaseBulkheadInterceptor interceptor = interceptor(0, Duration.ofSeconds(5));
+        interceptor.preHandle(new MockHttpServletRequest(), RESPONSE, databaseHandler);
+        interceptor.preHandle(new MockHttpServletRequest(), RESPONSE, databaseHandler);
+
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), RESPONSE, cachedHandler)).isTrue();
+        assertThat(available()).isZero();
+    }
+
+    /**
+     * Разрешение освобождается, когда поток запроса переходит к асинхронной обработке,
+     * и не освобождается повторно при её завершении.
+     */
+    @Test
+    @DisplayName("afterConcurrentHandlingStarted_Releases: Освобождает разрешение один раз")
+    void afterConcurrentHandlingStarted_Releases() throws Exception {
+        DatabaseBulkheadInterceptor interceptor = interceptor(0, Duration.ofSeconds(5));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, RESPONSE, databaseHandler);
+
+        interceptor.afterConcurrentHandlingStarted(request, RESPONSE, databaseHandler);
+        interceptor.afterCompletion(request, RESPONSE, databaseHandler, null);
+
+        assertThat(available()).isEqualTo(2);
+    }
+
+    private DatabaseBulkheadInterceptor interceptor(int maxWaiting, Duration acquireTimeout) {
+        return new DatabaseBulkheadInterceptor(2, maxWaiting, acquireTimeout, meterRegistry);
+    }
+
+    private double available() {
+        return meterRegistry.get("datasource.bulkhead.available").gauge().value();
+    }
+
+    static class Handlers {
+        public void database() {
+        }
+
+        @SqlStatementBudget(0)
+        public void cached() {
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package ru.semavin.microservice.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Тесты для {@link ReplicaRoutingDataSource}.
+ * <p>
+ * Основной сервер и реплики заменены заглушками JDBC, отставание реплики задаётся результатом запроса
+ * {@link ReplicaTarget#LAG_QUERY}. Фоновая проверка отключена длинным интервалом.
+ * </p>
+ */
+public class ReplicaRoutingDataSourceTest {
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private SimpleMeterRegistry meterRegistry;
+    private Connection primaryConnection;
+    private DataSource primary;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        primaryConnection = Mockito.mock(Connection.class);
+        primary = Mockito.mock(DataSource.class);
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (routing != null) {
+            routing.close();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        ReplicaRoutingContext.close();
+    }
+
+    /**
+     * Соединения вне read-only транзакции всегда выдаются основным сервером.
+     */
+    @Test
+    @DisplayName("getConnection_ReadWrite: Запись идёт на основной сервер")
+    void getConnection_ReadWrite() throws SQLException {
+        routing = routing(replica("replica-1", 0, new AtomicBoolean()));
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routed(ReplicaRoutingDataSource.PRIMARY, "read-write")).isEqualTo(1);
+    }
+
+    /**
+     * Read-only транзакции распределяются по репликам по кругу.
+     */
+    @Test
+    @DisplayName("getConnection_RoundRobin: Чтение распределяется по репликам")
+    void getConnection_RoundRobin() throws SQLException {
+        ReplicaTarget first = replica("replica-1", 0, new AtomicBoolean());
+        ReplicaTarget second = replica("replica-2", 0.5, new AtomicBoolean());
+        routing = routing(first, second);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Connection a = routing.getConnection();
+        Connection b = routing.getConnection();
+        Connection c = routing.getConnection();
+
+        assertThat(List.of(a, b)).containsExactlyInAnyOrder(
+                first.getDataSource().getConnection(), second.getDataSource().getConnection());
+        assertThat(c).isSameAs(a);
+        assertThat(routed("replica-1", "replica") + routed("replica-2", "replica")).isEqualTo(3);
+        assertThat(meterRegistry.get("datasource.replica.lag").tag("replica", "replica-2").gauge().value())
+                .isEqualTo(0.5);
+    }
+
+    /**
+     * Реплика, отстающая больше допустимого, не получает чтение.
+     */
+    @Test
+    @DisplayName("getConnection_LaggingReplica: Отстающая реплика исключается")
+    void getConnection_LaggingReplica() throws SQLException {
+        ReplicaTarget lagging = replica("replica-1", 30, new AtomicBoolean());
+        ReplicaTarget healthy = replica("replica-2", 1, new AtomicBoolean());
+        routing = routing(lagging, healthy);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(lagging.isAvailable()).isFalse();
+        assertThat(routing.getConnection()).isSameAs(healthy.getDataSource().getConnection());
+        assertThat(routing.getConnection()).isSameAs(healthy.getDataSource().getConnection());
+        assertThat(meterRegistry.get("datasource.replica.available").tag("replica", "replica-1").gauge().value())
+                .isZero();
+    }
+
+    /**
+     * Если реплика не выдаёт соединение, чтение идёт на основной сервер, а реплика исключается
+     * до следующей успешной проверки.
+     */
+    @Test
+    @DisplayName("getConnection_Fallback: Без доступных реплик чтение идёт на основной сервер")
+    void getConnection_Fallback() throws SQLException {
+        AtomicBoolean down = new AtomicBoolean();
+        ReplicaTarget replica = replica("replica-1", 0, down);
+        routing = routing(replica);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        down.set(true);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(replica.isAvailable()).isFalse();
+        assertThat(routed(ReplicaRoutingDataSource.PRIMARY, "fallback")).isEqualTo(1);
+
+        down.set(false);
+        routing.checkReplicas(1);
+        assertThat(routing.getConnection()).isNotSameAs(primaryConnection);
+    }
+
+    /**
+     * После коммита записи пользователя его данные читаются с основного сервера, данные других
+     * пользователей — с реплики.
+     */
+    @Test
+    @DisplayName("getConnection_ReadYourWrites: После записи чтение пользователя идёт на основной сервер")
+    void getConnection_ReadYourWrites() throws SQLException {
+        routing = routing(replica("replica-1", 0, new AtomicBoolean()));
+        ReplicaRoutingContext.open(5L);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        routing.getConnection();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routed(ReplicaRoutingDataSource.PRIMARY, "sticky")).isEqualTo(1);
+
+        ReplicaRoutingContext.open(6L);
+        assertThat(routing.getConnection()).isNotSameAs(primaryConnection);
+    }
+
+    /**
+     * Пользователи, отмеченные фоновой транзакцией вне запроса, после коммита читаются с основного сервера.
+     */
+    @Test
+    @DisplayName("getConnection_MarkedWrites: После фоновой записи чтение отмеченных пользователей идёт на основной сервер")
+    void getConnection_MarkedWrites() throws SQLException {
+        routing = routing(replica("replica-1", 0, new AtomicBoolean()));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        routing.getConnection();
+        ReplicaRoutingContext.markWritten(List.of(7L, 8L));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        assertThat(ReplicaRoutingContext.writtenUsers()).isEmpty();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingContext.open(8L);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        ReplicaRoutingContext.open(9L);
+        assertThat(routing.getConnection()).isNotSameAs(primaryConnection);
+    }
+
+    /**
+     * Транзакция, не дошедшая до коммита, не привязывает чтение пользователя к основному серверу.
+     */
+    @Test
+    @DisplayName("getConnection_RolledBackWrite: Откаченная запись не влияет на чтение")
+    void getConnection_RolledBackWrite() throws SQLException {
+        routing = routing(replica("replica-1", 0, new AtomicBoolean()));
+        ReplicaRoutingContext.open(5L);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        routing.getConnection();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.getConnection()).isNotSameAs(primaryConnection);
+    }
+
+    private ReplicaRoutingDataSource routing(ReplicaTarget... replicas) {
+        return new ReplicaRoutingDataSource(primary, List.of(replicas), MAX_LAG,
+                Duration.ofHours(1), Duration.ofSeconds(5), meterRegistry);
+    }
+
+    private double routed(String target, String reason) {
+        var counter = meterRegistry.find("datasource.routing").tag("target", target).tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static ReplicaTarget replica(String name, double lagSeconds, AtomicBoolean down) throws SQLException {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.next()).thenReturn(true);
+        Mockito.when(resultSet.getDouble(1)).thenReturn(lagSeconds);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Mockito.when(dataSource.getConnection()).thenAnswer(invocation -> {
+            if (down.get()) {
+                throw new SQLException("Connection refused");
+            }
+            return connection;
+        });
+        return new ReplicaTarget(name, dataSource);
+    }
+}
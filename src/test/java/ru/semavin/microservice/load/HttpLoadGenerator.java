@@ -0,0 +1,192 @@
+package ru.semavin.microservice.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генератор HTTP-нагрузки с замкнутым циклом для сравнения режимов обработки запросов.
+ *
+ * <p>Держит {@code --concurrency} одновременно выполняющихся запросов: каждый виртуальный клиент
+ * отправляет следующий запрос сразу после ответа на предыдущий. После прогрева в течение
+ * {@code --duration} секунд собираются задержки, затем печатаются пропускная способность,
+ * перцентили и количество ошибок (исключения и ответы 4xx/5xx).</p>
+ *
+ * <p>Запуск (после {@code ./mvnw test-compile}):</p>
+ * <pre>
+ * java -cp target/test-classes ru.semavin.microservice.load.HttpLoadGenerator \
+ *     --url=http://localhost:8080/api/v1/users/1/subscriptions --concurrency=1000 --duration=60 \
+ *     --label=virtual --output=target/threading-comparison.csv
+ * </pre>
+ */
+public final class HttpLoadGenerator {
+    private static final String CSV_HEADER = "label,concurrency,requests,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms";
+
+    private final HttpClient client;
+    private final HttpRequest request;
+    private final ExecutorService callbackExecutor;
+    private final long measureFromNanos;
+    private final long endNanos;
+
+    private HttpLoadGenerator(URI uri, Duration warmup, Duration duration, Duration timeout) {
+        this.callbackExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(callbackExecutor)
+                .build();
+        this.request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        long now = System.nanoTime();
+        this.measureFromNanos = now + warmup.toNanos();
+        this.endNanos = measureFromNanos + duration.toNanos();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI uri = URI.create(options.getOrDefault("url", "http://localhost:8080/api/v1/subscriptions/top"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "30")));
+        String label = options.getOrDefault("label", "run");
+
+        System.out.printf("Нагрузка на %s: %d соединений, прогрев %d с, измерение %d с%n",
+                uri, concurrency, warmup.toSeconds(), duration.toSeconds());
+        HttpLoadGenerator generator = new HttpLoadGenerator(uri, warmup, duration, timeout);
+        Result result = generator.run(concurrency, duration);
+
+        String line = result.toCsv(label, concurrency);
+        System.out.println(CSV_HEADER);
+        System.out.println(line);
+        if (options.containsKey("output")) {
+            appendCsv(Path.of(options.get("output")), line);
+        }
+        System.exit(0);
+    }
+
+    private Result run(int concurrency, Duration duration) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        Worker[] workers = new Worker[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            workers[i] = new Worker(finished);
+            workers[i].next();
+        }
+        finished.await();
+        callbackExecutor.shutdown();
+        callbackExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        return Result.merge(workers, duration);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидается аргумент вида --name=value: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static void appendCsv(Path output, String line) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        if (Files.notExists(output)) {
+            Files.writeString(output, CSV_HEADER + System.lineSeparator());
+        }
+        Files.writeString(output, line + System.lineSeparator(), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Клиент, последовательно отправляющий запросы. Колбэки одного клиента не пересекаются,
+     * поэтому его выборка задержек не требует синхронизации.
+     */
+    private final class Worker {
+        private final CountDownLatch finished;
+        private long[] samples = new long[1024];
+        private int size;
+        private long errors;
+
+        Worker(CountDownLatch finished) {
+            this.finished = finished;
+        }
+
+        void next() {
+            if (System.nanoTime() >= endNanos) {
+                finished.countDown();
+                return;
+            }
+            long started = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenCompleteAsync((response, error) -> {
+                        long completed = System.nanoTime();
+                        if (started >= measureFromNanos && completed < endNanos) {
+                            if (error != null || response.statusCode() >= 400) {
+                                errors++;
+                            } else {
+                                record(completed - started);
+                            }
+                        }
+                        next();
+                    }, callbackExecutor);
+        }
+
+        private void record(long latencyNanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = latencyNanos;
+        }
+    }
+
+    private record Result(long[] latencies, long errors, Duration duration) {
+
+        static Result merge(Worker[] workers, Duration duration) {
+            int total = 0;
+            long errors = 0;
+            for (Worker worker : workers) {
+                total += worker.size;
+                errors += worker.errors;
+            }
+            long[] latencies = new long[total];
+            int offset = 0;
+            for (Worker worker : workers) {
+                System.arraycopy(worker.samples, 0, latencies, offset, worker.size);
+                offset += worker.size;
+            }
+            Arrays.sort(latencies);
+            return new Result(latencies, errors, duration);
+        }
+
+        String toCsv(String label, int concurrency) {
+            double throughput = latencies.length / (double) duration.toSeconds();
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f",
+                    label, concurrency, latencies.length, errors, throughput,
+                    percentileMillis(0.50), percentileMillis(0.99), percentileMillis(0.999), percentileMillis(1.0));
+        }
+
+        private double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.semavin.microservice.notifications;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Канал доставки для тестов: запоминает доставленные пачки и может отказывать в доставке.
+ */
+public class InMemoryNotificationSink implements NotificationSink {
+    private final List<NotificationBatch> delivered = new CopyOnWriteArrayList<>();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private volatile Consumer<NotificationBatch> beforeDelivery = batch -> { };
+
+    @Override
+    public void deliver(NotificationBatch batch) {
+        attempts.incrementAndGet();
+        beforeDelivery.accept(batch);
+        delivered.add(batch);
+    }
+
+    /**
+     * @param action действие перед доставкой пачки; исключение из него отклоняет доставку
+     */
+    public void beforeDelivery(Consumer<NotificationBatch> action) {
+        this.beforeDelivery = action;
+    }
+
+    public List<NotificationBatch> getDelivered() {
+        return delivered;
+    }
+
+    public int getAttempts() {
+        return attempts.get();
+    }
+
+    /**
+     * @return ID всех получателей в порядке доставки
+     */
+    public long[] deliveredUserIds() {
+        return delivered.stream().flatMapToLong(batch -> java.util.Arrays.stream(batch.userIds())).toArray();
+    }
+}
@@ -0,0 +1,147 @@
+package ru.semavin.microservice.schema;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Тесты для {@link SchemaIndexVerifier}.
+ * <p>
+ * Индексы схемы задаются списком {@link IndexDefinition}, как их возвращает запрос к {@code pg_index}.
+ * </p>
+ */
+public class SchemaIndexVerifierTest {
+
+    /**
+     * Схема, созданная миграциями, выполняет все требования.
+     */
+    @Test
+    @DisplayName("missing_MigratedSchema: Все индексы на месте")
+    void missing_MigratedSchema() {
+        assertThat(verifier(migratedSchema()).missing(migratedSchema())).isEmpty();
+    }
+
+    /**
+     * Схема, созданная ddl-auto, без индекса по lower(email) и индексов подписок по пользователю и дате
+     * не проходит проверку, хотя ограничения называются иначе, чем в миграциях.
+     */
+    @Test
+    @DisplayName("missing_DdlAutoSchema: Находит индексы, которых не создавал ddl-auto")
+    void missing_DdlAutoSchema() {
+        List<IndexDefinition> indexes = List.of(
+                index("users", "users_pkey", true, "id"),
+                index("users", "uk6dotkott2kjsp8vw4d0m25fb7", true, "email"),
+                index("services", "services_pkey", true, "id"),
+                index("services", "uk_services_name", true, "name"),
+                index("subscriptions", "subscriptions_pkey", true, "id"),
+                index("subscriptions", "uk_subscriptions_user_service", true, "user_id", "service_id"),
+                index("subscriptions", "idx_subscriptions_service_user", false, "service_id", "user_id"));
+
+        assertThat(verifier(indexes).missing(indexes))
+                .extracting(RequiredIndex::columns)
+                .containsExactly(List.of("lower(email::text)"), List.of("user_id", "id"), List.of("created_at"));
+    }
+
+    /**
+     * Неуникальный индекс или уникальный по более широкому ключу не выполняет требование уникальности.
+     */
+    @Test
+    @DisplayName("missing_UniqueRequired: Уникальность требует уникальный индекс ровно по столбцам")
+    void missing_UniqueRequired() {
+        RequiredIndex required = new RequiredIndex("users", List.of("email"), true, "уникальность email");
+
+        assertThat(required.isSatisfiedBy(index("users", "idx_users_email", false, "email"))).isFalse();
+        assertThat(required.isSatisfiedBy(index("users", "uk_users_email_name", true, "email", "name"))).isFalse();
+        assertThat(required.isSatisfiedBy(index("users", "uk_users_email", true, "email"))).isTrue();
+    }
+
+    /**
+     * Неуникальное требование выполняет индекс, ключ которого начинается с нужных столбцов.
+     */
+    @Test
+    @DisplayName("missing_PrefixMatch: Подходит индекс с нужным префиксом ключа")
+    void missing_PrefixMatch() {
+        RequiredIndex required = new RequiredIndex("subscriptions", List.of("service_id"), false, "ТОП");
+
+        assertThat(required.isSatisfiedBy(index("subscriptions", "a", false, "service_id", "user_id"))).isTrue();
+        assertThat(required.isSatisfiedBy(index("subscriptions", "b", false, "user_id", "service_id"))).isFalse();
+        assertThat(required.isSatisfiedBy(index("users", "c", false, "service_id"))).isFalse();
+    }
+
+    /**
+     * Невалидный (прерванный CONCURRENTLY) и частичный индексы не учитываются.
+     */
+    @Test
+    @DisplayName("missing_InvalidOrPartial: Невалидный и частичный индексы не подходят")
+    void missing_InvalidOrPartial() {
+        RequiredIndex required = new RequiredIndex("subscriptions", List.of("created_at"), false, "тренды");
+
+        assertThat(required.isSatisfiedBy(new IndexDefinition("subscriptions", "idx_subscriptions_created_at",
+                List.of("created_at"), false, false, false))).isFalse();
+        assertThat(required.isSatisfiedBy(new IndexDefinition("subscriptions", "idx_subscriptions_created_at",
+                List.of("created_at"), false, true, true))).isFalse();
+    }
+
+    /**
+     * Проверка схемы без индекса останавливает запуск и называет недостающий и невалидный индексы.
+     */
+    @Test
+    @DisplayName("verify_MissingIndex: Бросает исключение со списком недостающих индексов")
+    void verify_MissingIndex() {
+        List<IndexDefinition> indexes = new ArrayList<>(migratedSchema());
+        indexes.removeIf(index -> index.name().equals("idx_subscriptions_created_at"));
+        indexes.add(new IndexDefinition("subscriptions", "idx_subscriptions_created_at",
+                List.of("created_at"), false, false, false));
+
+        assertThatThrownBy(() -> verifier(indexes).verify())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("subscriptions (created_at)")
+                .hasMessageContaining("subscriptions.idx_subscriptions_created_at");
+    }
+
+    /**
+     * Проверка схемы со всеми индексами проходит.
+     */
+    @Test
+    @DisplayName("verify_Success: Не бросает исключение для полной схемы")
+    void verify_Success() {
+        assertThatNoException().isThrownBy(() -> verifier(migratedSchema()).verify());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SchemaIndexVerifier verifier(List<IndexDefinition> indexes) {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<IndexDefinition>>any()))
+                .thenReturn(indexes);
+        return new SchemaIndexVerifier(jdbcTemplate);
+    }
+
+    private static List<IndexDefinition> migratedSchema() {
+        return List.of(
+                index("users", "users_pkey", true, "id"),
+                index("users", "uk_users_email", true, "email"),
+                index("users", "uk_users_email_lower", true, "lower(email::text)"),
+                index("services", "services_pkey", true, "id"),
+                index("services", "uk_services_name", true, "name"),
+                index("subscriptions", "subscriptions_pkey", true, "id"),
+                index("subscriptions", "uk_subscriptions_user_service", true, "user_id", "service_id"),
+                index("subscriptions", "idx_subscriptions_service_user_covering", false, "service_id", "user_id"),
+                index("subscriptions", "idx_subscriptions_user_id", false, "user_id", "id"),
+                index("subscriptions", "idx_subscriptions_created_at", false, "created_at"));
+    }
+
+    private static IndexDefinition index(String table, String name, boolean unique, String... columns) {
+        return new IndexDefinition(table, name, List.of(columns), unique, true, false);
+    }
+}
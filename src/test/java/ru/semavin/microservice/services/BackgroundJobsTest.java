@@ -0,0 +1,79 @@
+package ru.semavin.microservice.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.semavin.microservice.dtos.CampaignStatus;
+import ru.semavin.microservice.util.exceptions.JobQueueFullException;
+
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты для {@link BackgroundJobs} и {@link BackgroundJob}.
+ */
+public class BackgroundJobsTest {
+
+    /**
+     * Скорость завершённой задачи считается до момента завершения и больше не меняется.
+     */
+    @Test
+    @DisplayName("perSecond_Finished: Скорость не падает после завершения")
+    void perSecond_Finished() throws InterruptedException {
+        TestJob job = new TestJob();
+        job.start();
+        Thread.sleep(20);
+        job.complete();
+        long rate = job.perSecond(1_000);
+
+        Thread.sleep(50);
+
+        assertThat(job.perSecond(1_000)).isEqualTo(rate).isPositive();
+        assertThat(job.getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+    }
+
+    /**
+     * Задача, которую не приняла очередь, не сохраняется, а вызывающий получает исключение.
+     */
+    @Test
+    @DisplayName("submit_QueueFull: Отклонённая задача не сохраняется")
+    void submit_QueueFull() {
+        BackgroundJobs<TestJob> jobs = new BackgroundJobs<>("задач");
+        TestJob job = new TestJob();
+
+        assertThatThrownBy(() -> jobs.submit(job, task -> {
+            throw new RejectedExecutionException();
+        }, () -> {}, 10))
+                .isInstanceOf(JobQueueFullException.class)
+                .hasMessageContaining("Очередь задач переполнена");
+        assertThat(jobs.get(job.getId())).isNull();
+    }
+
+    /**
+     * Сверх retainedJobs удаляются самые давно завершённые задачи, выполняющиеся остаются.
+     */
+    @Test
+    @DisplayName("submit_EvictsFinished: Хранит не больше retainedJobs задач")
+    void submit_EvictsFinished() {
+        BackgroundJobs<TestJob> jobs = new BackgroundJobs<>("задач");
+        TestJob finished = new TestJob();
+        TestJob running = new TestJob();
+        jobs.submit(finished, Runnable::run, finished::complete, 10);
+        jobs.submit(running, Runnable::run, running::start, 10);
+
+        TestJob latest = new TestJob();
+        jobs.submit(latest, Runnable::run, () -> {}, 2);
+
+        assertThat(jobs.get(finished.getId())).isNull();
+        assertThat(jobs.get(running.getId())).isSameAs(running);
+        assertThat(jobs.get(latest.getId())).isSameAs(latest);
+    }
+
+    private static final class TestJob extends BackgroundJob {
+        TestJob() {
+            super(UUID.randomUUID());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package ru.semavin.microservice.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.semavin.microservice.dtos.CampaignStatus;
+import ru.semavin.microservice.dtos.NotificationDispatchDTO;
+import ru.semavin.microservice.dtos.NotificationRequestDTO;
+import ru.semavin.microservice.notifications.InMemoryNotificationSink;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+import ru.semavin.microservice.util.exceptions.NotificationDispatchNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Тесты для {@link NotificationDispatchService}.
+ * <p>
+ * Получатели отдаются заглушкой репозитория по keyset-запросу, доставка идёт в {@link InMemoryNotificationSink}.
+ * </p>
+ */
+public class NotificationDispatchServiceTest {
+    private static final String SERVICE = "Яндекс.Плюс";
+    private static final int SERVICE_ID = 7;
+    private static final int BATCH_SIZE = 100;
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 2;
+
+    private SubscriptionRepository subscriptionRepository;
+    private InMemoryNotificationSink sink;
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationDispatchService service;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionRepository = Mockito.mock(SubscriptionRepository.class);
+        sink = new InMemoryNotificationSink();
+        meterRegistry = new SimpleMeterRegistry();
+        ServiceNameDictionary serviceNameDictionary = Mockito.mock(ServiceNameDictionary.class);
+        Mockito.when(serviceNameDictionary.findOrAbsent(SERVICE)).thenReturn(SERVICE_ID);
+        service = new NotificationDispatchService(subscriptionRepository, serviceNameDictionary, sink, meterRegistry,
+                WORKERS, QUEUE_CAPACITY, 10);
+        ReflectionTestUtils.setField(service, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(service, "retainedJobs", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    /**
+     * Все подписчики доставляются ровно один раз пачками не больше batch-size.
+     */
+    @Test
+    @DisplayName("start_DeliversAllRecipients: Доставляет всех подписчиков пачками")
+    void start_DeliversAllRecipients() throws InterruptedException {
+        recipients(1_050);
+
+        NotificationDispatchDTO result = awaitFinished(start());
+
+        assertThat(result.getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+        assertThat(result.getScannedRecipients()).isEqualTo(1_050);
+        assertThat(result.getDeliveredRecipients()).isEqualTo(1_050);
+        assertThat(result.getDeliveredBatches()).isEqualTo(11);
+        assertThat(result.getPendingBatches()).isZero();
+        assertThat(sink.getDelivered()).allSatisfy(batch -> {
+            assertThat(batch.userIds().length).isLessThanOrEqualTo(BATCH_SIZE);
+            assertThat(batch.payload()).isEqualTo("Новый сезон");
+        });
+        assertThat(sink.deliveredUserIds()).containsExactlyInAnyOrder(LongStream.rangeClosed(1, 1_050).toArray());
+        assertThat(meterRegistry.get("notifications.recipients").tag("result", "delivered").counter().count())
+                .isEqualTo(1_050);
+    }
+
+    /**
+     * Рассылка без подписчиков завершается сразу.
+     */
+    @Test
+    @DisplayName("start_NoRecipients: Завершает рассылку без подписчиков")
+    void start_NoRecipients() throws InterruptedException {
+        recipients(0);
+
+        NotificationDispatchDTO result = awaitFinished(start());
+
+        assertThat(result.getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+        assertThat(result.getDeliveredRecipients()).isZero();
+        assertThat(sink.getAttempts()).isZero();
+    }
+
+    /**
+     * Пачка с временной ошибкой доставляется повторно и учитывается в повторах.
+     */
+    @Test
+    @DisplayName("start_RetriesTransientFailure: Повторяет пачку после временной ошибки")
+    void start_RetriesTransientFailure() throws InterruptedException {
+        recipients(300);
+        AtomicBoolean failed = new AtomicBoolean();
+        sink.beforeDelivery(batch -> {
+            if (batch.userIds()[0] == 101 && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Канал недоступен");
+            }
+        });
+
+        NotificationDispatchDTO result = awaitFinished(start());
+
+        assertThat(result.getDeliveredRecipients()).isEqualTo(300);
+        assertThat(result.getRetries()).isEqualTo(1);
+        assertThat(result.getFailedRecipients()).isZero();
+        assertThat(meterRegistry.get("notifications.retries").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Пачка, не доставленная за все попытки, считается недоставленной, остальные доставляются.
+     */
+    @Test
+    @DisplayName("start_GivesUpAfterMaxAttempts: Отказывается от пачки после всех попыток")
+    void start_GivesUpAfterMaxAttempts() throws InterruptedException {
+        recipients(300);
+        sink.beforeDelivery(batch -> {
+            if (batch.userIds()[0] == 201) {
+                throw new IllegalStateException("Канал недоступен");
+            }
+        });
+
+        NotificationDispatchDTO result = awaitFinished(start());
+
+        assertThat(result.getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+        assertThat(result.getDeliveredRecipients()).isEqualTo(200);
+        assertThat(result.getFailedRecipients()).isEqualTo(100);
+        assertThat(result.getFailedBatches()).isEqualTo(1);
+        assertThat(result.getRetries()).isEqualTo(2);
+        assertThat(meterRegistry.get("notifications.recipients").tag("result", "failed").counter().count())
+                .isEqualTo(100);
+    }
+
+    /**
+     * Пока обработчики заняты, чтение получателей останавливается: в памяти не больше
+     * workers + queue-capacity пачек.
+     */
+    @Test
+    @DisplayName("start_Backpressure: Не читает получателей быстрее доставки")
+    void start_Backpressure() throws InterruptedException {
+        recipients(10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        sink.beforeDelivery(batch -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        UUID dispatchId = start();
+        Thread.sleep(200);
+        NotificationDispatchDTO blocked = service.getStatus(dispatchId);
+        release.countDown();
+
+        assertThat(blocked.getScannedRecipients()).isLessThanOrEqualTo((long) (WORKERS + QUEUE_CAPACITY + 1) * BATCH_SIZE);
+        assertThat(blocked.getPendingBatches()).isLessThanOrEqualTo(WORKERS + QUEUE_CAPACITY);
+        assertThat(awaitFinished(dispatchId).getDeliveredRecipients()).isEqualTo(10_000);
+    }
+
+    /**
+     * Ошибка чтения получателей завершает рассылку с ошибкой.
+     */
+    @Test
+    @DisplayName("start_ScanFailure: Завершает рассылку с ошибкой при сбое чтения")
+    void start_ScanFailure() throws InterruptedException {
+        Mockito.when(subscriptionRepository.findNotificationRecipients(eq(SERVICE_ID), anyLong(), ArgumentMatchers.any(Limit.class)))
+                .thenThrow(new IllegalStateException("База недоступна"));
+
+        NotificationDispatchDTO result = awaitFinished(start());
+
+        assertThat(result.getStatus()).isEqualTo(CampaignStatus.FAILED);
+        assertThat(result.getError()).isEqualTo("База недоступна");
+    }
+
+    /**
+     * Неизвестная рассылка.
+     */
+    @Test
+    @DisplayName("getStatus_NotFound: Бросает исключение для неизвестной рассылки")
+    void getStatus_NotFound() {
+        assertThatThrownBy(() -> service.getStatus(UUID.randomUUID()))
+                .isInstanceOf(NotificationDispatchNotFoundException.class);
+    }
+
+    private UUID start() {
+        return service.start(new NotificationRequestDTO(SERVICE, "Новый сезон")).getId();
+    }
+
+    /**
+     * Подписчики с ID 1..count; заглушка отвечает на keyset-запрос как база.
+     */
+    private void recipients(int count) {
+        AtomicInteger scans = new AtomicInteger();
+        Mockito.when(subscriptionRepository.findNotificationRecipients(eq(SERVICE_ID), anyLong(), ArgumentMatchers.any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    scans.incrementAndGet();
+                    long afterUserId = invocation.getArgument(1);
+                    Limit limit = invocation.getArgument(2);
+                    return LongStream.rangeClosed(afterUserId + 1, Math.min(count, afterUserId + limit.max()))
+                            .boxed()
+                            .toList();
+                });
+    }
+
+    private NotificationDispatchDTO awaitFinished(UUID dispatchId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        NotificationDispatchDTO status = service.getStatus(dispatchId);
+        while (status.getFinishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = service.getStatus(dispatchId);
+        }
+        assertThat(status.getFinishedAt()).as("рассылка завершилась").isNotNull();
+        return status;
+    }
+}
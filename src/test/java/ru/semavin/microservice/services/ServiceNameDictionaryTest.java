@@ -0,0 +1,158 @@
+package ru.semavin.microservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.semavin.microservice.models.ServiceCatalogEntry;
+import ru.semavin.microservice.repositrories.ServiceCatalogRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Тесты для {@link ServiceNameDictionary}.
+ * <p>
+ * Справочник сервисов отдаётся заглушкой репозитория, транзакции не открываются.
+ * </p>
+ */
+public class ServiceNameDictionaryTest {
+    private ServiceCatalogRepository serviceCatalogRepository;
+    private ServiceNameDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        serviceCatalogRepository = Mockito.mock(ServiceCatalogRepository.class);
+        Mockito.when(serviceCatalogRepository.findAll()).thenReturn(List.of(
+                new ServiceCatalogEntry(1, "Okko"),
+                new ServiceCatalogEntry(2, "Яндекс.Плюс")));
+        PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        Mockito.when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        dictionary = new ServiceNameDictionary(serviceCatalogRepository, transactionManager);
+        dictionary.load();
+    }
+
+    /**
+     * Загруженные сервисы находятся в обе стороны без запросов.
+     */
+    @Test
+    @DisplayName("name_Loaded: Загруженный справочник не обращается к базе")
+    void name_Loaded() {
+        assertThat(dictionary.name(2)).isEqualTo("Яндекс.Плюс").isSameAs(dictionary.name(2));
+        assertThat(dictionary.find("Okko")).contains(1);
+        assertThat(dictionary.findOrAbsent("Netflix")).isEqualTo(ServiceNameDictionary.ABSENT_ID);
+        assertThat(dictionary.findOrAbsent(null)).isNull();
+
+        Mockito.verify(serviceCatalogRepository, Mockito.never()).findById(anyInt());
+        Mockito.verify(serviceCatalogRepository, Mockito.never()).insertIfAbsent(anyString());
+    }
+
+    /**
+     * Сервисы, добавленные другим экземпляром, дочитываются одним перечитыванием справочника,
+     * а не запросом на каждый ID, и дальше берутся из словаря.
+     */
+    @Test
+    @DisplayName("name_AddedElsewhere: Неизвестные ID дочитываются одним запросом")
+    void name_AddedElsewhere() {
+        Mockito.when(serviceCatalogRepository.findAll()).thenReturn(List.of(
+                new ServiceCatalogEntry(1, "Okko"),
+                new ServiceCatalogEntry(2, "Яндекс.Плюс"),
+                new ServiceCatalogEntry(40, "Netflix"),
+                new ServiceCatalogEntry(41, "Кинопоиск")));
+
+        assertThat(dictionary.name(40)).isEqualTo("Netflix");
+        assertThat(dictionary.name(41)).isEqualTo("Кинопоиск");
+        assertThat(dictionary.name(40)).isEqualTo("Netflix");
+        assertThat(dictionary.name(1)).isEqualTo("Okko");
+
+        // первый вызов — загрузка при старте
+        Mockito.verify(serviceCatalogRepository, Mockito.times(2)).findAll();
+        Mockito.verify(serviceCatalogRepository, Mockito.never()).findById(anyInt());
+    }
+
+    /**
+     * Название из словаря без обращения к базе: неизвестный ID не перечитывает справочник.
+     */
+    @Test
+    @DisplayName("cachedName_Unknown: Не обращается к базе для неизвестного ID")
+    void cachedName_Unknown() {
+        assertThat(dictionary.cachedName(1)).contains("Okko");
+        assertThat(dictionary.cachedName(40)).isEmpty();
+        assertThat(dictionary.cachedName(ServiceNameDictionary.ABSENT_ID)).isEmpty();
+
+        Mockito.verify(serviceCatalogRepository, Mockito.times(1)).findAll();
+    }
+
+    /**
+     * ID, которого нет и в базе.
+     */
+    @Test
+    @DisplayName("name_Unknown: Бросает исключение для ID, которого нет в справочнике")
+    void name_Unknown() {
+        assertThatThrownBy(() -> dictionary.name(99)).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Известные сервисы не попадают в запрос, неизвестные ищутся одним запросом.
+     */
+    @Test
+    @DisplayName("findAll_Missing: Ищет в базе только неизвестные сервисы")
+    void findAll_Missing() {
+        Mockito.when(serviceCatalogRepository.findByNameIn(List.of("Netflix", "Кинопоиск")))
+                .thenReturn(List.of(new ServiceCatalogEntry(3, "Netflix")));
+
+        assertThat(dictionary.findAll(List.of("Okko", "Netflix", "Кинопоиск")))
+                .containsOnlyKeys("Okko", "Netflix")
+                .containsEntry("Netflix", 3);
+        assertThat(dictionary.cachedId("Netflix")).contains(3);
+    }
+
+    /**
+     * Новый сервис добавляется в справочник, параллельно добавленный читается повторным запросом.
+     */
+    @Test
+    @DisplayName("resolveAll_New: Добавляет отсутствующие сервисы")
+    void resolveAll_New() {
+        Mockito.when(serviceCatalogRepository.findByNameIn(any())).thenReturn(List.of());
+        Mockito.when(serviceCatalogRepository.insertIfAbsent("Netflix")).thenReturn(Optional.of(3));
+        Mockito.when(serviceCatalogRepository.insertIfAbsent("Кинопоиск")).thenReturn(Optional.empty());
+        Mockito.when(serviceCatalogRepository.findByNameIn(List.of("Кинопоиск")))
+                .thenReturn(List.of(new ServiceCatalogEntry(4, "Кинопоиск")));
+
+        assertThat(dictionary.resolveAll(List.of("Okko", "Netflix", "Кинопоиск")))
+                .containsEntry("Okko", 1)
+                .containsEntry("Netflix", 3)
+                .containsEntry("Кинопоиск", 4);
+        assertThat(dictionary.name(3)).isEqualTo("Netflix");
+        assertThat(dictionary.cachedId("Кинопоиск")).contains(4);
+        Mockito.verify(serviceCatalogRepository, Mockito.never()).insertIfAbsent("Okko");
+    }
+
+    /**
+     * До коммита транзакции название не связывается с ID: после отката сервис ищется заново.
+     */
+    @Test
+    @DisplayName("resolve_BeforeCommit: Название связывается с ID только после коммита")
+    void resolve_BeforeCommit() {
+        Mockito.when(serviceCatalogRepository.insertIfAbsent("Netflix")).thenReturn(Optional.of(3));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(dictionary.resolve("Netflix")).isEqualTo(3);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(dictionary.cachedId("Netflix")).isEmpty();
+        assertThat(dictionary.name(3)).isEqualTo("Netflix");
+    }
+}
@@ -0,0 +1,149 @@
+package ru.semavin.microservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.semavin.microservice.dtos.SubscriptionTopDTO;
+import ru.semavin.microservice.repositrories.SubscriptionRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для {@link SubscriptionCounterStore}.
+ * <p>
+ * Агрегат по подпискам отдаётся заглушкой репозитория. Транзакции ведёт менеджер без базы данных:
+ * коммит и откат вызывают те же callback'и синхронизации, что и {@code JpaTransactionManager}.
+ * </p>
+ */
+public class SubscriptionCounterStoreTest {
+    private SubscriptionRepository subscriptionRepository;
+    private ServiceNameDictionary serviceNameDictionary;
+    private SubscriptionCounterStore store;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionRepository = Mockito.mock(SubscriptionRepository.class);
+        serviceNameDictionary = Mockito.mock(ServiceNameDictionary.class);
+        Mockito.when(subscriptionRepository.countByServiceName()).thenReturn(List.of(
+                new SubscriptionTopDTO("Okko", 3L),
+                new SubscriptionTopDTO("Netflix", 5L),
+                new SubscriptionTopDTO("Кинопоиск", 1L)));
+        store = new SubscriptionCounterStore(subscriptionRepository, serviceNameDictionary);
+        store.rebuild();
+        transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+    }
+
+    /**
+     * При старте счётчики заполняются агрегатом из базы, повторное заполнение заменяет прежние значения.
+     */
+    @Test
+    @DisplayName("rebuild_FromDatabase: Заполняет счётчики агрегатом из базы")
+    void rebuild_FromDatabase() {
+        assertThat(store.top(10)).containsExactly(
+                new SubscriptionTopDTO("Netflix", 5L),
+                new SubscriptionTopDTO("Okko", 3L),
+                new SubscriptionTopDTO("Кинопоиск", 1L));
+        assertThat(store.top(1)).containsExactly(new SubscriptionTopDTO("Netflix", 5L));
+
+        Mockito.when(subscriptionRepository.countByServiceName())
+                .thenReturn(List.of(new SubscriptionTopDTO("Okko", 2L)));
+        store.rebuild();
+
+        assertThat(store.top(10)).containsExactly(new SubscriptionTopDTO("Okko", 2L));
+    }
+
+    /**
+     * Изменения видны только после коммита; сервис без подписчиков пропадает из ТОП-N,
+     * а при равных значениях сервисы упорядочены по названию.
+     */
+    @Test
+    @DisplayName("add_AfterCommit: Изменяет счётчики после коммита транзакции")
+    void add_AfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            store.increment("Кинопоиск");
+            store.increment("Кинопоиск");
+            store.decrement("Netflix");
+            store.add("Okko", 1);
+            store.decrement("Netflix");
+            store.increment("Okko");
+            store.add("Netflix", -3);
+
+            assertThat(store.top(1)).containsExactly(new SubscriptionTopDTO("Netflix", 5L));
+        });
+
+        assertThat(store.top(10)).containsExactly(
+                new SubscriptionTopDTO("Okko", 5L),
+                new SubscriptionTopDTO("Кинопоиск", 3L));
+    }
+
+    /**
+     * Удаление пользователя уменьшает счётчики всех его сервисов после коммита.
+     */
+    @Test
+    @DisplayName("onUserDeleted_AfterCommit: Уменьшает счётчики сервисов удалённого пользователя")
+    void onUserDeleted_AfterCommit() {
+        Mockito.when(subscriptionRepository.findServiceIdsByUserId(7L)).thenReturn(List.of(1, 2));
+        Mockito.when(serviceNameDictionary.name(1)).thenReturn("Netflix");
+        Mockito.when(serviceNameDictionary.name(2)).thenReturn("Кинопоиск");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            store.onUserDeleted(7L);
+
+            assertThat(store.top(10)).hasSize(3);
+        });
+
+        assertThat(store.top(10)).containsExactly(
+                new SubscriptionTopDTO("Netflix", 4L),
+                new SubscriptionTopDTO("Okko", 3L));
+    }
+
+    /**
+     * После отката транзакции счётчики не меняются.
+     */
+    @Test
+    @DisplayName("add_Rollback: Не изменяет счётчики при откате транзакции")
+    void add_Rollback() {
+        Mockito.when(subscriptionRepository.findServiceIdsByUserId(7L)).thenReturn(List.of(1));
+        Mockito.when(serviceNameDictionary.name(1)).thenReturn("Netflix");
+        List<SubscriptionTopDTO> before = store.top(10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            store.increment("Okko");
+            store.add("Кинопоиск", -1);
+            store.onUserDeleted(7L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(store.top(10)).isEqualTo(before);
+    }
+
+    /**
+     * Транзакционный менеджер без ресурсов: только жизненный цикл транзакции и синхронизации.
+     */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ru.semavin.microservice.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.semavin.microservice.repositrories.UserRepository;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Тесты для {@link UserEmailRegistry}.
+ * <p>
+ * Email существующих пользователей отдаются заглушкой репозитория, поиск по email подсчитывает свои вызовы.
+ * </p>
+ */
+public class UserEmailRegistryTest {
+    private SimpleMeterRegistry meterRegistry;
+    private UserRepository userRepository;
+    private UserEmailRegistry registry;
+    private AtomicInteger lookups;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.count()).thenReturn(2L);
+        Mockito.when(userRepository.streamAllEmails())
+                .thenAnswer(invocation -> Stream.of("Ivan@Example.com", "petr@example.com"));
+        PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        Mockito.when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        registry = new UserEmailRegistry(userRepository, transactionManager, meterRegistry, true, 1000, 0.01);
+        registry.rebuild();
+        lookups = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    /**
+     * Email, которого нет в фильтре, не ищется в базе.
+     */
+    @Test
+    @DisplayName("find_Absent: Свободный email не ищется в базе")
+    void find_Absent() {
+        assertThat(registry.find("new@example.com", this::lookup)).isEmpty();
+
+        assertThat(lookups).hasValue(0);
+        assertThat(lookups("skipped")).isEqualTo(1);
+    }
+
+    /**
+     * Email из базы ищется без учёта регистра и пробелов.
+     */
+    @Test
+    @DisplayName("find_Existing: Email существующего пользователя ищется по нормализованному значению")
+    void find_Existing() {
+        assertThat(registry.find(" IVAN@example.COM ", email -> {
+            lookups.incrementAndGet();
+            return Optional.of(email);
+        })).contains("ivan@example.com");
+
+        assertThat(lookups).hasValue(1);
+        assertThat(lookups("found")).isEqualTo(1);
+    }
+
+    /**
+     * Email, добавленный после заполнения, тоже ищется в базе; если его там нет, это ложное срабатывание.
+     */
+    @Test
+    @DisplayName("find_Added: Добавленный email ищется в базе")
+    void find_Added() {
+        registry.add("New@Example.com");
+
+        assertThat(registry.find("new@example.com", this::lookup)).isEmpty();
+        assertThat(lookups).hasValue(1);
+        assertThat(lookups("false_positive")).isEqualTo(1);
+    }
+
+    /**
+     * Email, добавленный незадолго до пересборки, остаётся в новом фильтре, даже если чтение из базы
+     * его ещё не видело.
+     */
+    @Test
+    @DisplayName("rebuild_RecentlyAdded: Пересборка сохраняет недавно добавленные email")
+    void rebuild_RecentlyAdded() {
+        registry.add("new@example.com");
+
+        registry.rebuild();
+
+        registry.find("new@example.com", this::lookup);
+        assertThat(lookups).hasValue(1);
+    }
+
+    /**
+     * Когда добавленных и устаревших email больше, чем рассчитан фильтр, он пересобирается в фоне.
+     */
+    @Test
+    @DisplayName("add_Saturated: Переполненный фильтр пересобирается")
+    void add_Saturated() {
+        // С запасом: email, все биты которого уже выставлены, не считается добавленным
+        for (int i = 0; i < 1100; i++) {
+            registry.add("user" + i + "@example.com");
+        }
+
+        Mockito.verify(userRepository, Mockito.timeout(5000).atLeast(2)).streamAllEmails();
+    }
+
+    /**
+     * Выключенный фильтр не пропускает ни одного поиска.
+     */
+    @Test
+    @DisplayName("find_Disabled: Без фильтра email всегда ищется в базе")
+    void find_Disabled() {
+        UserEmailRegistry disabled = new UserEmailRegistry(userRepository,
+                Mockito.mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), false, 1000, 0.01);
+        disabled.rebuild();
+
+        disabled.find("new@example.com", this::lookup);
+
+        assertThat(lookups).hasValue(1);
+        Mockito.verify(userRepository, Mockito.times(1)).streamAllEmails();
+        disabled.shutdown();
+    }
+
+    private Optional<Long> lookup(String email) {
+        lookups.incrementAndGet();
+        return Optional.empty();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("users.email.lookups").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,96 @@
+package ru.semavin.microservice.sql;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверки числа SQL-запросов для тестов.
+ * <p>
+ * Для MockMvc с настоящим контекстом приложения используется заголовок
+ * {@link SqlStatementCountingFilter#STATEMENT_COUNT_HEADER}, для кода сервисов и репозиториев —
+ * область {@link SqlStatementCounter}. Запросы считаются, только если {@code DataSource}
+ * обёрнут {@link SqlStatementListener} (конфигурация {@code SqlStatementConfig}).
+ * </p>
+ */
+public final class SqlStatementAssertions {
+    /**
+     * Приватный конструктор, чтобы предотвратить создание экземпляра.
+     */
+    private SqlStatementAssertions() {}
+
+    /**
+     * Ожидает ровно {@code expected} SQL-запросов в обработке HTTP-запроса.
+     */
+    public static ResultMatcher sqlStatementCount(long expected) {
+        return result -> assertThat(headerValue(result.getResponse().getHeader(SqlStatementCountingFilter.STATEMENT_COUNT_HEADER)))
+                .as("Число SQL-запросов")
+                .isEqualTo(expected);
+    }
+
+    /**
+     * Ожидает не больше {@code max} SQL-запросов в обработке HTTP-запроса.
+     */
+    public static ResultMatcher sqlStatementCountAtMost(long max) {
+        return result -> assertThat(headerValue(result.getResponse().getHeader(SqlStatementCountingFilter.STATEMENT_COUNT_HEADER)))
+                .as("Число SQL-запросов")
+                .isLessThanOrEqualTo(max);
+    }
+
+    /**
+     * Ожидает не больше SQL-запросов, чем разрешает {@link SqlStatementBudget} обработчика HTTP-запроса.
+     */
+    public static ResultMatcher withinSqlStatementBudget() {
+        return result -> {
+            assertThat(result.getHandler()).as("Обработчик запроса").isInstanceOf(HandlerMethod.class);
+            HandlerMethod handler = (HandlerMethod) result.getHandler();
+            SqlStatementBudget budget = handler.getMethodAnnotation(SqlStatementBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), SqlStatementBudget.class);
+            }
+            assertThat(budget).as("@SqlStatementBudget у %s", handler.getShortLogMessage()).isNotNull();
+            assertThat(headerValue(result.getResponse().getHeader(SqlStatementCountingFilter.STATEMENT_COUNT_HEADER)))
+                    .as("Число SQL-запросов %s", handler.getShortLogMessage())
+                    .isLessThanOrEqualTo(budget.value());
+        };
+    }
+
+    /**
+     * Выполняет действие и проверяет, что оно выполнило ровно {@code expected} SQL-запросов.
+     *
+     * @return результат действия
+     */
+    public static <T> T assertSqlStatements(long expected, Supplier<T> action) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            T result = action.get();
+            assertThat(scope.count())
+                    .as("Число SQL-запросов, выполненных запросами %s", scope.repeatedStatements(1).keySet())
+                    .isEqualTo(expected);
+            return result;
+        }
+    }
+
+    /**
+     * Выполняет действие и проверяет, что ни один SQL-запрос не повторился {@code threshold} раз и более.
+     */
+    public static <T> T assertNoRepeatedStatements(long threshold, Supplier<T> action) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            T result = action.get();
+            assertThat(scope.repeatedStatements(threshold))
+                    .as("Повторяющиеся SQL-запросы (возможная проблема N+1)")
+                    .isEmpty();
+            return result;
+        }
+    }
+
+    private static long headerValue(String header) {
+        assertThat(header)
+                .as("Заголовок %s: фильтр подсчёта SQL-запросов не подключён", SqlStatementCountingFilter.STATEMENT_COUNT_HEADER)
+                .isNotNull();
+        return Long.parseLong(header);
+    }
+}
@@ -0,0 +1,174 @@
+package ru.semavin.microservice.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static ru.semavin.microservice.sql.SqlStatementAssertions.assertSqlStatements;
+
+/**
+ * Тесты для {@link SqlStatementCountingFilter} и {@link SqlStatementCounter}.
+ * <p>
+ * Запросы выполняются через datasource-proxy поверх заглушки JDBC, поэтому база данных не нужна.
+ * </p>
+ */
+public class SqlStatementCountingFilterTest {
+    private static final String SELECT_USER = "select * from users where id = ?";
+    private static final String SELECT_SUBSCRIPTIONS = "select * from subscriptions where user_id = ?";
+
+    private DataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    private SqlStatementCountingFilter filter;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource target = Mockito.mock(DataSource.class);
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(target.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(Mockito.mock(ResultSet.class));
+        dataSource = ProxyDataSourceBuilder.create(target).listener(new SqlStatementListener(true)).build();
+
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SqlStatementCountingFilter(meterRegistry, 2, 3, true);
+    }
+
+    /**
+     * Запросы, выполненные до записи тела, попадают в заголовок и в метрику эндпоинта.
+     */
+    @Test
+    @DisplayName("doFilter_CountsStatements: Отдаёт число SQL-запросов в заголовке и метрике")
+    void doFilter_CountsStatements() throws Exception {
+        MockHttpServletRequest request = request("/api/v1/users/{id}", null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            query(SELECT_USER);
+            query(SELECT_SUBSCRIPTIONS);
+            res.getWriter().write("{}");
+        });
+
+        assertThat(response.getHeader(SqlStatementCountingFilter.STATEMENT_COUNT_HEADER)).isEqualTo("2");
+        assertThat(meterRegistry.get("http.server.requests.sql.statements")
+                .tag("uri", "/api/v1/users/{id}").summary().totalAmount()).isEqualTo(2);
+    }
+
+    /**
+     * Ответ без тела тоже получает заголовок.
+     */
+    @Test
+    @DisplayName("doFilter_NoBody: Выставляет заголовок для ответа без тела")
+    void doFilter_NoBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("/api/v1/users/{id}", null), response, (req, res) -> query(SELECT_USER));
+
+        assertThat(response.getHeader(SqlStatementCountingFilter.STATEMENT_COUNT_HEADER)).isEqualTo("1");
+    }
+
+    /**
+     * Бюджет из {@link SqlStatementBudget} на методе контроллера важнее бюджета по умолчанию.
+     */
+    @Test
+    @DisplayName("doFilter_BudgetExceeded: Учитывает превышение бюджета из аннотации")
+    void doFilter_BudgetExceeded() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new BudgetedController(), "getUser");
+
+        filter.doFilter(request("/api/v1/users/{id}", handler), new MockHttpServletResponse(), (req, res) -> {
+            query(SELECT_USER);
+            query(SELECT_SUBSCRIPTIONS);
+        });
+
+        assertThat(meterRegistry.get("http.server.requests.sql.budget.exceeded")
+                .tag("uri", "/api/v1/users/{id}").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Запросы в пределах бюджета по умолчанию не считаются превышением.
+     */
+    @Test
+    @DisplayName("doFilter_WithinBudget: Не учитывает запросы в пределах бюджета")
+    void doFilter_WithinBudget() throws Exception {
+        filter.doFilter(request("/api/v1/users/{id}", null), new MockHttpServletResponse(),
+                (req, res) -> query(SELECT_USER));
+
+        assertThat(meterRegistry.find("http.server.requests.sql.budget.exceeded").counter()).isNull();
+    }
+
+    /**
+     * Один и тот же запрос, повторённый в цикле, распознаётся как возможная проблема N+1,
+     * а места вызова указывают на код приложения.
+     */
+    @Test
+    @DisplayName("scope_RepeatedStatements: Находит повторяющиеся запросы и места вызова")
+    void scope_RepeatedStatements() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            query(SELECT_USER);
+            for (int i = 0; i < 3; i++) {
+                query(SELECT_SUBSCRIPTIONS);
+            }
+
+            assertThat(scope.count()).isEqualTo(4);
+            assertThat(scope.repeatedStatements(3)).containsExactly(Map.entry(SELECT_SUBSCRIPTIONS, 3L));
+            assertThat(scope.callSites().keySet())
+                    .allMatch(callSite -> callSite.startsWith("SqlStatementCountingFilterTest.query:"));
+        }
+    }
+
+    /**
+     * Вложенная область учитывает только свои запросы, внешняя — все.
+     */
+    @Test
+    @DisplayName("assertSqlStatements_Nested: Вложенные области считают запросы независимо")
+    void assertSqlStatements_Nested() {
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.start()) {
+            query(SELECT_USER);
+            assertSqlStatements(2, () -> {
+                query(SELECT_USER);
+                query(SELECT_SUBSCRIPTIONS);
+                return null;
+            });
+
+            assertThat(outer.count()).isEqualTo(3);
+        }
+    }
+
+    private static MockHttpServletRequest request(String pattern, HandlerMethod handler) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+        return request;
+    }
+
+    private void query(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeQuery();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class BudgetedController {
+        @SqlStatementBudget(1)
+        public void getUser() {
+        }
+    }
+}
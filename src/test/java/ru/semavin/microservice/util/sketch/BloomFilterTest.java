@@ -0,0 +1,61 @@
+package ru.semavin.microservice.util.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для {@link BloomFilter}.
+ */
+public class BloomFilterTest {
+
+    /**
+     * Добавленный ключ всегда находится: ложноотрицательных ответов у фильтра нет.
+     */
+    @Test
+    @DisplayName("mightContain_Added: Находит все добавленные ключи")
+    void mightContain_Added() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+
+        assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain("user" + i + "@example.com"));
+        // Ключ, все биты которого уже выставлены другими, новым не считается
+        assertThat(filter.insertions()).isBetween(9_900L, 10_000L);
+    }
+
+    /**
+     * Доля ложных срабатываний заполненного фильтра близка к расчётной, и её оценка по заполненности
+     * совпадает с наблюдаемой.
+     */
+    @Test
+    @DisplayName("mightContain_FalsePositiveRate: Ложные срабатывания не превышают расчётную долю")
+    void mightContain_FalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("absent" + i + "@example.com"))
+                .count();
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.015);
+        assertThat(filter.falsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    /**
+     * Повторное добавление ключа не меняет фильтр и не учитывается в числе добавленных.
+     */
+    @Test
+    @DisplayName("put_Duplicate: Повторный ключ не считается новым")
+    void put_Duplicate() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertThat(filter.put("test@example.com")).isTrue();
+        assertThat(filter.put("test@example.com")).isFalse();
+        assertThat(filter.insertions()).isEqualTo(1);
+        assertThat(filter.mightContain("other@example.com")).isFalse();
+    }
+}
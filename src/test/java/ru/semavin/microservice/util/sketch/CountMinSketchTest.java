@@ -0,0 +1,56 @@
+package ru.semavin.microservice.util.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для {@link CountMinSketch}.
+ */
+public class CountMinSketchTest {
+
+    /**
+     * Оценка не меньше реальной частоты, в том числе по нескольким скетчам.
+     */
+    @Test
+    @DisplayName("estimate_NeverUnderestimates: Оценка не меньше реальной частоты")
+    void estimate_NeverUnderestimates() {
+        CountMinSketch first = new CountMinSketch(4, 1024);
+        CountMinSketch second = new CountMinSketch(4, 1024);
+        IntStream.range(0, 500).forEach(i -> first.add("service-" + i, i % 7 + 1));
+        IntStream.range(0, 500).forEach(i -> second.add("service-" + i, 1));
+
+        assertThat(IntStream.range(0, 500)).allMatch(i -> first.estimate("service-" + i) >= i % 7 + 1);
+        assertThat(CountMinSketch.estimate("service-3", List.of(first, second))).isGreaterThanOrEqualTo(5);
+    }
+
+    /**
+     * Ключи с одинаковым {@link String#hashCode()} не попадают в одни и те же счётчики:
+     * оценка каждого остаётся в пределах ошибки скетча.
+     */
+    @Test
+    @DisplayName("estimate_SameHashCode: Ключи с одинаковым hashCode не складываются")
+    void estimate_SameHashCode() {
+        // "Aa" и "BB" имеют одинаковый hashCode, поэтому и любые их конкатенации одной длины
+        List<String> keys = IntStream.range(0, 1024)
+                .mapToObj(mask -> {
+                    StringBuilder key = new StringBuilder();
+                    for (int bit = 0; bit < 10; bit++) {
+                        key.append((mask >>> bit & 1) == 0 ? "Aa" : "BB");
+                    }
+                    return key.toString();
+                })
+                .toList();
+        assertThat(keys).extracting(String::hashCode).containsOnly(keys.get(0).hashCode());
+
+        CountMinSketch sketch = new CountMinSketch(4, 2048);
+        keys.forEach(key -> sketch.add(key, 1));
+
+        // Граница ошибки: e / width * 1024 ≈ 1.4
+        assertThat(keys).allMatch(key -> sketch.estimate(key) <= 3);
+    }
+}